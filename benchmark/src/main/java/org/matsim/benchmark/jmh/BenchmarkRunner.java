@@ -0,0 +1,65 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH micro benchmarks of this package and writes the results as JSON, so they can be compared between
+ * commits, e.g. with <a href="https://jmh.morethan.io">JMH Visualizer</a>.
+ * <p>
+ * All the usual JMH command line options are supported.  Without a benchmark pattern, all benchmarks of this
+ * package are run; without <code>-rff</code>, the results are written to <code>jmh-result.json</code>.  Examples:
+ * <pre>
+ * java -cp matsim-benchmark.jar org.matsim.benchmark.jmh.BenchmarkRunner
+ * java -cp matsim-benchmark.jar org.matsim.benchmark.jmh.BenchmarkRunner LeastCostPath -p algorithm=alt -rff alt.json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include(BenchmarkRunner.class.getPackage().getName() + "\\..*Benchmark");
+		}
+		if (!commandLine.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLine.getResult().hasValue()) {
+			builder.result(DEFAULT_RESULT_FILE);
+		}
+		Options options = builder.parent(commandLine).build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,102 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and parses the xml events of one QSim run of the synthetic population.  The files are kept in memory, so
+ * the results do not depend on the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventsIOBenchmark {
+
+	@Param({"10000"})
+	public int numberOfPersons;
+
+	private final List<Event> events = new ArrayList<>();
+	private byte[] xmlEvents;
+
+	@Setup
+	public void setup() {
+		Scenario scenario = SyntheticScenario.createScenario(50);
+		SyntheticScenario.createPopulation(scenario.getPopulation(), scenario.getNetwork(), this.numberOfPersons, 4711);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) this.events::add);
+		new QSimBuilder(scenario.getConfig()).useDefaults().build(scenario, eventsManager).run();
+		this.xmlEvents = writeEvents();
+	}
+
+	@Benchmark
+	public byte[] writeEvents() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(this.xmlEvents == null ? 1024 * 1024 : this.xmlEvents.length);
+		EventWriterXML writer = new EventWriterXML(out);
+		for (Event event : this.events) {
+			writer.handleEvent(event);
+		}
+		writer.closeFile();
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public void parseEvents(Blackhole blackhole) {
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) blackhole::consume);
+		eventsManager.initProcessing();
+		new MatsimEventsReader(eventsManager).readStream(new ByteArrayInputStream(this.xmlEvents), ControlerConfigGroup.EventsFileFormat.xml);
+		eventsManager.finishProcessing();
+	}
+
+}
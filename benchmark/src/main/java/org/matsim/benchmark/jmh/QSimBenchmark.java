@@ -0,0 +1,83 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the default QSim for one full day of the routed synthetic population, without any event handlers attached.
+ * The number of simulated steps is fixed by the qsim end time, so the score is proportional to the sim-step time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QSimBenchmark {
+
+	@Param({"50"})
+	public int gridSize;
+
+	@Param({"10000", "50000"})
+	public int numberOfPersons;
+
+	@Param({"1", "4"})
+	public int numberOfThreads;
+
+	private Scenario scenario;
+
+	@Setup
+	public void setup() {
+		this.scenario = SyntheticScenario.createScenario(this.gridSize);
+		this.scenario.getConfig().qsim().setNumberOfThreads(this.numberOfThreads);
+		// treat the population as a sample of 100'000 persons, so the level of congestion does not depend on its size
+		this.scenario.getConfig().qsim().setFlowCapFactor(this.numberOfPersons / 100_000.0);
+		this.scenario.getConfig().qsim().setStorageCapFactor(this.numberOfPersons / 100_000.0);
+		SyntheticScenario.createPopulation(this.scenario.getPopulation(), this.scenario.getNetwork(), this.numberOfPersons, 4711);
+		PrepareForSimUtils.createDefaultPrepareForSim(this.scenario).run();
+	}
+
+	@Benchmark
+	public void runQSim() {
+		new QSimBuilder(this.scenario.getConfig())
+				.useDefaults()
+				.build(this.scenario, EventsUtils.createEventsManager())
+				.run();
+	}
+
+}
@@ -0,0 +1,93 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.scoring.ScoringFunction;
+import org.matsim.core.scoring.ScoringFunctionFactory;
+import org.matsim.core.scoring.functions.CharyparNagelScoringFunctionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores the selected plans of the routed synthetic population with the default Charypar-Nagel scoring function.
+ * The score is the time per person, including the creation of the scoring function.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+	private static final int NUMBER_OF_PERSONS = 10_000;
+
+	private ScoringFunctionFactory scoringFunctionFactory;
+	private final List<Person> persons = new ArrayList<>(NUMBER_OF_PERSONS);
+
+	@Setup
+	public void setup() {
+		Scenario scenario = SyntheticScenario.createScenario(50);
+		SyntheticScenario.createPopulation(scenario.getPopulation(), scenario.getNetwork(), NUMBER_OF_PERSONS, 4711);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		this.scoringFunctionFactory = new CharyparNagelScoringFunctionFactory(scenario);
+		this.persons.addAll(scenario.getPopulation().getPersons().values());
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_PERSONS)
+	public double scorePlans() {
+		double sum = 0;
+		for (Person person : this.persons) {
+			ScoringFunction scoringFunction = this.scoringFunctionFactory.createNewScoringFunction(person);
+			for (PlanElement planElement : person.getSelectedPlan().getPlanElements()) {
+				if (planElement instanceof Activity) {
+					scoringFunction.handleActivity((Activity) planElement);
+				} else {
+					scoringFunction.handleLeg((Leg) planElement);
+				}
+			}
+			scoringFunction.finish();
+			sum += scoringFunction.getScore();
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,105 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import ch.sbb.matsim.routing.pt.raptor.RaptorUtils;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptor;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.router.DefaultRoutingRequest;
+import org.matsim.core.utils.collections.Tuple;
+import org.matsim.facilities.FacilitiesUtils;
+import org.matsim.facilities.Facility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point queries between random locations on the grid, served by a transit schedule with lines along every
+ * fifth row and column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwissRailRaptorBenchmark {
+
+	private static final int NUMBER_OF_QUERIES = 1024;
+	private static final int LINE_SPACING = 5;
+
+	@Param({"50", "100"})
+	public int gridSize;
+
+	@Param({"600"})
+	public double headway;
+
+	private SwissRailRaptor raptor;
+	private final List<Tuple<Facility, Facility>> queries = new ArrayList<>();
+	private final double[] departureTimes = new double[NUMBER_OF_QUERIES];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		Scenario scenario = SyntheticScenario.createScenario(this.gridSize);
+		SyntheticScenario.createTransitSchedule(scenario.getTransitSchedule(), scenario.getNetwork(), this.gridSize, LINE_SPACING, this.headway);
+		SwissRailRaptorData data = SwissRailRaptorData.create(scenario.getTransitSchedule(), null,
+				RaptorUtils.createStaticConfig(scenario.getConfig()), scenario.getNetwork(), null);
+		this.raptor = new SwissRailRaptor.Builder(data, scenario.getConfig()).build();
+
+		List<Link> links = new ArrayList<>(scenario.getNetwork().getLinks().values());
+		Random random = new Random(4711);
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			this.queries.add(new Tuple<>(randomFacility(links, random), randomFacility(links, random)));
+			this.departureTimes[i] = 6 * 3600 + random.nextInt(12 * 3600);
+		}
+	}
+
+	@Benchmark
+	public List<? extends PlanElement> calcRoute() {
+		int i = this.next;
+		this.next = (i + 1) % NUMBER_OF_QUERIES;
+		Tuple<Facility, Facility> query = this.queries.get(i);
+		return this.raptor.calcRoute(DefaultRoutingRequest.withoutAttributes(query.getFirst(), query.getSecond(), this.departureTimes[i], null));
+	}
+
+	private static Facility randomFacility(List<Link> links, Random random) {
+		Link link = links.get(random.nextInt(links.size()));
+		return FacilitiesUtils.wrapLinkAndCoord(link, link.getCoord());
+	}
+
+}
@@ -0,0 +1,217 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitScheduleFactory;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates synthetic scenarios of configurable size for the benchmarks: a square grid network with bidirectional
+ * links, a population of home-work-home car commuters between random links, and a transit schedule with lines along
+ * every n-th row and column of the grid.  Everything is created from a fixed seed, so repeated runs (and runs on
+ * different commits) work on exactly the same data.
+ */
+public final class SyntheticScenario {
+
+	public static final double NODE_SPACING = 200.0;
+	public static final double FREESPEED = 13.89;
+	public static final double CAPACITY = 1800.0;
+
+	private static final double ESTIMATED_SPEED = 8.0;
+	private static final double BEELINE_FACTOR = 1.3;
+
+	private SyntheticScenario() {
+	}
+
+	public static Config createConfig() {
+		Config config = ConfigUtils.createConfig();
+		config.controler().setLastIteration(0);
+		config.global().setNumberOfThreads(1);
+		config.qsim().setEndTime(30 * 3600);
+		config.planCalcScore().addActivityParams(new ActivityParams("home").setTypicalDuration(14 * 3600));
+		config.planCalcScore().addActivityParams(new ActivityParams("work").setTypicalDuration(8 * 3600)
+				.setOpeningTime(6 * 3600).setClosingTime(20 * 3600));
+		return config;
+	}
+
+	/**
+	 * @param gridSize number of nodes per row and column
+	 */
+	public static Scenario createScenario(int gridSize) {
+		Scenario scenario = ScenarioUtils.createScenario(createConfig());
+		createGridNetwork(scenario.getNetwork(), gridSize);
+		return scenario;
+	}
+
+	public static void createGridNetwork(Network network, int gridSize) {
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				NetworkUtils.createAndAddNode(network, nodeId(x, y), new Coord(x * NODE_SPACING, y * NODE_SPACING));
+			}
+		}
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				if (x + 1 < gridSize) {
+					addLinkPair(network, x, y, x + 1, y);
+				}
+				if (y + 1 < gridSize) {
+					addLinkPair(network, x, y, x, y + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds persons with a home-work-home plan between two random links.  The legs are not routed; use
+	 * {@link org.matsim.core.controler.PrepareForSimUtils} if routes are required.  Activity start times and leg
+	 * times are set from a beeline estimate, so the plans can also be scored directly.
+	 */
+	public static void createPopulation(Population population, Network network, int numberOfPersons, long seed) {
+		Random random = new Random(seed);
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		PopulationFactory factory = population.getFactory();
+		for (int i = 0; i < numberOfPersons; i++) {
+			Link homeLink = links.get(random.nextInt(links.size()));
+			Link workLink = links.get(random.nextInt(links.size()));
+			double travelTime = BEELINE_FACTOR * CoordUtils.calcEuclideanDistance(homeLink.getCoord(), workLink.getCoord()) / ESTIMATED_SPEED;
+			double homeEndTime = 6 * 3600 + random.nextInt(3 * 3600);
+			double workEndTime = homeEndTime + travelTime + 7 * 3600 + random.nextInt(2 * 3600);
+
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Activity home = PopulationUtils.createActivityFromCoordAndLinkId("home", homeLink.getCoord(), homeLink.getId());
+			home.setEndTime(homeEndTime);
+			plan.addActivity(home);
+			plan.addLeg(createLeg(factory, homeEndTime, travelTime));
+			Activity work = PopulationUtils.createActivityFromCoordAndLinkId("work", workLink.getCoord(), workLink.getId());
+			work.setStartTime(homeEndTime + travelTime);
+			work.setEndTime(workEndTime);
+			plan.addActivity(work);
+			plan.addLeg(createLeg(factory, workEndTime, travelTime));
+			Activity home2 = PopulationUtils.createActivityFromCoordAndLinkId("home", homeLink.getCoord(), homeLink.getId());
+			home2.setStartTime(workEndTime + travelTime);
+			plan.addActivity(home2);
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+	}
+
+	/**
+	 * Adds a bus line in both directions along every <code>lineSpacing</code>-th row and column of the grid network,
+	 * stopping at every node and departing every <code>headway</code> seconds between 05:00 and 23:00.
+	 */
+	public static void createTransitSchedule(TransitSchedule schedule, Network network, int gridSize, int lineSpacing, double headway) {
+		for (int i = 0; i < gridSize; i += lineSpacing) {
+			int[] ascending = new int[gridSize];
+			int[] descending = new int[gridSize];
+			int[] constant = new int[gridSize];
+			for (int j = 0; j < gridSize; j++) {
+				ascending[j] = j;
+				descending[j] = gridSize - 1 - j;
+				constant[j] = i;
+			}
+			addLine(schedule, network, "row" + i + "_east", ascending, constant, headway);
+			addLine(schedule, network, "row" + i + "_west", descending, constant, headway);
+			addLine(schedule, network, "col" + i + "_north", constant, ascending, headway);
+			addLine(schedule, network, "col" + i + "_south", constant, descending, headway);
+		}
+	}
+
+	public static Id<Node> nodeId(int x, int y) {
+		return Id.createNodeId(x + "_" + y);
+	}
+
+	public static Id<Link> linkId(int fromX, int fromY, int toX, int toY) {
+		return Id.createLinkId(fromX + "_" + fromY + "-" + toX + "_" + toY);
+	}
+
+	private static Leg createLeg(PopulationFactory factory, double departureTime, double travelTime) {
+		Leg leg = factory.createLeg(TransportMode.car);
+		leg.setDepartureTime(departureTime);
+		leg.setTravelTime(travelTime);
+		return leg;
+	}
+
+	private static void addLinkPair(Network network, int x1, int y1, int x2, int y2) {
+		Node a = network.getNodes().get(nodeId(x1, y1));
+		Node b = network.getNodes().get(nodeId(x2, y2));
+		NetworkUtils.createAndAddLink(network, linkId(x1, y1, x2, y2), a, b, NODE_SPACING, FREESPEED, CAPACITY, 1);
+		NetworkUtils.createAndAddLink(network, linkId(x2, y2, x1, y1), b, a, NODE_SPACING, FREESPEED, CAPACITY, 1);
+	}
+
+	private static void addLine(TransitSchedule schedule, Network network, String name, int[] xs, int[] ys, double headway) {
+		TransitScheduleFactory factory = schedule.getFactory();
+		List<Id<Link>> linkIds = new ArrayList<>();
+		List<TransitRouteStop> stops = new ArrayList<>();
+		double linkTravelTime = Math.ceil(NODE_SPACING / ESTIMATED_SPEED);
+		for (int i = 1; i < xs.length; i++) {
+			Id<Link> linkId = linkId(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+			linkIds.add(linkId);
+			Id<TransitStopFacility> stopId = Id.create(name + "_" + i, TransitStopFacility.class);
+			TransitStopFacility stop = factory.createTransitStopFacility(stopId, network.getLinks().get(linkId).getToNode().getCoord(), false);
+			stop.setLinkId(linkId);
+			schedule.addStopFacility(stop);
+			double offset = (i - 1) * linkTravelTime;
+			stops.add(factory.createTransitRouteStop(stop, offset, offset));
+		}
+		TransitRoute route = factory.createTransitRoute(Id.create(name, TransitRoute.class),
+				RouteUtils.createNetworkRoute(linkIds), stops, "bus");
+		int departureIndex = 0;
+		for (double time = 5 * 3600; time < 23 * 3600; time += headway) {
+			Departure departure = factory.createDeparture(Id.create(departureIndex++, Departure.class), time);
+			route.addDeparture(departure);
+		}
+		TransitLine line = factory.createTransitLine(Id.create(name, TransitLine.class));
+		line.addRoute(route);
+		schedule.addTransitLine(line);
+	}
+
+}
@@ -0,0 +1,118 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark.jmh;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
+import org.matsim.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds pre-generated link enter and leave events of vehicles driving random walks through the grid into a new
+ * {@link TravelTimeCalculator}.  The score is the time per event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TravelTimeCalculatorBenchmark {
+
+	private static final int NUMBER_OF_EVENTS = 500_000;
+	private static final int LINKS_PER_VEHICLE = 50;
+
+	@Param({"100"})
+	public int gridSize;
+
+	@Param({"false", "true"})
+	public boolean linkToLinkTravelTimes;
+
+	private Network network;
+	private TravelTimeCalculatorConfigGroup ttConfig;
+	private final List<Event> events = new ArrayList<>(NUMBER_OF_EVENTS);
+
+	@Setup
+	public void setup() {
+		Scenario scenario = SyntheticScenario.createScenario(this.gridSize);
+		this.network = scenario.getNetwork();
+		this.ttConfig = scenario.getConfig().travelTimeCalculator();
+		this.ttConfig.setCalculateLinkToLinkTravelTimes(this.linkToLinkTravelTimes);
+
+		List<Node> nodes = new ArrayList<>(this.network.getNodes().values());
+		Random random = new Random(4711);
+		int vehicleIndex = 0;
+		while (this.events.size() < NUMBER_OF_EVENTS) {
+			Id<Vehicle> vehicleId = Id.createVehicleId(vehicleIndex++);
+			Node node = nodes.get(random.nextInt(nodes.size()));
+			double time = 5 * 3600 + random.nextInt(18 * 3600);
+			for (int i = 0; i < LINKS_PER_VEHICLE && this.events.size() < NUMBER_OF_EVENTS; i++) {
+				List<Link> outLinks = new ArrayList<>(node.getOutLinks().values());
+				Link link = outLinks.get(random.nextInt(outLinks.size()));
+				this.events.add(new LinkEnterEvent(time, vehicleId, link.getId()));
+				time += link.getLength() / link.getFreespeed() + random.nextInt(30);
+				this.events.add(new LinkLeaveEvent(time, vehicleId, link.getId()));
+				node = link.getToNode();
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_EVENTS)
+	public TravelTimeCalculator handleEvents() {
+		TravelTimeCalculator.Builder builder = new TravelTimeCalculator.Builder(this.network);
+		builder.configure(this.ttConfig);
+		TravelTimeCalculator calculator = builder.build();
+		for (Event event : this.events) {
+			if (event instanceof LinkEnterEvent) {
+				calculator.handleEvent((LinkEnterEvent) event);
+			} else {
+				calculator.handleEvent((LinkLeaveEvent) event);
+			}
+		}
+		return calculator;
+	}
+
+}
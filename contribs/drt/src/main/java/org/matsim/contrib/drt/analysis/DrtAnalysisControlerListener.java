@@ -29,8 +29,10 @@ import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -39,6 +41,7 @@ import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.xy.XYSeries;
 import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector.EventSequence;
 import org.matsim.contrib.drt.passenger.events.DrtRequestSubmittedEvent;
@@ -46,13 +49,16 @@ import org.matsim.contrib.drt.run.DrtConfigGroup;
 import org.matsim.contrib.drt.schedule.DrtTaskBaseType;
 import org.matsim.contrib.drt.schedule.DrtTaskType;
 import org.matsim.contrib.dvrp.fleet.FleetSpecification;
+import org.matsim.contrib.dvrp.optimizer.Request;
 import org.matsim.contrib.util.stats.VehicleOccupancyProfileCalculator;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.controler.MatsimServices;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.utils.io.IOUtils;
+import org.matsim.vehicles.Vehicle;
 
 /**
  * TODO: replace hard coded ; with delimiter variable
@@ -68,17 +74,18 @@ public class DrtAnalysisControlerListener implements IterationEndsListener {
 	private final VehicleOccupancyProfileCalculator vehicleOccupancyProfileCalculator;
 	private final DrtConfigGroup drtCfg;
 	private final QSimConfigGroup qSimCfg;
+	private final OutputDumpService outputDumpService;
 	private boolean headerWritten = false;
 	private boolean vheaderWritten = false;
 	private final String runId;
-	private final DecimalFormat format = new DecimalFormat();
+	private final DecimalFormat format = createFormat();
 	private final int maxcap;
 	private static final String notAvailableString = "NA";
 
 	public DrtAnalysisControlerListener(Config config, DrtConfigGroup drtCfg, FleetSpecification fleet,
 			DrtVehicleDistanceStats drtVehicleStats, MatsimServices matsimServices, Network network,
 			DrtEventSequenceCollector drtEventSequenceCollector,
-			VehicleOccupancyProfileCalculator vehicleOccupancyProfileCalculator) {
+			VehicleOccupancyProfileCalculator vehicleOccupancyProfileCalculator, OutputDumpService outputDumpService) {
 		this.drtVehicleStats = drtVehicleStats;
 		this.matsimServices = matsimServices;
 		this.network = network;
@@ -86,33 +93,40 @@ public class DrtAnalysisControlerListener implements IterationEndsListener {
 		this.vehicleOccupancyProfileCalculator = vehicleOccupancyProfileCalculator;
 		this.drtCfg = drtCfg;
 		this.qSimCfg = config.qsim();
+		this.outputDumpService = outputDumpService;
 		runId = Optional.ofNullable(config.controler().getRunId()).orElse(notAvailableString);
 		maxcap = DrtLegsAnalyser.findMaxVehicleCapacity(fleet);
-
-		format.setDecimalFormatSymbols(new DecimalFormatSymbols(Locale.US));
-		format.setMinimumIntegerDigits(1);
-		format.setMaximumFractionDigits(2);
-		format.setGroupingUsed(false);
 	}
 
 	@Override
 	public void notifyIterationEnds(IterationEndsEvent event) {
 		boolean createGraphs = event.getServices().getConfig().controler().isCreateGraphs();
 
-		writeAndPlotWaitTimeEstimateComparison(drtEventSequenceCollector.getPerformedRequestSequences().values(),
-				filename(event, "waitTimeComparison", ".png"), filename(event, "waitTimeComparison", ".csv"),
-				createGraphs);
+		// The collectors are reset at the beginning of the next iteration, which may start before the output below
+		// has been written by the OutputDumpService. Snapshot everything that is handed over to the background
+		// tasks. (VehicleStates and EventSequences are recreated, not modified, in the next iteration.)
+		List<EventSequence> performedSequences = List.copyOf(
+				drtEventSequenceCollector.getPerformedRequestSequences().values());
+		List<EventSequence> rejectedSequences = List.copyOf(
+				drtEventSequenceCollector.getRejectedRequestSequences().values());
+		Map<Id<Request>, Double> travelDistances = new HashMap<>(drtVehicleStats.getTravelDistances());
+		Map<Id<Vehicle>, DrtVehicleDistanceStats.VehicleState> vehicleStates = new HashMap<>(
+				drtVehicleStats.getVehicleStates());
 
-		List<DrtLeg> legs = drtEventSequenceCollector.getPerformedRequestSequences()
-				.values()
-				.stream()
+		String waitTimeComparisonPng = filename(event, "waitTimeComparison", ".png");
+		String waitTimeComparisonCsv = filename(event, "waitTimeComparison", ".csv");
+		outputDumpService.submit(waitTimeComparisonCsv,
+				() -> writeAndPlotWaitTimeEstimateComparison(performedSequences, waitTimeComparisonPng,
+						waitTimeComparisonCsv, createGraphs));
+
+		List<DrtLeg> legs = performedSequences.parallelStream()
 				.filter(EventSequence::isCompleted)
 				.map(sequence -> new DrtLeg(sequence, network.getLinks()::get))
 				.sorted(Comparator.comparing(leg -> leg.departureTime))
 				.collect(toList());
 
-		DrtLegsAnalyser.collection2Text(drtEventSequenceCollector.getRejectedRequestSequences().values(),
-				filename(event, "drt_rejections", ".csv"),
+		String rejectionsCsv = filename(event, "drt_rejections", ".csv");
+		outputDumpService.submit(rejectionsCsv, () -> DrtLegsAnalyser.collection2Text(rejectedSequences, rejectionsCsv,
 				String.join(";", "time", "personId", "fromLinkId", "toLinkId", "fromX", "fromY", "toX", "toY"), seq -> {
 					DrtRequestSubmittedEvent submission = seq.getSubmitted();
 					Coord fromCoord = network.getLinks().get(submission.getFromLinkId()).getToNode().getCoord();
@@ -125,87 +139,111 @@ public class DrtAnalysisControlerListener implements IterationEndsListener {
 							fromCoord.getY() + "",//
 							toCoord.getX() + "",//
 							toCoord.getY() + "");
-				});
+				}));
 
-		double rejectionRate = (double)drtEventSequenceCollector.getRejectedRequestSequences().size()
+		// the iteration stats are appended to the same files in each iteration, so they are written here to keep
+		// the order of the rows
+		double rejectionRate = (double)rejectedSequences.size()
 				/ drtEventSequenceCollector.getRequestSubmissions().size();
-		String legsSummarize = DrtLegsAnalyser.summarizeLegs(legs, drtVehicleStats.getTravelDistances(),
+		String legsSummarize = DrtLegsAnalyser.summarizeLegs(legs, travelDistances,
 				drtEventSequenceCollector.getDrtFarePersonMoneyEvents(), ";");
 		double directDistanceMean = DrtLegsAnalyser.getDirectDistanceMean(legs);
 		writeIterationPassengerStats(legsSummarize
 				+ ";"
-				+ drtEventSequenceCollector.getRejectedRequestSequences().size()
+				+ rejectedSequences.size()
 				+ ";"
 				+ format.format(rejectionRate), event.getIteration());
-		double l_d = DrtLegsAnalyser.getTotalDistance(drtVehicleStats.getVehicleStates()) / (legs.size()
-				* directDistanceMean);
+		double l_d = DrtLegsAnalyser.getTotalDistance(vehicleStates) / (legs.size() * directDistanceMean);
 
 		var stayTaskProfile = vehicleOccupancyProfileCalculator.getNonPassengerServingTaskProfiles()
 				.getOrDefault(new DrtTaskType(DrtTaskBaseType.STAY), new double[0]);
 		var minStayTaskVehicleCountOverDay = Arrays.stream(stayTaskProfile).min();
 
-		String vehStats = DrtLegsAnalyser.summarizeVehicles(drtVehicleStats.getVehicleStates(), ";")
+		String vehStats = DrtLegsAnalyser.summarizeVehicles(vehicleStates, ";")
 				+ ";"
 				+ format.format(l_d)
 				+ ";"
 				+ (minStayTaskVehicleCountOverDay.isPresent() ?
 				format.format(minStayTaskVehicleCountOverDay.getAsDouble()) :
 				notAvailableString);
-		String occStats = DrtLegsAnalyser.summarizeDetailedOccupancyStats(drtVehicleStats.getVehicleStates(), ";",
-				maxcap);
+		String occStats = DrtLegsAnalyser.summarizeDetailedOccupancyStats(vehicleStates, ";", maxcap);
 		writeIterationVehicleStats(vehStats, occStats, event.getIteration());
 		if (drtCfg.isPlotDetailedCustomerStats()) {
-			String header = String.join(";", "departureTime",//
-					"personId",//
-					"vehicleId",//
-					"fromLinkId",//
-					"fromX",//
-					"fromY",//
-					"toLinkId",//
-					"toX",//
-					"toY",//
-					"waitTime",//
-					"arrivalTime",//
-					"travelTime",//
-					"travelDistance_m",//
-					"directTravelDistance_m",//
-					"fareForLeg", //
-					"latestDepartureTime", //
-					"latestArrivalTime");
-
-			DrtLegsAnalyser.collection2Text(legs, filename(event, "drt_legs", ".csv"), header, leg -> String.join(";",//
-					(Double)leg.departureTime + "",//
-					leg.person + "",//
-					leg.vehicle + "",//
-					leg.fromLinkId + "",//
-					format.format(leg.fromCoord.getX()),//
-					format.format(leg.fromCoord.getY()),//
-					leg.toLink + "",//
-					format.format(leg.toCoord.getX()),//
-					format.format(leg.toCoord.getY()),//
-					leg.waitTime + "",//
-					leg.arrivalTime + "",//
-					(leg.arrivalTime - leg.departureTime - leg.waitTime) + "",//
-					format.format(drtVehicleStats.getTravelDistances().get(leg.request)),//
-					format.format(leg.unsharedDistanceEstimate_m),//
-					format.format(leg.fare), //
-					format.format(leg.latestDepartureTime), //
-					format.format(leg.latestArrivalTime)));
+			String legsCsv = filename(event, "drt_legs", ".csv");
+			outputDumpService.submit(legsCsv, () -> writeLegs(legs, travelDistances, legsCsv));
 		}
-		DrtLegsAnalyser.writeVehicleDistances(drtVehicleStats.getVehicleStates(),
-				filename(event, "vehicleDistanceStats", ".csv"));
-		DrtLegsAnalyser.analyseDetours(network, legs, drtVehicleStats.getTravelDistances(), drtCfg,
-				filename(event, "drt_detours"), createGraphs);
-		DrtLegsAnalyser.analyseWaitTimes(filename(event, "waitStats"), legs, 1800, createGraphs);
-		DrtLegsAnalyser.analyseConstraints(filename(event, "constraints"), legs, createGraphs);
-		
+		String vehicleDistanceStatsCsv = filename(event, "vehicleDistanceStats", ".csv");
+		outputDumpService.submit(vehicleDistanceStatsCsv,
+				() -> DrtLegsAnalyser.writeVehicleDistances(vehicleStates, vehicleDistanceStatsCsv));
+		String detours = filename(event, "drt_detours");
+		outputDumpService.submit(detours,
+				() -> DrtLegsAnalyser.analyseDetours(network, legs, travelDistances, drtCfg, detours, createGraphs));
+		String waitStats = filename(event, "waitStats");
+		outputDumpService.submit(waitStats,
+				() -> DrtLegsAnalyser.analyseWaitTimes(waitStats, legs, 1800, createGraphs));
+		String constraints = filename(event, "constraints");
+		outputDumpService.submit(constraints,
+				() -> DrtLegsAnalyser.analyseConstraints(constraints, legs, createGraphs));
+
+		double startTime = qSimCfg.getStartTime().orElse(0);
 		double endTime = qSimCfg.getEndTime()
-				.orElseGet(() -> legs.isEmpty() ?
-						qSimCfg.getStartTime().orElse(0) :
-						legs.get(legs.size() - 1).departureTime);
+				.orElseGet(() -> legs.isEmpty() ? startTime : legs.get(legs.size() - 1).departureTime);
 
-		DrtLegsAnalyser.analyzeBoardingsAndDeboardings(legs, ";", qSimCfg.getStartTime().orElse(0), endTime, 3600,
-				filename(event, "drt_boardings", ".csv"), filename(event, "drt_alightments", ".csv"), network);
+		String boardingsCsv = filename(event, "drt_boardings", ".csv");
+		String alightmentsCsv = filename(event, "drt_alightments", ".csv");
+		outputDumpService.submit(boardingsCsv,
+				() -> DrtLegsAnalyser.analyzeBoardingsAndDeboardings(legs, ";", startTime, endTime, 3600, boardingsCsv,
+						alightmentsCsv, network));
+	}
+
+	private static void writeLegs(List<DrtLeg> legs, Map<Id<Request>, Double> travelDistances, String filename) {
+		// DecimalFormat is not thread-safe, so each background task uses its own instance
+		DecimalFormat format = createFormat();
+		String header = String.join(";", "departureTime",//
+				"personId",//
+				"vehicleId",//
+				"fromLinkId",//
+				"fromX",//
+				"fromY",//
+				"toLinkId",//
+				"toX",//
+				"toY",//
+				"waitTime",//
+				"arrivalTime",//
+				"travelTime",//
+				"travelDistance_m",//
+				"directTravelDistance_m",//
+				"fareForLeg", //
+				"latestDepartureTime", //
+				"latestArrivalTime");
+
+		DrtLegsAnalyser.collection2Text(legs, filename, header, leg -> String.join(";",//
+				(Double)leg.departureTime + "",//
+				leg.person + "",//
+				leg.vehicle + "",//
+				leg.fromLinkId + "",//
+				format.format(leg.fromCoord.getX()),//
+				format.format(leg.fromCoord.getY()),//
+				leg.toLink + "",//
+				format.format(leg.toCoord.getX()),//
+				format.format(leg.toCoord.getY()),//
+				leg.waitTime + "",//
+				leg.arrivalTime + "",//
+				(leg.arrivalTime - leg.departureTime - leg.waitTime) + "",//
+				format.format(travelDistances.get(leg.request)),//
+				format.format(leg.unsharedDistanceEstimate_m),//
+				format.format(leg.fare), //
+				format.format(leg.latestDepartureTime), //
+				format.format(leg.latestArrivalTime)));
+	}
+
+	private static DecimalFormat createFormat() {
+		DecimalFormat format = new DecimalFormat();
+		format.setDecimalFormatSymbols(new DecimalFormatSymbols(Locale.US));
+		format.setMinimumIntegerDigits(1);
+		format.setMaximumFractionDigits(2);
+		format.setGroupingUsed(false);
+		return format;
 	}
 
 	private String filename(IterationEndsEvent event, String prefix) {
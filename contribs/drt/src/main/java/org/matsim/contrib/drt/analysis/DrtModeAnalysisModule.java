@@ -41,6 +41,7 @@ import org.matsim.contrib.util.stats.VehicleTaskProfileWriter;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.controler.MatsimServices;
+import org.matsim.core.controler.OutputDumpService;
 
 /**
  * @author michalm (Michal Maciejewski)
@@ -101,6 +102,7 @@ public class DrtModeAnalysisModule extends AbstractDvrpModeModule {
 						getter.getModal(FleetSpecification.class), getter.getModal(DrtVehicleDistanceStats.class),
 						getter.get(MatsimServices.class), getter.get(Network.class),
 						getter.getModal(DrtEventSequenceCollector.class),
-						getter.getModal(VehicleOccupancyProfileCalculator.class)))).asEagerSingleton();
+						getter.getModal(VehicleOccupancyProfileCalculator.class),
+						getter.get(OutputDumpService.class)))).asEagerSingleton();
 	}
 }
@@ -33,6 +33,7 @@ import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
 import org.matsim.contrib.dvrp.run.AbstractDvrpModeModule;
 import org.matsim.core.controler.MatsimServices;
+import org.matsim.core.controler.OutputDumpService;
 
 import com.google.common.base.Preconditions;
 
@@ -92,13 +93,13 @@ public class DrtModeZonalSystemModule extends AbstractDvrpModeModule {
 		//zonal analysis
 		bindModal(ZonalIdleVehicleXYVisualiser.class).toProvider(modalProvider(
 				getter -> new ZonalIdleVehicleXYVisualiser(getter.get(MatsimServices.class), drtCfg.getMode(),
-						getter.getModal(DrtZonalSystem.class)))).asEagerSingleton();
+						getter.getModal(DrtZonalSystem.class), getter.get(OutputDumpService.class)))).asEagerSingleton();
 		addControlerListenerBinding().to(modalKey(ZonalIdleVehicleXYVisualiser.class));
 		addEventHandlerBinding().to(modalKey(ZonalIdleVehicleXYVisualiser.class));
 
 		bindModal(DrtZonalWaitTimesAnalyzer.class).toProvider(modalProvider(
 				getter -> new DrtZonalWaitTimesAnalyzer(drtCfg, getter.getModal(DrtEventSequenceCollector.class),
-						getter.getModal(DrtZonalSystem.class)))).asEagerSingleton();
+						getter.getModal(DrtZonalSystem.class), getter.get(OutputDumpService.class)))).asEagerSingleton();
 		addControlerListenerBinding().to(modalKey(DrtZonalWaitTimesAnalyzer.class));
 	}
 }
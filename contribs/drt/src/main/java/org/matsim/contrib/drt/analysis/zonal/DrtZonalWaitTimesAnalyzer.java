@@ -41,6 +41,7 @@ import org.locationtech.jts.geom.Polygon;
 import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector;
 import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector.EventSequence;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
@@ -55,15 +56,22 @@ public final class DrtZonalWaitTimesAnalyzer implements IterationEndsListener, S
 	private final DrtConfigGroup drtCfg;
 	private final DrtEventSequenceCollector requestAnalyzer;
 	private final DrtZonalSystem zones;
+	private final OutputDumpService outputDumpService;
 	private static final String zoneIdForOutsideOfZonalSystem = "outsideOfDrtZonalSystem";
 	private static final String notAvailableString = "NaN";
 	private static final Logger log = Logger.getLogger(DrtZonalWaitTimesAnalyzer.class);
 
 	public DrtZonalWaitTimesAnalyzer(DrtConfigGroup configGroup, DrtEventSequenceCollector requestAnalyzer,
 			DrtZonalSystem zones) {
+		this(configGroup, requestAnalyzer, zones, new OutputDumpService(0, 0));
+	}
+
+	public DrtZonalWaitTimesAnalyzer(DrtConfigGroup configGroup, DrtEventSequenceCollector requestAnalyzer,
+			DrtZonalSystem zones, OutputDumpService outputDumpService) {
 		this.drtCfg = configGroup;
 		this.requestAnalyzer = requestAnalyzer;
 		this.zones = zones;
+		this.outputDumpService = outputDumpService;
 	}
 
 	@Override
@@ -71,12 +79,17 @@ public final class DrtZonalWaitTimesAnalyzer implements IterationEndsListener, S
 		String fileName = event.getServices()
 				.getControlerIO()
 				.getIterationFilename(event.getIteration(), "waitStats" + "_" + drtCfg.getMode() + "_zonal.csv");
-		write(fileName);
+		// the stats are computed before the collector is reset, only the writing is done in the background
+		Map<String, DescriptiveStatistics> zoneStats = createZonalStats();
+		outputDumpService.submit(fileName, () -> write(fileName, zoneStats));
 	}
 
 	public void write(String fileName) {
+		write(fileName, createZonalStats());
+	}
+
+	private void write(String fileName, Map<String, DescriptiveStatistics> zoneStats) {
 		String delimiter = ";";
-		Map<String, DescriptiveStatistics> zoneStats = createZonalStats();
 		BufferedWriter bw = IOUtils.getBufferedWriter(fileName);
 		try {
 			DecimalFormat format = new DecimalFormat();
@@ -36,6 +36,7 @@ import org.matsim.contrib.dvrp.vrpagent.TaskEndedEventHandler;
 import org.matsim.contrib.dvrp.vrpagent.TaskStartedEvent;
 import org.matsim.contrib.dvrp.vrpagent.TaskStartedEventHandler;
 import org.matsim.core.controler.MatsimServices;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.utils.collections.Tuple;
@@ -48,11 +49,18 @@ public class ZonalIdleVehicleXYVisualiser
 	private final String mode;
 	private final DrtZonalSystem zonalSystem;
 	private final MatsimServices services;
+	private final OutputDumpService outputDumpService;
 
 	private final Map<DrtZone, LinkedList<Tuple<Double, Integer>>> zoneEntries = new LinkedHashMap<>();
 
 	public ZonalIdleVehicleXYVisualiser(MatsimServices services, String mode, DrtZonalSystem zonalSystem) {
+		this(services, mode, zonalSystem, new OutputDumpService(0, 0));
+	}
+
+	public ZonalIdleVehicleXYVisualiser(MatsimServices services, String mode, DrtZonalSystem zonalSystem,
+			OutputDumpService outputDumpService) {
 		this.services = services;
+		this.outputDumpService = outputDumpService;
 		this.mode = mode;
 		this.zonalSystem = zonalSystem;
 		initEntryMap();
@@ -97,11 +105,16 @@ public class ZonalIdleVehicleXYVisualiser
 	public void notifyIterationEnds(IterationEndsEvent event) {
 		String filename = services.getControlerIO()
 				.getIterationFilename(services.getIterationNumber(), mode + "_idleVehiclesPerZoneXY.csv");
+		// reset() replaces the entry lists, so a shallow copy of the map is not modified by the next iteration
+		Map<DrtZone, LinkedList<Tuple<Double, Integer>>> zoneEntries = new LinkedHashMap<>(this.zoneEntries);
+		outputDumpService.submit(filename, () -> write(filename, zoneEntries));
+	}
 
+	private static void write(String filename, Map<DrtZone, LinkedList<Tuple<Double, Integer>>> zoneEntries) {
 		try {
 			CSVWriter writer = new CSVWriter(Files.newBufferedWriter(Paths.get(filename)), ';', '"', '"', "\n");
 			writer.writeNext(new String[] { "zone", "X", "Y", "time", "idleDRTVehicles" }, false);
-			this.zoneEntries.forEach((zone, entriesList) -> {
+			zoneEntries.forEach((zone, entriesList) -> {
 				Coord c = zone.getCentroid();
 				entriesList.forEach(entry -> writer.writeNext(
 						new String[] { zone.getId(), "" + c.getX(), "" + c.getY(), "" + entry.getFirst(),
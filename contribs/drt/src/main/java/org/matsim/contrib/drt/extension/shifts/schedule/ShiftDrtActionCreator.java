@@ -39,7 +39,8 @@ public class ShiftDrtActionCreator implements DynActionCreator {
             return new BusStopActivity(passengerHandler, dynAgent, t, t.getDropoffRequests(), t.getPickupRequests(),
                     DRT_SHIFT_CHANGEOVER_NAME);
         } else if (task instanceof WaitForShiftStayTask) {
-            return new IdleDynActivity(DRT_SHIFT_WAIT_FOR_SHIFT_NAME, task::getEndTime);
+            return new IdleDynActivity(DRT_SHIFT_WAIT_FOR_SHIFT_NAME, task::getEndTime,
+                    task::setEndTimeChangeListener);
         } else {
             return dynActionCreator.createAction(dynAgent, vehicle, now);
         }
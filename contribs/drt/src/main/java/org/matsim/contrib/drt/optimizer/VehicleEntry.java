@@ -20,6 +20,7 @@
 
 package org.matsim.contrib.drt.optimizer;
 
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 
 import com.google.common.collect.ImmutableList;
@@ -38,6 +39,13 @@ public class VehicleEntry {
 	public final Waypoint.End end;
 	private final double[] slackTimes;// for all insertion points
 
+	// Flat copies of the start and stop data (index 0: start, index i > 0: stop i - 1), so that the insertion search
+	// reads arrays instead of walking the waypoint and task objects. Null if start or stops are not provided.
+	private final Link[] links;
+	private final double[] arrivalTimes;// NaN for start
+	private final double[] departureTimes;
+	private final int[] outgoingOccupancies;
+
 	public VehicleEntry(DvrpVehicle vehicle, Waypoint.Start start, ImmutableList<Waypoint.Stop> stops,
 			double[] slackTimes) {
 		this.vehicle = vehicle;
@@ -45,6 +53,32 @@ public class VehicleEntry {
 		this.stops = stops;
 		this.end = Waypoint.End.OPEN_END;
 		this.slackTimes = slackTimes;
+
+		if (start == null || stops == null) {
+			links = null;
+			arrivalTimes = null;
+			departureTimes = null;
+			outgoingOccupancies = null;
+			return;
+		}
+
+		int count = stops.size() + 1;
+		links = new Link[count];
+		arrivalTimes = new double[count];
+		departureTimes = new double[count];
+		outgoingOccupancies = new int[count];
+
+		links[0] = start.link;
+		arrivalTimes[0] = Double.NaN;
+		departureTimes[0] = start.time;
+		outgoingOccupancies[0] = start.occupancy;
+		for (int i = 1; i < count; i++) {
+			Waypoint.Stop stop = stops.get(i - 1);
+			links[i] = stop.task.getLink();
+			arrivalTimes[i] = stop.task.getBeginTime();
+			departureTimes[i] = stop.task.getEndTime();
+			outgoingOccupancies[i] = stop.outgoingOccupancy;
+		}
 	}
 
 	protected VehicleEntry(VehicleEntry that) {
@@ -53,6 +87,10 @@ public class VehicleEntry {
 		this.stops = that.stops;
 		this.end = that.end;
 		this.slackTimes = that.slackTimes;
+		this.links = that.links;
+		this.arrivalTimes = that.arrivalTimes;
+		this.departureTimes = that.departureTimes;
+		this.outgoingOccupancies = that.outgoingOccupancies;
 	}
 
 	public Waypoint getWaypoint(int index) {
@@ -66,4 +104,33 @@ public class VehicleEntry {
 	public double getSlackTime(int index) {
 		return slackTimes[index];
 	}
+
+	/**
+	 * @param index 0 for start, {@code i > 0} for stop {@code i - 1} (i.e. the same as in {@link #getWaypoint(int)},
+	 *              but without end)
+	 */
+	public Link getLink(int index) {
+		return links[index];
+	}
+
+	/**
+	 * @param index {@code i > 0} for stop {@code i - 1}
+	 */
+	public double getArrivalTime(int index) {
+		return arrivalTimes[index];
+	}
+
+	/**
+	 * @param index 0 for start, {@code i > 0} for stop {@code i - 1}
+	 */
+	public double getDepartureTime(int index) {
+		return departureTimes[index];
+	}
+
+	/**
+	 * @param index 0 for start, {@code i > 0} for stop {@code i - 1}
+	 */
+	public int getOutgoingOccupancy(int index) {
+		return outgoingOccupancies[index];
+	}
 }
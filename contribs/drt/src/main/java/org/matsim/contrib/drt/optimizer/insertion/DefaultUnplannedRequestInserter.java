@@ -19,12 +19,15 @@
 
 package org.matsim.contrib.drt.optimizer.insertion;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
@@ -45,6 +48,12 @@ import org.matsim.core.mobsim.framework.MobsimTimer;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
+ * Inserts the unplanned requests one after another. In the batch mode, the best insertions of all requests are searched
+ * in parallel instead, all against the same vehicle entries. Then, the insertions are scheduled in the order of the
+ * requests, skipping the requests whose vehicle has already been assigned another request in this round. The skipped
+ * requests are searched again in the next round, against the updated vehicle entries. As the search results do not
+ * depend on the order of parallel execution, the outcome is deterministic.
+ *
  * @author michalm
  */
 public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter {
@@ -61,13 +70,14 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 
 	private final ForkJoinPool forkJoinPool;
 	private final DrtInsertionSearch insertionSearch;
+	private final boolean batchInsertion;
 
 	public DefaultUnplannedRequestInserter(DrtConfigGroup drtCfg, Fleet fleet, MobsimTimer mobsimTimer,
 			EventsManager eventsManager, RequestInsertionScheduler insertionScheduler,
 			VehicleEntry.EntryFactory vehicleEntryFactory, DrtInsertionSearch insertionSearch,
 			DrtRequestInsertionRetryQueue insertionRetryQueue, ForkJoinPool forkJoinPool) {
 		this(drtCfg.getMode(), fleet, mobsimTimer::getTimeOfDay, eventsManager, insertionScheduler, vehicleEntryFactory,
-				insertionRetryQueue, forkJoinPool, insertionSearch);
+				insertionRetryQueue, forkJoinPool, insertionSearch, drtCfg.isBatchInsertion());
 	}
 
 	@VisibleForTesting
@@ -75,6 +85,15 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 			RequestInsertionScheduler insertionScheduler, VehicleEntry.EntryFactory vehicleEntryFactory,
 			DrtRequestInsertionRetryQueue insertionRetryQueue, ForkJoinPool forkJoinPool,
 			DrtInsertionSearch insertionSearch) {
+		this(mode, fleet, timeOfDay, eventsManager, insertionScheduler, vehicleEntryFactory, insertionRetryQueue,
+				forkJoinPool, insertionSearch, false);
+	}
+
+	@VisibleForTesting
+	DefaultUnplannedRequestInserter(String mode, Fleet fleet, DoubleSupplier timeOfDay, EventsManager eventsManager,
+			RequestInsertionScheduler insertionScheduler, VehicleEntry.EntryFactory vehicleEntryFactory,
+			DrtRequestInsertionRetryQueue insertionRetryQueue, ForkJoinPool forkJoinPool,
+			DrtInsertionSearch insertionSearch, boolean batchInsertion) {
 		this.mode = mode;
 		this.fleet = fleet;
 		this.timeOfDay = timeOfDay;
@@ -84,6 +103,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		this.insertionRetryQueue = insertionRetryQueue;
 		this.forkJoinPool = forkJoinPool;
 		this.insertionSearch = insertionSearch;
+		this.batchInsertion = batchInsertion;
 	}
 
 	@Override
@@ -102,6 +122,15 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				.filter(Objects::nonNull)
 				.collect(Collectors.toMap(e -> e.vehicle.getId(), e -> e))).join();
 
+		if (batchInsertion) {
+			//old requests first, then new requests
+			List<DrtRequest> requests = new ArrayList<>(requestsToRetry);
+			requests.addAll(unplannedRequests);
+			unplannedRequests.clear();
+			scheduleUnplannedRequestsInBatches(requests, vehicleEntries, now);
+			return;
+		}
+
 		//first retry scheduling old requests
 		requestsToRetry.forEach(req -> scheduleUnplannedRequest(req, vehicleEntries, now));
 
@@ -112,10 +141,41 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		}
 	}
 
+	private void scheduleUnplannedRequestsInBatches(List<DrtRequest> requests,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		while (!requests.isEmpty()) {
+			var entries = Collections.unmodifiableCollection(vehicleEntries.values());
+			var batch = requests;
+			List<Optional<InsertionWithDetourData>> bestInsertions = forkJoinPool.submit(() -> batch.parallelStream()
+					.map(req -> insertionSearch.findBestInsertion(req, entries))
+					.collect(Collectors.toList())).join();
+
+			// entries of vehicles modified in this round are outdated, so requests choosing them are searched again
+			Set<Id<DvrpVehicle>> modifiedVehicles = new HashSet<>();
+			requests = new ArrayList<>();
+			for (int i = 0; i < batch.size(); i++) {
+				var best = bestInsertions.get(i);
+				if (best.isPresent()) {
+					var vehicleId = best.get().insertion.vehicleEntry.vehicle.getId();
+					if (!modifiedVehicles.add(vehicleId)) {
+						requests.add(batch.get(i));
+						continue;
+					}
+				}
+				scheduleUnplannedRequest(batch.get(i), best, vehicleEntries, now);
+			}
+		}
+	}
+
 	private void scheduleUnplannedRequest(DrtRequest req, Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries,
 			double now) {
 		Optional<InsertionWithDetourData> best = insertionSearch.findBestInsertion(req,
 				Collections.unmodifiableCollection(vehicleEntries.values()));
+		scheduleUnplannedRequest(req, best, vehicleEntries, now);
+	}
+
+	private void scheduleUnplannedRequest(DrtRequest req, Optional<InsertionWithDetourData> best,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
 		if (best.isEmpty()) {
 			if (!insertionRetryQueue.tryAddFailedRequest(req, now)) {
 				eventsManager.processEvent(
@@ -0,0 +1,142 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.drt.optimizer.insertion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Caches the path data of one type of detour (e.g. to pickup) across requests. Path data are stored per pair of
+ * (from link, to link) and time bin. All searches within a time bin start at the beginning of the bin, so the cached
+ * data do not depend on which request computed them first, which keeps the results deterministic also when the
+ * requests are processed in parallel.
+ * <p>
+ * Whenever the latest request submission time enters a new time bin, all entries are evicted, including those of
+ * future time bins (e.g. dropoff searches starting at the latest arrival time). So each entry is computed with the
+ * travel times known at most one time bin ago; with online travel time estimation, the cached travel times may be
+ * outdated by up to one time bin. Searches for past time bins (e.g. of retried requests) are computed without
+ * caching. The cache lives as long as the QSim, i.e. it is dropped whenever the offline travel times are updated.
+ * <p>
+ * The cached path data must not depend on the state of the path search, i.e. paths have to be created eagerly.
+ */
+final class DetourPathCache {
+	private final double timeBinSize;
+
+	private final Map<Integer, Map<Long, PathData>> pathDataPerTimeBin = new ConcurrentHashMap<>();
+	private volatile int firstTimeBin = Integer.MIN_VALUE;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	DetourPathCache(double timeBinSize) {
+		if (timeBinSize <= 0) {
+			throw new IllegalArgumentException("timeBinSize must be positive");
+		}
+		this.timeBinSize = timeBinSize;
+	}
+
+	/**
+	 * Evicts all entries if the given time is in a later time bin than the previous one.
+	 */
+	void advance(double time) {
+		int timeBin = getTimeBin(time);
+		if (timeBin > firstTimeBin) {
+			synchronized (this) {
+				if (timeBin > firstTimeBin) {
+					// also entries of the current and future bins, which were computed with older travel times;
+					// cleared before publishing the new first time bin, so readers never see stale data for it
+					pathDataPerTimeBin.clear();
+					firstTimeBin = timeBin;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param search computes the path data for the given to links and start time
+	 */
+	Map<Link, PathData> getPathData(Link fromLink, Collection<Link> toLinks, double startTime,
+			BiFunction<Collection<Link>, Double, Map<Link, PathData>> search) {
+		int timeBin = getTimeBin(startTime);
+		double timeBinStart = timeBin * timeBinSize;
+		if (timeBin < firstTimeBin) {
+			misses.add(toLinks.size());
+			return search.apply(toLinks, timeBinStart);
+		}
+
+		var cachedPathData = pathDataPerTimeBin.computeIfAbsent(timeBin, bin -> new ConcurrentHashMap<>());
+		Map<Link, PathData> pathDataMap = Maps.newHashMapWithExpectedSize(toLinks.size());
+		List<Link> missingToLinks = new ArrayList<>();
+		for (Link toLink : toLinks) {
+			PathData pathData = cachedPathData.get(key(fromLink, toLink));
+			if (pathData != null) {
+				pathDataMap.put(toLink, pathData);
+			} else {
+				missingToLinks.add(toLink);
+			}
+		}
+		hits.add(pathDataMap.size());
+		misses.add(missingToLinks.size());
+
+		if (!missingToLinks.isEmpty()) {
+			Map<Link, PathData> computedPathData = search.apply(missingToLinks, timeBinStart);
+			computedPathData.forEach((toLink, pathData) -> cachedPathData.put(key(fromLink, toLink), pathData));
+			pathDataMap.putAll(computedPathData);
+		}
+		return pathDataMap;
+	}
+
+	long getHits() {
+		return hits.sum();
+	}
+
+	long getMisses() {
+		return misses.sum();
+	}
+
+	double getHitRate() {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 0 : (double)hits / total;
+	}
+
+	void clear() {
+		pathDataPerTimeBin.clear();
+	}
+
+	private int getTimeBin(double time) {
+		return (int)Math.floor(time / timeBinSize);
+	}
+
+	private static long key(Link fromLink, Link toLink) {
+		return ((long)fromLink.getId().index() << 32) | (toLink.getId().index() & 0xffffffffL);
+	}
+}
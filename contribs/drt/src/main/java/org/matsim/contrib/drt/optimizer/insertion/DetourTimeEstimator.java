@@ -20,10 +20,13 @@ package org.matsim.contrib.drt.optimizer.insertion;
 
 import static org.matsim.contrib.dvrp.path.VrpPaths.FIRST_LINK_TT;
 
+import java.util.function.DoubleSupplier;
+
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.common.util.DistanceUtils;
 import org.matsim.contrib.dvrp.path.VrpPaths;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TravelTimeLowerBoundMatrix;
 import org.matsim.core.router.util.TravelTime;
 
 /**
@@ -47,5 +50,24 @@ public interface DetourTimeEstimator {
 		};
 	}
 
+	/**
+	 * Tightens the estimates of {@code estimator} with the time-dependent zonal lower bounds at the current time.
+	 * These bounds also hold for the detour segments departing later, since they are based on the minimum link travel
+	 * times over the current and all following time bins.
+	 */
+	static DetourTimeEstimator createLowerBoundTimeEstimator(DetourTimeEstimator estimator,
+			TravelTimeLowerBoundMatrix lowerBoundMatrix, TravelTime travelTime, DoubleSupplier timeOfDay) {
+		return (from, to) -> {
+			if (from == to) {
+				return 0;
+			}
+			double lowerBound = FIRST_LINK_TT
+					+ lowerBoundMatrix.getTravelTimeLowerBound(from.getToNode(), to.getFromNode(),
+					timeOfDay.getAsDouble())
+					+ VrpPaths.getLastLinkTT(travelTime, to, 0);
+			return Math.max(estimator.estimateTime(from, to), lowerBound);
+		};
+	}
+
 	double estimateTime(Link from, Link to);
 }
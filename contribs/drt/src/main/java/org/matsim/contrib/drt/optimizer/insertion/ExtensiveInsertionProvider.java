@@ -24,14 +24,18 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.DefaultDrtInsertionSearch.InsertionProvider;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Insertion;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TravelTimeLowerBoundMatrix;
 import org.matsim.core.router.util.TravelTime;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -43,9 +47,24 @@ public class ExtensiveInsertionProvider implements InsertionProvider {
 	public static ExtensiveInsertionProvider create(DrtConfigGroup drtCfg,
 			InsertionCostCalculator insertionCostCalculator, DvrpTravelTimeMatrix dvrpTravelTimeMatrix,
 			TravelTime travelTime, ForkJoinPool forkJoinPool) {
+		return create(drtCfg, insertionCostCalculator, dvrpTravelTimeMatrix, null, travelTime, forkJoinPool, null);
+	}
+
+	/**
+	 * @param lowerBoundMatrix if not null, the zonal lower bounds at {@code timeOfDay} are used for tightening
+	 *                         the admissible estimates
+	 */
+	public static ExtensiveInsertionProvider create(DrtConfigGroup drtCfg,
+			InsertionCostCalculator insertionCostCalculator, DvrpTravelTimeMatrix dvrpTravelTimeMatrix,
+			@Nullable TravelTimeLowerBoundMatrix lowerBoundMatrix, TravelTime travelTime, ForkJoinPool forkJoinPool,
+			@Nullable DoubleSupplier timeOfDay) {
 		var insertionParams = (ExtensiveInsertionSearchParams)drtCfg.getDrtInsertionSearchParams();
 		var admissibleTimeEstimator = DetourTimeEstimator.createFreeSpeedZonalTimeEstimator(
 				insertionParams.getAdmissibleBeelineSpeedFactor(), dvrpTravelTimeMatrix, travelTime);
+		if (lowerBoundMatrix != null) {
+			admissibleTimeEstimator = DetourTimeEstimator.createLowerBoundTimeEstimator(admissibleTimeEstimator,
+					lowerBoundMatrix, travelTime, timeOfDay);
+		}
 		return new ExtensiveInsertionProvider(drtCfg, admissibleTimeEstimator, forkJoinPool, insertionCostCalculator);
 	}
 
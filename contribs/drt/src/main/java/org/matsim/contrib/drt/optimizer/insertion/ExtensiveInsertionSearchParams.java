@@ -21,6 +21,7 @@
 package org.matsim.contrib.drt.optimizer.insertion;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
 /**
@@ -37,6 +38,22 @@ public class ExtensiveInsertionSearchParams extends DrtInsertionSearchParams {
 	@DecimalMin("1.0")
 	private double admissibleBeelineSpeedFactor = 1.0;
 
+	// size of the time bins (in seconds) of the detour path cache shared by all requests; 0 disables the cache
+	public static final String DETOUR_PATH_CACHE_TIME_BIN_SIZE = "detourPathCacheTimeBinSize";
+	@PositiveOrZero
+	private double detourPathCacheTimeBinSize = 0;
+
+	// size of the time bins (in seconds) of the zonal travel time lower bounds used for pruning insertions;
+	// 0 disables the lower bounds
+	public static final String TRAVEL_TIME_LOWER_BOUND_TIME_BIN_SIZE = "travelTimeLowerBoundTimeBinSize";
+	@PositiveOrZero
+	private double travelTimeLowerBoundTimeBinSize = 0;
+
+	// size of square cells (meters) of the zonal travel time lower bounds
+	public static final String TRAVEL_TIME_LOWER_BOUND_CELL_SIZE = "travelTimeLowerBoundCellSize";
+	@Positive
+	private double travelTimeLowerBoundCellSize = 1000;
+
 	public ExtensiveInsertionSearchParams() {
 		super(SET_NAME);
 	}
@@ -62,4 +79,37 @@ public class ExtensiveInsertionSearchParams extends DrtInsertionSearchParams {
 		this.admissibleBeelineSpeedFactor = admissibleBeelineSpeedFactor;
 		return this;
 	}
+
+	@StringGetter(DETOUR_PATH_CACHE_TIME_BIN_SIZE)
+	public double getDetourPathCacheTimeBinSize() {
+		return detourPathCacheTimeBinSize;
+	}
+
+	@StringSetter(DETOUR_PATH_CACHE_TIME_BIN_SIZE)
+	public ExtensiveInsertionSearchParams setDetourPathCacheTimeBinSize(double detourPathCacheTimeBinSize) {
+		this.detourPathCacheTimeBinSize = detourPathCacheTimeBinSize;
+		return this;
+	}
+
+	@StringGetter(TRAVEL_TIME_LOWER_BOUND_TIME_BIN_SIZE)
+	public double getTravelTimeLowerBoundTimeBinSize() {
+		return travelTimeLowerBoundTimeBinSize;
+	}
+
+	@StringSetter(TRAVEL_TIME_LOWER_BOUND_TIME_BIN_SIZE)
+	public ExtensiveInsertionSearchParams setTravelTimeLowerBoundTimeBinSize(double travelTimeLowerBoundTimeBinSize) {
+		this.travelTimeLowerBoundTimeBinSize = travelTimeLowerBoundTimeBinSize;
+		return this;
+	}
+
+	@StringGetter(TRAVEL_TIME_LOWER_BOUND_CELL_SIZE)
+	public double getTravelTimeLowerBoundCellSize() {
+		return travelTimeLowerBoundCellSize;
+	}
+
+	@StringSetter(TRAVEL_TIME_LOWER_BOUND_CELL_SIZE)
+	public ExtensiveInsertionSearchParams setTravelTimeLowerBoundCellSize(double travelTimeLowerBoundCellSize) {
+		this.travelTimeLowerBoundCellSize = travelTimeLowerBoundCellSize;
+		return this;
+	}
 }
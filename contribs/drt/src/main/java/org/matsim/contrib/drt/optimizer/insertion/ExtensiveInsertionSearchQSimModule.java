@@ -26,6 +26,10 @@ import org.matsim.contrib.drt.run.DrtConfigGroup;
 import org.matsim.contrib.dvrp.run.AbstractDvrpModeQSimModule;
 import org.matsim.contrib.dvrp.run.DvrpModes;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TravelTimeLowerBoundMatrix;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.modal.ModalProviders;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 import org.matsim.core.router.util.TravelDisutility;
@@ -46,9 +50,21 @@ public class ExtensiveInsertionSearchQSimModule extends AbstractDvrpModeQSimModu
 	protected void configureQSim() {
 		bindModal(DrtInsertionSearch.class).toProvider(modalProvider(getter -> {
 			var insertionCostCalculator = getter.getModal(InsertionCostCalculator.class);
+			var travelTime = getter.getModal(TravelTime.class);
+			var insertionParams = (ExtensiveInsertionSearchParams)drtCfg.getDrtInsertionSearchParams();
+			TravelTimeLowerBoundMatrix lowerBoundMatrix = null;
+			if (insertionParams.getTravelTimeLowerBoundTimeBinSize() > 0) {
+				// recomputed only if the travel time estimates have been updated
+				lowerBoundMatrix = getter.getModal(TravelTimeLowerBoundMatrix.Cache.class)
+						.get(getter.getModal(Network.class), insertionParams.getTravelTimeLowerBoundCellSize(),
+								insertionParams.getTravelTimeLowerBoundTimeBinSize(),
+								getter.get(QSimConfigGroup.class).getEndTime().orElse(30 * 3600),
+								getter.get(GlobalConfigGroup.class).getNumberOfThreads(), travelTime);
+			}
+			var timer = getter.get(MobsimTimer.class);
 			var provider = ExtensiveInsertionProvider.create(drtCfg, insertionCostCalculator,
-					getter.getModal(DvrpTravelTimeMatrix.class), getter.getModal(TravelTime.class),
-					getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool());
+					getter.getModal(DvrpTravelTimeMatrix.class), lowerBoundMatrix, travelTime,
+					getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(), timer::getTimeOfDay);
 			return new DefaultDrtInsertionSearch(provider, getter.getModal(DetourPathCalculator.class),
 					insertionCostCalculator, drtCfg.getStopDuration());
 		})).asEagerSingleton();
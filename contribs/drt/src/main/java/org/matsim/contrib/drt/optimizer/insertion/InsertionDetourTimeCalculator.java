@@ -4,6 +4,7 @@ import static org.matsim.contrib.drt.schedule.DrtTaskBaseType.STOP;
 
 import javax.annotation.Nullable;
 
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Insertion;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.InsertionPoint;
@@ -51,8 +52,8 @@ public class InsertionDetourTimeCalculator {
 			return calcPickupDetourInfoIfPickupToDropoffDetour(vEntry, pickup, toPickupTT, fromPickupTT);
 		}
 
-		double toPickupDepartureTime = pickup.previousWaypoint.getDepartureTime();
-		if (pickup.newWaypoint.getLink() == pickup.previousWaypoint.getLink()) {
+		double toPickupDepartureTime = vEntry.getDepartureTime(pickup.index);
+		if (pickup.newWaypoint.getLink() == vEntry.getLink(pickup.index)) {
 			// no detour, but possible additional stop duration
 			double additionalStopDuration = calcAdditionalPickupStopDurationIfSameLinkAsPrevious(vEntry, pickup.index);
 			double pickupTimeLoss = additionalStopDuration;
@@ -75,26 +76,41 @@ public class InsertionDetourTimeCalculator {
 
 		InsertionPoint dropoff = insertion.dropoff;
 		VehicleEntry vEntry = insertion.vehicleEntry;
+		double dropoffTimeLoss = calcDropoffTimeLoss(vEntry, insertion.pickup.index, dropoff.index,
+				dropoff.newWaypoint.getLink(), toDropoffTT, fromDropoffTT);
 
-		if (dropoff.newWaypoint.getLink() == dropoff.previousWaypoint.getLink()) {
+		if (dropoff.newWaypoint.getLink() == vEntry.getLink(dropoff.index)) {
 			// no detour, no additional stop duration
-			double dropoffTimeLoss = 0;
-			double arrivalTime = dropoff.previousWaypoint.getArrivalTime() + pickupDetourInfo.pickupTimeLoss;
+			double arrivalTime = vEntry.getArrivalTime(dropoff.index) + pickupDetourInfo.pickupTimeLoss;
 			return new DropoffDetourInfo(arrivalTime, dropoffTimeLoss);
 		}
 
-		double replacedDriveTT = calculateReplacedDriveDuration(vEntry, dropoff.index);
-		double dropoffTimeLoss = toDropoffTT + stopDuration + fromDropoffTT - replacedDriveTT;
-		double arrivalTime = dropoff.previousWaypoint.getDepartureTime()
-				+ pickupDetourInfo.pickupTimeLoss
-				+ toDropoffTT;
+		double arrivalTime = vEntry.getDepartureTime(dropoff.index) + pickupDetourInfo.pickupTimeLoss + toDropoffTT;
 		return new DropoffDetourInfo(arrivalTime, dropoffTimeLoss);
 	}
 
+	/**
+	 * Same as {@code calcDropoffDetourInfo(...).dropoffTimeLoss}, but computed only from the primitive data of the
+	 * vehicle entry, so infeasible insertions can be discarded without creating the insertion objects.
+	 */
+	public double calcDropoffTimeLoss(VehicleEntry vEntry, int pickupIdx, int dropoffIdx, Link dropoffLink,
+			double toDropoffTT, double fromDropoffTT) {
+		if (pickupIdx == dropoffIdx) {
+			return stopDuration + fromDropoffTT;
+		}
+
+		if (dropoffLink == vEntry.getLink(dropoffIdx)) {
+			return 0;// no detour, no additional stop duration
+		}
+
+		double replacedDriveTT = calculateReplacedDriveDuration(vEntry, dropoffIdx);
+		return toDropoffTT + stopDuration + fromDropoffTT - replacedDriveTT;
+	}
+
 	private PickupDetourInfo calcPickupDetourInfoIfPickupToDropoffDetour(VehicleEntry vEntry, InsertionPoint pickup,
 			double toPickupTT, double fromPickupTT) {
 		final double additionalPickupStopDuration;
-		if (pickup.newWaypoint.getLink() == pickup.previousWaypoint.getLink()) {
+		if (pickup.newWaypoint.getLink() == vEntry.getLink(pickup.index)) {
 			// no drive to pickup, but possible additional stop duration
 			additionalPickupStopDuration = calcAdditionalPickupStopDurationIfSameLinkAsPrevious(vEntry, pickup.index);
 		} else {
@@ -104,7 +120,7 @@ public class InsertionDetourTimeCalculator {
 		double replacedDriveTT = calculateReplacedDriveDuration(vEntry, pickup.index);
 
 		double pickupTimeLoss = toPickupTT + additionalPickupStopDuration + fromPickupTT - replacedDriveTT;
-		double departureTime = pickup.previousWaypoint.getDepartureTime() + toPickupTT + additionalPickupStopDuration;
+		double departureTime = vEntry.getDepartureTime(pickup.index) + toPickupTT + additionalPickupStopDuration;
 		return new PickupDetourInfo(departureTime, pickupTimeLoss);
 	}
 
@@ -130,12 +146,12 @@ public class InsertionDetourTimeCalculator {
 
 		if (replacedDriveTimeEstimator != null) {
 			//use the approximated drive times instead of deriving (presumably more accurate) times from the schedule
-			return replacedDriveTimeEstimator.estimateTime(vEntry.getWaypoint(insertionIdx).getLink(),
-					vEntry.getWaypoint(insertionIdx + 1).getLink());
+			return replacedDriveTimeEstimator.estimateTime(vEntry.getLink(insertionIdx),
+					vEntry.getLink(insertionIdx + 1));
 		}
 
-		double replacedDriveStartTime = vEntry.getWaypoint(insertionIdx).getDepartureTime();
-		double replacedDriveEndTime = vEntry.stops.get(insertionIdx).task.getBeginTime();
+		double replacedDriveStartTime = vEntry.getDepartureTime(insertionIdx);
+		double replacedDriveEndTime = vEntry.getArrivalTime(insertionIdx + 1);
 		return replacedDriveEndTime - replacedDriveStartTime;
 	}
 
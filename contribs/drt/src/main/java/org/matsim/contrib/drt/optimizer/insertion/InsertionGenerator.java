@@ -147,19 +147,15 @@ public class InsertionGenerator {
 
 	public List<InsertionWithDetourData> generateInsertions(DrtRequest drtRequest, VehicleEntry vEntry) {
 		int stopCount = vEntry.stops.size();
+		int capacity = vEntry.vehicle.getCapacity();
 		List<InsertionWithDetourData> insertions = new ArrayList<>();
-		int occupancy = vEntry.start.occupancy;
 		for (int i = 0; i < stopCount; i++) {// insertions up to before last stop
-			Waypoint.Stop nextStop = nextStop(vEntry, i);
-
-			if (occupancy < vEntry.vehicle.getCapacity()) {// only not fully loaded arcs
-				if (drtRequest.getFromLink() != nextStop.task.getLink()) {// next stop at different link
+			if (vEntry.getOutgoingOccupancy(i) < capacity) {// only not fully loaded arcs
+				if (drtRequest.getFromLink() != vEntry.getLink(i + 1)) {// next stop at different link
 					generateDropoffInsertions(drtRequest, vEntry, i, insertions);
 				}
 				// else: do not evaluate insertion _before_stop i, evaluate only insertion _after_ stop i
 			}
-
-			occupancy = nextStop.outgoingOccupancy;
 		}
 
 		generateDropoffInsertions(drtRequest, vEntry, stopCount, insertions);// at/after last stop
@@ -170,10 +166,8 @@ public class InsertionGenerator {
 	private void generateDropoffInsertions(DrtRequest request, VehicleEntry vEntry, int i,
 			List<InsertionWithDetourData> insertions) {
 		var pickupInsertion = createPickupInsertion(request, vEntry, i, true);
-		double toPickupTT = detourTimeEstimator.estimateTime(pickupInsertion.previousWaypoint.getLink(),
-				request.getFromLink());
-		double fromPickupTT = detourTimeEstimator.estimateTime(request.getFromLink(),
-				pickupInsertion.nextWaypoint.getLink());
+		double toPickupTT = detourTimeEstimator.estimateTime(vEntry.getLink(i), request.getFromLink());
+		double fromPickupTT = detourTimeEstimator.estimateTime(request.getFromLink(), request.getToLink());
 		var pickupDetourInfo = detourTimeCalculator.calcPickupDetourInfo(vEntry, pickupInsertion, toPickupTT,
 				fromPickupTT, true);
 
@@ -182,7 +176,7 @@ public class InsertionGenerator {
 		if (vEntry.getSlackTime(i) >= pickupDetourInfo.pickupTimeLoss) {
 			// insertion: i -> pickup -> dropoff -> i+1 (only if time slack allows)
 			int j = i;
-			if (i == stopCount || request.getToLink() != nextStop(vEntry, j).task.getLink()) {
+			if (i == stopCount || request.getToLink() != vEntry.getLink(j + 1)) {
 				// next stop at different link
 				// otherwise, do not evaluate insertion _before_stop j, evaluate only insertion _after_ stop j
 				addInsertion(insertions,
@@ -198,7 +192,7 @@ public class InsertionGenerator {
 
 		//calculate it once for all j > i
 		pickupInsertion = createPickupInsertion(request, vEntry, i, false);
-		fromPickupTT = detourTimeEstimator.estimateTime(request.getFromLink(), pickupInsertion.nextWaypoint.getLink());
+		fromPickupTT = detourTimeEstimator.estimateTime(request.getFromLink(), vEntry.getLink(i + 1));
 		pickupDetourInfo = detourTimeCalculator.calcPickupDetourInfo(vEntry, pickupInsertion, toPickupTT, fromPickupTT,
 				false);
 
@@ -206,12 +200,12 @@ public class InsertionGenerator {
 			return; // skip all insertions: i -> pickup -> dropoff
 		}
 
+		int capacity = vEntry.vehicle.getCapacity();
 		for (int j = i + 1; j < stopCount; j++) {// insertions up to before last stop
 			// i -> pickup -> i+1 && j -> dropoff -> j+1
 			// check the capacity constraints if i < j (already validated for `i == j`)
-			Waypoint.Stop currentStop = currentStop(vEntry, j);
-			if (currentStop.outgoingOccupancy == vEntry.vehicle.getCapacity()) {
-				if (request.getToLink() == currentStop.task.getLink()) {
+			if (vEntry.getOutgoingOccupancy(j) == capacity) {
+				if (request.getToLink() == vEntry.getLink(j)) {
 					//special case -- we can insert dropoff exactly at node j
 					addInsertion(insertions,
 							createInsertionWithDetourData(request, vEntry, pickupInsertion, fromPickupTT,
@@ -221,7 +215,7 @@ public class InsertionGenerator {
 				return;// stop iterating -- cannot insert dropoff after node j
 			}
 
-			if (request.getToLink() != nextStop(vEntry, j).task.getLink()) {// next stop at different link
+			if (request.getToLink() != vEntry.getLink(j + 1)) {// next stop at different link
 				//do not evaluate insertion _before_stop j, evaluate only insertion _after_ stop j
 				addInsertion(insertions,
 						createInsertionWithDetourData(request, vEntry, pickupInsertion, fromPickupTT, pickupDetourInfo,
@@ -240,34 +234,27 @@ public class InsertionGenerator {
 		}
 	}
 
-	private Waypoint.Stop currentStop(VehicleEntry entry, int insertionIdx) {
-		return entry.stops.get(insertionIdx - 1);
-	}
-
-	private Waypoint.Stop nextStop(VehicleEntry entry, int insertionIdx) {
-		return entry.stops.get(insertionIdx);
-	}
-
 	private InsertionWithDetourData createInsertionWithDetourData(DrtRequest request, VehicleEntry vehicleEntry,
 			InsertionPoint pickupInsertion, double fromPickupTT, PickupDetourInfo pickupDetourInfo, int dropoffIdx) {
-		var dropoffInsertion = createDropoffInsertion(request, vehicleEntry, pickupInsertion, dropoffIdx);
-		var insertion = new Insertion(vehicleEntry, pickupInsertion, dropoffInsertion);
-
-		double toDropoffTT = pickupInsertion.index == dropoffIdx ?
+		int pickupIdx = pickupInsertion.index;
+		double toDropoffTT = pickupIdx == dropoffIdx ?
 				fromPickupTT :
-				detourTimeEstimator.estimateTime(dropoffInsertion.previousWaypoint.getLink(), request.getToLink());
+				detourTimeEstimator.estimateTime(vehicleEntry.getLink(dropoffIdx), request.getToLink());
 		double fromDropoffTT = dropoffIdx == vehicleEntry.stops.size() ?
 				0 :
-				detourTimeEstimator.estimateTime(request.getToLink(), dropoffInsertion.nextWaypoint.getLink());
-
-		var dropoffDetourInfo = detourTimeCalculator.calcDropoffDetourInfo(insertion, toDropoffTT, fromDropoffTT,
-				pickupDetourInfo);
+				detourTimeEstimator.estimateTime(request.getToLink(), vehicleEntry.getLink(dropoffIdx + 1));
 
-		if (vehicleEntry.getSlackTime(dropoffIdx)
-				< pickupDetourInfo.pickupTimeLoss + dropoffDetourInfo.dropoffTimeLoss) {
+		// check the time slack before creating any objects; most of the generated dropoff insertions are infeasible
+		double dropoffTimeLoss = detourTimeCalculator.calcDropoffTimeLoss(vehicleEntry, pickupIdx, dropoffIdx,
+				request.getToLink(), toDropoffTT, fromDropoffTT);
+		if (vehicleEntry.getSlackTime(dropoffIdx) < pickupDetourInfo.pickupTimeLoss + dropoffTimeLoss) {
 			return null; // skip this dropoff insertion
 		}
 
+		var dropoffInsertion = createDropoffInsertion(request, vehicleEntry, pickupInsertion, dropoffIdx);
+		var insertion = new Insertion(vehicleEntry, pickupInsertion, dropoffInsertion);
+		var dropoffDetourInfo = detourTimeCalculator.calcDropoffDetourInfo(insertion, toDropoffTT, fromDropoffTT,
+				pickupDetourInfo);
 		return new InsertionWithDetourData(insertion, null, new DetourTimeInfo(pickupDetourInfo, dropoffDetourInfo));
 	}
 }
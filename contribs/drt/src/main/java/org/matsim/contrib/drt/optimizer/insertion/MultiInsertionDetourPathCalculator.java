@@ -23,12 +23,19 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Inse
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
+import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
@@ -47,49 +54,136 @@ import org.matsim.core.router.util.TravelTime;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
+ * Paths may be calculated for several requests concurrently (batch insertion, see
+ * {@link DefaultUnplannedRequestInserter}). Each call uses its own set of path searches, taken from a pool that grows
+ * with the number of concurrent calls. If called from a fork-join pool, the four searches are run one after another
+ * on the calling thread, since the requests are then already processed in parallel.
+ * <p>
+ * Optionally, the path data are shared across requests via {@link DetourPathCache}s (one per detour type). Then, the
+ * paths are created eagerly, as lazily created paths depend on the state of the search that computed them.
+ *
  * @author michalm
  */
 public class MultiInsertionDetourPathCalculator implements DetourPathCalculator, MobsimBeforeCleanupListener {
+	private static final Logger log = Logger.getLogger(MultiInsertionDetourPathCalculator.class);
+
 	public static final int MAX_THREADS = 4;
 
-	private final OneToManyPathSearch toPickupPathSearch;
-	private final OneToManyPathSearch fromPickupPathSearch;
-	private final OneToManyPathSearch toDropoffPathSearch;
-	private final OneToManyPathSearch fromDropoffPathSearch;
+	private static class PathSearches {
+		private final OneToManyPathSearch toPickupPathSearch;
+		private final OneToManyPathSearch fromPickupPathSearch;
+		private final OneToManyPathSearch toDropoffPathSearch;
+		private final OneToManyPathSearch fromDropoffPathSearch;
+
+		private PathSearches(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
+				OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch) {
+			this.toPickupPathSearch = toPickupPathSearch;
+			this.fromPickupPathSearch = fromPickupPathSearch;
+			this.toDropoffPathSearch = toDropoffPathSearch;
+			this.fromDropoffPathSearch = fromDropoffPathSearch;
+		}
+	}
+
+	private final Supplier<PathSearches> pathSearchesFactory;
+	private final Queue<PathSearches> idlePathSearches = new ConcurrentLinkedQueue<>();
 
 	private final ExecutorService executorService;
 
+	@Nullable
+	private final DetourPathCache toPickupCache;
+	@Nullable
+	private final DetourPathCache fromPickupCache;
+	@Nullable
+	private final DetourPathCache toDropoffCache;
+	@Nullable
+	private final DetourPathCache fromDropoffCache;
+
 	public MultiInsertionDetourPathCalculator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
 			DrtConfigGroup drtCfg) {
 		SpeedyGraph graph = new SpeedyGraph(network);
 		IdMap<Node, Node> nodeMap = new IdMap<>(Node.class);
 		nodeMap.putAll(network.getNodes());
 
-		toPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		toDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
+		double cacheTimeBinSize = drtCfg.getDrtInsertionSearchParams() instanceof ExtensiveInsertionSearchParams ?
+				((ExtensiveInsertionSearchParams)drtCfg.getDrtInsertionSearchParams()).getDetourPathCacheTimeBinSize() :
+				0;
+		boolean lazyPathCreation = cacheTimeBinSize == 0;
+		pathSearchesFactory = () -> new PathSearches(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, lazyPathCreation),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, lazyPathCreation),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, lazyPathCreation),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, lazyPathCreation));
 		executorService = Executors.newFixedThreadPool(Math.min(drtCfg.getNumberOfThreads(), MAX_THREADS));
+
+		toPickupCache = lazyPathCreation ? null : new DetourPathCache(cacheTimeBinSize);
+		fromPickupCache = lazyPathCreation ? null : new DetourPathCache(cacheTimeBinSize);
+		toDropoffCache = lazyPathCreation ? null : new DetourPathCache(cacheTimeBinSize);
+		fromDropoffCache = lazyPathCreation ? null : new DetourPathCache(cacheTimeBinSize);
 	}
 
+	// the given searches are shared by all calls, so concurrent calls are not supported
 	@VisibleForTesting
 	MultiInsertionDetourPathCalculator(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
 			OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch, int numberOfThreads) {
-		this.toPickupPathSearch = toPickupPathSearch;
-		this.fromPickupPathSearch = fromPickupPathSearch;
-		this.toDropoffPathSearch = toDropoffPathSearch;
-		this.fromDropoffPathSearch = fromDropoffPathSearch;
+		this(toPickupPathSearch, fromPickupPathSearch, toDropoffPathSearch, fromDropoffPathSearch, numberOfThreads, 0);
+	}
+
+	@VisibleForTesting
+	MultiInsertionDetourPathCalculator(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
+			OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch, int numberOfThreads,
+			double cacheTimeBinSize) {
+		PathSearches pathSearches = new PathSearches(toPickupPathSearch, fromPickupPathSearch, toDropoffPathSearch,
+				fromDropoffPathSearch);
+		pathSearchesFactory = () -> pathSearches;
 		executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS));
+
+		boolean useCache = cacheTimeBinSize > 0;
+		toPickupCache = useCache ? new DetourPathCache(cacheTimeBinSize) : null;
+		fromPickupCache = useCache ? new DetourPathCache(cacheTimeBinSize) : null;
+		toDropoffCache = useCache ? new DetourPathCache(cacheTimeBinSize) : null;
+		fromDropoffCache = useCache ? new DetourPathCache(cacheTimeBinSize) : null;
 	}
 
 	@Override
 	public DetourPathDataCache calculatePaths(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+		PathSearches searches = idlePathSearches.poll();
+		if (searches == null) {
+			searches = pathSearchesFactory.get();
+		}
+		try {
+			return calculatePaths(searches, drtRequest, filteredInsertions);
+		} finally {
+			idlePathSearches.add(searches);
+		}
+	}
+
+	private DetourPathDataCache calculatePaths(PathSearches searches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
+		if (toPickupCache != null) {
+			// searches of this and later requests start no earlier than the submission of this request
+			toPickupCache.advance(drtRequest.getSubmissionTime());
+			fromPickupCache.advance(drtRequest.getSubmissionTime());
+			toDropoffCache.advance(drtRequest.getSubmissionTime());
+			fromDropoffCache.advance(drtRequest.getSubmissionTime());
+		}
+
+		if (ForkJoinTask.inForkJoinPool()) {
+			return new DetourPathDataCache(calcPathsToPickup(searches, drtRequest, filteredInsertions),
+					calcPathsFromPickup(searches, drtRequest, filteredInsertions),
+					calcPathsToDropoff(searches, drtRequest, filteredInsertions),
+					calcPathsFromDropoff(searches, drtRequest, filteredInsertions), PathData.EMPTY);
+		}
+
 		// with vehicle insertion filtering -- pathsToPickup is the most computationally demanding task, while
 		// pathsFromDropoff is the least demanding one
-		var pathsToPickupFuture = executorService.submit(() -> calcPathsToPickup(drtRequest, filteredInsertions));
-		var pathsFromPickupFuture = executorService.submit(() -> calcPathsFromPickup(drtRequest, filteredInsertions));
-		var pathsToDropoffFuture = executorService.submit(() -> calcPathsToDropoff(drtRequest, filteredInsertions));
-		var pathsFromDropoffFuture = executorService.submit(() -> calcPathsFromDropoff(drtRequest, filteredInsertions));
+		var pathsToPickupFuture = executorService.submit(
+				() -> calcPathsToPickup(searches, drtRequest, filteredInsertions));
+		var pathsFromPickupFuture = executorService.submit(
+				() -> calcPathsFromPickup(searches, drtRequest, filteredInsertions));
+		var pathsToDropoffFuture = executorService.submit(
+				() -> calcPathsToDropoff(searches, drtRequest, filteredInsertions));
+		var pathsFromDropoffFuture = executorService.submit(
+				() -> calcPathsFromDropoff(searches, drtRequest, filteredInsertions));
 
 		try {
 			return new DetourPathDataCache(pathsToPickupFuture.get(), pathsFromPickupFuture.get(),
@@ -99,38 +193,56 @@ public class MultiInsertionDetourPathCalculator implements DetourPathCalculator,
 		}
 	}
 
-	private Map<Link, PathData> calcPathsToPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsToPickup(PathSearches searches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc backward dijkstra from pickup to ends of selected stops + starts
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
 				insertion -> insertion.pickup.previousWaypoint.getLink());
-		return toPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, false);
+		return calcPathDataMap(searches.toPickupPathSearch, toPickupCache, drtRequest.getFromLink(), toLinks,
+				earliestPickupTime, false);
 	}
 
-	private Map<Link, PathData> calcPathsFromPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsFromPickup(PathSearches searches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc forward dijkstra from pickup to beginnings of selected stops + dropoff
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
 				insertion -> insertion.pickup.nextWaypoint.getLink());
-		return fromPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, true);
+		return calcPathDataMap(searches.fromPickupPathSearch, fromPickupCache, drtRequest.getFromLink(), toLinks,
+				earliestPickupTime, true);
 	}
 
-	private Map<Link, PathData> calcPathsToDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsToDropoff(PathSearches searches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc backward dijkstra from dropoff to ends of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
 						.filter(insertion -> !(insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup)),
 				insertion -> insertion.dropoff.previousWaypoint.getLink());
-		return toDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, false);
+		return calcPathDataMap(searches.toDropoffPathSearch, toDropoffCache, drtRequest.getToLink(), toLinks,
+				latestDropoffTime, false);
 	}
 
-	private Map<Link, PathData> calcPathsFromDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsFromDropoff(PathSearches searches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc forward dijkstra from dropoff to beginnings of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
 						.filter(insertion -> !(insertion.dropoff.nextWaypoint instanceof Waypoint.End)),
 				insertion -> insertion.dropoff.nextWaypoint.getLink());
-		return fromDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, true);
+		return calcPathDataMap(searches.fromDropoffPathSearch, fromDropoffCache, drtRequest.getToLink(), toLinks,
+				latestDropoffTime, true);
+	}
+
+	private Map<Link, PathData> calcPathDataMap(OneToManyPathSearch pathSearch, @Nullable DetourPathCache cache,
+			Link fromLink, Collection<Link> toLinks, double startTime, boolean forward) {
+		if (cache == null) {
+			return pathSearch.calcPathDataMap(fromLink, toLinks, startTime, forward);
+		}
+		return cache.getPathData(fromLink, toLinks, startTime,
+				(missingToLinks, timeBinStart) -> pathSearch.calcPathDataMap(fromLink, missingToLinks, timeBinStart,
+						forward));
 	}
 
 	private Collection<Link> getDetourLinks(Stream<Insertion> filteredInsertions,
@@ -143,5 +255,17 @@ public class MultiInsertionDetourPathCalculator implements DetourPathCalculator,
 	@Override
 	public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
 		executorService.shutdown();
+		if (toPickupCache != null) {
+			logCacheStats("to pickup", toPickupCache);
+			logCacheStats("from pickup", fromPickupCache);
+			logCacheStats("to dropoff", toDropoffCache);
+			logCacheStats("from dropoff", fromDropoffCache);
+		}
+	}
+
+	private void logCacheStats(String detourType, DetourPathCache cache) {
+		log.info(String.format("Detour path cache (%s): %d hits, %d misses, hit rate %.3f", detourType,
+				cache.getHits(), cache.getMisses(), cache.getHitRate()));
+		cache.clear();
 	}
 }
@@ -26,10 +26,15 @@ import static org.matsim.contrib.dvrp.path.VrpPaths.FIRST_LINK_TT;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
@@ -52,18 +57,33 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 
 /**
+ * Like {@link MultiInsertionDetourPathCalculator}, each call uses its own set of path calculators taken from a pool,
+ * and the paths are calculated on the calling thread if it belongs to a fork-join pool.
+ *
  * @author Michal Maciejewski (michalm)
  */
 public class SingleInsertionDetourPathCalculator implements DetourPathCalculator, MobsimBeforeCleanupListener {
 
 	public static final int MAX_THREADS = 4;
 
+	private static class PathCalculators {
+		private final LeastCostPathCalculator toPickupPathSearch;
+		private final LeastCostPathCalculator fromPickupPathSearch;
+		private final LeastCostPathCalculator toDropoffPathSearch;
+		private final LeastCostPathCalculator fromDropoffPathSearch;
+
+		private PathCalculators(Supplier<LeastCostPathCalculator> pathCalculatorFactory) {
+			toPickupPathSearch = pathCalculatorFactory.get();
+			fromPickupPathSearch = pathCalculatorFactory.get();
+			toDropoffPathSearch = pathCalculatorFactory.get();
+			fromDropoffPathSearch = pathCalculatorFactory.get();
+		}
+	}
+
 	private final TravelTime travelTime;
 
-	private final LeastCostPathCalculator toPickupPathSearch;
-	private final LeastCostPathCalculator fromPickupPathSearch;
-	private final LeastCostPathCalculator toDropoffPathSearch;
-	private final LeastCostPathCalculator fromDropoffPathSearch;
+	private final Supplier<LeastCostPathCalculator> pathCalculatorFactory;
+	private final Queue<PathCalculators> idlePathCalculators = new ConcurrentLinkedQueue<>();
 
 	private final ExecutorService executorService;
 
@@ -77,15 +97,26 @@ public class SingleInsertionDetourPathCalculator implements DetourPathCalculator
 			int numberOfThreads, LeastCostPathCalculatorFactory pathCalculatorFactory) {
 		this.travelTime = travelTime;
 
-		toPickupPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
-		fromPickupPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
-		toDropoffPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
-		fromDropoffPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
+		this.pathCalculatorFactory = () -> pathCalculatorFactory.createPathCalculator(network, travelDisutility,
+				travelTime);
 		executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS));
 	}
 
 	@Override
 	public DetourPathDataCache calculatePaths(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+		PathCalculators calculators = idlePathCalculators.poll();
+		if (calculators == null) {
+			calculators = new PathCalculators(pathCalculatorFactory);
+		}
+		try {
+			return calculatePaths(calculators, drtRequest, filteredInsertions);
+		} finally {
+			idlePathCalculators.add(calculators);
+		}
+	}
+
+	private DetourPathDataCache calculatePaths(PathCalculators calculators, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		Link pickup = drtRequest.getFromLink();
 		Link dropoff = drtRequest.getToLink();
 
@@ -98,26 +129,26 @@ public class SingleInsertionDetourPathCalculator implements DetourPathCalculator
 		// TODO use times from InsertionWithDetourData<Double> as approximate departure times for Dijkstra (will require
 		//  passing it as an argument, instead of Insertion)
 
-		Future<Map<Link, PathData>> pathsToPickupFuture = executorService.submit(
+		Future<Map<Link, PathData>> pathsToPickupFuture = submit(
 				() -> Map.of(insertion.pickup.previousWaypoint.getLink(),
-						calcPathData(toPickupPathSearch, insertion.pickup.previousWaypoint.getLink(), pickup,
+						calcPathData(calculators.toPickupPathSearch, insertion.pickup.previousWaypoint.getLink(), pickup,
 								earliestPickupTime)));
 
-		Future<Map<Link, PathData>> pathsFromPickupFuture = executorService.submit(
+		Future<Map<Link, PathData>> pathsFromPickupFuture = submit(
 				() -> Map.of(insertion.pickup.nextWaypoint.getLink(),
-						calcPathData(fromPickupPathSearch, pickup, insertion.pickup.nextWaypoint.getLink(),
+						calcPathData(calculators.fromPickupPathSearch, pickup, insertion.pickup.nextWaypoint.getLink(),
 								earliestPickupTime)));
 
 		Future<Map<Link, PathData>> pathsToDropoffFuture = insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup ?
 				Futures.immediateFuture(ImmutableMap.of()) :
-				executorService.submit(() -> Map.of(insertion.dropoff.previousWaypoint.getLink(),
-						calcPathData(toDropoffPathSearch, insertion.dropoff.previousWaypoint.getLink(), dropoff,
+				submit(() -> Map.of(insertion.dropoff.previousWaypoint.getLink(),
+						calcPathData(calculators.toDropoffPathSearch, insertion.dropoff.previousWaypoint.getLink(), dropoff,
 								latestDropoffTime)));
 
 		Future<Map<Link, PathData>> pathsFromDropoffFuture = insertion.dropoff.nextWaypoint instanceof Waypoint.End ?
 				Futures.immediateFuture(ImmutableMap.of()) :
-				executorService.submit(() -> Map.of(insertion.dropoff.nextWaypoint.getLink(),
-						calcPathData(fromDropoffPathSearch, dropoff, insertion.dropoff.nextWaypoint.getLink(),
+				submit(() -> Map.of(insertion.dropoff.nextWaypoint.getLink(),
+						calcPathData(calculators.fromDropoffPathSearch, dropoff, insertion.dropoff.nextWaypoint.getLink(),
 								latestDropoffTime)));
 
 		try {
@@ -128,6 +159,18 @@ public class SingleInsertionDetourPathCalculator implements DetourPathCalculator
 		}
 	}
 
+	private Future<Map<Link, PathData>> submit(Callable<Map<Link, PathData>> task) {
+		if (ForkJoinTask.inForkJoinPool()) {
+			// requests are already processed in parallel (batch insertion)
+			try {
+				return Futures.immediateFuture(task.call());
+			} catch (Exception e) {
+				return Futures.immediateFailedFuture(e);
+			}
+		}
+		return executorService.submit(task);
+	}
+
 	@Override
 	public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
 		executorService.shutdown();
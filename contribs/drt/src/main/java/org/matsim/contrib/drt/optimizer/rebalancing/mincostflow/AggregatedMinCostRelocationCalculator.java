@@ -23,6 +23,10 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
+import org.apache.log4j.Logger;
+
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.drt.analysis.zonal.DrtZone;
@@ -31,13 +35,17 @@ import org.matsim.contrib.drt.optimizer.rebalancing.RebalancingStrategy.Relocati
 import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 import org.matsim.contrib.dvrp.schedule.Schedules;
 import org.matsim.contrib.common.util.DistanceUtils;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeCleanupListener;
 
 /**
  * Computes inter-zonal flows at the zonal (aggregated) level (i.e. without looking into individual vehicles)
  *
  * @author michalm
  */
-public class AggregatedMinCostRelocationCalculator implements ZonalRelocationCalculator {
+public class AggregatedMinCostRelocationCalculator implements ZonalRelocationCalculator, MobsimBeforeCleanupListener {
+	private static final Logger log = Logger.getLogger(AggregatedMinCostRelocationCalculator.class);
+
 	public static class DrtZoneVehicleSurplus {
 		public final DrtZone zone;
 		public final int surplus;
@@ -49,15 +57,38 @@ public class AggregatedMinCostRelocationCalculator implements ZonalRelocationCal
 	}
 
 	private final DrtZoneTargetLinkSelector targetLinkSelector;
+	@Nullable
+	private final NetworkSimplexTransportProblem<DrtZone, DrtZone> networkSimplex;
 
 	public AggregatedMinCostRelocationCalculator(DrtZoneTargetLinkSelector targetLinkSelector) {
+		this(targetLinkSelector, null);
+	}
+
+	/**
+	 * @param networkSimplex if null, {@link TransportProblem} is used
+	 */
+	public AggregatedMinCostRelocationCalculator(DrtZoneTargetLinkSelector targetLinkSelector,
+			@Nullable NetworkSimplexTransportProblem<DrtZone, DrtZone> networkSimplex) {
 		this.targetLinkSelector = targetLinkSelector;
+		this.networkSimplex = networkSimplex;
 	}
 
 	@Override
 	public List<Relocation> calcRelocations(List<DrtZoneVehicleSurplus> vehicleSurplus,
 			Map<DrtZone, List<DvrpVehicle>> rebalancableVehiclesPerZone) {
-		return calcRelocations(rebalancableVehiclesPerZone, TransportProblem.solveForVehicleSurplus(vehicleSurplus));
+		var flows = networkSimplex == null ?
+				TransportProblem.solveForVehicleSurplus(vehicleSurplus) :
+				TransportProblem.solveForVehicleSurplus(vehicleSurplus, networkSimplex::solve);
+		return calcRelocations(rebalancableVehiclesPerZone, flows);
+	}
+
+	@Override
+	public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
+		if (networkSimplex != null && networkSimplex.getSolveCount() > 0) {
+			log.info(String.format("Transport problem (network simplex): solves=%d, avg time=%.2f ms, max time=%.2f ms",
+					networkSimplex.getSolveCount(), networkSimplex.getAverageSolveTimeMillis(),
+					networkSimplex.getMaxSolveTimeMillis()));
+		}
 	}
 
 	private List<Relocation> calcRelocations(Map<DrtZone, List<DvrpVehicle>> rebalancableVehiclesPerZone,
@@ -22,6 +22,7 @@ package org.matsim.contrib.drt.optimizer.rebalancing.mincostflow;
 
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.contrib.drt.analysis.zonal.DrtZonalSystem;
+import org.matsim.contrib.drt.analysis.zonal.DrtZone;
 import org.matsim.contrib.drt.analysis.zonal.DrtZoneTargetLinkSelector;
 import org.matsim.contrib.drt.optimizer.rebalancing.RebalancingParams;
 import org.matsim.contrib.drt.optimizer.rebalancing.RebalancingStrategy;
@@ -96,9 +97,17 @@ public class DrtModeMinCostFlowRebalancingModule extends AbstractDvrpModeModule
 								+ strategyParams.getZonalDemandEstimatorType());
 				}
 
-				bindModal(ZonalRelocationCalculator.class).toProvider(modalProvider(
-						getter -> new AggregatedMinCostRelocationCalculator(
-								getter.getModal(DrtZoneTargetLinkSelector.class)))).asEagerSingleton();
+				addModalComponent(AggregatedMinCostRelocationCalculator.class, modalProvider(getter -> {
+					var networkSimplex = strategyParams.getTransportProblemSolverType()
+							== MinCostFlowRebalancingStrategyParams.TransportProblemSolverType.NetworkSimplex ?
+							new NetworkSimplexTransportProblem<DrtZone, DrtZone>(
+									TransportProblem::calcStraightLineDistance,
+									strategyParams.getNearestZonesLimit()) :
+							null;
+					return new AggregatedMinCostRelocationCalculator(getter.getModal(DrtZoneTargetLinkSelector.class),
+							networkSimplex);
+				}));
+				bindModal(ZonalRelocationCalculator.class).to(modalKey(AggregatedMinCostRelocationCalculator.class));
 			}
 		});
 
@@ -41,6 +41,10 @@ public final class MinCostFlowRebalancingStrategyParams extends ReflectiveConfig
 		PreviousIterationDemand, None
 	}
 
+	public enum TransportProblemSolverType {
+		MinCostFlow, NetworkSimplex
+	}
+
 	public static final String TARGET_ALPHA = "targetAlpha";
 	static final String TARGET_ALPHA_EXP = "alpha coefficient in linear target calculation."
 			+ " In general, should be lower than 1.0 to prevent over-reacting and high empty mileage.";
@@ -66,6 +70,17 @@ public final class MinCostFlowRebalancingStrategyParams extends ReflectiveConfig
 			+ " Used when 'zonalDemandEstimatorType' is not set to 'None'."
 			+ " Default value is 1800 s.";
 
+	public static final String TRANSPORT_PROBLEM_SOLVER_TYPE = "transportProblemSolverType";
+	static final String TRANSPORT_PROBLEM_SOLVER_TYPE_EXP = "Defines the solver of the zonal transport problem."
+			+ " Can be one of [MinCostFlow, NetworkSimplex]. NetworkSimplex is faster for large zone systems"
+			+ " and warm-starts from the solution of the previous rebalancing interval."
+			+ " Current default is MinCostFlow";
+
+	public static final String NEAREST_ZONES_LIMIT = "nearestZonesLimit";
+	static final String NEAREST_ZONES_LIMIT_EXP = "Used only with the NetworkSimplex solver."
+			+ " If positive, vehicles are only relocated between each zone and its k nearest zones"
+			+ " (unless the restricted problem is infeasible). 0 means no restriction. Default value is 0.";
+
 	@NotNull
 	private RebalancingTargetCalculatorType rebalancingTargetCalculatorType = RebalancingTargetCalculatorType.EstimatedDemand;
 
@@ -81,6 +96,12 @@ public final class MinCostFlowRebalancingStrategyParams extends ReflectiveConfig
 	@NotNull
 	private ZonalDemandEstimatorType zonalDemandEstimatorType = ZonalDemandEstimatorType.PreviousIterationDemand;
 
+	@NotNull
+	private TransportProblemSolverType transportProblemSolverType = TransportProblemSolverType.MinCostFlow;
+
+	@PositiveOrZero
+	private int nearestZonesLimit = 0;
+
 	public MinCostFlowRebalancingStrategyParams() {
 		super(SET_NAME);
 	}
@@ -92,6 +113,8 @@ public final class MinCostFlowRebalancingStrategyParams extends ReflectiveConfig
 		map.put(TARGET_BETA, TARGET_BETA_EXP);
 		map.put(ZONAL_DEMAND_ESTIMATOR_TYPE, ZONAL_DEMAND_ESTIMATOR_TYPE_EXP);
 		map.put(DEMAND_ESTIMATION_PERIOD, DEMAND_ESTIMATION_PERIOD_EXP);
+		map.put(TRANSPORT_PROBLEM_SOLVER_TYPE, TRANSPORT_PROBLEM_SOLVER_TYPE_EXP);
+		map.put(NEAREST_ZONES_LIMIT, NEAREST_ZONES_LIMIT_EXP);
 		return map;
 	}
 
@@ -174,4 +197,36 @@ public final class MinCostFlowRebalancingStrategyParams extends ReflectiveConfig
 	public void setZonalDemandEstimatorType(ZonalDemandEstimatorType estimatorType) {
 		this.zonalDemandEstimatorType = estimatorType;
 	}
+
+	/**
+	 * @return -- {@value #TRANSPORT_PROBLEM_SOLVER_TYPE_EXP}
+	 */
+	@StringGetter(TRANSPORT_PROBLEM_SOLVER_TYPE)
+	public TransportProblemSolverType getTransportProblemSolverType() {
+		return transportProblemSolverType;
+	}
+
+	/**
+	 * @param solverType -- {@value #TRANSPORT_PROBLEM_SOLVER_TYPE_EXP}
+	 */
+	@StringSetter(TRANSPORT_PROBLEM_SOLVER_TYPE)
+	public void setTransportProblemSolverType(TransportProblemSolverType solverType) {
+		this.transportProblemSolverType = solverType;
+	}
+
+	/**
+	 * @return -- {@value #NEAREST_ZONES_LIMIT_EXP}
+	 */
+	@StringGetter(NEAREST_ZONES_LIMIT)
+	public int getNearestZonesLimit() {
+		return nearestZonesLimit;
+	}
+
+	/**
+	 * @param nearestZonesLimit -- {@value #NEAREST_ZONES_LIMIT_EXP}
+	 */
+	@StringSetter(NEAREST_ZONES_LIMIT)
+	public void setNearestZonesLimit(int nearestZonesLimit) {
+		this.nearestZonesLimit = nearestZonesLimit;
+	}
 }
@@ -0,0 +1,469 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.drt.optimizer.rebalancing.mincostflow;
+
+import static java.util.stream.Collectors.toSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.matsim.contrib.drt.optimizer.rebalancing.mincostflow.TransportProblem.Flow;
+
+/**
+ * Solves the same transport problem as {@link TransportProblem}, but with a primal network simplex operating on
+ * primitive arrays (instead of successive shortest paths on the complete bipartite graph of edge objects).
+ * <p>
+ * Additional features:
+ * <ul>
+ * <li>warm start: arcs that carried flow in the previous solution are priced first, so similar consecutive problems
+ * (e.g. subsequent rebalancing intervals) need fewer pivots,</li>
+ * <li>optional restriction to the k nearest consumers of each producer (and k nearest producers of each consumer);
+ * if the restricted problem is infeasible, the complete problem is solved,</li>
+ * <li>solve time statistics.</li>
+ * </ul>
+ * Not thread-safe.
+ */
+public class NetworkSimplexTransportProblem<P, C> {
+	private final ToIntBiFunction<P, C> costFunction;
+	private final int nearestNeighbourLimit;
+
+	// warm start: producer-consumer pairs with a positive flow in the previous solution
+	private Set<Pair<P, C>> previousFlowPairs = Set.of();
+
+	private int solveCount = 0;
+	private long totalSolveNanos = 0;
+	private long maxSolveNanos = 0;
+
+	/**
+	 * @param nearestNeighbourLimit 0 (complete bipartite graph) or the number of nearest consumers (producers) of
+	 *                              each producer (consumer) connected by arcs
+	 */
+	public NetworkSimplexTransportProblem(ToIntBiFunction<P, C> costFunction, int nearestNeighbourLimit) {
+		this.costFunction = costFunction;
+		this.nearestNeighbourLimit = nearestNeighbourLimit;
+	}
+
+	public List<Flow<P, C>> solve(List<Pair<P, Integer>> supply, List<Pair<C, Integer>> demand) {
+		long start = System.nanoTime();
+		List<Flow<P, C>> flows = solveImpl(supply, demand);
+		long nanos = System.nanoTime() - start;
+
+		solveCount++;
+		totalSolveNanos += nanos;
+		maxSolveNanos = Math.max(maxSolveNanos, nanos);
+
+		previousFlowPairs = flows.stream().map(f -> Pair.of(f.origin, f.destination)).collect(toSet());
+		return flows;
+	}
+
+	public int getSolveCount() {
+		return solveCount;
+	}
+
+	public double getAverageSolveTimeMillis() {
+		return solveCount == 0 ? 0 : totalSolveNanos / 1e6 / solveCount;
+	}
+
+	public double getMaxSolveTimeMillis() {
+		return maxSolveNanos / 1e6;
+	}
+
+	private List<Flow<P, C>> solveImpl(List<Pair<P, Integer>> supply, List<Pair<C, Integer>> demand) {
+		int producerCount = supply.size();
+		int consumerCount = demand.size();
+		if (producerCount == 0 || consumerCount == 0) {
+			return List.of();
+		}
+
+		int[][] costs = new int[producerCount][consumerCount];
+		for (int i = 0; i < producerCount; i++) {
+			for (int j = 0; j < consumerCount; j++) {
+				costs[i][j] = costFunction.applyAsInt(supply.get(i).getKey(), demand.get(j).getKey());
+			}
+		}
+
+		if (nearestNeighbourLimit > 0 && (nearestNeighbourLimit < producerCount
+				|| nearestNeighbourLimit < consumerCount)) {
+			var flows = solve(supply, demand, costs, selectNearestPairs(costs));
+			if (flows != null) {
+				return flows;
+			}
+			// restricted problem infeasible: fall back to the complete bipartite graph
+		}
+		return solve(supply, demand, costs, null);
+	}
+
+	private boolean[][] selectNearestPairs(int[][] costs) {
+		int producerCount = costs.length;
+		int consumerCount = costs[0].length;
+		boolean[][] selected = new boolean[producerCount][consumerCount];
+		for (int i = 0; i < producerCount; i++) {
+			int producer = i;
+			IntStream.range(0, consumerCount)
+					.boxed()
+					.sorted(Comparator.comparingInt(j -> costs[producer][j]))
+					.limit(nearestNeighbourLimit)
+					.forEach(j -> selected[producer][j] = true);
+		}
+		for (int j = 0; j < consumerCount; j++) {
+			int consumer = j;
+			IntStream.range(0, producerCount)
+					.boxed()
+					.sorted(Comparator.comparingInt(i -> costs[i][consumer]))
+					.limit(nearestNeighbourLimit)
+					.forEach(i -> selected[i][consumer] = true);
+		}
+		return selected;
+	}
+
+	@Nullable
+	private List<Flow<P, C>> solve(List<Pair<P, Integer>> supply, List<Pair<C, Integer>> demand, int[][] costs,
+			@Nullable boolean[][] selectedPairs) {
+		int producerCount = supply.size();
+		int consumerCount = demand.size();
+		int totalSupply = supply.stream().mapToInt(Pair::getValue).sum();
+		int totalDemand = demand.stream().mapToInt(Pair::getValue).sum();
+
+		// nodes: producers, consumers, dummy consumer/producer (if unbalanced), root
+		boolean hasDummy = totalSupply != totalDemand;
+		int dummy = producerCount + consumerCount;
+		int nodeCount = producerCount + consumerCount + (hasDummy ? 1 : 0) + 1;
+		int[] nodeSupply = new int[nodeCount];
+		for (int i = 0; i < producerCount; i++) {
+			nodeSupply[i] = supply.get(i).getValue();
+		}
+		for (int j = 0; j < consumerCount; j++) {
+			nodeSupply[producerCount + j] = -demand.get(j).getValue();
+		}
+		if (hasDummy) {
+			nodeSupply[dummy] = totalDemand - totalSupply;
+		}
+
+		var simplex = new NetworkSimplex(nodeCount);
+		for (int i = 0; i < producerCount; i++) {
+			for (int j = 0; j < consumerCount; j++) {
+				if (selectedPairs == null || selectedPairs[i][j]) {
+					int arc = simplex.addArc(i, producerCount + j, costs[i][j]);
+					if (previousFlowPairs.contains(Pair.of(supply.get(i).getKey(), demand.get(j).getKey()))) {
+						simplex.addHotArc(arc);
+					}
+				}
+			}
+		}
+		if (totalSupply > totalDemand) {
+			for (int i = 0; i < producerCount; i++) {
+				simplex.addArc(i, dummy, 0);
+			}
+		} else if (totalSupply < totalDemand) {
+			for (int j = 0; j < consumerCount; j++) {
+				simplex.addArc(dummy, producerCount + j, 0);
+			}
+		}
+
+		if (!simplex.solve(nodeSupply)) {
+			return null;
+		}
+
+		List<Flow<P, C>> flows = new ArrayList<>();
+		for (int arc = 0; arc < simplex.arcCount; arc++) {
+			int from = simplex.arcFrom[arc];
+			int to = simplex.arcTo[arc];
+			int flow = simplex.arcFlow[arc];
+			if (flow > 0 && from < producerCount && to >= producerCount && to < dummy) {
+				flows.add(new Flow<>(supply.get(from).getKey(), demand.get(to - producerCount).getKey(), flow));
+			}
+		}
+		return flows;
+	}
+
+	/**
+	 * Primal network simplex for uncapacitated min-cost flow. The initial basis consists of artificial arcs connecting
+	 * all nodes with an artificial root (big-M method). Degenerate cycling is prevented by keeping the spanning tree
+	 * strongly feasible (Cunningham's rule for the leaving arc). After each pivot, the tree structure is recomputed
+	 * (O(n)); this is cheap compared to pricing on dense bipartite graphs.
+	 */
+	static final class NetworkSimplex {
+		private final int nodeCount;
+		private final int root;
+
+		private int arcCount = 0;
+		private int[] arcFrom = new int[16];
+		private int[] arcTo = new int[16];
+		private long[] arcCost = new long[16];
+		private int[] arcFlow;
+		private boolean[] inTree;
+		private int realArcCount;
+
+		private int[] hotArcs = new int[16];
+		private int hotArcCount = 0;
+
+		// spanning tree
+		private int[] treeArcs;
+		private int[] treePosition;
+		private final int[] parent;
+		private final int[] parentArc;
+		private final int[] depth;
+		private final long[] potential;
+
+		// adjacency of tree arcs (rebuilt after each pivot)
+		private final int[] adjHead;
+		private final int[] adjNext;
+		private final int[] adjArc;
+		private final int[] queue;
+
+		private int nextPricedArc = 0;
+
+		NetworkSimplex(int nodeCount) {
+			this.nodeCount = nodeCount;
+			this.root = nodeCount - 1;
+			parent = new int[nodeCount];
+			parentArc = new int[nodeCount];
+			depth = new int[nodeCount];
+			potential = new long[nodeCount];
+			adjHead = new int[nodeCount];
+			adjNext = new int[2 * (nodeCount - 1)];
+			adjArc = new int[2 * (nodeCount - 1)];
+			queue = new int[nodeCount];
+		}
+
+		int addArc(int from, int to, long cost) {
+			if (arcCount == arcFrom.length) {
+				int newLength = 2 * arcFrom.length;
+				arcFrom = Arrays.copyOf(arcFrom, newLength);
+				arcTo = Arrays.copyOf(arcTo, newLength);
+				arcCost = Arrays.copyOf(arcCost, newLength);
+			}
+			arcFrom[arcCount] = from;
+			arcTo[arcCount] = to;
+			arcCost[arcCount] = cost;
+			return arcCount++;
+		}
+
+		void addHotArc(int arc) {
+			if (hotArcCount == hotArcs.length) {
+				hotArcs = Arrays.copyOf(hotArcs, 2 * hotArcs.length);
+			}
+			hotArcs[hotArcCount++] = arc;
+		}
+
+		/**
+		 * @return true if a feasible solution exists (i.e. no flow remains on the artificial arcs)
+		 */
+		boolean solve(int[] nodeSupply) {
+			realArcCount = arcCount;
+			long maxCost = 0;
+			for (int a = 0; a < realArcCount; a++) {
+				maxCost = Math.max(maxCost, arcCost[a]);
+			}
+			long bigM = (maxCost + 1) * nodeCount;
+
+			// artificial arcs: zero-flow arcs must point away from the root (strongly feasible tree)
+			treeArcs = new int[nodeCount - 1];
+			for (int v = 0; v < root; v++) {
+				treeArcs[v] = nodeSupply[v] > 0 ? addArc(v, root, bigM) : addArc(root, v, bigM);
+			}
+			arcFlow = new int[arcCount];
+			inTree = new boolean[arcCount];
+			treePosition = new int[arcCount];
+			for (int v = 0; v < root; v++) {
+				int arc = treeArcs[v];
+				arcFlow[arc] = Math.abs(nodeSupply[v]);
+				inTree[arc] = true;
+				treePosition[arc] = v;
+			}
+			rebuildTree();
+
+			int enteringArc;
+			while ((enteringArc = findEnteringArc()) >= 0) {
+				pivot(enteringArc);
+			}
+
+			for (int a = realArcCount; a < arcCount; a++) {
+				if (arcFlow[a] > 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private long reducedCost(int arc) {
+			return arcCost[arc] + potential[arcFrom[arc]] - potential[arcTo[arc]];
+		}
+
+		private int findEnteringArc() {
+			// warm start: prefer the arcs used in the previous solution until none of them improves the solution
+			if (hotArcCount > 0) {
+				int best = -1;
+				long bestReducedCost = 0;
+				for (int i = 0; i < hotArcCount; i++) {
+					int arc = hotArcs[i];
+					if (!inTree[arc]) {
+						long reducedCost = reducedCost(arc);
+						if (reducedCost < bestReducedCost) {
+							bestReducedCost = reducedCost;
+							best = arc;
+						}
+					}
+				}
+				if (best >= 0) {
+					return best;
+				}
+				hotArcCount = 0;
+			}
+
+			// block search pricing
+			int blockSize = Math.max((int)Math.sqrt(arcCount), 10);
+			int best = -1;
+			long bestReducedCost = 0;
+			int inBlock = 0;
+			for (int k = 0; k < arcCount; k++) {
+				int arc = nextPricedArc;
+				nextPricedArc = nextPricedArc + 1 == arcCount ? 0 : nextPricedArc + 1;
+				if (!inTree[arc]) {
+					long reducedCost = reducedCost(arc);
+					if (reducedCost < bestReducedCost) {
+						bestReducedCost = reducedCost;
+						best = arc;
+					}
+				}
+				if (++inBlock == blockSize) {
+					if (best >= 0) {
+						return best;
+					}
+					inBlock = 0;
+				}
+			}
+			return best;
+		}
+
+		private void pivot(int enteringArc) {
+			// the cycle is oriented along the entering arc u->v; it goes: apex -> u, u -> v, v -> apex
+			int u = arcFrom[enteringArc];
+			int v = arcTo[enteringArc];
+
+			int[] uPath = new int[depth[u] + 1];// tree arcs (nodes below them) from u up to the apex
+			int uPathLength = 0;
+			int[] vPath = new int[depth[v] + 1];// tree arcs (nodes below them) from v up to the apex
+			int vPathLength = 0;
+			int a = u;
+			int b = v;
+			while (a != b) {
+				if (depth[a] >= depth[b]) {
+					uPath[uPathLength++] = a;
+					a = parent[a];
+				} else {
+					vPath[vPathLength++] = b;
+					b = parent[b];
+				}
+			}
+
+			// find the leaving arc: the last blocking arc when traversing the cycle from the apex
+			int delta = Integer.MAX_VALUE;
+			int leavingArc = -1;
+			for (int k = uPathLength - 1; k >= 0; k--) {// apex -> u (downwards)
+				int node = uPath[k];
+				int arc = parentArc[node];
+				if (arcFrom[arc] == node && arcFlow[arc] <= delta) {// upward arc: flow decreases
+					delta = arcFlow[arc];
+					leavingArc = arc;
+				}
+			}
+			for (int k = 0; k < vPathLength; k++) {// v -> apex (upwards)
+				int node = vPath[k];
+				int arc = parentArc[node];
+				if (arcTo[arc] == node && arcFlow[arc] <= delta) {// downward arc: flow decreases
+					delta = arcFlow[arc];
+					leavingArc = arc;
+				}
+			}
+			if (leavingArc < 0) {
+				throw new IllegalStateException("Unbounded problem (negative cycle of infinite capacity)");
+			}
+
+			// augment
+			arcFlow[enteringArc] += delta;
+			for (int k = 0; k < uPathLength; k++) {
+				int node = uPath[k];
+				int arc = parentArc[node];
+				arcFlow[arc] += arcTo[arc] == node ? delta : -delta;
+			}
+			for (int k = 0; k < vPathLength; k++) {
+				int node = vPath[k];
+				int arc = parentArc[node];
+				arcFlow[arc] += arcFrom[arc] == node ? delta : -delta;
+			}
+
+			// exchange the arcs
+			int position = treePosition[leavingArc];
+			treeArcs[position] = enteringArc;
+			treePosition[enteringArc] = position;
+			inTree[leavingArc] = false;
+			inTree[enteringArc] = true;
+			rebuildTree();
+		}
+
+		private void rebuildTree() {
+			Arrays.fill(adjHead, -1);
+			int adjCount = 0;
+			for (int arc : treeArcs) {
+				adjArc[adjCount] = arc;
+				adjNext[adjCount] = adjHead[arcFrom[arc]];
+				adjHead[arcFrom[arc]] = adjCount++;
+				adjArc[adjCount] = arc;
+				adjNext[adjCount] = adjHead[arcTo[arc]];
+				adjHead[arcTo[arc]] = adjCount++;
+			}
+
+			parent[root] = -1;
+			parentArc[root] = -1;
+			depth[root] = 0;
+			potential[root] = 0;
+			int queueHead = 0;
+			int queueTail = 0;
+			queue[queueTail++] = root;
+			while (queueHead < queueTail) {
+				int node = queue[queueHead++];
+				for (int adj = adjHead[node]; adj >= 0; adj = adjNext[adj]) {
+					int arc = adjArc[adj];
+					if (arc == parentArc[node]) {
+						continue;
+					}
+					boolean outgoing = arcFrom[arc] == node;
+					int child = outgoing ? arcTo[arc] : arcFrom[arc];
+					parent[child] = node;
+					parentArc[child] = arc;
+					depth[child] = depth[node] + 1;
+					// zero reduced cost of tree arcs: cost + potential[from] - potential[to] = 0
+					potential[child] = outgoing ? potential[node] + arcCost[arc] : potential[node] - arcCost[arc];
+					queue[queueTail++] = child;
+				}
+			}
+		}
+	}
+}
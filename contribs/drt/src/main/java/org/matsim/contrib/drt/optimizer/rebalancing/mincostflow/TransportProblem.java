@@ -21,6 +21,7 @@ package org.matsim.contrib.drt.optimizer.rebalancing.mincostflow;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.ToIntBiFunction;
 import java.util.stream.Stream;
 
@@ -37,6 +38,13 @@ import graphs.flows.MinCostFlow.Edge;
 public class TransportProblem<P, C> {
 	public static List<Flow<DrtZone, DrtZone>> solveForVehicleSurplus(
 			List<AggregatedMinCostRelocationCalculator.DrtZoneVehicleSurplus> vehicleSurplus) {
+		return solveForVehicleSurplus(vehicleSurplus,
+				new TransportProblem<DrtZone, DrtZone>(TransportProblem::calcStraightLineDistance)::solve);
+	}
+
+	public static List<Flow<DrtZone, DrtZone>> solveForVehicleSurplus(
+			List<AggregatedMinCostRelocationCalculator.DrtZoneVehicleSurplus> vehicleSurplus,
+			BiFunction<List<Pair<DrtZone, Integer>>, List<Pair<DrtZone, Integer>>, List<Flow<DrtZone, DrtZone>>> solver) {
 		List<Pair<DrtZone, Integer>> supply = new ArrayList<>();
 		List<Pair<DrtZone, Integer>> demand = new ArrayList<>();
 		for (AggregatedMinCostRelocationCalculator.DrtZoneVehicleSurplus s : vehicleSurplus) {
@@ -46,10 +54,10 @@ public class TransportProblem<P, C> {
 				demand.add(Pair.of(s.zone, -s.surplus));
 			}
 		}
-		return new TransportProblem<DrtZone, DrtZone>(TransportProblem::calcStraightLineDistance).solve(supply, demand);
+		return solver.apply(supply, demand);
 	}
 
-	private static int calcStraightLineDistance(DrtZone zone1, DrtZone zone2) {
+	static int calcStraightLineDistance(DrtZone zone1, DrtZone zone2) {
 		return (int)DistanceUtils.calculateDistance(zone1.getCentroid(), zone2.getCentroid());
 	}
 
@@ -58,7 +66,7 @@ public class TransportProblem<P, C> {
 		public final C destination;
 		public final int amount;
 
-		private Flow(P origin, C destination, int amount) {
+		Flow(P origin, C destination, int amount) {
 			this.origin = origin;
 			this.destination = destination;
 			this.amount = amount;
@@ -146,6 +146,13 @@ public final class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableP
 					+ " using up to 4 threads."
 					+ " Default value is the number of cores available to JVM.";
 
+	public static final String BATCH_INSERTION = "batchInsertion";
+	static final String BATCH_INSERTION_EXP =
+			"If true, the insertions of all requests submitted in the same time step are searched in parallel,"
+					+ " and the best insertions are scheduled in the order of the requests. Requests whose best vehicle"
+					+ " has been assigned another request in the meantime are searched again. The results are"
+					+ " deterministic, but may differ from the sequential insertion. False by default.";
+
 	public static final String STORE_UNSHARED_PATH = "storeUnsharedPath";
 	static final String STORE_UNSHARED_PATH_EXP = "Store planned unshared drt route as a link sequence";
 
@@ -195,6 +202,8 @@ public final class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableP
 	@Positive
 	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
 
+	private boolean batchInsertion = false;
+
 	@PositiveOrZero
 	private double advanceRequestPlanningHorizon = 0; // beta-feature; planning horizon for advance (prebooked) requests
 
@@ -323,6 +332,7 @@ public final class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableP
 		map.put(MAX_WALK_DISTANCE, MAX_WALK_DISTANCE_EXP);
 		map.put(TRANSIT_STOP_FILE, TRANSIT_STOP_FILE_EXP);
 		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_EXP);
+		map.put(BATCH_INSERTION, BATCH_INSERTION_EXP);
 		map.put(REJECT_REQUEST_IF_MAX_WAIT_OR_TRAVEL_TIME_VIOLATED,
 				REJECT_REQUEST_IF_MAX_WAIT_OR_TRAVEL_TIME_VIOLATED_EXP);
 		map.put(DRT_SERVICE_AREA_SHAPE_FILE, DRT_SERVICE_AREA_SHAPE_FILE_EXP);
@@ -622,6 +632,23 @@ public final class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableP
 		return this;
 	}
 
+	/**
+	 * @return -- {@value #BATCH_INSERTION_EXP}
+	 */
+	@StringGetter(BATCH_INSERTION)
+	public boolean isBatchInsertion() {
+		return batchInsertion;
+	}
+
+	/**
+	 * @param -- {@value #BATCH_INSERTION_EXP}
+	 */
+	@StringSetter(BATCH_INSERTION)
+	public DrtConfigGroup setBatchInsertion(boolean batchInsertion) {
+		this.batchInsertion = batchInsertion;
+		return this;
+	}
+
 	/**
 	 * @return -- {@value #STORE_UNSHARED_PATH_EXP}
 	 */
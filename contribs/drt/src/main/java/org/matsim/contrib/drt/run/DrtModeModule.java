@@ -31,6 +31,7 @@ import org.matsim.api.core.v01.population.Population;
 import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector;
 import org.matsim.contrib.drt.analysis.zonal.DrtModeZonalSystemModule;
 import org.matsim.contrib.drt.fare.DrtFareHandler;
+import org.matsim.contrib.drt.optimizer.insertion.ExtensiveInsertionSearchParams;
 import org.matsim.contrib.drt.optimizer.rebalancing.Feedforward.DrtModeFeedforwardRebalanceModule;
 import org.matsim.contrib.drt.optimizer.rebalancing.Feedforward.FeedforwardRebalancingStrategyParams;
 import org.matsim.contrib.drt.optimizer.rebalancing.NoRebalancingStrategy;
@@ -61,6 +62,7 @@ import org.matsim.contrib.dvrp.run.AbstractDvrpModeModule;
 import org.matsim.contrib.dvrp.run.DvrpMode;
 import org.matsim.contrib.dvrp.run.DvrpModes;
 import org.matsim.contrib.dvrp.trafficmonitoring.DvrpTravelTimeModule;
+import org.matsim.contrib.zone.skims.TravelTimeLowerBoundMatrix;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.modal.ModalProviders;
@@ -162,6 +164,13 @@ public final class DrtModeModule extends AbstractDvrpModeModule {
 		drtCfg.getDrtFareParams()
 				.ifPresent(params -> addEventHandlerBinding().toInstance(new DrtFareHandler(getMode(), params)));
 
+		var insertionSearchParams = drtCfg.getDrtInsertionSearchParams();
+		if (insertionSearchParams instanceof ExtensiveInsertionSearchParams
+				&& ((ExtensiveInsertionSearchParams)insertionSearchParams).getTravelTimeLowerBoundTimeBinSize() > 0) {
+			// shared by the QSims of all iterations
+			bindModal(TravelTimeLowerBoundMatrix.Cache.class).toInstance(new TravelTimeLowerBoundMatrix.Cache());
+		}
+
 		drtCfg.getDrtSpeedUpParams().ifPresent(drtSpeedUpParams -> {
 			bindModal(DrtSpeedUp.class).toProvider(modalProvider(
 					getter -> new DrtSpeedUp(getMode(), drtSpeedUpParams, getConfig().controler(),
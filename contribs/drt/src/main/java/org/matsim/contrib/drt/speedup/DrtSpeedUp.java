@@ -23,6 +23,8 @@ package org.matsim.contrib.drt.speedup;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.apache.logging.log4j.LogManager;
@@ -76,6 +78,11 @@ public final class DrtSpeedUp implements IterationStartsListener, IterationEndsL
 	private double currentAvgWaitingTime;
 	private double currentAvgInVehicleBeelineSpeed;
 
+	@Nullable
+	private final DrtSpeedUpSurrogate surrogate;
+	// average waiting time set after the last simulated iteration (the surrogate is fitted to it)
+	private double simulatedAvgWaitingTime;
+
 	public DrtSpeedUp(String mode, DrtSpeedUpParams drtSpeedUpParams, ControlerConfigGroup controlerConfig,
 			Network network, FleetSpecification fleetSpecification,
 			DrtEventSequenceCollector drtEventSequenceCollector) {
@@ -88,10 +95,22 @@ public final class DrtSpeedUp implements IterationStartsListener, IterationEndsL
 
 		currentAvgWaitingTime = drtSpeedUpParams.getInitialWaitingTime();
 		currentAvgInVehicleBeelineSpeed = drtSpeedUpParams.getInitialInVehicleBeelineSpeed();
+		simulatedAvgWaitingTime = currentAvgWaitingTime;
+
+		surrogate = drtSpeedUpParams.getSurrogateCellSize() > 0 ?
+				new DrtSpeedUpSurrogate(drtSpeedUpParams.getSurrogateCellSize(),
+						drtSpeedUpParams.getSurrogateTimeBinSize(), drtSpeedUpParams.getSurrogateSmoothingFactor()) :
+				null;
 	}
 
 	public DrtTeleportedRouteCalculator createTeleportedRouteCalculator() {
-		return new DrtTeleportedRouteCalculator(currentAvgWaitingTime, currentAvgInVehicleBeelineSpeed);
+		if (surrogate == null) {
+			return new DrtTeleportedRouteCalculator(currentAvgWaitingTime, currentAvgInVehicleBeelineSpeed);
+		}
+		// the zonal waiting times follow the changes of the average waiting time predicted during the speed-up
+		double waitTimeFactor = simulatedAvgWaitingTime > 0 ? currentAvgWaitingTime / simulatedAvgWaitingTime : 1;
+		return new DrtTeleportedRouteCalculator(currentAvgWaitingTime, currentAvgInVehicleBeelineSpeed,
+				surrogate.copy(), waitTimeFactor);
 	}
 
 	double getCurrentAvgWaitingTime() {
@@ -152,6 +171,7 @@ public final class DrtSpeedUp implements IterationStartsListener, IterationEndsL
 		log.info("Setting waiting time for {} to: {} (previous value: {})", mode, movingAverageWaitingTime,
 				currentAvgWaitingTime);
 		currentAvgWaitingTime = movingAverageWaitingTime;
+		simulatedAvgWaitingTime = movingAverageWaitingTime;
 
 		double movingAverageInVehicleBeelineSpeed = computeMovingAverage(drtSpeedUpParams.getMovingAverageSize(),
 				averageInVehicleBeelineSpeeds);
@@ -159,6 +179,10 @@ public final class DrtSpeedUp implements IterationStartsListener, IterationEndsL
 				movingAverageInVehicleBeelineSpeed, currentAvgInVehicleBeelineSpeed);
 		currentAvgInVehicleBeelineSpeed = movingAverageInVehicleBeelineSpeed;
 
+		if (surrogate != null) {
+			surrogate.update(drtEventSequenceCollector.getPerformedRequestSequences().values(), network);
+		}
+
 		if (drtSpeedUpParams.getWaitingTimeUpdateDuringSpeedUp() == WaitingTimeUpdateDuringSpeedUp.LinearRegression) {
 			// update regression model
 			double fleetSize = fleetSpecification.getVehicleSpecifications().size();
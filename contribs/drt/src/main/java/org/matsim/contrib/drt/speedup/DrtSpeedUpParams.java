@@ -45,6 +45,9 @@ public class DrtSpeedUpParams extends ReflectiveConfigGroup {
 	private static final String FIRST_SIMULATED_DRT_ITERATION_TO_REPLACE_INITIAL_DRT_PERFORMANCE_PARAMS = "firstSimulatedDrtIterationToReplaceInitialDrtPerformanceParams";
 	private static final String WAITING_TIME_UPDATE_DURING_SPEED_UP = "waitingTimeUpdateDuringSpeedUp";
 	private static final String MOVING_AVERAGE_SIZE = "movingAverageSize";
+	private static final String SURROGATE_CELL_SIZE = "surrogateCellSize";
+	private static final String SURROGATE_TIME_BIN_SIZE = "surrogateTimeBinSize";
+	private static final String SURROGATE_SMOOTHING_FACTOR = "surrogateSmoothingFactor";
 
 	public DrtSpeedUpParams() {
 		super(SET_NAME);
@@ -74,6 +77,17 @@ public class DrtSpeedUpParams extends ReflectiveConfigGroup {
 	@Positive
 	private int movingAverageSize = 1;
 
+	// 0 => no zonal surrogate, only the fleet-wide averages are used
+	@PositiveOrZero
+	private double surrogateCellSize = 0;
+
+	@Positive
+	private int surrogateTimeBinSize = 3600;
+
+	@DecimalMin(value = "0.0", inclusive = false)
+	@DecimalMax("1.0")
+	private double surrogateSmoothingFactor = 0.5;
+
 	public enum WaitingTimeUpdateDuringSpeedUp {
 		Disabled, LinearRegression
 	}
@@ -167,5 +181,42 @@ public class DrtSpeedUpParams extends ReflectiveConfigGroup {
 	public void setMovingAverageSize(int movingAverageSize) {
 		this.movingAverageSize = movingAverageSize;
 	}
-}
 
+	@StringGetter(SURROGATE_CELL_SIZE)
+	public double getSurrogateCellSize() {
+		return surrogateCellSize;
+	}
+
+	/**
+	 * @param surrogateCellSize size of the square cells (origin zones) for which the waiting times and in-vehicle beeline
+	 *                          speeds are estimated separately per time bin and then updated with exponential smoothing
+	 *                          after each simulated iteration; 0 disables the zonal estimates
+	 */
+	@StringSetter(SURROGATE_CELL_SIZE)
+	public void setSurrogateCellSize(double surrogateCellSize) {
+		this.surrogateCellSize = surrogateCellSize;
+	}
+
+	@StringGetter(SURROGATE_TIME_BIN_SIZE)
+	public int getSurrogateTimeBinSize() {
+		return surrogateTimeBinSize;
+	}
+
+	@StringSetter(SURROGATE_TIME_BIN_SIZE)
+	public void setSurrogateTimeBinSize(int surrogateTimeBinSize) {
+		this.surrogateTimeBinSize = surrogateTimeBinSize;
+	}
+
+	@StringGetter(SURROGATE_SMOOTHING_FACTOR)
+	public double getSurrogateSmoothingFactor() {
+		return surrogateSmoothingFactor;
+	}
+
+	/**
+	 * @param surrogateSmoothingFactor weight of the latest simulated iteration in the zonal estimates (1 => no smoothing)
+	 */
+	@StringSetter(SURROGATE_SMOOTHING_FACTOR)
+	public void setSurrogateSmoothingFactor(double surrogateSmoothingFactor) {
+		this.surrogateSmoothingFactor = surrogateSmoothingFactor;
+	}
+}
@@ -0,0 +1,182 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.drt.speedup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.contrib.common.util.DistanceUtils;
+import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector.EventSequence;
+import org.matsim.contrib.drt.passenger.events.DrtRequestSubmittedEvent;
+
+/**
+ * Surrogate of the DRT service quality used for teleporting DRT users: average waiting times and in-vehicle beeline
+ * speeds (i.e. the inverse of the detour over the beeline) per origin zone and time bin. Zones are cells of a square
+ * grid. After each simulated iteration, the observed cell averages are blended into the tables by exponential smoothing,
+ * so the estimates get more accurate with each simulated iteration and do not jump with the noise of a single one.
+ * Cells without observations yet are marked with NaN and the caller falls back to the global averages.
+ */
+final class DrtSpeedUpSurrogate {
+	private final double cellSize;
+	private final int timeBinSize;
+	private final double smoothingFactor;
+
+	// key: (cellX, cellY) packed into a long
+	private final Map<Long, Cell> cells = new HashMap<>();
+
+	private static final class Cell {
+		private double[] waitTimes = new double[0];
+		private double[] inVehicleBeelineSpeeds = new double[0];
+
+		private void ensureTimeBinCount(int count) {
+			if (waitTimes.length < count) {
+				int oldLength = waitTimes.length;
+				waitTimes = Arrays.copyOf(waitTimes, count);
+				inVehicleBeelineSpeeds = Arrays.copyOf(inVehicleBeelineSpeeds, count);
+				Arrays.fill(waitTimes, oldLength, count, Double.NaN);
+				Arrays.fill(inVehicleBeelineSpeeds, oldLength, count, Double.NaN);
+			}
+		}
+
+		private Cell copy() {
+			Cell copy = new Cell();
+			copy.waitTimes = waitTimes.clone();
+			copy.inVehicleBeelineSpeeds = inVehicleBeelineSpeeds.clone();
+			return copy;
+		}
+	}
+
+	private static final class CellObservations {
+		private double[] waitTimeSums = new double[0];
+		private double[] beelineDistanceSums = new double[0];
+		private double[] rideTimeSums = new double[0];
+		private int[] counts = new int[0];
+
+		private void add(int timeBin, double waitTime, double beelineDistance, double rideTime) {
+			if (counts.length <= timeBin) {
+				waitTimeSums = Arrays.copyOf(waitTimeSums, timeBin + 1);
+				beelineDistanceSums = Arrays.copyOf(beelineDistanceSums, timeBin + 1);
+				rideTimeSums = Arrays.copyOf(rideTimeSums, timeBin + 1);
+				counts = Arrays.copyOf(counts, timeBin + 1);
+			}
+			waitTimeSums[timeBin] += waitTime;
+			beelineDistanceSums[timeBin] += beelineDistance;
+			rideTimeSums[timeBin] += rideTime;
+			counts[timeBin]++;
+		}
+	}
+
+	DrtSpeedUpSurrogate(double cellSize, int timeBinSize, double smoothingFactor) {
+		this.cellSize = cellSize;
+		this.timeBinSize = timeBinSize;
+		this.smoothingFactor = smoothingFactor;
+	}
+
+	private DrtSpeedUpSurrogate(DrtSpeedUpSurrogate surrogate) {
+		this(surrogate.cellSize, surrogate.timeBinSize, surrogate.smoothingFactor);
+		surrogate.cells.forEach((key, cell) -> cells.put(key, cell.copy()));
+	}
+
+	/**
+	 * @return an independent copy that is not affected by subsequent updates
+	 */
+	DrtSpeedUpSurrogate copy() {
+		return new DrtSpeedUpSurrogate(this);
+	}
+
+	void update(Iterable<EventSequence> sequences, Network network) {
+		Map<Long, CellObservations> observations = new HashMap<>();
+		for (EventSequence sequence : sequences) {
+			if (!sequence.isCompleted()) {
+				continue;//skip incomplete sequences
+			}
+			DrtRequestSubmittedEvent submittedEvent = sequence.getSubmitted();
+			Link depLink = network.getLinks().get(submittedEvent.getFromLinkId());
+			Link arrLink = network.getLinks().get(submittedEvent.getToLinkId());
+			double beelineDistance = DistanceUtils.calculateDistance(depLink.getToNode(), arrLink.getToNode());
+
+			double pickupTime = sequence.getPickedUp().get().getTime();
+			double waitTime = pickupTime - submittedEvent.getTime();
+			double rideTime = sequence.getDroppedOff().get().getTime() - pickupTime;
+
+			observations.computeIfAbsent(cellKey(depLink.getToNode().getCoord()), k -> new CellObservations())
+					.add(timeBin(submittedEvent.getTime()), waitTime, beelineDistance, rideTime);
+		}
+
+		observations.forEach((key, cellObservations) -> {
+			Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+			cell.ensureTimeBinCount(cellObservations.counts.length);
+			for (int bin = 0; bin < cellObservations.counts.length; bin++) {
+				int count = cellObservations.counts[bin];
+				if (count == 0) {
+					continue;
+				}
+				double waitTime = cellObservations.waitTimeSums[bin] / count;
+				cell.waitTimes[bin] = smooth(cell.waitTimes[bin], waitTime);
+
+				// total distance over total time, so that very short rides do not dominate the estimate
+				double rideTimeSum = cellObservations.rideTimeSums[bin];
+				if (rideTimeSum > 0 && cellObservations.beelineDistanceSums[bin] > 0) {
+					double speed = cellObservations.beelineDistanceSums[bin] / rideTimeSum;
+					cell.inVehicleBeelineSpeeds[bin] = smooth(cell.inVehicleBeelineSpeeds[bin], speed);
+				}
+			}
+		});
+	}
+
+	private double smooth(double oldValue, double observedValue) {
+		return Double.isNaN(oldValue) ?
+				observedValue :
+				smoothingFactor * observedValue + (1 - smoothingFactor) * oldValue;
+	}
+
+	/**
+	 * @return the estimated waiting time or NaN if there is no estimate for this zone and time bin
+	 */
+	double getWaitTime(Coord origin, double time) {
+		Cell cell = cells.get(cellKey(origin));
+		int bin = timeBin(time);
+		return cell == null || bin >= cell.waitTimes.length ? Double.NaN : cell.waitTimes[bin];
+	}
+
+	/**
+	 * @return the estimated in-vehicle beeline speed or NaN if there is no estimate for this zone and time bin
+	 */
+	double getInVehicleBeelineSpeed(Coord origin, double time) {
+		Cell cell = cells.get(cellKey(origin));
+		int bin = timeBin(time);
+		return cell == null || bin >= cell.inVehicleBeelineSpeeds.length ? Double.NaN : cell.inVehicleBeelineSpeeds[bin];
+	}
+
+	private int timeBin(double time) {
+		return Math.max(0, (int)(time / timeBinSize));
+	}
+
+	private long cellKey(Coord coord) {
+		long x = (long)Math.floor(coord.getX() / cellSize);
+		long y = (long)Math.floor(coord.getY() / cellSize);
+		return (x << 32) | (y & 0xffffffffL);
+	}
+}
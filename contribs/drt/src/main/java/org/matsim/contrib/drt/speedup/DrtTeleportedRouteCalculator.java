@@ -20,6 +20,8 @@
 
 package org.matsim.contrib.drt.speedup;
 
+import javax.annotation.Nullable;
+
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Route;
@@ -35,9 +37,24 @@ public class DrtTeleportedRouteCalculator implements TeleportedRouteCalculator {
 	private final double averageWaitingTime;
 	private final double averageInVehicleBeelineSpeed;
 
+	@Nullable
+	private final DrtSpeedUpSurrogate surrogate;
+	private final double surrogateWaitTimeFactor;
+
 	DrtTeleportedRouteCalculator(double averageWaitingTime, double averageInVehicleBeelineSpeed) {
+		this(averageWaitingTime, averageInVehicleBeelineSpeed, null, 1);
+	}
+
+	/**
+	 * @param surrogate               zonal estimates, the averages are used where they are not available
+	 * @param surrogateWaitTimeFactor scales the zonal waiting times (e.g. to follow the regression-based average)
+	 */
+	DrtTeleportedRouteCalculator(double averageWaitingTime, double averageInVehicleBeelineSpeed,
+			@Nullable DrtSpeedUpSurrogate surrogate, double surrogateWaitTimeFactor) {
 		this.averageWaitingTime = averageWaitingTime;
 		this.averageInVehicleBeelineSpeed = averageInVehicleBeelineSpeed;
+		this.surrogate = surrogate;
+		this.surrogateWaitTimeFactor = surrogateWaitTimeFactor;
 	}
 
 	@Override
@@ -48,8 +65,22 @@ public class DrtTeleportedRouteCalculator implements TeleportedRouteCalculator {
 		final Coord toActCoord = endLink.getToNode().getCoord();
 		double dist = CoordUtils.calcEuclideanDistance(fromActCoord, toActCoord);
 		Route route = new GenericRouteImpl(startLink.getId(), endLink.getId());
+
+		double waitingTime = averageWaitingTime;
+		double inVehicleBeelineSpeed = averageInVehicleBeelineSpeed;
+		if (surrogate != null) {
+			double zonalWaitingTime = surrogate.getWaitTime(fromActCoord, request.getSubmissionTime());
+			if (!Double.isNaN(zonalWaitingTime)) {
+				waitingTime = zonalWaitingTime * surrogateWaitTimeFactor;
+			}
+			double zonalSpeed = surrogate.getInVehicleBeelineSpeed(fromActCoord, request.getSubmissionTime());
+			if (!Double.isNaN(zonalSpeed)) {
+				inVehicleBeelineSpeed = zonalSpeed;
+			}
+		}
+
 		//TODO move wait time outside the route (handle it explicitly by the TeleportingPassengerEngine)
-		int travTime = (int)(averageWaitingTime + (dist / averageInVehicleBeelineSpeed));
+		int travTime = (int)(waitingTime + (dist / inVehicleBeelineSpeed));
 		route.setTravelTime(travTime);
 		route.setDistance(dist);
 		return route;
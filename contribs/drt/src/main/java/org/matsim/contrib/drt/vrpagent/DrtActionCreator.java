@@ -67,7 +67,8 @@ public class DrtActionCreator implements VrpAgentLogic.DynActionCreator {
 						DRT_STOP_NAME);
 
 			case STAY:
-				return new IdleDynActivity(DRT_STAY_NAME, task::getEndTime);
+				return new IdleDynActivity(DRT_STAY_NAME, task::getEndTime,
+						task::setEndTimeChangeListener);
 
 			default:
 				throw new IllegalStateException();
@@ -28,7 +28,10 @@ import static org.mockito.Mockito.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.junit.Rule;
@@ -240,6 +243,63 @@ public class DefaultUnplannedRequestInserterTest {
 		assertThat(createEntryCounter.getValue()).isEqualTo(2);
 	}
 
+	@Test
+	public void batchInsertion_conflictingRequestSearchedAgain() {
+		var vehicle1 = vehicle("1");
+		var vehicle2 = vehicle("2");
+		var fleet = fleet(vehicle1, vehicle2);
+		var request2 = request("r2", "from2", "to2");
+		var unplannedRequests = requests(request1, request2);
+		double now = 15;
+
+		var firstEntries = new ConcurrentHashMap<DvrpVehicle, VehicleEntry>();
+		VehicleEntry.EntryFactory entryFactory = (vehicle, currentTime) -> {
+			var entry = new VehicleEntry(vehicle, null, null, null);
+			firstEntries.putIfAbsent(vehicle, entry);
+			return entry;
+		};
+		DrtRequestInsertionRetryQueue retryQueue = new DrtRequestInsertionRetryQueue(
+				new DrtRequestInsertionRetryParams());//retry OFF, empty queue
+
+		//both requests prefer vehicle1 as long as its entry has not been updated
+		Map<DrtRequest, AtomicInteger> searchCounts = new ConcurrentHashMap<>();
+		DrtInsertionSearch insertionSearch = (drtRequest, vEntries) -> {
+			searchCounts.computeIfAbsent(drtRequest, r -> new AtomicInteger()).incrementAndGet();
+			var entry1 = vEntries.stream().filter(e -> e.vehicle == vehicle1).findAny().orElseThrow();
+			var entry2 = vEntries.stream().filter(e -> e.vehicle == vehicle2).findAny().orElseThrow();
+			var entry = entry1 == firstEntries.get(vehicle1) ? entry1 : entry2;
+			return Optional.of(new InsertionWithDetourData(new InsertionGenerator.Insertion(entry, null, null), null,
+					null));
+		};
+
+		RequestInsertionScheduler insertionScheduler = (request, insertion) -> {
+			var pickupTask = new DefaultDrtStopTask(now, now + 10, request.getFromLink());
+			pickupTask.addPickupRequest(request);
+			var dropoffTask = new DefaultDrtStopTask(now + 20, now + 30, request.getToLink());
+			dropoffTask.addDropoffRequest(request);
+			return new PickupDropoffTaskPair(pickupTask, dropoffTask);
+		};
+
+		//call insertion
+		new DefaultUnplannedRequestInserter(mode, fleet, () -> now, eventsManager, insertionScheduler, entryFactory,
+				retryQueue, rule.forkJoinPool, insertionSearch, true).scheduleUnplannedRequests(unplannedRequests);
+
+		//requests are removed from unplanned requests
+		assertThat(unplannedRequests).isEmpty();
+
+		//request1 is inserted first, request2 is searched again after vehicle1 has been taken
+		assertThat(searchCounts.get(request1).get()).isEqualTo(1);
+		assertThat(searchCounts.get(request2).get()).isEqualTo(2);
+
+		ArgumentCaptor<PassengerRequestScheduledEvent> captor = ArgumentCaptor.forClass(
+				PassengerRequestScheduledEvent.class);
+		verify(eventsManager, times(2)).processEvent(captor.capture());
+		assertThat(captor.getAllValues().get(0).getRequestId()).isEqualTo(request1.getId());
+		assertThat(captor.getAllValues().get(0).getVehicleId()).isEqualTo(vehicle1.getId());
+		assertThat(captor.getAllValues().get(1).getRequestId()).isEqualTo(request2.getId());
+		assertThat(captor.getAllValues().get(1).getVehicleId()).isEqualTo(vehicle2.getId());
+	}
+
 	private Collection<DrtRequest> requests(DrtRequest... requests) {
 		return new ArrayList<>(Arrays.asList(requests));//returned collection needs to be modifiable
 	}
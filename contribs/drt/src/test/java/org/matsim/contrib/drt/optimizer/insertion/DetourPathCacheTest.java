@@ -0,0 +1,98 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.drt.optimizer.insertion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.testcases.fakes.FakeLink;
+
+public class DetourPathCacheTest {
+	private final Link fromLink = link("from");
+	private final Link toLink1 = link("to1");
+	private final Link toLink2 = link("to2");
+
+	private final List<Collection<Link>> searchedToLinks = new ArrayList<>();
+	private final List<Double> searchStartTimes = new ArrayList<>();
+
+	// travel time == start time, so one can see which start time was used
+	private final BiFunction<Collection<Link>, Double, Map<Link, PathData>> search = (toLinks, startTime) -> {
+		searchedToLinks.add(toLinks);
+		searchStartTimes.add(startTime);
+		return toLinks.stream()
+				.collect(Collectors.toMap(l -> l, l -> new PathData(new Path(null, List.of(), startTime, 0), 0)));
+	};
+
+	@Test
+	public void pathDataSharedWithinTimeBin() {
+		var cache = new DetourPathCache(60);
+		cache.advance(100);
+
+		var pathData1 = cache.getPathData(fromLink, List.of(toLink1), 100, search);
+		assertThat(searchedToLinks).containsExactly(List.of(toLink1));
+		assertThat(searchStartTimes).containsExactly(60.);//beginning of the time bin
+		assertThat(pathData1.get(toLink1).getTravelTime()).isEqualTo(60);
+
+		//only the missing link is searched
+		var pathData2 = cache.getPathData(fromLink, List.of(toLink1, toLink2), 110, search);
+		assertThat(searchedToLinks).containsExactly(List.of(toLink1), List.of(toLink2));
+		assertThat(pathData2.get(toLink1)).isSameAs(pathData1.get(toLink1));
+		assertThat(pathData2.get(toLink2).getTravelTime()).isEqualTo(60);
+
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.getMisses()).isEqualTo(2);
+		assertThat(cache.getHitRate()).isEqualTo(1. / 3);
+	}
+
+	@Test
+	public void pathDataNotSharedAcrossTimeBins() {
+		var cache = new DetourPathCache(60);
+		cache.advance(100);
+		cache.getPathData(fromLink, List.of(toLink1), 100, search);
+		cache.getPathData(fromLink, List.of(toLink1), 130, search);
+		assertThat(searchStartTimes).containsExactly(60., 120.);
+
+		//all entries are evicted (also the one for the current bin, computed in the previous bin),
+		//and searches for the past bin are not cached anymore
+		cache.advance(125);
+		cache.getPathData(fromLink, List.of(toLink1), 100, search);
+		cache.getPathData(fromLink, List.of(toLink1), 100, search);
+		cache.getPathData(fromLink, List.of(toLink1), 130, search);
+		cache.getPathData(fromLink, List.of(toLink1), 130, search);
+		assertThat(searchStartTimes).containsExactly(60., 120., 60., 60., 120.);
+		assertThat(cache.getHits()).isEqualTo(1);
+	}
+
+	private Link link(String id) {
+		return new FakeLink(Id.createLinkId(id));
+	}
+}
@@ -27,6 +27,7 @@ import static org.mockito.Mockito.when;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TravelTimeLowerBoundMatrix;
 import org.matsim.core.trafficmonitoring.FreeSpeedTravelTime;
 import org.matsim.testcases.fakes.FakeLink;
 import org.matsim.testcases.fakes.FakeNode;
@@ -58,4 +59,26 @@ public class DetourTimeEstimatorTest {
 		double adjustedTT = expectedTT / 1.5;// using speed factor
 		Assertions.assertThat(estimator.estimateTime(linkA, linkB)).isEqualTo(adjustedTT);
 	}
+
+	@Test
+	public void lowerBoundTimeEstimator_maxOfEstimateAndLowerBound() {
+		var linkA = new FakeLink(null, null, new FakeNode(null));
+		var linkB = new FakeLink(null, new FakeNode(null), null);
+
+		TravelTimeLowerBoundMatrix lowerBoundMatrix = mock(TravelTimeLowerBoundMatrix.class);
+		when(lowerBoundMatrix.getTravelTimeLowerBound(eq(linkA.getToNode()), eq(linkB.getFromNode()),
+				eq(3600.))).thenReturn(100.);
+		when(lowerBoundMatrix.getTravelTimeLowerBound(eq(linkA.getToNode()), eq(linkB.getFromNode()),
+				eq(7200.))).thenReturn(1000.);
+
+		double[] time = { 3600 };
+		var estimator = DetourTimeEstimator.createLowerBoundTimeEstimator((from, to) -> 500, lowerBoundMatrix,
+				new FreeSpeedTravelTime(), () -> time[0]);
+		double lastLinkTT = linkB.getLength() / linkB.getFreespeed();
+		Assertions.assertThat(estimator.estimateTime(linkA, linkA)).isZero();
+		Assertions.assertThat(estimator.estimateTime(linkA, linkB)).isEqualTo(500);
+
+		time[0] = 7200;
+		Assertions.assertThat(estimator.estimateTime(linkA, linkB)).isEqualTo(1 + 1000 + lastLinkTT);
+	}
 }
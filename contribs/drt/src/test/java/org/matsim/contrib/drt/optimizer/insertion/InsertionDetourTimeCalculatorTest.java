@@ -215,6 +215,18 @@ public class InsertionDetourTimeCalculatorTest {
 		var detourTimeCalculator = new InsertionDetourTimeCalculator(STOP_DURATION, null);
 		var detourTimeInfo = detourTimeCalculator.calculateDetourTimeInfo(insertion.insertion, insertion.detourData);
 		assertThat(detourTimeInfo).usingRecursiveComparison().isEqualTo(expected);
+
+		// the allocation-free variant used by InsertionGenerator must give the same dropoff time loss
+		var detourData = insertion.detourData;
+		int pickupIdx = insertion.insertion.pickup.index;
+		int dropoffIdx = insertion.insertion.dropoff.index;
+		double toDropoffTT = pickupIdx == dropoffIdx ?
+				detourData.detourFromPickup.getTravelTime() :
+				detourData.detourToDropoff.getTravelTime();
+		double dropoffTimeLoss = detourTimeCalculator.calcDropoffTimeLoss(insertion.insertion.vehicleEntry, pickupIdx,
+				dropoffIdx, insertion.insertion.dropoff.newWaypoint.getLink(), toDropoffTT,
+				detourData.detourFromDropoff.getTravelTime());
+		assertThat(dropoffTimeLoss).isEqualTo(expected.dropoffDetourInfo.dropoffTimeLoss);
 	}
 
 	private Link link(String id) {
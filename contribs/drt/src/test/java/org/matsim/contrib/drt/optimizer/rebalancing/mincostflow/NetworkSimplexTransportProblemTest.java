@@ -0,0 +1,129 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.drt.optimizer.rebalancing.mincostflow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntBiFunction;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+import org.matsim.contrib.drt.optimizer.rebalancing.mincostflow.TransportProblem.Flow;
+
+public class NetworkSimplexTransportProblemTest {
+	private static final ToIntBiFunction<int[], int[]> MANHATTAN_DISTANCE = (p, c) -> Math.abs(p[0] - c[0])
+			+ Math.abs(p[1] - c[1]);
+
+	@Test
+	public void sameCostAsMinCostFlow() {
+		var random = new Random(42);
+		var networkSimplex = new NetworkSimplexTransportProblem<>(MANHATTAN_DISTANCE, 0);
+		var minCostFlow = new TransportProblem<>(MANHATTAN_DISTANCE);
+
+		for (int run = 0; run < 50; run++) {
+			var supply = randomPoints(random, 1 + random.nextInt(20));
+			var demand = randomPoints(random, 1 + random.nextInt(20));
+
+			var flows = networkSimplex.solve(supply, demand);
+			assertFeasible(supply, demand, flows);
+			assertThat(totalCost(flows)).isEqualTo(totalCost(minCostFlow.solve(supply, demand)));
+		}
+		assertThat(networkSimplex.getSolveCount()).isEqualTo(50);
+	}
+
+	@Test
+	public void warmStart_sameSolution() {
+		var random = new Random(7);
+		var supply = randomPoints(random, 30);
+		var demand = randomPoints(random, 30);
+		var networkSimplex = new NetworkSimplexTransportProblem<>(MANHATTAN_DISTANCE, 0);
+
+		long coldCost = totalCost(networkSimplex.solve(supply, demand));
+		var warmFlows = networkSimplex.solve(supply, demand);
+		assertFeasible(supply, demand, warmFlows);
+		assertThat(totalCost(warmFlows)).isEqualTo(coldCost);
+	}
+
+	@Test
+	public void nearestNeighbours_feasible() {
+		var random = new Random(123);
+		var networkSimplex = new NetworkSimplexTransportProblem<>(MANHATTAN_DISTANCE, 2);
+		var minCostFlow = new TransportProblem<>(MANHATTAN_DISTANCE);
+
+		for (int run = 0; run < 50; run++) {
+			var supply = randomPoints(random, 1 + random.nextInt(20));
+			var demand = randomPoints(random, 1 + random.nextInt(20));
+
+			var flows = networkSimplex.solve(supply, demand);
+			assertFeasible(supply, demand, flows);
+			assertThat(totalCost(flows)).isGreaterThanOrEqualTo(totalCost(minCostFlow.solve(supply, demand)));
+		}
+	}
+
+	@Test
+	public void nearestNeighbours_fallbackToCompleteProblem() {
+		// arcs with k=1: p1-c1, p1-c2, p2-c1; p2 cannot ship its second unit to c2 in the restricted problem
+		int[] p1 = { 0, 0 };
+		int[] p2 = { 50, 0 };
+		int[] c1 = { 1, 0 };
+		int[] c2 = { -1, 0 };
+		var supply = List.of(Pair.of(p1, 1), Pair.of(p2, 2));
+		var demand = List.of(Pair.of(c1, 1), Pair.of(c2, 2));
+
+		var flows = new NetworkSimplexTransportProblem<>(MANHATTAN_DISTANCE, 1).solve(supply, demand);
+		assertFeasible(supply, demand, flows);
+		assertThat(totalCost(flows)).isEqualTo(totalCost(new TransportProblem<>(MANHATTAN_DISTANCE).solve(supply, demand)));
+	}
+
+	private static List<Pair<int[], Integer>> randomPoints(Random random, int count) {
+		List<Pair<int[], Integer>> points = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			points.add(Pair.of(new int[] { random.nextInt(1000), random.nextInt(1000) }, 1 + random.nextInt(5)));
+		}
+		return points;
+	}
+
+	private static long totalCost(List<Flow<int[], int[]>> flows) {
+		return flows.stream().mapToLong(f -> (long)f.amount * MANHATTAN_DISTANCE.applyAsInt(f.origin, f.destination)).sum();
+	}
+
+	private static void assertFeasible(List<Pair<int[], Integer>> supply, List<Pair<int[], Integer>> demand,
+			List<Flow<int[], int[]>> flows) {
+		Map<int[], Integer> outflows = new HashMap<>();
+		Map<int[], Integer> inflows = new HashMap<>();
+		for (var flow : flows) {
+			assertThat(flow.amount).isPositive();
+			outflows.merge(flow.origin, flow.amount, Integer::sum);
+			inflows.merge(flow.destination, flow.amount, Integer::sum);
+		}
+		supply.forEach(s -> assertThat(outflows.getOrDefault(s.getKey(), 0)).isLessThanOrEqualTo(s.getValue()));
+		demand.forEach(d -> assertThat(inflows.getOrDefault(d.getKey(), 0)).isLessThanOrEqualTo(d.getValue()));
+
+		int totalSupply = supply.stream().mapToInt(Pair::getValue).sum();
+		int totalDemand = demand.stream().mapToInt(Pair::getValue).sum();
+		assertThat(outflows.values().stream().mapToInt(i -> i).sum()).isEqualTo(Math.min(totalSupply, totalDemand));
+	}
+}
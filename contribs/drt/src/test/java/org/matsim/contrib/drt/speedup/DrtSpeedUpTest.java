@@ -38,6 +38,7 @@ import org.matsim.api.core.v01.events.PersonMoneyEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Route;
 import org.matsim.contrib.common.util.DistanceUtils;
 import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector;
 import org.matsim.contrib.drt.analysis.DrtEventSequenceCollector.EventSequence;
@@ -52,6 +53,7 @@ import org.matsim.contrib.dvrp.fleet.ImmutableDvrpVehicleSpecification;
 import org.matsim.contrib.dvrp.optimizer.Request;
 import org.matsim.contrib.dvrp.passenger.PassengerDroppedOffEvent;
 import org.matsim.contrib.dvrp.passenger.PassengerPickedUpEvent;
+import org.matsim.contrib.dvrp.passenger.PassengerRequest;
 import org.matsim.contrib.dvrp.passenger.PassengerRequestScheduledEvent;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.config.groups.ControlerConfigGroup;
@@ -257,6 +259,60 @@ public class DrtSpeedUpTest {
 		assertAverages(drtSpeedUp, 200, 10); // from iter 4
 	}
 
+	@Test
+	public void test_zonalSurrogate() {
+		//iters 0, 2 - simulated, iter 1 - teleported
+		drtSpeedUpParams.setFractionOfIterationsSwitchOn(0.0);
+		drtSpeedUpParams.setFractionOfIterationsSwitchOff(1.0);
+		drtSpeedUpParams.setIntervalDetailedIteration(2);
+
+		drtSpeedUpParams.setFirstSimulatedDrtIterationToReplaceInitialDrtPerformanceParams(0);
+		drtSpeedUpParams.setInitialWaitingTime(60);
+		drtSpeedUpParams.setInitialInVehicleBeelineSpeed(15);
+
+		//node B (origin of linkAB) and node C (origin of linkBC) are in different cells
+		drtSpeedUpParams.setSurrogateCellSize(150);
+		drtSpeedUpParams.setSurrogateTimeBinSize(3600);
+		drtSpeedUpParams.setSurrogateSmoothingFactor(0.5);
+
+		controlerConfig.setLastIteration(2);
+
+		DrtSpeedUp drtSpeedUp = new DrtSpeedUp(MODE, drtSpeedUpParams, controlerConfig, network, fleetSpecification,
+				requestAnalyzer);
+
+		// no estimates yet => initial values
+		assertTravelTime(drtSpeedUp, linkAB, linkBC, 0, 60 + 100 / 15.);
+
+		// simulated iteration 0
+		updateRequestAnalyser(eventSequence("r1", linkAB, linkBC, 0, 100, 1),
+				eventSequence("r2", linkBC, linkAB, 0, 20, 4));
+		iterationEnds(drtSpeedUp, 0);
+		assertAverages(drtSpeedUp, 60, 2.5);
+		assertTravelTime(drtSpeedUp, linkAB, linkBC, 0, 100 + 100 / 1.);
+		assertTravelTime(drtSpeedUp, linkBC, linkAB, 0, 20 + 100 / 4.);
+		// no estimate for the second time bin => averages
+		assertTravelTime(drtSpeedUp, linkAB, linkBC, 4000, 60 + 100 / 2.5);
+
+		// teleported iteration 1
+		iterationEnds(drtSpeedUp, 1);
+
+		// simulated iteration 2 (only the zone of node B is updated, with smoothing)
+		updateRequestAnalyser(eventSequence("r1", linkAB, linkBC, 0, 50, 2));
+		iterationEnds(drtSpeedUp, 2);
+		assertTravelTime(drtSpeedUp, linkAB, linkBC, 0, 0.5 * (100 + 50) + 100 / (0.5 * (1 + 2)));
+		assertTravelTime(drtSpeedUp, linkBC, linkAB, 0, 20 + 100 / 4.);
+	}
+
+	private void assertTravelTime(DrtSpeedUp drtSpeedUp, Link fromLink, Link toLink, double submissionTime,
+			double expectedTravelTime) {
+		PassengerRequest request = mock(PassengerRequest.class);
+		when(request.getFromLink()).thenReturn(fromLink);
+		when(request.getToLink()).thenReturn(toLink);
+		when(request.getSubmissionTime()).thenReturn(submissionTime);
+		Route route = drtSpeedUp.createTeleportedRouteCalculator().calculateRoute(request);
+		assertThat(route.getTravelTime().seconds()).isEqualTo(Math.floor(expectedTravelTime));
+	}
+
 	private void iterationEnds(DrtSpeedUp drtSpeedUp, int iteration) {
 		drtSpeedUp.notifyIterationEnds(new IterationEndsEvent(null, iteration, false));
 	}
@@ -270,9 +326,14 @@ public class DrtSpeedUpTest {
 
 	private EventSequence eventSequence(String id, double submittedTime, double waitTime,
 			double inVehicleSpeed) {
+		return eventSequence(id, linkAB, linkBC, submittedTime, waitTime, inVehicleSpeed);
+	}
+
+	private EventSequence eventSequence(String id, Link fromLink, Link toLink, double submittedTime, double waitTime,
+			double inVehicleSpeed) {
 		var requestId = Id.create(id, Request.class);
-		var submittedEvent = new DrtRequestSubmittedEvent(submittedTime, MODE, requestId, null, linkAB.getId(),
-				linkBC.getId(), Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+		var submittedEvent = new DrtRequestSubmittedEvent(submittedTime, MODE, requestId, null, fromLink.getId(),
+				toLink.getId(), Double.NaN, Double.NaN, Double.NaN, Double.NaN);
 		var pickupEvent = new PassengerPickedUpEvent(submittedTime + waitTime, MODE, requestId, null, null);
 		double rideTime = DistanceUtils.calculateDistance(linkBC, linkAB) / inVehicleSpeed;
 		var dropoffEvent = new PassengerDroppedOffEvent(submittedTime + waitTime + rideTime, MODE, requestId, null,
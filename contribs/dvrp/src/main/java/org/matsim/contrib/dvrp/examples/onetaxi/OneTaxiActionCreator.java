@@ -73,7 +73,8 @@ public final class OneTaxiActionCreator implements VrpAgentLogic.DynActionCreato
 						dropoffTask.getRequest(), "OneTaxiDropoff");
 
 			case WAIT:
-				return new IdleDynActivity("OneTaxiStay", task::getEndTime);
+				return new IdleDynActivity("OneTaxiStay", task::getEndTime,
+						task::setEndTimeChangeListener);
 
 			default:
 				throw new IllegalStateException();
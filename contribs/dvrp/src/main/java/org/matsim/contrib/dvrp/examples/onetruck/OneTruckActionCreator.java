@@ -55,7 +55,8 @@ final class OneTruckActionCreator implements VrpAgentLogic.DynActionCreator {
 			case PICKUP:
 			case DELIVERY:
 			case WAIT:
-				return new IdleDynActivity(task.getTaskType() + "", task::getEndTime);
+				return new IdleDynActivity(task.getTaskType() + "", task::getEndTime,
+						task::setEndTimeChangeListener);
 
 			default:
 				throw new IllegalStateException();
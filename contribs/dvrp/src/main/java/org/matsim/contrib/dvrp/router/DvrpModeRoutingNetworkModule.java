@@ -20,6 +20,7 @@
 
 package org.matsim.contrib.dvrp.router;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.Set;
 
@@ -27,6 +28,8 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.dvrp.run.AbstractDvrpModeModule;
 import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrixIO;
+import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrixRefresher;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.config.groups.QSimConfigGroup;
@@ -74,10 +77,18 @@ public class DvrpModeRoutingNetworkModule extends AbstractDvrpModeModule {
 			})).asEagerSingleton();
 
 			//lazily initialised: optimisers may not need it
-			bindModal(DvrpTravelTimeMatrix.class).toProvider(modalProvider(
-					getter -> DvrpTravelTimeMatrix.createFreeSpeedMatrix(getter.getModal(Network.class),
-							dvrpConfigGroup.getTravelTimeMatrixParams(), globalConfigGroup.getNumberOfThreads(),
-							qSimConfigGroup.getTimeStepSize()))).in(Singleton.class);
+			bindModal(DvrpTravelTimeMatrix.class).toProvider(modalProvider(getter -> {
+				var params = dvrpConfigGroup.getTravelTimeMatrixParams();
+				var network = getter.getModal(Network.class);
+				var matrix = params.getCacheFile() == null ?
+						DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params,
+								globalConfigGroup.getNumberOfThreads(), qSimConfigGroup.getTimeStepSize()) :
+						DvrpTravelTimeMatrixIO.readOrCreateFreeSpeedMatrix(network, params,
+								globalConfigGroup.getNumberOfThreads(), qSimConfigGroup.getTimeStepSize(),
+								getModeCacheFile(params.getCacheFile()));
+				getter.get(DvrpTravelTimeMatrixRefresher.class).register(matrix);
+				return matrix;
+			})).in(Singleton.class);
 		} else {
 			bindModal(Network.class).to(
 					Key.get(Network.class, Names.named(DvrpGlobalRoutingNetworkProvider.DVRP_ROUTING)));
@@ -85,6 +96,11 @@ public class DvrpModeRoutingNetworkModule extends AbstractDvrpModeModule {
 		}
 	}
 
+	private String getModeCacheFile(String cacheFile) {
+		var file = new File(cacheFile);
+		return new File(file.getParentFile(), getMode() + "." + file.getName()).getPath();
+	}
+
 	public static void checkUseModeFilteredSubnetworkAllowed(Config config, String mode) {
 		Set<String> dvrpNetworkModes = DvrpConfigGroup.get(config).getNetworkModes();
 		Preconditions.checkArgument(dvrpNetworkModes.isEmpty() || dvrpNetworkModes.contains(mode),
@@ -29,6 +29,7 @@ import org.matsim.contrib.dvrp.vrpagent.VrpAgentSourceQSimModule;
 import org.matsim.contrib.dynagent.run.DynActivityEngine;
 import org.matsim.contrib.zone.skims.DvrpGlobalTravelTimesMatrixProvider;
 import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrixRefresher;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.mobsim.qsim.AbstractQSimModule;
@@ -73,6 +74,8 @@ public final class DvrpModule extends AbstractModule {
 		// 2. optimisers may do not use it
 		bind(DvrpTravelTimeMatrix.class).toProvider(new DvrpGlobalTravelTimesMatrixProvider(getConfig().global(),
 				dvrpConfigGroup.getTravelTimeMatrixParams())).in(Singleton.class);
+		bind(DvrpTravelTimeMatrixRefresher.class).in(Singleton.class);
+		addControlerListenerBinding().to(DvrpTravelTimeMatrixRefresher.class);
 
 		bind(Network.class).annotatedWith(Names.named(DvrpGlobalRoutingNetworkProvider.DVRP_ROUTING))
 				.toProvider(DvrpGlobalRoutingNetworkProvider.class)
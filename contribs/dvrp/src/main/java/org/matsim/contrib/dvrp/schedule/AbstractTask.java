@@ -39,6 +39,7 @@ public abstract class AbstractTask implements Task {
 	private double endTime;
 
 	private TaskTracker taskTracker;
+	private Runnable endTimeChangeListener;
 
 	AbstractTask(TaskType taskType, double beginTime, double endTime) {
 		Preconditions.checkArgument(beginTime <= endTime, "beginTime=%s; endTime=%s", beginTime, endTime);
@@ -82,7 +83,12 @@ public abstract class AbstractTask implements Task {
 	@Override
 	public final void setEndTime(double endTime) {
 		Preconditions.checkState(status != TaskStatus.PERFORMED, "It is too late to change the endTime");
-		this.endTime = endTime;
+		if (this.endTime != endTime) {
+			this.endTime = endTime;
+			if (endTimeChangeListener != null) {
+				endTimeChangeListener.run();
+			}
+		}
 	}
 
 	@Override
@@ -98,6 +104,11 @@ public abstract class AbstractTask implements Task {
 		this.taskTracker = taskTracker;
 	}
 
+	@Override
+	public final void setEndTimeChangeListener(Runnable endTimeChangeListener) {
+		this.endTimeChangeListener = endTimeChangeListener;
+	}
+
 	@Override
 	public String toString() {
 		return MoreObjects.toStringHelper(this)
@@ -86,4 +86,9 @@ public interface Task {
 	 * (TaskStatus == STARTED) can be tracked.
 	 */
 	void initTaskTracker(TaskTracker taskTracker);
+
+	/**
+	 * The listener is notified whenever the end time changes (used for waking up event-driven DynActivities).
+	 */
+	void setEndTimeChangeListener(Runnable endTimeChangeListener);
 }
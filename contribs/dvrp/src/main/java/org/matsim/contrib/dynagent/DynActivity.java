@@ -52,4 +52,16 @@ public interface DynActivity extends DynAction {
 	// TODO this method may possibly be pulled up to DynAction since even when travelling (either by
 	// PuT or PrT) an agent may think, talk (also on the phone), collaborate etc.
 	void doSimStep(double now);
+
+	/**
+	 * Event-driven activities are not simulated in every time step (i.e. their doSimStep() must do nothing). Instead,
+	 * getEndTime() is re-checked only at the (most recently returned) end time, or after the end time has been changed
+	 * and the listener has been notified. This reduces the per-step overhead for large, mostly idle fleets.
+	 *
+	 * @param endTimeChangeListener to be called (possibly from another thread) whenever the end time changes
+	 * @return true if this activity is event-driven (and the listener has been registered)
+	 */
+	default boolean setEndTimeChangeListener(Runnable endTimeChangeListener) {
+		return false;
+	}
 }
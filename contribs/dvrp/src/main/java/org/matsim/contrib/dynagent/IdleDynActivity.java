@@ -19,24 +19,45 @@
 
 package org.matsim.contrib.dynagent;
 
+import java.util.function.Consumer;
 import java.util.function.DoubleSupplier;
 
+import javax.annotation.Nullable;
+
 /**
  * endTime may be subject to change (when computed with DoubleSupplier)
+ * <p>
+ * The activity is event-driven (see {@link DynActivity#setEndTimeChangeListener(Runnable)}) if endTime is fixed, or if
+ * changes of endTime are notified to the listener registered via {@code endTimeChangeListenerRegistry}.
  *
  * @author michalm
  */
 public final class IdleDynActivity implements DynActivity {
 	private final String activityType;
 	private final DoubleSupplier endTimeSupplier;
+	private final boolean fixedEndTime;
+	@Nullable
+	private final Consumer<Runnable> endTimeChangeListenerRegistry;
 
 	public IdleDynActivity(String activityType, double endTime) {
-		this(activityType, () -> endTime);
+		this(activityType, () -> endTime, true, null);
 	}
 
 	public IdleDynActivity(String activityType, DoubleSupplier endTimeSupplier) {
+		this(activityType, endTimeSupplier, false, null);
+	}
+
+	public IdleDynActivity(String activityType, DoubleSupplier endTimeSupplier,
+			Consumer<Runnable> endTimeChangeListenerRegistry) {
+		this(activityType, endTimeSupplier, false, endTimeChangeListenerRegistry);
+	}
+
+	private IdleDynActivity(String activityType, DoubleSupplier endTimeSupplier, boolean fixedEndTime,
+			@Nullable Consumer<Runnable> endTimeChangeListenerRegistry) {
 		this.activityType = activityType;
 		this.endTimeSupplier = endTimeSupplier;
+		this.fixedEndTime = fixedEndTime;
+		this.endTimeChangeListenerRegistry = endTimeChangeListenerRegistry;
 	}
 
 	@Override
@@ -52,4 +73,16 @@ public final class IdleDynActivity implements DynActivity {
 	@Override
 	public final void doSimStep(double now) {
 	}
+
+	@Override
+	public boolean setEndTimeChangeListener(Runnable endTimeChangeListener) {
+		if (fixedEndTime) {
+			return true;
+		}
+		if (endTimeChangeListenerRegistry == null) {
+			return false;
+		}
+		endTimeChangeListenerRegistry.accept(endTimeChangeListener);
+		return true;
+	}
 }
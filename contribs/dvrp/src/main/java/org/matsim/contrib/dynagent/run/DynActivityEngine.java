@@ -20,13 +20,20 @@
 package org.matsim.contrib.dynagent.run;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
+import org.matsim.contrib.dynagent.DynActivity;
 import org.matsim.contrib.dynagent.DynAgent;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimAgent.State;
@@ -38,45 +45,144 @@ import com.google.common.base.Preconditions;
 
 /**
  * DynActivityEngine is not an ActivityEngine (as only one is allowed)
+ * <p>
+ * Event-driven activities (see {@link DynActivity#setEndTimeChangeListener(Runnable)}) are not simulated in every time
+ * step. They are kept in a queue ordered by their end times and are checked only when the end time is reached or
+ * after they have been woken up by an end time change. Agents are processed in the same order as if all activities
+ * were simulated in every time step.
  */
 public class DynActivityEngine implements MobsimEngine, ActivityHandler {
 	public final static String COMPONENT_NAME = "DynActivityEngine";
 
 	private InternalInterface internalInterface;
 
-	private final List<DynAgent> dynAgents = new LinkedList<>();
+	private final List<AgentEntry> dynAgents = new LinkedList<>();// simulated in every time step
 	private final List<DynAgent> newDynAgents = new ArrayList<>();// will to be handled in the next timeStep
 
+	// event-driven activities
+	private final Queue<AgentEntry> sleepingAgentQueue = new PriorityQueue<>(
+			Comparator.<AgentEntry>comparingDouble(e -> e.wakeUpTime).thenComparingLong(e -> e.sequenceNumber));
+	private final Map<DynAgent, AgentEntry> sleepingAgents = new IdentityHashMap<>();
+	private final Queue<DynAgent> wokenUpAgents = new ConcurrentLinkedQueue<>();
+
+	// order in which agents have started their activities (determines the processing order)
+	private long sequenceNumber = 0;
+
 	// See handleActivity for the reason for this.
 	private boolean beforeFirstSimStep = true;
 
+	private static final class AgentEntry {
+		private final DynAgent agent;
+		private final long sequenceNumber;
+		private final double wakeUpTime;
+
+		private AgentEntry(DynAgent agent, long sequenceNumber, double wakeUpTime) {
+			this.agent = agent;
+			this.sequenceNumber = sequenceNumber;
+			this.wakeUpTime = wakeUpTime;
+		}
+	}
+
 	@Override
 	public void doSimStep(double time) {
 		beforeFirstSimStep = false;
-		dynAgents.addAll(newDynAgents);
+		for (DynAgent agent : newDynAgents) {
+			addAgent(agent);
+		}
 		newDynAgents.clear();
 
-		Iterator<DynAgent> dynAgentIter = dynAgents.iterator();
-		while (dynAgentIter.hasNext()) {
-			DynAgent agent = dynAgentIter.next();
-			Preconditions.checkState(agent.getState() == State.ACTIVITY);
-			agent.doSimStep(time);
-			// ask agents about the current activity end time;
-			double currentEndTime = agent.getActivityEndTime();
-
-			if (currentEndTime == Double.POSITIVE_INFINITY) { // agent says: stop simulating me
-				unregisterAgentAtActivityLocation(agent);
-				internalInterface.getMobsim().getAgentCounter().decLiving();
-				dynAgentIter.remove();
-			} else if (currentEndTime <= time) { // the agent wants to end the activity NOW
-				unregisterAgentAtActivityLocation(agent);
-				agent.endActivityAndComputeNextState(time);
-				internalInterface.arrangeNextAgentState(agent);
-				dynAgentIter.remove();
+		List<AgentEntry> dueSleepingAgents = collectDueSleepingAgents(time);
+
+		// merge the agents simulated in each step with the due sleeping ones (both sorted by sequenceNumber)
+		Iterator<AgentEntry> dynAgentIter = dynAgents.iterator();
+		AgentEntry nextDynAgent = dynAgentIter.hasNext() ? dynAgentIter.next() : null;
+		int sleepingIdx = 0;
+		while (nextDynAgent != null || sleepingIdx < dueSleepingAgents.size()) {
+			if (nextDynAgent != null && (sleepingIdx == dueSleepingAgents.size()
+					|| nextDynAgent.sequenceNumber < dueSleepingAgents.get(sleepingIdx).sequenceNumber)) {
+				nextDynAgent.agent.doSimStep(time);
+				if (checkActivityEnd(nextDynAgent.agent, time)) {
+					dynAgentIter.remove();
+				}
+				nextDynAgent = dynAgentIter.hasNext() ? dynAgentIter.next() : null;
+			} else {
+				AgentEntry entry = dueSleepingAgents.get(sleepingIdx++);
+				if (!checkActivityEnd(entry.agent, time)) {
+					sleep(entry.agent, entry.sequenceNumber);
+				}
 			}
 		}
 	}
 
+	/**
+	 * Makes the engine re-check the activity end time of the agent in the next time step (or in the current one, if
+	 * the engine has not been executed yet). Thread-safe.
+	 */
+	public void wakeUp(DynAgent agent) {
+		wokenUpAgents.add(agent);
+	}
+
+	private void addAgent(DynAgent agent) {
+		long agentSequenceNumber = sequenceNumber++;
+		DynActivity activity = (DynActivity)agent.getCurrentAction();
+		if (activity.setEndTimeChangeListener(() -> wakeUp(agent))) {
+			sleep(agent, agentSequenceNumber);
+		} else {
+			dynAgents.add(new AgentEntry(agent, agentSequenceNumber, Double.NaN));
+		}
+	}
+
+	private void sleep(DynAgent agent, long agentSequenceNumber) {
+		double endTime = agent.getActivityEndTime();
+		// a final activity (end time: +inf) must not wait for its end time; it is due immediately, like an activity
+		// that has already ended, so that the agent is removed from the living ones in the current step
+		double wakeUpTime = endTime == Double.POSITIVE_INFINITY ? Double.NEGATIVE_INFINITY : endTime;
+		AgentEntry entry = new AgentEntry(agent, agentSequenceNumber, wakeUpTime);
+		sleepingAgents.put(agent, entry);
+		sleepingAgentQueue.add(entry);
+	}
+
+	private List<AgentEntry> collectDueSleepingAgents(double time) {
+		List<AgentEntry> dueAgents = new ArrayList<>();
+		DynAgent wokenUpAgent;
+		while ((wokenUpAgent = wokenUpAgents.poll()) != null) {
+			// the outdated entry stays in the queue and is skipped later on
+			AgentEntry entry = sleepingAgents.remove(wokenUpAgent);
+			if (entry != null) {
+				dueAgents.add(entry);
+			}
+		}
+
+		while (!sleepingAgentQueue.isEmpty() && sleepingAgentQueue.peek().wakeUpTime <= time) {
+			AgentEntry entry = sleepingAgentQueue.poll();
+			if (sleepingAgents.remove(entry.agent, entry)) {
+				dueAgents.add(entry);
+			}
+		}
+
+		dueAgents.sort(Comparator.comparingLong(e -> e.sequenceNumber));
+		return dueAgents;
+	}
+
+	// returns true if the agent has stopped the activity (or has been put to permanent sleep)
+	private boolean checkActivityEnd(DynAgent agent, double time) {
+		Preconditions.checkState(agent.getState() == State.ACTIVITY);
+		// ask agents about the current activity end time;
+		double currentEndTime = agent.getActivityEndTime();
+
+		if (currentEndTime == Double.POSITIVE_INFINITY) { // agent says: stop simulating me
+			unregisterAgentAtActivityLocation(agent);
+			internalInterface.getMobsim().getAgentCounter().decLiving();
+			return true;
+		} else if (currentEndTime <= time) { // the agent wants to end the activity NOW
+			unregisterAgentAtActivityLocation(agent);
+			agent.endActivityAndComputeNextState(time);
+			internalInterface.arrangeNextAgentState(agent);
+			return true;
+		}
+		return false;
+	}
+
 	@Override
 	public boolean handleActivity(MobsimAgent agent) {
 		if (!(agent instanceof DynAgent)) {
@@ -98,7 +204,7 @@ public class DynActivityEngine implements MobsimEngine, ActivityHandler {
 		} else {
 			// The agent commences an activity on this link.
 			if (beforeFirstSimStep) {
-				dynAgents.add((DynAgent)agent);
+				addAgent((DynAgent)agent);
 			} else {
 				newDynAgents.add((DynAgent)agent);
 			}
@@ -112,6 +218,9 @@ public class DynActivityEngine implements MobsimEngine, ActivityHandler {
 	@Override
 	public void afterSim() {
 		dynAgents.clear();
+		sleepingAgentQueue.clear();
+		sleepingAgents.clear();
+		wokenUpAgents.clear();
 	}
 
 	@Override
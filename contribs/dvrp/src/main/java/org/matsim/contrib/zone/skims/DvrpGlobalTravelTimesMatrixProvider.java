@@ -44,6 +44,9 @@ public class DvrpGlobalTravelTimesMatrixProvider implements Provider<DvrpTravelT
 	@Inject
 	private QSimConfigGroup qSimConfigGroup;
 
+	@Inject
+	private DvrpTravelTimeMatrixRefresher refresher;
+
 	public DvrpGlobalTravelTimesMatrixProvider(GlobalConfigGroup globalConfig, DvrpTravelTimeMatrixParams params) {
 		this.params = params;
 		this.numberOfThreads = globalConfig.getNumberOfThreads();
@@ -51,7 +54,12 @@ public class DvrpGlobalTravelTimesMatrixProvider implements Provider<DvrpTravelT
 
 	@Override
 	public DvrpTravelTimeMatrix get() {
-		return DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params, numberOfThreads,
-				qSimConfigGroup.getTimeStepSize());
+		var matrix = params.getCacheFile() == null ?
+				DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params, numberOfThreads,
+						qSimConfigGroup.getTimeStepSize()) :
+				DvrpTravelTimeMatrixIO.readOrCreateFreeSpeedMatrix(network, params, numberOfThreads,
+						qSimConfigGroup.getTimeStepSize(), params.getCacheFile());
+		refresher.register(matrix);
+		return matrix;
 	}
 }
@@ -20,15 +20,39 @@
 
 package org.matsim.contrib.zone.skims;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.contrib.dvrp.router.TimeAsTravelDisutility;
 import org.matsim.contrib.dvrp.trafficmonitoring.QSimFreeSpeedTravelTime;
 import org.matsim.contrib.zone.SquareGridSystem;
 import org.matsim.contrib.zone.ZonalSystems;
+import org.matsim.contrib.zone.Zone;
 import org.matsim.core.router.util.TravelTime;
 
 /**
+ * Travel times between nodes at three levels of resolution:
+ * <ol>
+ * <li>node-to-node travel times for neighbouring nodes (sparse matrix),</li>
+ * <li>(optional, if {@link DvrpTravelTimeMatrixParams#getCoarseCellSize()} is positive) zone-to-zone travel times
+ * between nearby zones of the fine grid (sparse matrix),</li>
+ * <li>zone-to-zone travel times for all zones of the fine or coarse grid (dense matrix).</li>
+ * </ol>
+ * Initially, the travel times are calculated for free-flow conditions, but they can be refreshed with the estimated
+ * travel times (see {@link #refresh(TravelTime, int, double)}).
+ *
  * @author Michal Maciejewski (michalm)
  */
 public class DvrpTravelTimeMatrix {
@@ -38,19 +62,69 @@ public class DvrpTravelTimeMatrix {
 				new QSimFreeSpeedTravelTime(qSimTimeStepSize));
 	}
 
+	private final Network dvrpNetwork;
+	private final DvrpTravelTimeMatrixParams params;
+	private final List<Node> nodes;
+
+	// dense matrix (coarse grid if multi-resolution, otherwise fine grid)
 	private final SquareGridSystem gridSystem;
+	private final Map<Zone, Node> centralNodes;
+	private final List<Zone> zones;
 	private final Matrix freeSpeedTravelTimeMatrix;
+
+	// sparse zonal matrix (fine grid), only if multi-resolution; indexed by the central nodes of the fine zones
+	@Nullable
+	private final SparseMatrix fineZoneTravelTimeSparseMatrix;
+	@Nullable
+	private final int[] fineZoneCentralNodeIndices;// [nodeIndex]
+	private final List<Node> fineZoneCentralNodes;
+
 	private final SparseMatrix freeSpeedTravelTimeSparseMatrix;
 
+	private int refreshCount = 0;
+
 	public DvrpTravelTimeMatrix(Network dvrpNetwork, DvrpTravelTimeMatrixParams params, int numberOfThreads,
 			TravelTime travelTime) {
-		gridSystem = new SquareGridSystem(dvrpNetwork.getNodes().values(), params.getCellSize());
-		var centralNodes = ZonalSystems.computeMostCentralNodes(dvrpNetwork.getNodes().values(), gridSystem);
-		var travelDisutility = new TimeAsTravelDisutility(travelTime);
-		freeSpeedTravelTimeMatrix = TravelTimeMatrices.calculateTravelTimeMatrix(dvrpNetwork, centralNodes, 0,
-				travelTime, travelDisutility, numberOfThreads);
-		freeSpeedTravelTimeSparseMatrix = TravelTimeMatrices.calculateTravelTimeSparseMatrix(dvrpNetwork,
-				params.getMaxNeighborDistance(), 0, travelTime, travelDisutility, numberOfThreads);
+		this(dvrpNetwork, params);
+		updateRows(travelTime, numberOfThreads, zones, fineZoneCentralNodes, nodes);
+	}
+
+	/**
+	 * Creates an empty matrix (to be filled in by {@link DvrpTravelTimeMatrixIO})
+	 */
+	DvrpTravelTimeMatrix(Network dvrpNetwork, DvrpTravelTimeMatrixParams params) {
+		this.dvrpNetwork = dvrpNetwork;
+		this.params = params;
+		nodes = new ArrayList<>(dvrpNetwork.getNodes().values());
+
+		boolean multiResolution = params.getCoarseCellSize() > 0;
+		gridSystem = new SquareGridSystem(nodes,
+				multiResolution ? params.getCoarseCellSize() : params.getCellSize());
+		centralNodes = ZonalSystems.computeMostCentralNodes(nodes, gridSystem);
+		zones = new ArrayList<>(centralNodes.keySet());
+		zones.sort(Comparator.comparing(Zone::getId));// deterministic order of refreshed rows
+		freeSpeedTravelTimeMatrix = new Matrix(centralNodes.keySet());
+
+		if (multiResolution) {
+			var fineGridSystem = new SquareGridSystem(nodes, params.getCellSize());
+			var fineCentralNodes = ZonalSystems.computeMostCentralNodes(nodes, fineGridSystem);
+			fineZoneCentralNodes = new ArrayList<>(fineCentralNodes.values());
+			fineZoneCentralNodes.sort(Comparator.comparing(Node::getId));
+			fineZoneCentralNodeIndices = new int[Id.getNumberOfIds(Node.class)];
+			Arrays.fill(fineZoneCentralNodeIndices, -1);
+			for (Node node : nodes) {
+				fineZoneCentralNodeIndices[node.getId().index()] = fineCentralNodes.get(fineGridSystem.getZone(node))
+						.getId()
+						.index();
+			}
+			fineZoneTravelTimeSparseMatrix = new SparseMatrix();
+		} else {
+			fineZoneCentralNodes = List.of();
+			fineZoneCentralNodeIndices = null;
+			fineZoneTravelTimeSparseMatrix = null;
+		}
+
+		freeSpeedTravelTimeSparseMatrix = new SparseMatrix();
 	}
 
 	public int getFreeSpeedTravelTime(Node fromNode, Node toNode) {
@@ -61,6 +135,83 @@ public class DvrpTravelTimeMatrix {
 		if (time >= 0) {// value is present
 			return time;
 		}
+		if (fineZoneTravelTimeSparseMatrix != null) {
+			time = fineZoneTravelTimeSparseMatrix.get(fineZoneCentralNodeIndices[fromNode.getId().index()],
+					fineZoneCentralNodeIndices[toNode.getId().index()]);
+			if (time >= 0) {// value is present
+				return time;
+			}
+		}
 		return freeSpeedTravelTimeMatrix.get(gridSystem.getZone(fromNode), gridSystem.getZone(toNode));
 	}
+
+	/**
+	 * Recalculates a share of rows of all matrices using the given travel times. Subsequent calls recalculate
+	 * subsequent shares of rows (round-robin), so with a share of 0.25 all rows are recalculated after 4 calls.
+	 * Must not be called concurrently with reading the matrix.
+	 *
+	 * @param travelTime travel times independent of the departure time (the departure time is 0)
+	 */
+	public void refresh(TravelTime travelTime, int numberOfThreads, double share) {
+		checkArgument(share > 0 && share <= 1, "share must be in (0, 1]");
+		int chunkCount = (int)Math.ceil(1 / share);
+		int chunk = refreshCount++ % chunkCount;
+		updateRows(travelTime, numberOfThreads, selectChunk(zones, chunk, chunkCount),
+				selectChunk(fineZoneCentralNodes, chunk, chunkCount), selectChunk(nodes, chunk, chunkCount));
+	}
+
+	// interleaved chunks, so each refresh is spread over the whole area
+	private static <T> List<T> selectChunk(List<T> rows, int chunk, int chunkCount) {
+		return IntStream.range(0, rows.size())
+				.filter(i -> i % chunkCount == chunk)
+				.mapToObj(rows::get)
+				.collect(toList());
+	}
+
+	private void updateRows(TravelTime travelTime, int numberOfThreads, List<Zone> zoneRows,
+			List<Node> fineZoneRows, List<Node> nodeRows) {
+		var travelDisutility = new TimeAsTravelDisutility(travelTime);
+		TravelTimeMatrices.updateTravelTimeMatrix(freeSpeedTravelTimeMatrix, dvrpNetwork, centralNodes, zoneRows, 0,
+				travelTime, travelDisutility, numberOfThreads);
+		if (fineZoneTravelTimeSparseMatrix != null) {
+			TravelTimeMatrices.updateTravelTimeSparseMatrix(fineZoneTravelTimeSparseMatrix, dvrpNetwork, fineZoneRows,
+					fineZoneCentralNodes, 2 * params.getCoarseCellSize(), 0, travelTime, travelDisutility,
+					numberOfThreads);
+		}
+		TravelTimeMatrices.updateTravelTimeSparseMatrix(freeSpeedTravelTimeSparseMatrix, dvrpNetwork, nodeRows, nodes,
+				params.getMaxNeighborDistance(), 0, travelTime, travelDisutility, numberOfThreads);
+	}
+
+	Network getDvrpNetwork() {
+		return dvrpNetwork;
+	}
+
+	DvrpTravelTimeMatrixParams getParams() {
+		return params;
+	}
+
+	List<Node> getNodes() {
+		return nodes;
+	}
+
+	List<Zone> getZones() {
+		return zones;
+	}
+
+	Matrix getZonalMatrix() {
+		return freeSpeedTravelTimeMatrix;
+	}
+
+	List<Node> getFineZoneCentralNodes() {
+		return fineZoneCentralNodes;
+	}
+
+	@Nullable
+	SparseMatrix getFineZoneSparseMatrix() {
+		return fineZoneTravelTimeSparseMatrix;
+	}
+
+	SparseMatrix getNodeSparseMatrix() {
+		return freeSpeedTravelTimeSparseMatrix;
+	}
 }
@@ -0,0 +1,240 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.zone.skims;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.zone.Zone;
+import org.matsim.contrib.zone.skims.SparseMatrix.NodeAndTime;
+import org.matsim.contrib.zone.skims.SparseMatrix.SparseRow;
+import org.matsim.core.utils.io.IOUtils;
+
+/**
+ * Binary (optionally gzipped) persistence of {@link DvrpTravelTimeMatrix}. Nodes and zones are stored by their ids,
+ * so the file can be reused across runs, as long as the network and the matrix parameters are unchanged. To detect
+ * network changes, the header contains a fingerprint of the links (ids, from/to nodes, lengths and freespeeds) and the
+ * qsim time step size.
+ */
+public final class DvrpTravelTimeMatrixIO {
+	private static final Logger log = Logger.getLogger(DvrpTravelTimeMatrixIO.class);
+
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * Loads the matrix from {@code cacheFile} if the file exists and matches the network and parameters; otherwise,
+	 * calculates the free-speed matrix and writes it to {@code cacheFile}.
+	 */
+	public static DvrpTravelTimeMatrix readOrCreateFreeSpeedMatrix(Network dvrpNetwork,
+			DvrpTravelTimeMatrixParams params, int numberOfThreads, double qSimTimeStepSize, String cacheFile) {
+		if (new File(cacheFile).exists()) {
+			var matrix = read(dvrpNetwork, params, qSimTimeStepSize, cacheFile);
+			if (matrix != null) {
+				log.info("DVRP travel time matrix loaded from: " + cacheFile);
+				return matrix;
+			}
+			log.warn("DVRP travel time matrix in " + cacheFile
+					+ " does not match the network or parameters. Recalculating the matrix.");
+		}
+		var matrix = DvrpTravelTimeMatrix.createFreeSpeedMatrix(dvrpNetwork, params, numberOfThreads,
+				qSimTimeStepSize);
+		write(matrix, qSimTimeStepSize, cacheFile);
+		return matrix;
+	}
+
+	public static void write(DvrpTravelTimeMatrix matrix, double qSimTimeStepSize, String file) {
+		try (var out = new DataOutputStream(
+				new BufferedOutputStream(IOUtils.getOutputStream(IOUtils.getFileUrl(file), false)))) {
+			var params = matrix.getParams();
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(params.getCellSize());
+			out.writeInt(params.getCoarseCellSize());
+			out.writeInt(params.getMaxNeighborDistance());
+			out.writeLong(computeNetworkFingerprint(matrix.getDvrpNetwork(), qSimTimeStepSize));
+
+			List<Node> nodes = matrix.getNodes();
+			int[] nodePositions = new int[Id.getNumberOfIds(Node.class)];
+			out.writeInt(nodes.size());
+			for (int i = 0; i < nodes.size(); i++) {
+				out.writeUTF(nodes.get(i).getId().toString());
+				nodePositions[nodes.get(i).getId().index()] = i;
+			}
+
+			List<Zone> zones = matrix.getZones();
+			out.writeInt(zones.size());
+			for (Zone zone : zones) {
+				out.writeUTF(zone.getId().toString());
+			}
+			var zonalMatrix = matrix.getZonalMatrix();
+			for (Zone from : zones) {
+				for (Zone to : zones) {
+					out.writeChar(zonalMatrix.get(from, to));
+				}
+			}
+
+			var fineZoneSparseMatrix = matrix.getFineZoneSparseMatrix();
+			if (fineZoneSparseMatrix != null) {
+				for (Node node : matrix.getFineZoneCentralNodes()) {
+					writeRow(out, fineZoneSparseMatrix.getRow(node), nodePositions);
+				}
+			}
+
+			var nodeSparseMatrix = matrix.getNodeSparseMatrix();
+			for (Node node : nodes) {
+				writeRow(out, nodeSparseMatrix.getRow(node), nodePositions);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeRow(DataOutputStream out, SparseRow row, int[] nodePositions) throws IOException {
+		var nodeAndTimes = row == null ? List.<NodeAndTime>of() : row.getNodeAndTimes();
+		out.writeInt(nodeAndTimes.size());
+		for (NodeAndTime nodeAndTime : nodeAndTimes) {
+			out.writeInt(nodePositions[nodeAndTime.getNodeIdx()]);
+			out.writeChar((int)nodeAndTime.getTime());
+		}
+	}
+
+	/**
+	 * @return the matrix or null if the file does not match the network or parameters
+	 */
+	@Nullable
+	public static DvrpTravelTimeMatrix read(Network dvrpNetwork, DvrpTravelTimeMatrixParams params,
+			double qSimTimeStepSize, String file) {
+		try (var in = new DataInputStream(
+				new BufferedInputStream(IOUtils.getInputStream(IOUtils.getFileUrl(file))))) {
+			if (in.readInt() != FORMAT_VERSION
+					|| in.readInt() != params.getCellSize()
+					|| in.readInt() != params.getCoarseCellSize()
+					|| in.readInt() != params.getMaxNeighborDistance()
+					|| in.readLong() != computeNetworkFingerprint(dvrpNetwork, qSimTimeStepSize)) {
+				return null;
+			}
+
+			var matrix = new DvrpTravelTimeMatrix(dvrpNetwork, params);
+			List<Node> nodes = matrix.getNodes();
+			if (in.readInt() != nodes.size()) {
+				return null;
+			}
+			for (Node node : nodes) {
+				if (!in.readUTF().equals(node.getId().toString())) {
+					return null;
+				}
+			}
+
+			List<Zone> zones = matrix.getZones();
+			if (in.readInt() != zones.size()) {
+				return null;
+			}
+			Map<String, Zone> zonesById = new HashMap<>();
+			zones.forEach(zone -> zonesById.put(zone.getId().toString(), zone));
+			List<Zone> fileZones = new ArrayList<>(zones.size());
+			for (int i = 0; i < zones.size(); i++) {
+				Zone zone = zonesById.get(in.readUTF());
+				if (zone == null) {
+					return null;
+				}
+				fileZones.add(zone);
+			}
+			var zonalMatrix = matrix.getZonalMatrix();
+			for (Zone from : fileZones) {
+				for (Zone to : fileZones) {
+					zonalMatrix.set(from, to, in.readChar());
+				}
+			}
+
+			var fineZoneSparseMatrix = matrix.getFineZoneSparseMatrix();
+			if (fineZoneSparseMatrix != null) {
+				for (Node node : matrix.getFineZoneCentralNodes()) {
+					fineZoneSparseMatrix.setRow(node, readRow(in, nodes));
+				}
+			}
+
+			var nodeSparseMatrix = matrix.getNodeSparseMatrix();
+			for (Node node : nodes) {
+				nodeSparseMatrix.setRow(node, readRow(in, nodes));
+			}
+			return matrix;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static SparseRow readRow(DataInputStream in, List<Node> nodes) throws IOException {
+		NodeAndTime[] nodeAndTimes = new NodeAndTime[in.readInt()];
+		for (int i = 0; i < nodeAndTimes.length; i++) {
+			int nodeIdx = nodes.get(in.readInt()).getId().index();
+			nodeAndTimes[i] = new NodeAndTime(nodeIdx, in.readChar());
+		}
+		return new SparseRow(Arrays.asList(nodeAndTimes));
+	}
+
+	/**
+	 * @return 64-bit hash over the ids, from/to nodes, lengths and freespeeds of all links (in the order of their ids)
+	 * and the qsim time step size, i.e. all inputs of the free-speed travel times
+	 */
+	static long computeNetworkFingerprint(Network network, double qSimTimeStepSize) {
+		long hash = mix(0, Double.doubleToLongBits(qSimTimeStepSize));
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		links.sort(Comparator.comparing(Link::getId));
+		for (Link link : links) {
+			hash = mix(hash, link.getId().toString());
+			hash = mix(hash, link.getFromNode().getId().toString());
+			hash = mix(hash, link.getToNode().getId().toString());
+			hash = mix(hash, Double.doubleToLongBits(link.getLength()));
+			hash = mix(hash, Double.doubleToLongBits(link.getFreespeed()));
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, String value) {
+		hash = mix(hash, value.length());
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * 0x100000001b3L;// FNV-1a
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, long value) {
+		long h = (hash ^ value) * 0xbf58476d1ce4e5b9L;
+		return h ^ (h >>> 31);
+	}
+}
@@ -22,9 +22,13 @@ package org.matsim.contrib.zone.skims;
 
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 import org.matsim.core.config.ConfigGroup;
 import org.matsim.core.config.ReflectiveConfigGroup;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
@@ -53,6 +57,35 @@ public class DvrpTravelTimeMatrixParams extends ReflectiveConfigGroup {
 	@PositiveOrZero
 	private int maxNeighborDistance = 1000; //[m]
 
+	public static final String COARSE_CELL_SIZE = "coarseCellSize";
+	private static final String COARSE_CELL_SIZE_EXP =
+			"Size of square cells (meters) of the coarse grid used for distant zones. If positive, travel times"
+					+ " between zones of size 'cellSize' are only stored for zones within the network distance of"
+					+ " 2 * 'coarseCellSize' (sparse matrix), and a dense matrix is computed only for the coarse grid."
+					+ " This reduces the memory footprint and computation time for large networks."
+					+ " Default value is 0 m (single resolution: dense matrix for cells of size 'cellSize').";
+
+	@PositiveOrZero
+	private int coarseCellSize = 0; //[m]
+
+	public static final String REFRESH_SHARE = "refreshShare";
+	private static final String REFRESH_SHARE_EXP =
+			"Share of matrix rows that are recalculated after each iteration using the DVRP travel time estimates"
+					+ " (minimum over the day), so that the matrix picks up permanent congestion. Rows are refreshed"
+					+ " in a round-robin fashion. Default value is 0 (free-speed travel times are not refreshed).";
+
+	@DecimalMin("0.0")
+	@DecimalMax("1.0")
+	private double refreshShare = 0;
+
+	public static final String CACHE_FILE = "cacheFile";
+	private static final String CACHE_FILE_EXP =
+			"If set, the free-speed matrix is loaded from this file if it exists and matches the network and"
+					+ " parameters; otherwise the matrix is calculated and written to this file. In case of"
+					+ " mode-filtered subnetworks, the mode is prepended to the file name.";
+
+	private String cacheFile = null;
+
 	public DvrpTravelTimeMatrixParams() {
 		super(SET_NAME);
 	}
@@ -62,6 +95,9 @@ public class DvrpTravelTimeMatrixParams extends ReflectiveConfigGroup {
 		var map = super.getComments();
 		map.put(CELL_SIZE, CELL_SIZE_EXP);
 		map.put(MAX_NEIGHBOR_DISTANCE, MAX_NEIGHBOR_DISTANCE_EXP);
+		map.put(COARSE_CELL_SIZE, COARSE_CELL_SIZE_EXP);
+		map.put(REFRESH_SHARE, REFRESH_SHARE_EXP);
+		map.put(CACHE_FILE, CACHE_FILE_EXP);
 		return map;
 	}
 
@@ -99,6 +135,58 @@ public class DvrpTravelTimeMatrixParams extends ReflectiveConfigGroup {
 		return this;
 	}
 
+	/**
+	 * @return {@value #COARSE_CELL_SIZE_EXP}
+	 */
+	@StringGetter(COARSE_CELL_SIZE)
+	public int getCoarseCellSize() {
+		return coarseCellSize;
+	}
+
+	/**
+	 * @param coarseCellSize {@value #COARSE_CELL_SIZE_EXP}
+	 */
+	@StringSetter(COARSE_CELL_SIZE)
+	public DvrpTravelTimeMatrixParams setCoarseCellSize(int coarseCellSize) {
+		this.coarseCellSize = coarseCellSize;
+		return this;
+	}
+
+	/**
+	 * @return {@value #REFRESH_SHARE_EXP}
+	 */
+	@StringGetter(REFRESH_SHARE)
+	public double getRefreshShare() {
+		return refreshShare;
+	}
+
+	/**
+	 * @param refreshShare {@value #REFRESH_SHARE_EXP}
+	 */
+	@StringSetter(REFRESH_SHARE)
+	public DvrpTravelTimeMatrixParams setRefreshShare(double refreshShare) {
+		this.refreshShare = refreshShare;
+		return this;
+	}
+
+	/**
+	 * @return {@value #CACHE_FILE_EXP}
+	 */
+	@StringGetter(CACHE_FILE)
+	@Nullable
+	public String getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * @param cacheFile {@value #CACHE_FILE_EXP}
+	 */
+	@StringSetter(CACHE_FILE)
+	public DvrpTravelTimeMatrixParams setCacheFile(@Nullable String cacheFile) {
+		this.cacheFile = cacheFile;
+		return this;
+	}
+
 	@Override
 	public ConfigGroup createParameterSet(String type) {
 		return super.createParameterSet(type);
@@ -0,0 +1,79 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.zone.skims;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
+import org.matsim.contrib.dvrp.trafficmonitoring.DvrpTravelTimeModule;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.router.util.TravelTime;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Refreshes the (lazily created) DVRP travel time matrices after each iteration with the minimum (over the day)
+ * DVRP travel time estimates. The matrices have to be registered by their providers.
+ *
+ * @see DvrpTravelTimeMatrixParams#getRefreshShare()
+ */
+public final class DvrpTravelTimeMatrixRefresher implements IterationEndsListener {
+	private final TravelTime travelTime;
+	private final double refreshShare;
+	private final int numberOfThreads;
+	private final double endTime;
+	private final double samplingInterval;
+
+	private final List<DvrpTravelTimeMatrix> matrices = new ArrayList<>();
+
+	@Inject
+	DvrpTravelTimeMatrixRefresher(@Named(DvrpTravelTimeModule.DVRP_ESTIMATED) TravelTime travelTime,
+			DvrpConfigGroup dvrpCfg, GlobalConfigGroup globalCfg, QSimConfigGroup qSimCfg,
+			TravelTimeCalculatorConfigGroup travelTimeCalculatorCfg) {
+		this.travelTime = travelTime;
+		this.refreshShare = dvrpCfg.getTravelTimeMatrixParams().getRefreshShare();
+		this.numberOfThreads = globalCfg.getNumberOfThreads();
+		this.endTime = qSimCfg.getEndTime().orElse(30 * 3600);
+		this.samplingInterval = travelTimeCalculatorCfg.getTraveltimeBinSize();
+	}
+
+	public synchronized void register(DvrpTravelTimeMatrix matrix) {
+		matrices.add(matrix);
+	}
+
+	@Override
+	public synchronized void notifyIterationEnds(IterationEndsEvent event) {
+		if (refreshShare == 0 || event.isLastIteration()) {
+			return;
+		}
+		for (DvrpTravelTimeMatrix matrix : matrices) {
+			var minTravelTime = new MinLinkTravelTime(matrix.getDvrpNetwork(), travelTime, 0, endTime,
+					samplingInterval);
+			matrix.refresh(minTravelTime, numberOfThreads, refreshShare);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.zone.skims;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Minimum link travel times over a time interval, independent of the departure time.
+ */
+final class MinLinkTravelTime implements TravelTime {
+	private final double[] minTravelTimes;
+
+	MinLinkTravelTime(Network network, TravelTime travelTime, double fromTime, double toTime,
+			double samplingInterval) {
+		minTravelTimes = new double[Id.getNumberOfIds(Link.class)];
+		Arrays.fill(minTravelTimes, Double.NaN);
+		for (Link link : network.getLinks().values()) {
+			double minTT = Double.POSITIVE_INFINITY;
+			for (double time = fromTime; time < toTime; time += samplingInterval) {
+				minTT = Math.min(minTT, travelTime.getLinkTravelTime(link, time, null, null));
+			}
+			minTravelTimes[link.getId().index()] = minTT;
+		}
+	}
+
+	private MinLinkTravelTime(double[] minTravelTimes) {
+		this.minTravelTimes = minTravelTimes;
+	}
+
+	/**
+	 * @return element-wise minimum of this and {@code other} (both computed for the same network)
+	 */
+	MinLinkTravelTime min(MinLinkTravelTime other) {
+		double[] min = new double[minTravelTimes.length];
+		for (int i = 0; i < min.length; i++) {
+			min[i] = Math.min(minTravelTimes[i], other.minTravelTimes[i]);
+		}
+		return new MinLinkTravelTime(min);
+	}
+
+	/**
+	 * @return 64-bit hash of the link travel times, mixed into {@code hash}
+	 */
+	long hash(long hash) {
+		for (double tt : minTravelTimes) {
+			hash = (hash ^ Double.doubleToLongBits(tt)) * 0x100000001b3L;
+			hash ^= hash >>> 29;
+		}
+		return hash;
+	}
+
+	@Override
+	public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+		return minTravelTimes[link.getId().index()];
+	}
+}
@@ -22,7 +22,6 @@ package org.matsim.contrib.zone.skims;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 
@@ -35,9 +34,9 @@ import com.google.common.base.Preconditions;
  * @author Michal Maciejewski (michalm)
  */
 public final class SparseMatrix {
-	//Range of unsigned short: 0-65535 (18:12:15)
+	//Range of char (unsigned 16-bit): 0-65535 (18:12:15)
 	//In case 18 hours is not enough, we can reduce the resolution from seconds to tens of seconds
-	private static final int MAX_UNSIGNED_SHORT = Short.MAX_VALUE - Short.MIN_VALUE;
+	private static final int MAX_UNSIGNED_SHORT = Character.MAX_VALUE;
 
 	public static class NodeAndTime {
 		private final int nodeIdx;
@@ -47,29 +46,38 @@ public final class SparseMatrix {
 			this.nodeIdx = nodeIdx;
 			this.time = time;
 		}
+
+		int getNodeIdx() {
+			return nodeIdx;
+		}
+
+		double getTime() {
+			return time;
+		}
 	}
 
 	private static final class Bucket {
 		private final int[] nodeIndices; // sorted for binary search
-		private final short[] values; // aligned with nodeIndices (using 'short' as in Matrix)
+		private final char[] values; // aligned with nodeIndices (unsigned, 2 bytes per value as in Matrix)
 
 		private Bucket(List<NodeAndTime> nodeAndTimes) {
 			var nodeAndTimeArray = nodeAndTimes.toArray(new NodeAndTime[0]);
 			Arrays.sort(nodeAndTimeArray, Comparator.comparingInt(nodeAndTime -> nodeAndTime.nodeIdx));
 
 			this.nodeIndices = new int[nodeAndTimeArray.length];
-			this.values = new short[nodeAndTimeArray.length];
+			this.values = new char[nodeAndTimeArray.length];
 
 			for (int i = 0; i < nodeAndTimeArray.length; i++) {
 				var e = nodeAndTimeArray[i];
 				Preconditions.checkArgument(Double.isFinite(e.time) && e.time >= 0 && e.time < MAX_UNSIGNED_SHORT);
 				nodeIndices[i] = e.nodeIdx;
-				values[i] = (short)e.time;
+				values[i] = (char)e.time;
 			}
 		}
 
 		private int get(int toNodeIndex) {
-			return values[Arrays.binarySearch(nodeIndices, toNodeIndex)];
+			int i = Arrays.binarySearch(nodeIndices, toNodeIndex);
+			return i >= 0 ? values[i] : -1; // value not present in the row
 		}
 	}
 
@@ -79,13 +87,14 @@ public final class SparseMatrix {
 		// (min 2; max 1941).
 		// Interestingly, the old version (not using buckets) was minimally worse (the tests included all nodes,
 		// so in most of the cases from-to nodes were not neighbours and get filtered out by the bit set)
+		//
+		// The bit set filter was removed: its size is proportional to the highest node index, which makes
+		// the matrix grow quadratically with the network size.
 		private static final int MAX_AVERAGE_BUCKET_SIZE = 64;
 
 		private final int mask;
 		private final Bucket[] buckets;
 
-		private final BitSet presentNodes = new BitSet();
-
 		public SparseRow(List<NodeAndTime> nodeAndTimes) {
 			if (nodeAndTimes.isEmpty()) {
 				mask = 0;
@@ -108,7 +117,6 @@ public final class SparseMatrix {
 			for (NodeAndTime e : nodeAndTimes) {
 				int index = e.nodeIdx & mask;
 				nodeAndTimeLists.get(index).add(e);
-				presentNodes.set(e.nodeIdx);
 			}
 
 			for (int i = 0; i < bucketCount; i++) {
@@ -117,9 +125,19 @@ public final class SparseMatrix {
 		}
 
 		public int get(int toNodeIndex) {
-			return presentNodes.get(toNodeIndex) ?
-					buckets[toNodeIndex & mask].get(toNodeIndex) :
-					-1; // value not present in the row
+			return buckets != null ? buckets[toNodeIndex & mask].get(toNodeIndex) : -1;
+		}
+
+		List<NodeAndTime> getNodeAndTimes() {
+			List<NodeAndTime> nodeAndTimes = new ArrayList<>();
+			if (buckets != null) {
+				for (Bucket bucket : buckets) {
+					for (int i = 0; i < bucket.nodeIndices.length; i++) {
+						nodeAndTimes.add(new NodeAndTime(bucket.nodeIndices[i], bucket.values[i]));
+					}
+				}
+			}
+			return nodeAndTimes;
 		}
 	}
 
@@ -138,4 +156,8 @@ public final class SparseMatrix {
 	public void setRow(Node fromNode, SparseRow row) {
 		rows[fromNode.getId().index()] = row;
 	}
+
+	SparseRow getRow(Node fromNode) {
+		return rows[fromNode.getId().index()];
+	}
 }
@@ -0,0 +1,216 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.zone.skims;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.dvrp.router.TimeAsTravelDisutility;
+import org.matsim.contrib.util.ExecutorServiceWithResource;
+import org.matsim.contrib.zone.SquareGridSystem;
+import org.matsim.contrib.zone.ZonalSystems;
+import org.matsim.contrib.zone.Zone;
+import org.matsim.core.router.speedy.LeastCostPathTree;
+import org.matsim.core.router.speedy.SpeedyGraph;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.utils.misc.Counter;
+import org.matsim.core.utils.misc.OptionalTime;
+
+/**
+ * Time-dependent lower bounds of node-to-node travel times, intended for pruning insertions before computing the
+ * actual paths.
+ * <p>
+ * For each time bin, the link travel times are replaced with their minimum over the bin and all following bins
+ * (sampled every {@value #SAMPLING_INTERVAL} s up to the end of the last bin). Since these times never increase
+ * with the departure time, the bound of a time bin holds for all trips departing within the bin or later,
+ * regardless of their duration. With these times, travel times between the central nodes of all zones are
+ * computed, together with the maximum travel time from/to the central node within each zone. By the triangle
+ * inequality, tt(a, b) >= tt(c_A, c_B) - tt(c_A, a) - tt(b, c_B) for any nodes a in zone A and b in zone B,
+ * which gives the lower bound.
+ *
+ * @see DvrpTravelTimeMatrix
+ */
+public class TravelTimeLowerBoundMatrix {
+	static final int SAMPLING_INTERVAL = 900;
+
+	private final SquareGridSystem gridSystem;
+	private final double timeBinSize;
+	private final Matrix[] zonalMatrices;// [timeBin]
+	private final double[][] maxTimesFromCentralNode;// [timeBin][zoneIndex]
+	private final double[][] maxTimesToCentralNode;// [timeBin][zoneIndex]
+	private final long linkTravelTimesHash;
+
+	public TravelTimeLowerBoundMatrix(Network dvrpNetwork, double cellSize, double timeBinSize, double maxTime,
+			int numberOfThreads, TravelTime travelTime) {
+		checkArgument(timeBinSize > 0, "timeBinSize must be positive");
+		this.timeBinSize = timeBinSize;
+		gridSystem = new SquareGridSystem(dvrpNetwork.getNodes().values(), cellSize);
+		var centralNodes = ZonalSystems.computeMostCentralNodes(dvrpNetwork.getNodes().values(), gridSystem);
+		var nodesByZone = dvrpNetwork.getNodes()
+				.values()
+				.stream()
+				.collect(groupingBy(gridSystem::getZone, toList()));
+
+		int timeBinCount = getTimeBinCount(timeBinSize, maxTime);
+		zonalMatrices = new Matrix[timeBinCount];
+		maxTimesFromCentralNode = new double[timeBinCount][Id.getNumberOfIds(Zone.class)];
+		maxTimesToCentralNode = new double[timeBinCount][Id.getNumberOfIds(Zone.class)];
+
+		SpeedyGraph graph = new SpeedyGraph(dvrpNetwork);
+		Counter counter = new Counter("DVRP TT lower bound matrix: time bin ", " / " + timeBinCount);
+		linkTravelTimesHash = forEachTimeBinInReverse(dvrpNetwork, travelTime, timeBinSize, timeBinCount,
+				(minTravelTime, bin) -> {
+					counter.incCounter();
+					var disutility = new TimeAsTravelDisutility(minTravelTime);
+					ExecutorServiceWithResource<LeastCostPathTree> executorService = new ExecutorServiceWithResource<>(
+							IntStream.range(0, numberOfThreads)
+									.mapToObj(i -> new LeastCostPathTree(graph, minTravelTime, disutility))
+									.collect(toList()));
+
+					Matrix matrix = new Matrix(centralNodes.keySet());
+					executorService.submitRunnablesAndWait(centralNodes.keySet()
+							.stream()
+							.map(z -> (lcpTree -> computeForZone(z, centralNodes, nodesByZone.get(z), matrix, bin,
+									lcpTree))));
+					executorService.shutdown();
+					zonalMatrices[bin] = matrix;
+				});
+		counter.printCounter();
+	}
+
+	private static int getTimeBinCount(double timeBinSize, double maxTime) {
+		return (int)Math.ceil(maxTime / timeBinSize) + 1;
+	}
+
+	/**
+	 * Passes the minimum link travel times of each time bin (i.e. over the bin and all following bins) to
+	 * {@code consumer}, starting from the last bin.
+	 *
+	 * @return hash of all passed link travel times
+	 */
+	private static long forEachTimeBinInReverse(Network network, TravelTime travelTime, double timeBinSize,
+			int timeBinCount, ObjIntConsumer<MinLinkTravelTime> consumer) {
+		long hash = 0;
+		MinLinkTravelTime suffixMinTravelTime = null;
+		for (int bin = timeBinCount - 1; bin >= 0; bin--) {
+			var binMinTravelTime = new MinLinkTravelTime(network, travelTime, bin * timeBinSize,
+					(bin + 1) * timeBinSize, SAMPLING_INTERVAL);
+			suffixMinTravelTime = suffixMinTravelTime == null ?
+					binMinTravelTime :
+					binMinTravelTime.min(suffixMinTravelTime);
+			hash = suffixMinTravelTime.hash(hash);
+			consumer.accept(suffixMinTravelTime, bin);
+		}
+		return hash;
+	}
+
+	private void computeForZone(Zone zone, Map<Zone, Node> centralNodes, List<? extends Node> zoneNodes, Matrix matrix,
+			int timeBin, LeastCostPathTree lcpTree) {
+		int centralNodeIndex = centralNodes.get(zone).getId().index();
+
+		// the link travel times do not depend on the departure time, so any departure time can be used
+		lcpTree.calculate(centralNodeIndex, 0, null, null);
+		for (var entry : centralNodes.entrySet()) {
+			matrix.set(zone, entry.getKey(), getTime(lcpTree, entry.getValue()));
+		}
+		double maxFromCentralNode = 0;
+		for (Node node : zoneNodes) {
+			maxFromCentralNode = Math.max(maxFromCentralNode, getTime(lcpTree, node));
+		}
+
+		// with an explicit stop criterion (the variant without it searches forward)
+		lcpTree.calculateBackwards(centralNodeIndex, 0, null, null,
+				(nodeIndex, arrivalTime, travelCost, distance, departureTime) -> false);
+		double maxToCentralNode = 0;
+		for (Node node : zoneNodes) {
+			// backward search: time is negative
+			maxToCentralNode = Math.max(maxToCentralNode, -getTime(lcpTree, node));
+		}
+
+		maxTimesFromCentralNode[timeBin][zone.getId().index()] = maxFromCentralNode;
+		maxTimesToCentralNode[timeBin][zone.getId().index()] = maxToCentralNode;
+	}
+
+	private static double getTime(LeastCostPathTree lcpTree, Node node) {
+		OptionalTime time = lcpTree.getTime(node.getId().index());
+		return time.orElseThrow(() -> new RuntimeException(
+				"Undefined Time. Reason could be that the dvrp network is not fully connected. Please check and/or clean."));
+	}
+
+	/**
+	 * @return lower bound of the travel time from {@code fromNode} to {@code toNode} when departing at
+	 * {@code departureTime} or later; times beyond the last time bin use the last time bin
+	 */
+	public double getTravelTimeLowerBound(Node fromNode, Node toNode, double departureTime) {
+		if (fromNode == toNode) {
+			return 0;
+		}
+		int timeBin = Math.min((int)(Math.max(departureTime, 0) / timeBinSize), zonalMatrices.length - 1);
+		Zone fromZone = gridSystem.getZone(fromNode);
+		Zone toZone = gridSystem.getZone(toNode);
+		double bound = zonalMatrices[timeBin].get(fromZone, toZone)
+				- maxTimesFromCentralNode[timeBin][fromZone.getId().index()]
+				- maxTimesToCentralNode[timeBin][toZone.getId().index()];
+		return Math.max(bound, 0);
+	}
+
+	/**
+	 * Keeps the most recently computed matrix and reuses it as long as the network, the parameters and the sampled
+	 * link travel times remain the same (e.g. in iterations without updated travel time estimates). Checking the
+	 * link travel times takes a fraction of the time needed for computing the matrix.
+	 */
+	public static final class Cache {
+		private Network dvrpNetwork;
+		private double cellSize;
+		private double timeBinSize;
+		private double maxTime;
+		private TravelTimeLowerBoundMatrix matrix;
+
+		public synchronized TravelTimeLowerBoundMatrix get(Network dvrpNetwork, double cellSize, double timeBinSize,
+				double maxTime, int numberOfThreads, TravelTime travelTime) {
+			if (matrix == null
+					|| this.dvrpNetwork != dvrpNetwork
+					|| this.cellSize != cellSize
+					|| this.timeBinSize != timeBinSize
+					|| this.maxTime != maxTime
+					|| matrix.linkTravelTimesHash != forEachTimeBinInReverse(dvrpNetwork, travelTime, timeBinSize,
+					getTimeBinCount(timeBinSize, maxTime), (minTravelTime, bin) -> {
+					})) {
+				matrix = new TravelTimeLowerBoundMatrix(dvrpNetwork, cellSize, timeBinSize, maxTime, numberOfThreads,
+						travelTime);
+				this.dvrpNetwork = dvrpNetwork;
+				this.cellSize = cellSize;
+				this.timeBinSize = timeBinSize;
+				this.maxTime = maxTime;
+			}
+			return matrix;
+		}
+	}
+}
@@ -8,6 +8,7 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
@@ -34,22 +35,31 @@ public final class TravelTimeMatrices {
 
 	public static Matrix calculateTravelTimeMatrix(Network routingNetwork, Map<Zone, Node> centralNodes,
 			double departureTime, TravelTime travelTime, TravelDisutility travelDisutility, int numberOfThreads) {
+		Matrix travelTimeMatrix = new Matrix(centralNodes.keySet());
+		updateTravelTimeMatrix(travelTimeMatrix, routingNetwork, centralNodes, centralNodes.keySet(), departureTime,
+				travelTime, travelDisutility, numberOfThreads);
+		return travelTimeMatrix;
+	}
+
+	/**
+	 * Recalculates the rows of {@code fromZones}
+	 */
+	static void updateTravelTimeMatrix(Matrix travelTimeMatrix, Network routingNetwork,
+			Map<Zone, Node> centralNodes, Collection<Zone> fromZones, double departureTime, TravelTime travelTime,
+			TravelDisutility travelDisutility, int numberOfThreads) {
 		SpeedyGraph graph = new SpeedyGraph(routingNetwork);
 		ExecutorServiceWithResource<LeastCostPathTree> executorService = new ExecutorServiceWithResource<>(
 				IntStream.range(0, numberOfThreads)
 						.mapToObj(i -> new LeastCostPathTree(graph, travelTime, travelDisutility))
 						.collect(toList()));
 
-		Matrix travelTimeMatrix = new Matrix(centralNodes.keySet());
-		Counter counter = new Counter("DVRP free-speed TT matrix: zone ", " / " + centralNodes.size());
-		executorService.submitRunnablesAndWait(centralNodes.keySet()
-				.stream()
+		Counter counter = new Counter("DVRP TT matrix: zone ", " / " + fromZones.size());
+		executorService.submitRunnablesAndWait(fromZones.stream()
 				.map(z -> (lcpTree -> computeForDepartureZone(z, centralNodes, departureTime, travelTimeMatrix, lcpTree,
 						counter))));
 		counter.printCounter();
 
 		executorService.shutdown();
-		return travelTimeMatrix;
 	}
 
 	private static void computeForDepartureZone(Zone fromZone, Map<Zone, Node> centralNodes, double departureTime,
@@ -71,23 +81,33 @@ public final class TravelTimeMatrices {
 
 	public static SparseMatrix calculateTravelTimeSparseMatrix(Network routingNetwork, double maxDistance,
 			double departureTime, TravelTime travelTime, TravelDisutility travelDisutility, int numberOfThreads) {
+		SparseMatrix travelTimeMatrix = new SparseMatrix();
+		var nodes = routingNetwork.getNodes().values();
+		updateTravelTimeSparseMatrix(travelTimeMatrix, routingNetwork, nodes, nodes, maxDistance, departureTime,
+				travelTime, travelDisutility, numberOfThreads);
+		return travelTimeMatrix;
+	}
+
+	/**
+	 * Recalculates the rows of {@code fromNodes}, considering only {@code toNodes} as neighbours
+	 */
+	static void updateTravelTimeSparseMatrix(SparseMatrix travelTimeMatrix, Network routingNetwork,
+			Collection<? extends Node> fromNodes, Collection<? extends Node> toNodes, double maxDistance,
+			double departureTime, TravelTime travelTime, TravelDisutility travelDisutility, int numberOfThreads) {
 		SpeedyGraph graph = new SpeedyGraph(routingNetwork);
 		ExecutorServiceWithResource<LeastCostPathTree> executorService = new ExecutorServiceWithResource<>(
 				IntStream.range(0, numberOfThreads)
 						.mapToObj(i -> new LeastCostPathTree(graph, travelTime, travelDisutility))
 						.collect(toList()));
 
-		SparseMatrix travelTimeMatrix = new SparseMatrix();
-		var nodes = routingNetwork.getNodes().values();
-		Counter counter = new Counter("DVRP free-speed TT sparse matrix: node ",
-				" / " + routingNetwork.getNodes().size());
-		executorService.submitRunnablesAndWait(nodes.stream()
-				.map(n -> (lcpTree -> computeForDepartureNode(n, nodes, departureTime, travelTimeMatrix, lcpTree,
-						counter, maxDistance))));
+		var nodesByCell = new NodesByCell(toNodes, maxDistance);
+		Counter counter = new Counter("DVRP TT sparse matrix: node ", " / " + fromNodes.size());
+		executorService.submitRunnablesAndWait(fromNodes.stream()
+				.map(n -> (lcpTree -> computeForDepartureNode(n, nodesByCell.getCandidates(n), departureTime,
+						travelTimeMatrix, lcpTree, counter, maxDistance))));
 		counter.printCounter();
 
 		executorService.shutdown();
-		return travelTimeMatrix;
 	}
 
 	private static void computeForDepartureNode(Node fromNode, Collection<? extends Node> nodes, double departureTime,
@@ -112,4 +132,41 @@ public final class TravelTimeMatrices {
 		var sparseRow = new SparseRow(neighborNodes);
 		sparseMatrix.setRow(fromNode, sparseRow);
 	}
+
+	/**
+	 * The beeline distance is never longer than the network distance, so only nodes from the adjacent cells (of size
+	 * maxDistance) can be neighbours. This avoids iterating over all nodes for each departure node.
+	 */
+	private static final class NodesByCell {
+		private final double cellSize;
+		private final Map<Long, List<Node>> cells = new HashMap<>();
+
+		private NodesByCell(Collection<? extends Node> nodes, double maxDistance) {
+			cellSize = Math.max(maxDistance, 1);
+			for (Node node : nodes) {
+				cells.computeIfAbsent(cellKey(cellIndex(node.getCoord().getX()), cellIndex(node.getCoord().getY())),
+						k -> new ArrayList<>()).add(node);
+			}
+		}
+
+		private List<Node> getCandidates(Node node) {
+			long x = cellIndex(node.getCoord().getX());
+			long y = cellIndex(node.getCoord().getY());
+			List<Node> candidates = new ArrayList<>();
+			for (long dx = -1; dx <= 1; dx++) {
+				for (long dy = -1; dy <= 1; dy++) {
+					candidates.addAll(cells.getOrDefault(cellKey(x + dx, y + dy), List.of()));
+				}
+			}
+			return candidates;
+		}
+
+		private long cellIndex(double coord) {
+			return (long)Math.floor(coord / cellSize);
+		}
+
+		private static long cellKey(long x, long y) {
+			return (x << 32) ^ (y & 0xffffffffL);
+		}
+	}
 }
@@ -0,0 +1,207 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.dynagent.run;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.contrib.dynagent.DynAction;
+import org.matsim.contrib.dynagent.DynActivity;
+import org.matsim.contrib.dynagent.DynAgent;
+import org.matsim.contrib.dynagent.DynAgentLogic;
+import org.matsim.contrib.dynagent.IdleDynActivity;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.qsim.InternalInterface;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.interfaces.DepartureHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class DynActivityEngineTest {
+	private final List<MobsimAgent> agentsEndingActivity = new ArrayList<>();
+	private final DynActivityEngine engine = new DynActivityEngine();
+	private QSim qSim;
+
+	@Before
+	public void init() {
+		Config config = ConfigUtils.createConfig();
+		qSim = new QSimBuilder(config).useDefaults()
+				.build(ScenarioUtils.createScenario(config), EventsUtils.createEventsManager());
+
+		engine.setInternalInterface(new InternalInterface() {
+			@Override
+			public QSim getMobsim() {
+				return qSim;
+			}
+
+			@Override
+			public void arrangeNextAgentState(MobsimAgent agent) {
+				agentsEndingActivity.add(agent);
+				if (agent.getState() == MobsimAgent.State.ACTIVITY) {
+					engine.handleActivity(agent);// as done by the QSim
+				}
+			}
+
+			@Override
+			public void registerAdditionalAgentOnLink(MobsimAgent agent) {
+			}
+
+			@Override
+			public MobsimAgent unregisterAdditionalAgentOnLink(Id<Person> agentId, Id<Link> linkId) {
+				return null;
+			}
+
+			@Override
+			public List<DepartureHandler> getDepartureHandlers() {
+				return List.of();
+			}
+		});
+	}
+
+	@Test
+	public void fixedEndTime() {
+		DynAgent agent = createAgent("a", new IdleDynActivity("idle", 10));
+		engine.handleActivity(agent);
+
+		simulate(0, 9);
+		assertThat(agentsEndingActivity).isEmpty();
+
+		simulate(10, 10);
+		assertThat(agentsEndingActivity).containsExactly(agent);
+	}
+
+	@Test
+	public void endTimeChanged_agentWokenUp() {
+		double[] endTime = { 100 };
+		List<Runnable> listeners = new ArrayList<>();
+		DynAgent agent = createAgent("a", new IdleDynActivity("idle", () -> endTime[0], listeners::add));
+		engine.handleActivity(agent);
+		simulate(0, 4);
+
+		// postpone
+		endTime[0] = 200;
+		listeners.forEach(Runnable::run);
+		simulate(5, 199);
+		assertThat(agentsEndingActivity).isEmpty();
+
+		simulate(200, 200);
+		assertThat(agentsEndingActivity).containsExactly(agent);
+	}
+
+	@Test
+	public void endTimeShortened_agentWokenUp() {
+		double[] endTime = { 100 };
+		List<Runnable> listeners = new ArrayList<>();
+		DynAgent agent = createAgent("a", new IdleDynActivity("idle", () -> endTime[0], listeners::add));
+		engine.handleActivity(agent);
+		simulate(0, 4);
+
+		endTime[0] = 5;
+		listeners.forEach(Runnable::run);
+		simulate(5, 5);
+		assertThat(agentsEndingActivity).containsExactly(agent);
+	}
+
+	@Test
+	public void eventDrivenAndSimulatedActivities_processingOrderPreserved() {
+		DynAgent a = createAgent("a", new IdleDynActivity("idle", 5));
+		DynAgent b = createAgent("b", new IdleDynActivity("idle", () -> 5));// simulated in every step
+		DynAgent c = createAgent("c", new IdleDynActivity("idle", 5));
+		engine.handleActivity(a);
+		engine.handleActivity(b);
+		engine.handleActivity(c);
+
+		simulate(0, 5);
+		assertThat(agentsEndingActivity).containsExactly(a, b, c);
+	}
+
+	@Test
+	public void finalActivity_agentNotLivingAnymore() {
+		int living = qSim.getAgentCounter().getLiving();
+		DynAgent agent = createAgent("a", new IdleDynActivity("idle", 10));
+		engine.handleActivity(agent);
+
+		simulate(0, 10);
+		assertThat(agentsEndingActivity).containsExactly(agent);
+		// the next ("final") activity ends at +inf
+		assertThat(qSim.getAgentCounter().getLiving()).isEqualTo(living - 1);
+	}
+
+	@Test
+	public void endTimeChangedToInfinityBeforeActivityStart_agentNotLivingAnymore() {
+		int living = qSim.getAgentCounter().getLiving();
+		double[] endTime = { 100 };
+		DynAgent agent = createAgent("a", new IdleDynActivity("idle", () -> endTime[0], listener -> {
+		}));
+		simulate(0, 4);
+		engine.handleActivity(agent);// added to the engine in the next step
+
+		endTime[0] = Double.POSITIVE_INFINITY;
+		simulate(5, 5);
+		assertThat(qSim.getAgentCounter().getLiving()).isEqualTo(living - 1);
+
+		// no further decrement
+		simulate(6, 1000);
+		assertThat(qSim.getAgentCounter().getLiving()).isEqualTo(living - 1);
+		assertThat(agentsEndingActivity).isEmpty();
+	}
+
+	private void simulate(int fromTime, int toTime) {
+		for (int time = fromTime; time <= toTime; time++) {
+			engine.doSimStep(time);
+		}
+	}
+
+	private DynAgent createAgent(String id, DynActivity initialActivity) {
+		return new DynAgent(Id.createPersonId(id), Id.createLinkId("link"), mock(EventsManager.class),
+				new DynAgentLogic() {
+					private DynAgent agent;
+
+					@Override
+					public DynAgent getDynAgent() {
+						return agent;
+					}
+
+					@Override
+					public DynActivity computeInitialActivity(DynAgent dynAgent) {
+						this.agent = dynAgent;
+						return initialActivity;
+					}
+
+					@Override
+					public DynAction computeNextAction(DynAction oldAction, double now) {
+						return new IdleDynActivity("final", Double.POSITIVE_INFINITY);
+					}
+				});
+	}
+}
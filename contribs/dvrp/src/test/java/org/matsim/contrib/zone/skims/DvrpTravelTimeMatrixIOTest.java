@@ -0,0 +1,97 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.zone.skims;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class DvrpTravelTimeMatrixIOTest {
+	@Rule
+	public final MatsimTestUtils utils = new MatsimTestUtils();
+
+	private final Network network = NetworkUtils.createNetwork();
+
+	public DvrpTravelTimeMatrixIOTest() {
+		Node nodeA = NetworkUtils.createAndAddNode(network, Id.createNodeId("A"), new Coord(0, 0));
+		Node nodeB = NetworkUtils.createAndAddNode(network, Id.createNodeId("B"), new Coord(150, 150));
+		Node nodeC = NetworkUtils.createAndAddNode(network, Id.createNodeId("C"), new Coord(-10, -10));
+		Node nodeD = NetworkUtils.createAndAddNode(network, Id.createNodeId("D"), new Coord(5000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AB"), nodeA, nodeB, 150, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("BA"), nodeB, nodeA, 300, 15, 40, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AC"), nodeA, nodeC, 165, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("CA"), nodeC, nodeA, 135, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AD"), nodeA, nodeD, 5000, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("DA"), nodeD, nodeA, 5000, 15, 20, 1);
+	}
+
+	@Test
+	public void writeAndRead() {
+		var params = new DvrpTravelTimeMatrixParams().setCellSize(100)
+				.setCoarseCellSize(1000)
+				.setMaxNeighborDistance(200);
+		var matrix = DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params, 1, 1);
+		String file = utils.getOutputDirectory() + "matrix.bin.gz";
+		DvrpTravelTimeMatrixIO.write(matrix, 1, file);
+
+		var readMatrix = DvrpTravelTimeMatrixIO.read(network, params, 1, file);
+		assertThat(readMatrix).isNotNull();
+		for (Node from : network.getNodes().values()) {
+			for (Node to : network.getNodes().values()) {
+				assertThat(readMatrix.getFreeSpeedTravelTime(from, to)).isEqualTo(
+						matrix.getFreeSpeedTravelTime(from, to));
+			}
+		}
+	}
+
+	@Test
+	public void read_paramsNotMatching() {
+		var params = new DvrpTravelTimeMatrixParams().setCellSize(100);
+		var matrix = DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params, 1, 1);
+		String file = utils.getOutputDirectory() + "matrix.bin";
+		DvrpTravelTimeMatrixIO.write(matrix, 1, file);
+
+		assertThat(DvrpTravelTimeMatrixIO.read(network, new DvrpTravelTimeMatrixParams().setCellSize(200), 1,
+				file)).isNull();
+	}
+
+	@Test
+	public void read_networkNotMatching() {
+		var params = new DvrpTravelTimeMatrixParams().setCellSize(100);
+		var matrix = DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params, 1, 1);
+		String file = utils.getOutputDirectory() + "matrix.bin";
+		DvrpTravelTimeMatrixIO.write(matrix, 1, file);
+
+		// another qsim time step size
+		assertThat(DvrpTravelTimeMatrixIO.read(network, params, 2, file)).isNull();
+
+		// same topology, but another freespeed
+		network.getLinks().get(Id.createLinkId("AB")).setFreespeed(10);
+		assertThat(DvrpTravelTimeMatrixIO.read(network, params, 1, file)).isNull();
+	}
+}
@@ -27,7 +27,9 @@ import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.dvrp.trafficmonitoring.QSimFreeSpeedTravelTime;
 import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelTime;
 
 /**
  * @author Michal Maciejewski (michalm)
@@ -82,4 +84,46 @@ public class DvrpTravelTimeMatrixTest {
 		assertThat(matrix.getFreeSpeedTravelTime(nodeB, nodeC)).isEqualTo(20 + 11 + 2); // 2 s for moving over nodes
 		assertThat(matrix.getFreeSpeedTravelTime(nodeC, nodeB)).isEqualTo(10 + 9 + 2); // 2 s for moving over nodes
 	}
+
+	@Test
+	public void multiResolutionMatrix() {
+		Node nodeD = NetworkUtils.createAndAddNode(network, Id.createNodeId("D"), new Coord(5000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AD"), nodeA, nodeD, 5000, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("DA"), nodeD, nodeA, 5000, 15, 20, 1);
+
+		DvrpTravelTimeMatrixParams params = new DvrpTravelTimeMatrixParams().setCellSize(100)
+				.setCoarseCellSize(1000)
+				.setMaxNeighborDistance(0);
+		var matrix = DvrpTravelTimeMatrix.createFreeSpeedMatrix(network, params, 1, 1);
+
+		// fine zones within 2 km: same results as for the single-resolution matrix
+		assertThat(matrix.getFreeSpeedTravelTime(nodeA, nodeB)).isEqualTo(10 + 1); // 1 s for moving over nodes
+		assertThat(matrix.getFreeSpeedTravelTime(nodeB, nodeA)).isEqualTo(20 + 1); // 1 s for moving over nodes
+		assertThat(matrix.getFreeSpeedTravelTime(nodeA, nodeC)).isEqualTo(0);
+		assertThat(matrix.getFreeSpeedTravelTime(nodeC, nodeB)).isEqualTo(10 + 1); // 1 s for moving over nodes
+
+		// coarse zones: B is the central node of the zone of A, B and C
+		assertThat(matrix.getFreeSpeedTravelTime(nodeA, nodeD)).isEqualTo(20 + 333 + 2); // 2 s for moving over nodes
+		assertThat(matrix.getFreeSpeedTravelTime(nodeD, nodeC)).isEqualTo(333 + 10 + 2); // 2 s for moving over nodes
+	}
+
+	@Test
+	public void refresh() {
+		DvrpTravelTimeMatrixParams params = new DvrpTravelTimeMatrixParams().setCellSize(100)
+				.setMaxNeighborDistance(9999);
+		var freeSpeedTravelTime = new QSimFreeSpeedTravelTime(1);
+		var matrix = new DvrpTravelTimeMatrix(network, params, 1, freeSpeedTravelTime);
+		TravelTime doubledTravelTime = (link, time, person, vehicle) -> 2
+				* freeSpeedTravelTime.getLinkTravelTime(link, time, person, vehicle);
+
+		// rows of A and C
+		matrix.refresh(doubledTravelTime, 1, 0.5);
+		assertThat(matrix.getFreeSpeedTravelTime(nodeA, nodeB)).isEqualTo(2 * (10 + 1));
+		assertThat(matrix.getFreeSpeedTravelTime(nodeC, nodeB)).isEqualTo(2 * (10 + 9 + 2));
+		assertThat(matrix.getFreeSpeedTravelTime(nodeB, nodeA)).isEqualTo(20 + 1);
+
+		// row of B
+		matrix.refresh(doubledTravelTime, 1, 0.5);
+		assertThat(matrix.getFreeSpeedTravelTime(nodeB, nodeA)).isEqualTo(2 * (20 + 1));
+	}
 }
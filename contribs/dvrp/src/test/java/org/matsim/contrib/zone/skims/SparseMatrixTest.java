@@ -90,6 +90,15 @@ public class SparseMatrixTest {
 		}
 	}
 
+	@Test
+	public void valuesAboveShortMaxValue() {
+		var matrix = new SparseMatrix();
+		matrix.setRow(nodeA, new SparseRow(List.of(nodeAndTime(nodeB, 50000))));
+
+		assertThat(matrix.get(nodeA, nodeB)).isEqualTo(50000);
+		assertThat(matrix.get(nodeA, nodeC)).isEqualTo(-1);
+	}
+
 	private NodeAndTime nodeAndTime(Node node, double time) {
 		return new NodeAndTime(node.getId().index(), time);
 	}
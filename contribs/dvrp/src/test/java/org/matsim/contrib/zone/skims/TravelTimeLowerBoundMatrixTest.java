@@ -0,0 +1,112 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.zone.skims;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.dvrp.trafficmonitoring.QSimFreeSpeedTravelTime;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelTime;
+
+public class TravelTimeLowerBoundMatrixTest {
+
+	private final Network network = NetworkUtils.createNetwork();
+	private final Node nodeA = NetworkUtils.createAndAddNode(network, Id.createNodeId("A"), new Coord(0, 0));
+	private final Node nodeB = NetworkUtils.createAndAddNode(network, Id.createNodeId("B"), new Coord(150, 150));
+	private final Node nodeC = NetworkUtils.createAndAddNode(network, Id.createNodeId("C"), new Coord(-10, -10));
+
+	private final TravelTime freeSpeedTravelTime = new QSimFreeSpeedTravelTime(1);
+
+	public TravelTimeLowerBoundMatrixTest() {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AB"), nodeA, nodeB, 150, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("BA"), nodeB, nodeA, 300, 15, 40, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("AC"), nodeA, nodeC, 165, 15, 20, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("CA"), nodeC, nodeA, 135, 15, 20, 1);
+	}
+
+	@Test
+	public void lowerBounds() {
+		var matrix = new TravelTimeLowerBoundMatrix(network, 100, 3600, 3 * 3600, 1, freeSpeedTravelTime);
+
+		// link TTs: AB = 11, BA = 21, AC = 12, CA = 10 (1 s for moving over nodes)
+		// C and A are in the same zone; A is the central node
+		assertThat(matrix.getTravelTimeLowerBound(nodeA, nodeA, 0)).isEqualTo(0);
+		assertThat(matrix.getTravelTimeLowerBound(nodeA, nodeC, 0)).isEqualTo(0);
+		assertThat(matrix.getTravelTimeLowerBound(nodeC, nodeA, 0)).isEqualTo(0);
+
+		// 11 - 12 (max time from A to the nodes of its zone) < 0
+		assertThat(matrix.getTravelTimeLowerBound(nodeA, nodeB, 0)).isEqualTo(0);
+		assertThat(matrix.getTravelTimeLowerBound(nodeC, nodeB, 0)).isEqualTo(0);
+
+		// 21 - 0 (B is the only node in its zone) - 10 (max time from the nodes of A's zone to A)
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 0)).isEqualTo(11);
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeC, 0)).isEqualTo(11);
+	}
+
+	@Test
+	public void lowerBounds_timeDependent() {
+		// travel times double after 2 hours
+		TravelTime travelTime = (link, time, person, vehicle) -> (time < 7200 ? 1 : 2)
+				* freeSpeedTravelTime.getLinkTravelTime(link, time, person, vehicle);
+		var matrix = new TravelTimeLowerBoundMatrix(network, 100, 3600, 3 * 3600, 1, travelTime);
+
+		// bins 0 and 1 are bounded by the travel times before 7200
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 0)).isEqualTo(21 - 10);
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 3600)).isEqualTo(21 - 10);
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 7200)).isEqualTo(42 - 20);
+		// the last time bin is used beyond the max time
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 99999)).isEqualTo(42 - 20);
+	}
+
+	@Test
+	public void lowerBounds_decreasingTravelTimes() {
+		// travel times halve after 2 hours
+		TravelTime travelTime = (link, time, person, vehicle) -> (time < 7200 ? 2 : 1)
+				* freeSpeedTravelTime.getLinkTravelTime(link, time, person, vehicle);
+		var matrix = new TravelTimeLowerBoundMatrix(network, 100, 3600, 3 * 3600, 1, travelTime);
+
+		// trips departing early may still end up (partially) in the faster period
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 0)).isEqualTo(21 - 10);
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 3600)).isEqualTo(21 - 10);
+		assertThat(matrix.getTravelTimeLowerBound(nodeB, nodeA, 7200)).isEqualTo(21 - 10);
+	}
+
+	@Test
+	public void cache_reusedUnlessTravelTimesChange() {
+		var cache = new TravelTimeLowerBoundMatrix.Cache();
+		var matrix = cache.get(network, 100, 3600, 3 * 3600, 1, freeSpeedTravelTime);
+
+		assertThat(cache.get(network, 100, 3600, 3 * 3600, 1, new QSimFreeSpeedTravelTime(1))).isSameAs(matrix);
+
+		TravelTime slowerTravelTime = (link, time, person, vehicle) -> (time < 7200 ? 1 : 2)
+				* freeSpeedTravelTime.getLinkTravelTime(link, time, person, vehicle);
+		var updatedMatrix = cache.get(network, 100, 3600, 3 * 3600, 1, slowerTravelTime);
+		assertThat(updatedMatrix).isNotSameAs(matrix);
+		assertThat(updatedMatrix.getTravelTimeLowerBound(nodeB, nodeA, 7200)).isEqualTo(42 - 20);
+
+		assertThat(cache.get(network, 100, 1800, 3 * 3600, 1, slowerTravelTime)).isNotSameAs(updatedMatrix);
+	}
+}
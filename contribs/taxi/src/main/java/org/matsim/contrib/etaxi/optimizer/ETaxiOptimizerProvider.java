@@ -19,6 +19,8 @@
 
 package org.matsim.contrib.etaxi.optimizer;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.dvrp.fleet.Fleet;
 import org.matsim.contrib.dvrp.schedule.ScheduleTimingUpdater;
@@ -58,10 +60,12 @@ public class ETaxiOptimizerProvider implements Provider<TaxiOptimizer> {
 	private final ETaxiScheduler eScheduler;
 	private final ChargingInfrastructure chargingInfrastructure;
 	private final ScheduleTimingUpdater scheduleTimingUpdater;
+	private final ForkJoinPool forkJoinPool;
 
 	public ETaxiOptimizerProvider(EventsManager eventsManager, TaxiConfigGroup taxiCfg, Fleet fleet, Network network,
 			MobsimTimer timer, TravelTime travelTime, TravelDisutility travelDisutility, ETaxiScheduler eScheduler,
-			ScheduleTimingUpdater scheduleTimingUpdater, ChargingInfrastructure chargingInfrastructure) {
+			ScheduleTimingUpdater scheduleTimingUpdater, ChargingInfrastructure chargingInfrastructure,
+			ForkJoinPool forkJoinPool) {
 		this.eventsManager = eventsManager;
 		this.taxiCfg = taxiCfg;
 		this.fleet = fleet;
@@ -72,6 +76,7 @@ public class ETaxiOptimizerProvider implements Provider<TaxiOptimizer> {
 		this.eScheduler = eScheduler;
 		this.scheduleTimingUpdater = scheduleTimingUpdater;
 		this.chargingInfrastructure = chargingInfrastructure;
+		this.forkJoinPool = forkJoinPool;
 	}
 
 	@Override
@@ -92,7 +97,7 @@ public class ETaxiOptimizerProvider implements Provider<TaxiOptimizer> {
 			LeastCostPathCalculator router = new SpeedyALTFactory().createPathCalculator(network, travelDisutility,
 					travelTime);
 			return new AssignmentETaxiOptimizer(eventsManager, taxiCfg, fleet, timer, network, travelTime,
-					travelDisutility, eScheduler, scheduleTimingUpdater, chargingInfrastructure, router);
+					travelDisutility, eScheduler, scheduleTimingUpdater, chargingInfrastructure, router, forkJoinPool);
 		} else {
 			throw new RuntimeException(
 					"Unsupported taxi optimizer type: " + taxiCfg.getTaxiOptimizerParams().getName());
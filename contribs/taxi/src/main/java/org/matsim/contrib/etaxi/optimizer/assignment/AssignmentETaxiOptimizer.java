@@ -23,6 +23,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import org.matsim.api.core.v01.Id;
@@ -86,11 +87,11 @@ public class AssignmentETaxiOptimizer extends DefaultTaxiOptimizer {
 	public AssignmentETaxiOptimizer(EventsManager eventsManager, TaxiConfigGroup taxiCfg, Fleet fleet,
 			MobsimTimer timer, Network network, TravelTime travelTime, TravelDisutility travelDisutility,
 			ETaxiScheduler eScheduler, ScheduleTimingUpdater scheduleTimingUpdater,
-			ChargingInfrastructure chargingInfrastructure, LeastCostPathCalculator router) {
+			ChargingInfrastructure chargingInfrastructure, LeastCostPathCalculator router, ForkJoinPool forkJoinPool) {
 		super(eventsManager, taxiCfg, fleet, eScheduler, scheduleTimingUpdater,
 				new AssignmentRequestInserter(fleet, timer, network, travelTime, travelDisutility, eScheduler,
 						((AssignmentETaxiOptimizerParams)taxiCfg.getTaxiOptimizerParams()).getAssignmentTaxiOptimizerParams(),
-						router));
+						router, forkJoinPool));
 		this.params = (AssignmentETaxiOptimizerParams)taxiCfg.getTaxiOptimizerParams();
 		this.chargingInfrastructure = chargingInfrastructure;
 		this.eScheduler = eScheduler;
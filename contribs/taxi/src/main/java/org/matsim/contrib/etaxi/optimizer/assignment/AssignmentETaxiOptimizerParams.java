@@ -69,7 +69,7 @@ public final class AssignmentETaxiOptimizerParams extends AbstractTaxiOptimizerP
 		super.addParameterSet(set);
 	}
 
-	AssignmentTaxiOptimizerParams getAssignmentTaxiOptimizerParams() {
+	public AssignmentTaxiOptimizerParams getAssignmentTaxiOptimizerParams() {
 		return assignmentTaxiOptimizerParams;
 	}
 
@@ -40,10 +40,12 @@ import org.matsim.contrib.dvrp.vrpagent.VrpAgentSourceQSimModule;
 import org.matsim.contrib.etaxi.ETaxiActionCreator;
 import org.matsim.contrib.etaxi.ETaxiScheduler;
 import org.matsim.contrib.etaxi.optimizer.ETaxiOptimizerProvider;
+import org.matsim.contrib.etaxi.optimizer.assignment.AssignmentETaxiOptimizerParams;
 import org.matsim.contrib.etaxi.util.ETaxiStayTaskEndTimeCalculator;
 import org.matsim.contrib.ev.infrastructure.ChargingInfrastructure;
 import org.matsim.contrib.ev.infrastructure.ChargingInfrastructures;
 import org.matsim.contrib.taxi.analysis.TaxiEventSequenceCollector;
+import org.matsim.contrib.taxi.optimizer.QSimScopeForkJoinPoolHolder;
 import org.matsim.contrib.taxi.optimizer.TaxiOptimizer;
 import org.matsim.contrib.taxi.passenger.TaxiRequestCreator;
 import org.matsim.contrib.taxi.run.TaxiConfigGroup;
@@ -75,6 +77,14 @@ public class ETaxiModeQSimModule extends AbstractDvrpModeQSimModule {
 		install(new VrpAgentSourceQSimModule(getMode()));
 		install(new PassengerEngineQSimModule(getMode()));
 
+		// only the assignment optimizer calculates paths in parallel
+		int numberOfThreads = taxiCfg.getTaxiOptimizerParams() instanceof AssignmentETaxiOptimizerParams ?
+				((AssignmentETaxiOptimizerParams)taxiCfg.getTaxiOptimizerParams()).getAssignmentTaxiOptimizerParams()
+						.getNumberOfThreads() :
+				1;
+		addModalComponent(QSimScopeForkJoinPoolHolder.class,
+				() -> new QSimScopeForkJoinPoolHolder(numberOfThreads));
+
 		addModalComponent(TaxiOptimizer.class,
 				new ModalProviders.AbstractProvider<>(taxiCfg.getMode(), DvrpModes::mode) {
 					@Inject
@@ -93,8 +103,10 @@ public class ETaxiModeQSimModule extends AbstractDvrpModeQSimModule {
 								travelTime);
 						var chargingInfrastructure = getModalInstance(ChargingInfrastructure.class);
 						var scheduleTimingUpdater = getModalInstance(ScheduleTimingUpdater.class);
+						var forkJoinPool = getModalInstance(QSimScopeForkJoinPoolHolder.class).getPool();
 						return new ETaxiOptimizerProvider(events, taxiCfg, fleet, network, timer, travelTime,
-								travelDisutility, eTaxiScheduler, scheduleTimingUpdater, chargingInfrastructure).get();
+								travelDisutility, eTaxiScheduler, scheduleTimingUpdater, chargingInfrastructure,
+								forkJoinPool).get();
 					}
 				});
 
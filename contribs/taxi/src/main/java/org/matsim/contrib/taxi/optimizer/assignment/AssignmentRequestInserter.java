@@ -20,6 +20,7 @@ package org.matsim.contrib.taxi.optimizer.assignment;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.dvrp.fleet.Fleet;
@@ -48,21 +49,23 @@ public class AssignmentRequestInserter implements UnplannedRequestInserter {
 	private final TaxiToRequestAssignmentCostProvider assignmentCostProvider;
 
 	public AssignmentRequestInserter(Fleet fleet, Network network, MobsimTimer timer, TravelTime travelTime,
-			TravelDisutility travelDisutility, TaxiScheduler scheduler, AssignmentTaxiOptimizerParams params) {
+			TravelDisutility travelDisutility, TaxiScheduler scheduler, AssignmentTaxiOptimizerParams params,
+			ForkJoinPool forkJoinPool) {
 		this(fleet, timer, network, travelTime, travelDisutility, scheduler, params,
-				new SpeedyALTFactory().createPathCalculator(network, travelDisutility, travelTime));
+				new SpeedyALTFactory().createPathCalculator(network, travelDisutility, travelTime), forkJoinPool);
 	}
 
 	public AssignmentRequestInserter(Fleet fleet, MobsimTimer timer, Network network, TravelTime travelTime,
 			TravelDisutility travelDisutility, TaxiScheduler scheduler, AssignmentTaxiOptimizerParams params,
-			LeastCostPathCalculator router) {
+			LeastCostPathCalculator router, ForkJoinPool forkJoinPool) {
 		this.fleet = fleet;
 		this.scheduler = scheduler;
 		this.timer = timer;
 		this.params = params;
 
 		assignmentProblem = new VehicleAssignmentProblem<>(network, travelTime, travelDisutility, router,
-				params.getNearestRequestsLimit(), params.getNearestVehiclesLimit());
+				params.getNearestRequestsLimit(), params.getNearestVehiclesLimit(), params.getAssignmentAlgorithm(),
+				forkJoinPool);
 
 		assignmentCostProvider = new TaxiToRequestAssignmentCostProvider(params);
 	}
@@ -26,6 +26,7 @@ import jakarta.validation.constraints.Positive;
 
 import org.matsim.contrib.taxi.optimizer.AbstractTaxiOptimizerParams;
 import org.matsim.contrib.taxi.optimizer.assignment.TaxiToRequestAssignmentCostProvider.Mode;
+import org.matsim.contrib.taxi.optimizer.assignment.VehicleAssignmentProblem.AssignmentAlgorithm;
 import org.matsim.core.config.Config;
 
 public final class AssignmentTaxiOptimizerParams extends AbstractTaxiOptimizerParams {
@@ -88,6 +89,22 @@ public final class AssignmentTaxiOptimizerParams extends AbstractTaxiOptimizerPa
 	@Positive
 	private double nullPathCost = 48 * 3600;
 
+	public static final String ASSIGNMENT_ALGORITHM = "assignmentAlgorithm";
+	static final String ASSIGNMENT_ALGORITHM_EXP = "Specifies the algorithm used for solving the assignment problem."
+			+ " HUNGARIAN uses the dense cost matrix (vehicle-request pairs not included in the matrix calculation"
+			+ " get 'nullPathCost'). SPARSE_AUCTION considers only the pairs obtained from 'nearestRequestsLimit'"
+			+ " and 'nearestVehiclesLimit' and is warm-started with the prices of the previous reoptimization;"
+			+ " it is much faster for large fleets, but requests without any nearby vehicle remain unassigned until"
+			+ " the next reoptimization. The default value is HUNGARIAN.";
+	@NotNull
+	private AssignmentAlgorithm assignmentAlgorithm = AssignmentAlgorithm.HUNGARIAN;
+
+	public static final String NUMBER_OF_THREADS = "numberOfThreads";
+	static final String NUMBER_OF_THREADS_EXP = "Number of threads used for calculating paths and costs"
+			+ " of the vehicle-request pairs. The default value is 1.";
+	@Positive
+	private int numberOfThreads = 1;
+
 	@Positive
 	private int reoptimizationTimeStep = 10;
 
@@ -114,6 +131,8 @@ public final class AssignmentTaxiOptimizerParams extends AbstractTaxiOptimizerPa
 		map.put(NEAREST_REQUESTS_LIMIT, NEAREST_REQUESTS_LIMIT_EXP);
 		map.put(NEAREST_VEHICLES_LIMIT, NEAREST_VEHICLES_LIMIT_EXP);
 		map.put(NULL_PATH_COST, NULL_PATH_COST_EXP);
+		map.put(ASSIGNMENT_ALGORITHM, ASSIGNMENT_ALGORITHM_EXP);
+		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_EXP);
 		return map;
 	}
 
@@ -213,6 +232,38 @@ public final class AssignmentTaxiOptimizerParams extends AbstractTaxiOptimizerPa
 		this.nullPathCost = nullPathCost;
 	}
 
+	/**
+	 * @return {@value #ASSIGNMENT_ALGORITHM_EXP}
+	 */
+	@StringGetter(ASSIGNMENT_ALGORITHM)
+	public AssignmentAlgorithm getAssignmentAlgorithm() {
+		return assignmentAlgorithm;
+	}
+
+	/**
+	 * @param assignmentAlgorithm {@value #ASSIGNMENT_ALGORITHM_EXP}
+	 */
+	@StringSetter(ASSIGNMENT_ALGORITHM)
+	public void setAssignmentAlgorithm(AssignmentAlgorithm assignmentAlgorithm) {
+		this.assignmentAlgorithm = assignmentAlgorithm;
+	}
+
+	/**
+	 * @return {@value #NUMBER_OF_THREADS_EXP}
+	 */
+	@StringGetter(NUMBER_OF_THREADS)
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * @param numberOfThreads {@value #NUMBER_OF_THREADS_EXP}
+	 */
+	@StringSetter(NUMBER_OF_THREADS)
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
 	@StringGetter(REOPTIMIZATION_TIME_STEP)
 	public int getReoptimizationTimeStep() {
 		return reoptimizationTimeStep;
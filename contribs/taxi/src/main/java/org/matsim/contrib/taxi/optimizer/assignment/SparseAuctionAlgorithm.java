@@ -0,0 +1,189 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.taxi.optimizer.assignment;
+
+import java.util.Arrays;
+
+/**
+ * Forward auction algorithm with epsilon scaling (D. Bertsekas) for sparse assignment problems: each row (worker) is
+ * connected only to its candidate columns (jobs). Rows and columns may stay unassigned; an unassigned row costs 0, an
+ * unassigned column costs {@code unassignedColumnCost}.
+ * <p>
+ * Internally, the problem is transformed into a symmetric (square) one: each row gets a slack column (row unassigned)
+ * and each column gets a slack row (column unassigned) that is also connected (at zero cost) to the slack columns of
+ * all candidate rows of the column. Due to symmetry, the auction can be started with arbitrary column prices, so the
+ * prices of the previous solution can be used for warm-starting.
+ * <p>
+ * The total cost of the returned assignment is within 1 (cost unit) of the optimum.
+ */
+public class SparseAuctionAlgorithm {
+	private static final double EPSILON_SCALING_FACTOR = 5;
+	private static final double COLD_START_EPSILON_DIVISOR = 5;
+	private static final double WARM_START_EPSILON_DIVISOR = 125;
+
+	private final int rowCount;
+	private final int colCount;
+	private final int personCount;
+
+	// symmetric problem: persons (rows + column slacks) -> objects (columns + row slacks), CSR format
+	private final int[] arcStart;
+	private final int[] arcObject;
+	private final double[] arcBenefit;
+	private final double maxAbsBenefit;
+
+	/**
+	 * @param colCount             number of columns
+	 * @param rowCols              candidate columns of each row
+	 * @param rowCosts             costs of assigning each row to its candidate columns
+	 * @param unassignedColumnCost cost of leaving a column unassigned; should be higher than the assignment costs
+	 */
+	public SparseAuctionAlgorithm(int colCount, int[][] rowCols, double[][] rowCosts, double unassignedColumnCost) {
+		this.rowCount = rowCols.length;
+		this.colCount = colCount;
+		this.personCount = rowCount + colCount;
+
+		int[] colDegree = new int[colCount];
+		int rowArcCount = 0;
+		for (int[] cols : rowCols) {
+			for (int col : cols) {
+				colDegree[col]++;
+			}
+			rowArcCount += cols.length;
+		}
+
+		int arcCount = 2 * rowArcCount + rowCount + colCount;
+		arcStart = new int[personCount + 1];
+		arcObject = new int[arcCount];
+		arcBenefit = new double[arcCount];
+
+		// rows: candidate columns + own slack
+		int arc = 0;
+		double maxAbs = Math.abs(unassignedColumnCost);
+		for (int row = 0; row < rowCount; row++) {
+			arcStart[row] = arc;
+			for (int k = 0; k < rowCols[row].length; k++) {
+				arcObject[arc] = rowCols[row][k];
+				arcBenefit[arc++] = -rowCosts[row][k];
+				maxAbs = Math.max(maxAbs, Math.abs(rowCosts[row][k]));
+			}
+			arcObject[arc] = colCount + row;
+			arcBenefit[arc++] = 0;
+		}
+		this.maxAbsBenefit = maxAbs;
+
+		// column slacks: own column + slacks of the candidate rows
+		int[] colArcPosition = new int[colCount];
+		for (int col = 0; col < colCount; col++) {
+			arcStart[rowCount + col] = arc;
+			arcObject[arc] = col;
+			arcBenefit[arc++] = -unassignedColumnCost;
+			colArcPosition[col] = arc;
+			arc += colDegree[col];
+		}
+		arcStart[personCount] = arc;
+		for (int row = 0; row < rowCount; row++) {
+			for (int col : rowCols[row]) {
+				int position = colArcPosition[col]++;
+				arcObject[position] = colCount + row;
+				arcBenefit[position] = 0;
+			}
+		}
+	}
+
+	/**
+	 * @param colPrices initial column prices (warm start, e.g. taken from the previous solution); updated with the
+	 *                  final prices
+	 * @param warmStart if true, the prices are assumed to be close to the final ones, so fewer scaling phases are run
+	 * @return column assigned to each row, or -1 if the row is unassigned
+	 */
+	public int[] execute(double[] colPrices, boolean warmStart) {
+		double[] prices = new double[colCount + rowCount];
+		System.arraycopy(colPrices, 0, prices, 0, colCount);
+
+		int[] personToObject = new int[personCount];
+		int[] objectToPerson = new int[personCount];
+		int[] unassignedPersons = new int[personCount];
+
+		double finalEpsilon = 1. / (personCount + 1);
+		double epsilon = Math.max(finalEpsilon,
+				maxAbsBenefit / (warmStart ? WARM_START_EPSILON_DIVISOR : COLD_START_EPSILON_DIVISOR));
+		while (true) {
+			Arrays.fill(personToObject, -1);
+			Arrays.fill(objectToPerson, -1);
+			int unassignedCount = 0;
+			for (int p = personCount - 1; p >= 0; p--) {
+				unassignedPersons[unassignedCount++] = p;
+			}
+
+			while (unassignedCount > 0) {
+				int person = unassignedPersons[--unassignedCount];
+				int displacedPerson = bid(person, prices, epsilon, personToObject, objectToPerson);
+				if (displacedPerson >= 0) {
+					unassignedPersons[unassignedCount++] = displacedPerson;
+				}
+			}
+
+			if (epsilon <= finalEpsilon) {
+				break;
+			}
+			epsilon = Math.max(finalEpsilon, epsilon / EPSILON_SCALING_FACTOR);
+		}
+
+		System.arraycopy(prices, 0, colPrices, 0, colCount);
+		int[] assignment = new int[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			int object = personToObject[row];
+			assignment[row] = object < colCount ? object : -1;// row slack => unassigned
+		}
+		return assignment;
+	}
+
+	// returns the person that has lost the object (or -1)
+	private int bid(int person, double[] prices, double epsilon, int[] personToObject, int[] objectToPerson) {
+		int bestObject = -1;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		double secondBestValue = Double.NEGATIVE_INFINITY;
+		for (int arc = arcStart[person]; arc < arcStart[person + 1]; arc++) {
+			int object = arcObject[arc];
+			double value = arcBenefit[arc] - prices[object];
+			if (value > bestValue) {
+				secondBestValue = bestValue;
+				bestValue = value;
+				bestObject = object;
+			} else if (value > secondBestValue) {
+				secondBestValue = value;
+			}
+		}
+
+		// single arc => the object is not contested by any other person
+		prices[bestObject] += secondBestValue == Double.NEGATIVE_INFINITY ?
+				epsilon :
+				bestValue - secondBestValue + epsilon;
+
+		int displacedPerson = objectToPerson[bestObject];
+		if (displacedPerson >= 0) {
+			personToObject[displacedPerson] = -1;
+		}
+		objectToPerson[bestObject] = person;
+		personToObject[person] = bestObject;
+		return displacedPerson;
+	}
+}
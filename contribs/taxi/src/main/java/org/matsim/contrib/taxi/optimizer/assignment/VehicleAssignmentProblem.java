@@ -20,7 +20,14 @@
 package org.matsim.contrib.taxi.optimizer.assignment;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
 
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
@@ -50,14 +57,23 @@ public class VehicleAssignmentProblem<D> {
 		double calc(VehicleData.Entry departure, DestEntry<D> dest, PathData pathData);
 	}
 
+	public enum AssignmentAlgorithm {
+		HUNGARIAN, // dense cost matrix (pairs outside the kNN neighbourhood get the 'null path' cost), O(n^3)
+		SPARSE_AUCTION // only pairs within the kNN neighbourhood are considered, warm-started with the previous prices
+	}
+
 	private final TravelTime travelTime;
 	private final LeastCostPathCalculator router;
 
-	private final OneToManyPathSearch pathSearch;
+	private final ThreadLocal<OneToManyPathSearch> pathSearch;
+	private final ForkJoinPool forkJoinPool;
 
 	private final StraightLineKnnFinder<VehicleData.Entry, DestEntry<D>> destinationFinder;
 	private final StraightLineKnnFinder<DestEntry<D>, VehicleData.Entry> vehicleFinder;
 
+	private final AssignmentAlgorithm algorithm;
+	private Map<D, Double> previousDestinationPrices = Map.of();
+
 	private AssignmentCost<D> assignmentCost;
 	private VehicleData vData;
 	private AssignmentDestinationData<D> dData;
@@ -69,12 +85,27 @@ public class VehicleAssignmentProblem<D> {
 
 	public VehicleAssignmentProblem(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
 			LeastCostPathCalculator router, int nearestDestinationLimit, int nearestVehicleLimit) {
+		this(network, travelTime, travelDisutility, router, nearestDestinationLimit, nearestVehicleLimit,
+				AssignmentAlgorithm.HUNGARIAN, null);
+	}
+
+	/**
+	 * @param forkJoinPool if not null and its parallelism is greater than 1, paths and costs are calculated in this pool
+	 *                     (so the {@link AssignmentCost} must be thread-safe); the pool is not shut down here
+	 */
+	public VehicleAssignmentProblem(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
+			LeastCostPathCalculator router, int nearestDestinationLimit, int nearestVehicleLimit,
+			AssignmentAlgorithm algorithm, @Nullable ForkJoinPool forkJoinPool) {
 		this.travelTime = travelTime;
 		this.router = router;
+		this.algorithm = algorithm;
 
 		IdMap<Node, Node> nodeMap = new IdMap<>(Node.class);
 		nodeMap.putAll(network.getNodes());
-		pathSearch = OneToManyPathSearch.createSearch(new SpeedyGraph(network), nodeMap, travelTime, travelDisutility, false);
+		SpeedyGraph graph = new SpeedyGraph(network);
+		pathSearch = ThreadLocal.withInitial(
+				() -> OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, false));
+		this.forkJoinPool = forkJoinPool != null && forkJoinPool.getParallelism() > 1 ? forkJoinPool : null;
 
 		// TODO this kNN is slow
 		destinationFinder = nearestDestinationLimit < 0 ?
@@ -93,86 +124,178 @@ public class VehicleAssignmentProblem<D> {
 		this.dData = dData;
 		this.assignmentCost = assignmentCost;
 
-		PathData[][] pathDataMatrix = createPathDataMatrix();
-		double[][] costMatrix = createCostMatrix(pathDataMatrix);
-		int[] assignments = new HungarianAlgorithm(costMatrix).execute();
-		return createDispatches(assignments, pathDataMatrix, travelTime);
-	}
+		// paths are calculated from the smaller set (one search per vehicle or destination)
+		boolean searchFromVehicles = dData.getSize() > vData.getSize();
+		Neighbours[] neighbours = searchFromVehicles ? calcPathsForVehicles() : calcPathsForDestinations();
 
-	// private static int calcPathsForVehiclesCount = 0;
-	// private static int calcPathsForDestinationsCount = 0;
+		switch (algorithm) {
+			case HUNGARIAN:
+				PathData[][] pathDataMatrix = createPathDataMatrix(neighbours, searchFromVehicles);
+				double[][] costMatrix = createCostMatrix(pathDataMatrix);
+				int[] assignments = new HungarianAlgorithm(costMatrix).execute();
+				return createDispatches(assignments, (v, d) -> pathDataMatrix[v][d]);
 
-	private PathData[][] createPathDataMatrix() {
-		PathData[][] pathDataMatrix = new PathData[vData.getSize()][dData.getSize()];
+			case SPARSE_AUCTION:
+				return findSparseAssignments(searchFromVehicles ? neighbours : transpose(neighbours));
 
-		if (dData.getSize() > vData.getSize()) {
-			calcPathsForVehicles(pathDataMatrix);
-			// calcPathsForVehiclesCount++;
-		} else {
-			calcPathsForDestinations(pathDataMatrix);
-			// calcPathsForDestinationsCount++;
+			default:
+				throw new IllegalStateException("Unsupported algorithm: " + algorithm);
 		}
+	}
 
-		// if ( (calcPathsForDestinationsCount + calcPathsForVehiclesCount) % 100 == 0) {
-		// System.err.println("PathsForDestinations = " + calcPathsForDestinationsCount
-		// + " PathsForVehicles = " + calcPathsForVehiclesCount);
-		// System.err.println("dests = " + dData.getSize() + " vehs = " + vData.getSize()
-		// + " idleVehs = " + vData.getIdleCount());
-		// }
+	// candidates (vehicles or destinations) of a given destination or vehicle, with the corresponding paths
+	private static class Neighbours {
+		private final int[] indices;
+		private final PathData[] paths;
 
-		return pathDataMatrix;
+		private Neighbours(int[] indices, PathData[] paths) {
+			this.indices = indices;
+			this.paths = paths;
+		}
 	}
 
-	private void calcPathsForVehicles(PathData[][] pathDataMatrix) {
-		for (int v = 0; v < vData.getSize(); v++) {
+	private Neighbours[] calcPathsForVehicles() {
+		Neighbours[] neighbours = new Neighbours[vData.getSize()];
+		forEachIndex(vData.getSize(), v -> {
 			VehicleData.Entry departure = vData.getEntry(v);
 
 			List<DestEntry<D>> filteredDests = destinationFinder == null ?
 					dData.getEntries() :
 					destinationFinder.findNearest(departure, dData.getEntries().stream());
 			List<Link> toLinks = Lists.transform(filteredDests, dest -> dest.link);
-			PathData[] paths = pathSearch.calcPathDataArray(departure.link, toLinks, departure.time, true);
+			PathData[] paths = pathSearch.get().calcPathDataArray(departure.link, toLinks, departure.time, true);
 
-			for (int i = 0; i < filteredDests.size(); i++) {
-				int d = filteredDests.get(i).idx;
-				pathDataMatrix[v][d] = paths[i];
-			}
-		}
+			neighbours[v] = new Neighbours(filteredDests.stream().mapToInt(dest -> dest.idx).toArray(), paths);
+		});
+		return neighbours;
 	}
 
 	// TODO does not support adv reqs
-	private void calcPathsForDestinations(PathData[][] pathDataMatrix) {
-		for (int d = 0; d < dData.getSize(); d++) {
+	private Neighbours[] calcPathsForDestinations() {
+		Neighbours[] neighbours = new Neighbours[dData.getSize()];
+		forEachIndex(dData.getSize(), d -> {
 			DestEntry<D> dest = dData.getEntry(d);
 
 			List<VehicleData.Entry> filteredVehs = vehicleFinder == null ?
 					vData.getEntries() :
 					vehicleFinder.findNearest(dest, vData.getEntries().stream());
 			List<Link> toLinks = Lists.transform(filteredVehs, veh -> veh.link);
-			PathData[] paths = pathSearch.calcPathDataArray(dest.link, toLinks, dest.time, false);
+			PathData[] paths = pathSearch.get().calcPathDataArray(dest.link, toLinks, dest.time, false);
+
+			neighbours[d] = new Neighbours(filteredVehs.stream().mapToInt(veh -> veh.idx).toArray(), paths);
+		});
+		return neighbours;
+	}
 
-			for (int i = 0; i < filteredVehs.size(); i++) {
-				int v = filteredVehs.get(i).idx;
-				pathDataMatrix[v][d] = paths[i];
+	private PathData[][] createPathDataMatrix(Neighbours[] neighbours, boolean searchFromVehicles) {
+		PathData[][] pathDataMatrix = new PathData[vData.getSize()][dData.getSize()];
+		for (int i = 0; i < neighbours.length; i++) {
+			for (int k = 0; k < neighbours[i].indices.length; k++) {
+				int j = neighbours[i].indices[k];
+				if (searchFromVehicles) {
+					pathDataMatrix[i][j] = neighbours[i].paths[k];
+				} else {
+					pathDataMatrix[j][i] = neighbours[i].paths[k];
+				}
 			}
 		}
+		return pathDataMatrix;
 	}
 
 	private double[][] createCostMatrix(PathData[][] pathDataMatrix) {
-
 		double[][] costMatrix = new double[vData.getSize()][dData.getSize()];
-
-		for (int v = 0; v < vData.getSize(); v++) {
+		forEachIndex(vData.getSize(), v -> {
 			VehicleData.Entry departure = vData.getEntry(v);
 			for (int r = 0; r < dData.getSize(); r++) {
 				costMatrix[v][r] = assignmentCost.calc(departure, dData.getEntry(r), pathDataMatrix[v][r]);
 			}
+		});
+		return costMatrix;
+	}
+
+	// destinations' neighbours (vehicles) => vehicles' neighbours (destinations)
+	private Neighbours[] transpose(Neighbours[] destNeighbours) {
+		int[] counts = new int[vData.getSize()];
+		for (Neighbours n : destNeighbours) {
+			for (int v : n.indices) {
+				counts[v]++;
+			}
 		}
 
-		return costMatrix;
+		Neighbours[] vehNeighbours = new Neighbours[vData.getSize()];
+		for (int v = 0; v < vehNeighbours.length; v++) {
+			vehNeighbours[v] = new Neighbours(new int[counts[v]], new PathData[counts[v]]);
+			counts[v] = 0;
+		}
+		for (int d = 0; d < destNeighbours.length; d++) {
+			Neighbours n = destNeighbours[d];
+			for (int k = 0; k < n.indices.length; k++) {
+				Neighbours vn = vehNeighbours[n.indices[k]];
+				int position = counts[n.indices[k]]++;
+				vn.indices[position] = d;
+				vn.paths[position] = n.paths[k];
+			}
+		}
+		return vehNeighbours;
 	}
 
-	private List<Dispatch<D>> createDispatches(int[] assignments, PathData[][] pathDataMatrix, TravelTime travelTime) {
+	private List<Dispatch<D>> findSparseAssignments(Neighbours[] vehNeighbours) {
+		int[][] rowCols = new int[vData.getSize()][];
+		double[][] rowCosts = new double[vData.getSize()][];
+		forEachIndex(vData.getSize(), v -> {
+			VehicleData.Entry departure = vData.getEntry(v);
+			Neighbours n = vehNeighbours[v];
+			double[] costs = new double[n.indices.length];
+			for (int k = 0; k < costs.length; k++) {
+				costs[k] = assignmentCost.calc(departure, dData.getEntry(n.indices[k]), n.paths[k]);
+			}
+			rowCols[v] = n.indices;
+			rowCosts[v] = costs;
+		});
+
+		// leaving a destination unassigned should be more costly than any (single) assignment
+		double maxCost = 0;
+		for (double[] costs : rowCosts) {
+			for (double cost : costs) {
+				maxCost = Math.max(maxCost, cost);
+			}
+		}
+
+		// warm start with the prices of the destinations that were already considered in the previous run
+		double[] prices = new double[dData.getSize()];
+		boolean warmStart = false;
+		for (int d = 0; d < prices.length; d++) {
+			Double price = previousDestinationPrices.get(dData.getEntry(d).destination);
+			if (price != null) {
+				prices[d] = price;
+				warmStart = true;
+			}
+		}
+
+		int[] assignments = new SparseAuctionAlgorithm(dData.getSize(), rowCols, rowCosts, maxCost + 1).execute(
+				prices, warmStart);
+
+		previousDestinationPrices = new HashMap<>();
+		for (int d = 0; d < prices.length; d++) {
+			previousDestinationPrices.put(dData.getEntry(d).destination, prices[d]);
+		}
+
+		return createDispatches(assignments, (v, d) -> {
+			Neighbours n = vehNeighbours[v];
+			for (int k = 0; k < n.indices.length; k++) {
+				if (n.indices[k] == d) {
+					return n.paths[k];
+				}
+			}
+			throw new IllegalStateException("Destination " + d + " is not a neighbour of vehicle " + v);
+		});
+	}
+
+	private interface PathDataProvider {
+		PathData getPathData(int v, int d);
+	}
+
+	private List<Dispatch<D>> createDispatches(int[] assignments, PathDataProvider pathDataProvider) {
 		List<Dispatch<D>> dispatches = new ArrayList<>(Math.min(vData.getSize(), dData.getSize()));
 		for (int v = 0; v < assignments.length; v++) {
 			int d = assignments[v];
@@ -183,7 +306,7 @@ public class VehicleAssignmentProblem<D> {
 
 			VehicleData.Entry departure = vData.getEntry(v);
 			DestEntry<D> dest = dData.getEntry(d);
-			PathData pathData = pathDataMatrix[v][d];
+			PathData pathData = pathDataProvider.getPathData(v, d);
 
 			// TODO if null is frequent we may be more efficient by increasing the neighbourhood
 			VrpPathWithTravelData vrpPath = pathData == null ?
@@ -195,4 +318,14 @@ public class VehicleAssignmentProblem<D> {
 
 		return dispatches;
 	}
+
+	private void forEachIndex(int size, IntConsumer action) {
+		if (forkJoinPool == null) {
+			for (int i = 0; i < size; i++) {
+				action.accept(i);
+			}
+		} else {
+			forkJoinPool.submit(() -> IntStream.range(0, size).parallel().forEach(action)).join();
+		}
+	}
 }
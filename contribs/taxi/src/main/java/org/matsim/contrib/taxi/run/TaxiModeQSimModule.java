@@ -40,7 +40,9 @@ import org.matsim.contrib.dvrp.vrpagent.VrpAgentLogic.DynActionCreator;
 import org.matsim.contrib.dvrp.vrpagent.VrpAgentSourceQSimModule;
 import org.matsim.contrib.taxi.analysis.TaxiEventSequenceCollector;
 import org.matsim.contrib.taxi.optimizer.DefaultTaxiOptimizerProvider;
+import org.matsim.contrib.taxi.optimizer.QSimScopeForkJoinPoolHolder;
 import org.matsim.contrib.taxi.optimizer.TaxiOptimizer;
+import org.matsim.contrib.taxi.optimizer.assignment.AssignmentTaxiOptimizerParams;
 import org.matsim.contrib.taxi.passenger.TaxiRequestCreator;
 import org.matsim.contrib.taxi.scheduler.TaxiScheduleInquiry;
 import org.matsim.contrib.taxi.scheduler.TaxiScheduler;
@@ -74,6 +76,13 @@ public class TaxiModeQSimModule extends AbstractDvrpModeQSimModule {
 		install(new VrpAgentSourceQSimModule(getMode()));
 		install(new PassengerEngineQSimModule(getMode()));
 
+		// only the assignment optimizer calculates paths in parallel
+		int numberOfThreads = taxiCfg.getTaxiOptimizerParams() instanceof AssignmentTaxiOptimizerParams ?
+				((AssignmentTaxiOptimizerParams)taxiCfg.getTaxiOptimizerParams()).getNumberOfThreads() :
+				1;
+		addModalComponent(QSimScopeForkJoinPoolHolder.class,
+				() -> new QSimScopeForkJoinPoolHolder(numberOfThreads));
+
 		addModalComponent(TaxiOptimizer.class,
 				new ModalProviders.AbstractProvider<>(taxiCfg.getMode(), DvrpModes::mode) {
 					@Inject
@@ -92,8 +101,10 @@ public class TaxiModeQSimModule extends AbstractDvrpModeQSimModule {
 								TravelDisutilityFactory.class).createTravelDisutility(travelTime);
 
 						ScheduleTimingUpdater scheduleTimingUpdater = getModalInstance(ScheduleTimingUpdater.class);
+						var forkJoinPool = getModalInstance(QSimScopeForkJoinPoolHolder.class).getPool();
 						return new DefaultTaxiOptimizerProvider(events, taxiCfg, fleet, network, timer, travelTime,
-								travelDisutility, taxiScheduler, scheduleTimingUpdater, getConfig().getContext()).get();
+								travelDisutility, taxiScheduler, scheduleTimingUpdater, getConfig().getContext(),
+								forkJoinPool).get();
 					}
 				});
 
@@ -81,7 +81,8 @@ public class TaxiActionCreator implements VrpAgentLogic.DynActionCreator {
 						DROPOFF_ACTIVITY_TYPE);
 
 			case STAY:
-				return new IdleDynActivity(STAY_ACTIVITY_TYPE, task::getEndTime);
+				return new IdleDynActivity(STAY_ACTIVITY_TYPE, task::getEndTime,
+						task::setEndTimeChangeListener);
 
 			default:
 				throw new IllegalStateException();
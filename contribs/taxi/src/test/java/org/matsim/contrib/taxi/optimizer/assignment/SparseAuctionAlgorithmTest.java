@@ -0,0 +1,138 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.contrib.taxi.optimizer.assignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SparseAuctionAlgorithmTest {
+	private static final double UNASSIGNED_COST = 1_000_000;
+
+	@Test
+	public void completeProblem_sameCostAsHungarian() {
+		var random = new Random(42);
+		for (int run = 0; run < 50; run++) {
+			double[][] costMatrix = randomCostMatrix(random, 1 + random.nextInt(20), 1 + random.nextInt(20));
+			int colCount = costMatrix[0].length;
+			int[][] rowCols = new int[costMatrix.length][];
+			for (int row = 0; row < costMatrix.length; row++) {
+				rowCols[row] = allColumns(colCount);
+			}
+
+			int[] auction = new SparseAuctionAlgorithm(colCount, rowCols, costMatrix, UNASSIGNED_COST).execute(
+					new double[colCount], false);
+			int[] hungarian = new HungarianAlgorithm(costMatrix).execute();
+			assertThat(totalCost(auction, costMatrix)).isEqualTo(totalCost(hungarian, costMatrix));
+		}
+	}
+
+	@Test
+	public void sparseProblem_sameCostAsHungarian() {
+		var random = new Random(7);
+		for (int run = 0; run < 50; run++) {
+			int rowCount = 1 + random.nextInt(20);
+			int colCount = 1 + random.nextInt(20);
+			double[][] costMatrix = randomCostMatrix(random, rowCount, colCount);
+
+			// keep 3 random candidates per row; others cost as much as leaving the column unassigned
+			int[][] rowCols = new int[rowCount][];
+			double[][] rowCosts = new double[rowCount][];
+			for (int row = 0; row < rowCount; row++) {
+				rowCols[row] = random.ints(0, colCount).distinct().limit(Math.min(3, colCount)).toArray();
+				rowCosts[row] = new double[rowCols[row].length];
+				double[] denseRow = new double[colCount];
+				Arrays.fill(denseRow, UNASSIGNED_COST);
+				for (int k = 0; k < rowCols[row].length; k++) {
+					rowCosts[row][k] = denseRow[rowCols[row][k]] = costMatrix[row][rowCols[row][k]];
+				}
+				costMatrix[row] = denseRow;
+			}
+
+			int[] auction = new SparseAuctionAlgorithm(colCount, rowCols, rowCosts, UNASSIGNED_COST).execute(
+					new double[colCount], false);
+			int[] hungarian = new HungarianAlgorithm(costMatrix).execute();
+
+			// Hungarian assigns min(rowCount, colCount) pairs; the remaining columns are left unassigned
+			double auctionCost = totalCost(auction, costMatrix)
+					+ UNASSIGNED_COST * (colCount - assignedCount(auction));
+			double hungarianCost = totalCost(hungarian, costMatrix)
+					+ UNASSIGNED_COST * (colCount - Math.min(rowCount, colCount));
+			assertThat(auctionCost).isEqualTo(hungarianCost);
+		}
+	}
+
+	@Test
+	public void warmStart_sameCost() {
+		var random = new Random(123);
+		double[][] costMatrix = randomCostMatrix(random, 30, 25);
+		int[][] rowCols = new int[30][];
+		for (int row = 0; row < 30; row++) {
+			rowCols[row] = allColumns(25);
+		}
+		var auction = new SparseAuctionAlgorithm(25, rowCols, costMatrix, UNASSIGNED_COST);
+
+		double[] prices = new double[25];
+		double coldCost = totalCost(auction.execute(prices, false), costMatrix);
+		assertThat(totalCost(auction.execute(prices, true), costMatrix)).isEqualTo(coldCost);
+	}
+
+	private static double[][] randomCostMatrix(Random random, int rowCount, int colCount) {
+		double[][] costMatrix = new double[rowCount][colCount];
+		for (int row = 0; row < rowCount; row++) {
+			for (int col = 0; col < colCount; col++) {
+				costMatrix[row][col] = random.nextInt(100);
+			}
+		}
+		return costMatrix;
+	}
+
+	private static int[] allColumns(int colCount) {
+		int[] cols = new int[colCount];
+		for (int col = 0; col < colCount; col++) {
+			cols[col] = col;
+		}
+		return cols;
+	}
+
+	private static double totalCost(int[] assignment, double[][] costMatrix) {
+		double cost = 0;
+		for (int row = 0; row < assignment.length; row++) {
+			if (assignment[row] >= 0) {
+				cost += costMatrix[row][assignment[row]];
+			}
+		}
+		return cost;
+	}
+
+	private static int assignedCount(int[] assignment) {
+		int count = 0;
+		for (int col : assignment) {
+			if (col >= 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -251,11 +251,11 @@ public class DefaultRaptorStopFinder implements RaptorStopFinder {
 	private List<TransitStopFacility> findNearbyStops(Facility facility, RaptorParameters parameters, SwissRailRaptorData data) {
 		double x = facility.getCoord().getX();
 		double y = facility.getCoord().getY();
-		Collection<TransitStopFacility> stopFacilities = data.stopsQT.getDisk(x, y, parameters.getSearchRadius());
+		Collection<TransitStopFacility> stopFacilities = data.findNearbyStops(x, y, parameters.getSearchRadius());
 		if (stopFacilities.size() < 2) {
-			TransitStopFacility  nearestStop = data.stopsQT.getClosest(x, y);
+			TransitStopFacility  nearestStop = data.findNearestStop(x, y);
 			double nearestDistance = CoordUtils.calcEuclideanDistance(facility.getCoord(), nearestStop.getCoord());
-			stopFacilities = data.stopsQT.getDisk(x, y, nearestDistance + parameters.getExtensionRadius());
+			stopFacilities = data.findNearbyStops(x, y, nearestDistance + parameters.getExtensionRadius());
 		}
 		if (stopFacilities instanceof List) {
 			return (List<TransitStopFacility>) stopFacilities;
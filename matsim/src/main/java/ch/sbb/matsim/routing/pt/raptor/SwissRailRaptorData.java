@@ -11,7 +11,9 @@ import org.matsim.api.core.v01.TransportMode;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.utils.collections.PackedRTree;
 import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.collections.QuadTrees;
 import org.matsim.core.utils.geometry.CoordUtils;
 import org.matsim.pt.transitSchedule.TransitScheduleUtils;
 import org.matsim.pt.transitSchedule.api.Departure;
@@ -56,6 +58,7 @@ public class SwissRailRaptorData {
     final Map<TransitStopFacility, Integer> stopFacilityIndices;
     final Map<TransitStopFacility, int[]> routeStopsPerStopFacility;
     final QuadTree<TransitStopFacility> stopsQT;
+    final PackedRTree<TransitStopFacility> stopsIndex;
     final Map<String, Map<String, QuadTree<TransitStopFacility>>> stopFilterAttribute2Value2StopsQT;
     final OccupancyData occupancyData;
 
@@ -76,6 +79,7 @@ public class SwissRailRaptorData {
         this.stopFacilityIndices = stopFacilityIndices;
         this.routeStopsPerStopFacility = routeStopsPerStopFacility;
         this.stopsQT = stopsQT;
+        this.stopsIndex = QuadTrees.createPackedRTree(stopsQT.values());
         this.stopFilterAttribute2Value2StopsQT = new HashMap<>();
         this.occupancyData = occupancyData;
     }
@@ -463,11 +467,11 @@ public class SwissRailRaptorData {
     }
 
     public Collection<TransitStopFacility> findNearbyStops(double x, double y, double distance) {
-        return this.stopsQT.getDisk(x, y, distance);
+        return this.stopsIndex.getDisk(x, y, distance);
     }
 
     public TransitStopFacility findNearestStop(double x, double y) {
-        return this.stopsQT.getClosest(x, y);
+        return this.stopsIndex.getClosest(x, y);
     }
 
     /**
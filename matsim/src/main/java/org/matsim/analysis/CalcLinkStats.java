@@ -33,7 +33,9 @@ import javax.inject.Inject;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Calculates the average link volumes and travel times over any number of iterations.
@@ -85,7 +87,37 @@ public class CalcLinkStats {
 		this.volScaleFactor = vol_scale_factor;
 	}
 
+	private CalcLinkStats(final CalcLinkStats original) {
+		this.network = original.network;
+		this.linkData = new IdMap<>(Link.class);
+		this.linkData.putAll(original.linkData);
+		this.nofHours = original.nofHours;
+		this.count = original.count;
+		this.volScaleFactor = original.volScaleFactor;
+	}
+
+	/**
+	 * Returns a copy sharing the data arrays with this instance, e.g. to write the file in the background.  As {@link #reset()}
+	 * replaces the arrays instead of clearing them, the copy does not change as long as no data is added before the next reset.
+	 */
+	/*package*/ CalcLinkStats createSnapshot() {
+		return new CalcLinkStats(this);
+	}
+
 	public void addData(final VolumesAnalyzer analyzer, final TravelTime ttimes) {
+		addData(analyzer::getVolumesPerHourForLink, ttimes);
+	}
+
+	public void addData(final LinkStatsStore store, final TravelTime ttimes) {
+		double[] volumesPerHour = new double[this.nofHours];
+		addData(linkId -> {
+			Arrays.fill(volumesPerHour, 0.0);
+			store.addVolumesPerHour(linkId, null, volumesPerHour);
+			return volumesPerHour;
+		}, ttimes);
+	}
+
+	private void addData(final Function<Id<Link>, double[]> volumesPerHour, final TravelTime ttimes) {
 		this.count++;
 		// TODO verify ttimes has hourly timeBin-Settings
 
@@ -96,7 +128,7 @@ public class CalcLinkStats {
 			Link link = this.network.getLinks().get(linkId);
 			
 			// get the volumes for the link ID from the analyzier
-			double[] volumes = analyzer.getVolumesPerHourForLink(linkId);
+			double[] volumes = volumesPerHour.apply(linkId);
 			
 			// get the destination container for the data from link data (could have gotten this through iterator right away)
 			LinkData data = this.linkData.get(linkId);
@@ -0,0 +1,303 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.apache.log4j.Logger;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.AfterMobsimEvent;
+import org.matsim.core.controler.events.BeforeMobsimEvent;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.controler.events.StartupEvent;
+import org.matsim.core.controler.listener.AfterMobsimListener;
+import org.matsim.core.controler.listener.BeforeMobsimListener;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+import org.matsim.core.controler.listener.StartupListener;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.timing.IterationPhaseEvent;
+import org.matsim.core.utils.timing.Profiler;
+
+import javax.inject.Inject;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enables the {@link Profiler} and writes its values per iteration, together with the wall time, garbage collection
+ * and allocation of the phases of the iteration:  <code>replanning</code> (from iteration start to before the mobsim),
+ * <code>mobsim</code> and <code>scoringAndAnalysis</code> (from after the mobsim to the iteration end).  As the phase
+ * boundaries are taken from controler listeners, the work of other listeners of the same events may be attributed to
+ * either of the adjacent phases.
+ * <p>
+ * The values are appended to <code>profiling.csv</code> in the output directory, one value per line, and written to
+ * <code>profiling.json</code> in each iteration directory.  The phases are also emitted as {@link IterationPhaseEvent}s
+ * to JDK Flight Recorder.
+ */
+final class IterationProfilingListener implements StartupListener, IterationStartsListener, BeforeMobsimListener, AfterMobsimListener,
+		IterationEndsListener, ShutdownListener {
+
+	private static final Logger log = Logger.getLogger(IterationProfilingListener.class);
+
+	static final String FILENAME = "profiling";
+
+	private final OutputDirectoryHierarchy controlerIO;
+	private final AtomicLong freedByGc = new AtomicLong();
+	private final List<PhaseValues> phases = new ArrayList<>();
+	private final List<Runnable> unregisterGcListeners = new ArrayList<>();
+
+	private IterationPhaseEvent currentPhaseEvent = null;
+	private String currentPhase = null;
+	private long phaseStartNanos;
+	private long phaseStartGcCount;
+	private long phaseStartGcTime;
+	private long phaseStartHeapUsed;
+	private long phaseStartFreedByGc;
+
+	@Inject
+	IterationProfilingListener(OutputDirectoryHierarchy controlerIO) {
+		this.controlerIO = controlerIO;
+	}
+
+	@Override
+	public void notifyStartup(StartupEvent event) {
+		Profiler.setEnabled(true);
+		registerGcListeners();
+		try (BufferedWriter out = IOUtils.getBufferedWriter(this.controlerIO.getOutputFilename(FILENAME + ".csv"))) {
+			out.write("iteration\tcategory\tname\tmetric\tvalue");
+			out.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Profiler.snapshotAndReset(); // discard everything recorded before the first iteration
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		this.phases.clear();
+		beginPhase(event.getIteration(), "replanning");
+	}
+
+	@Override
+	public void notifyBeforeMobsim(BeforeMobsimEvent event) {
+		endPhase();
+		beginPhase(event.getIteration(), "mobsim");
+	}
+
+	@Override
+	public void notifyAfterMobsim(AfterMobsimEvent event) {
+		endPhase();
+		beginPhase(event.getIteration(), "scoringAndAnalysis");
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		endPhase();
+		List<Profiler.MetricValues> metrics = Profiler.snapshotAndReset();
+		writeCsv(event.getIteration(), metrics);
+		writeJson(event.getIteration(), metrics);
+	}
+
+	@Override
+	public void notifyShutdown(ShutdownEvent event) {
+		Profiler.setEnabled(false);
+		this.unregisterGcListeners.forEach(Runnable::run);
+		this.unregisterGcListeners.clear();
+	}
+
+	private void beginPhase(int iteration, String phase) {
+		this.currentPhase = phase;
+		this.currentPhaseEvent = new IterationPhaseEvent();
+		this.currentPhaseEvent.iteration = iteration;
+		this.currentPhaseEvent.phase = phase;
+		this.currentPhaseEvent.begin();
+		this.phaseStartNanos = System.nanoTime();
+		this.phaseStartGcCount = getGcCount();
+		this.phaseStartGcTime = getGcTime();
+		this.phaseStartHeapUsed = getHeapUsed();
+		this.phaseStartFreedByGc = this.freedByGc.get();
+	}
+
+	private void endPhase() {
+		if (this.currentPhase == null) {
+			return;
+		}
+		long wallTime = System.nanoTime() - this.phaseStartNanos;
+		long gcCount = getGcCount() - this.phaseStartGcCount;
+		long gcTime = getGcTime() - this.phaseStartGcTime;
+		// everything allocated is either still on the heap or was collected in the meantime
+		long allocated = Math.max(0, getHeapUsed() - this.phaseStartHeapUsed + this.freedByGc.get() - this.phaseStartFreedByGc);
+		this.phases.add(new PhaseValues(this.currentPhase, wallTime, gcCount, gcTime, allocated));
+
+		this.currentPhaseEvent.end();
+		if (this.currentPhaseEvent.shouldCommit()) {
+			this.currentPhaseEvent.gcCount = gcCount;
+			this.currentPhaseEvent.gcTime = gcTime;
+			this.currentPhaseEvent.allocated = allocated;
+			this.currentPhaseEvent.commit();
+		}
+		this.currentPhase = null;
+		this.currentPhaseEvent = null;
+	}
+
+	private void writeCsv(int iteration, List<Profiler.MetricValues> metrics) {
+		try (BufferedWriter out = IOUtils.getAppendingBufferedWriter(this.controlerIO.getOutputFilename(FILENAME + ".csv"))) {
+			for (PhaseValues phase : this.phases) {
+				writeCsvLine(out, iteration, "phase", phase.name, "wallTime_ms", toMillis(phase.wallTime));
+				writeCsvLine(out, iteration, "phase", phase.name, "gcCount", phase.gcCount);
+				writeCsvLine(out, iteration, "phase", phase.name, "gcTime_ms", phase.gcTime);
+				writeCsvLine(out, iteration, "phase", phase.name, "allocated_bytes", phase.allocated);
+			}
+			for (Profiler.MetricValues metric : metrics) {
+				writeCsvLine(out, iteration, metric.getCategory(), metric.getName(), "count", metric.getCount());
+				if (metric.getKind() == Profiler.Kind.timer) {
+					writeCsvLine(out, iteration, metric.getCategory(), metric.getName(), "total_ms", toMillis(metric.getSum()));
+					writeCsvLine(out, iteration, metric.getCategory(), metric.getName(), "max_ms", toMillis(metric.getMax()));
+				} else {
+					writeCsvLine(out, iteration, metric.getCategory(), metric.getName(), "mean", (double) metric.getSum() / metric.getCount());
+					writeCsvLine(out, iteration, metric.getCategory(), metric.getName(), "max", metric.getMax());
+				}
+			}
+		} catch (IOException e) {
+			log.error("could not write profiling values", e);
+		}
+	}
+
+	private static void writeCsvLine(BufferedWriter out, int iteration, String category, String name, String metric, Number value) throws IOException {
+		out.write(iteration + "\t" + category + "\t" + name + "\t" + metric + "\t" + value);
+		out.newLine();
+	}
+
+	private void writeJson(int iteration, List<Profiler.MetricValues> metrics) {
+		String filename = this.controlerIO.getIterationFilename(iteration, FILENAME + ".json");
+		try (OutputStream stream = IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false);
+			 JsonGenerator json = new JsonFactory().createGenerator(stream)) {
+			json.useDefaultPrettyPrinter();
+			json.writeStartObject();
+			json.writeNumberField("iteration", iteration);
+			json.writeArrayFieldStart("phases");
+			for (PhaseValues phase : this.phases) {
+				json.writeStartObject();
+				json.writeStringField("name", phase.name);
+				json.writeNumberField("wallTime_ms", toMillis(phase.wallTime));
+				json.writeNumberField("gcCount", phase.gcCount);
+				json.writeNumberField("gcTime_ms", phase.gcTime);
+				json.writeNumberField("allocated_bytes", phase.allocated);
+				json.writeEndObject();
+			}
+			json.writeEndArray();
+			json.writeArrayFieldStart("metrics");
+			for (Profiler.MetricValues metric : metrics) {
+				json.writeStartObject();
+				json.writeStringField("category", metric.getCategory());
+				json.writeStringField("name", metric.getName());
+				json.writeStringField("kind", metric.getKind().toString());
+				json.writeNumberField("count", metric.getCount());
+				if (metric.getKind() == Profiler.Kind.timer) {
+					json.writeNumberField("total_ms", toMillis(metric.getSum()));
+					json.writeNumberField("max_ms", toMillis(metric.getMax()));
+				} else {
+					json.writeNumberField("mean", (double) metric.getSum() / metric.getCount());
+					json.writeNumberField("max", metric.getMax());
+				}
+				json.writeEndObject();
+			}
+			json.writeEndArray();
+			json.writeEndObject();
+		} catch (IOException e) {
+			log.error("could not write profiling values", e);
+		}
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private void registerGcListeners() {
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (!(gc instanceof NotificationEmitter)) {
+				continue;
+			}
+			NotificationListener listener = (notification, handback) -> {
+				if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+					return;
+				}
+				GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+				long before = info.getGcInfo().getMemoryUsageBeforeGc().values().stream().mapToLong(MemoryUsage::getUsed).sum();
+				long after = info.getGcInfo().getMemoryUsageAfterGc().values().stream().mapToLong(MemoryUsage::getUsed).sum();
+				this.freedByGc.addAndGet(Math.max(0, before - after));
+			};
+			NotificationEmitter emitter = (NotificationEmitter) gc;
+			emitter.addNotificationListener(listener, null, null);
+			this.unregisterGcListeners.add(() -> {
+				try {
+					emitter.removeNotificationListener(listener);
+				} catch (Exception e) {
+					log.warn("could not remove gc listener", e);
+				}
+			});
+		}
+	}
+
+	private static long getGcCount() {
+		return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(gc -> Math.max(0, gc.getCollectionCount())).sum();
+	}
+
+	private static long getGcTime() {
+		return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(gc -> Math.max(0, gc.getCollectionTime())).sum();
+	}
+
+	private static long getHeapUsed() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static final class PhaseValues {
+		private final String name;
+		private final long wallTime;
+		private final long gcCount;
+		private final long gcTime;
+		private final long allocated;
+
+		PhaseValues(String name, long wallTime, long gcCount, long gcTime, long allocated) {
+			this.name = name;
+			this.wallTime = wallTime;
+			this.gcCount = gcCount;
+			this.gcTime = gcTime;
+			this.allocated = allocated;
+		}
+	}
+
+}
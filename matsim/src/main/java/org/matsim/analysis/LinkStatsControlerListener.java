@@ -24,6 +24,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.LinkStatsConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
@@ -41,8 +42,9 @@ final class LinkStatsControlerListener implements IterationEndsListener, Iterati
 	@Inject private LinkStatsConfigGroup linkStatsConfigGroup;
 	@Inject private ControlerConfigGroup controlerConfigGroup;
 	@Inject private CalcLinkStats linkStats;
-	@Inject private VolumesAnalyzer volumes;
+	@Inject private LinkStatsStore volumes;
 	@Inject private OutputDirectoryHierarchy controlerIO;
+	@com.google.inject.Inject(optional = true) private OutputDumpService outputDumpService = new OutputDumpService(0, 0);
 	@Inject private Map<String, TravelTime> travelTime;
     private int iterationsUsed = 0;
 	private boolean doReset = false;
@@ -57,7 +59,10 @@ final class LinkStatsControlerListener implements IterationEndsListener, Iterati
 		}
 
 		if (createLinkStatsInIteration(iteration)) {
-			linkStats.writeFile(this.controlerIO.getIterationFilename(iteration, Controler.DefaultFiles.linkstats));
+			// the link stats are reset before new data is added, so the snapshot can be written in the background
+			CalcLinkStats snapshot = linkStats.createSnapshot();
+			String filename = this.controlerIO.getIterationFilename(iteration, Controler.DefaultFiles.linkstats);
+			this.outputDumpService.submit("link stats", () -> snapshot.writeFile(filename));
 			this.doReset = true;
 		}
 	}
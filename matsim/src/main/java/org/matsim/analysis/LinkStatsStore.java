@@ -0,0 +1,370 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
+import org.matsim.api.core.v01.events.handler.VehicleLeavesTrafficEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.api.experimental.events.EventsManager;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Collects the number of vehicles leaving a link and their travel times on the link, per link, time bin and mode,
+ * from the events of one iteration.  This is the single source for the link volumes used by the link statistics, the
+ * counts comparison and the injected {@link VolumesAnalyzer}.
+ * <p>
+ * The data is stored in columns of dense primitive arrays, one column for all vehicles and one for each mode, and
+ * within a column indexed by <code>link index * number of time bins + time bin</code>.  Compared to one array (or one
+ * map of arrays) per link, this needs only a handful of objects and keeps the data of neighbouring time bins
+ * together.  Each column needs 16 bytes per link index and time bin; mode columns are only created for modes that
+ * are actually observed.
+ * <p>
+ * Link leave events are first collected in a small buffer and then added to the columns in one batch, so the hot
+ * path of the event handling only writes to a few sequential arrays.  All getters add pending data first.
+ * <p>
+ * Travel times are only collected for vehicles that entered the link with a link enter event, i.e. not for vehicles
+ * that started on the link.  They are assigned to the time bin in which the vehicle left the link.
+ */
+public final class LinkStatsStore implements LinkEnterEventHandler, LinkLeaveEventHandler, VehicleEntersTrafficEventHandler,
+		VehicleLeavesTrafficEventHandler {
+
+	private static final int BATCH_SIZE = 4096;
+	private static final int ALL_MODES = 0;
+	private static final int UNKNOWN_MODE = -1;
+
+	private final int timeBinSize;
+	private final int maxTime;
+	private final int numberOfTimeBins;
+	private int numberOfLinks;
+
+	private final Map<String, Integer> columnIndices = new HashMap<>();
+	private final List<String> modes = new ArrayList<>();
+	private final List<Column> columns = new ArrayList<>();
+
+	private int[] vehicleColumns = new int[0];
+	private double[] vehicleEnterTimes = new double[0];
+
+	private final int[] batchCells = new int[BATCH_SIZE];
+	private final int[] batchColumns = new int[BATCH_SIZE];
+	private final double[] batchTravelTimes = new double[BATCH_SIZE];
+	private int batchSize = 0;
+
+	@Inject
+	LinkStatsStore(Network network, EventsManager eventsManager) {
+		this(3600, 24 * 3600 - 1, network);
+		eventsManager.addHandler(this);
+	}
+
+	/**
+	 * @param timeBinSize size of the time bins in seconds
+	 * @param maxTime events after this time are collected in one additional, last time bin
+	 */
+	public LinkStatsStore(final int timeBinSize, final int maxTime, final Network network) {
+		this.timeBinSize = timeBinSize;
+		this.maxTime = maxTime;
+		this.numberOfTimeBins = (maxTime / timeBinSize) + 2;
+		int maxLinkIndex = -1;
+		for (Id<Link> linkId : network.getLinks().keySet()) {
+			maxLinkIndex = Math.max(maxLinkIndex, linkId.index());
+		}
+		this.numberOfLinks = maxLinkIndex + 1;
+		this.columns.add(new Column(this.numberOfLinks * this.numberOfTimeBins));
+	}
+
+	@Override
+	public void handleEvent(final VehicleEntersTrafficEvent event) {
+		int vehicleIndex = ensureVehicle(event.getVehicleId().index());
+		this.vehicleColumns[vehicleIndex] = event.getNetworkMode() == null ? UNKNOWN_MODE : getOrCreateColumn(event.getNetworkMode());
+		this.vehicleEnterTimes[vehicleIndex] = Double.NaN;
+	}
+
+	@Override
+	public void handleEvent(final LinkEnterEvent event) {
+		int vehicleIndex = ensureVehicle(event.getVehicleId().index());
+		this.vehicleEnterTimes[vehicleIndex] = event.getTime();
+	}
+
+	@Override
+	public void handleEvent(final LinkLeaveEvent event) {
+		int vehicleIndex = ensureVehicle(event.getVehicleId().index());
+		int linkIndex = event.getLinkId().index();
+		if (linkIndex >= this.numberOfLinks) {
+			addBatch();
+			growLinks(linkIndex + 1);
+		}
+		this.batchCells[this.batchSize] = linkIndex * this.numberOfTimeBins + getTimeBin(event.getTime());
+		this.batchColumns[this.batchSize] = this.vehicleColumns[vehicleIndex];
+		this.batchTravelTimes[this.batchSize] = event.getTime() - this.vehicleEnterTimes[vehicleIndex];
+		this.batchSize++;
+		this.vehicleEnterTimes[vehicleIndex] = Double.NaN;
+		if (this.batchSize == BATCH_SIZE) {
+			addBatch();
+		}
+	}
+
+	@Override
+	public void handleEvent(final VehicleLeavesTrafficEvent event) {
+		int vehicleIndex = ensureVehicle(event.getVehicleId().index());
+		this.vehicleEnterTimes[vehicleIndex] = Double.NaN;
+	}
+
+	@Override
+	public void reset(final int iteration) {
+		this.batchSize = 0;
+		for (Column column : this.columns) {
+			column.clear();
+		}
+		Arrays.fill(this.vehicleColumns, UNKNOWN_MODE);
+		Arrays.fill(this.vehicleEnterTimes, Double.NaN);
+	}
+
+	private void addBatch() {
+		Column all = this.columns.get(ALL_MODES);
+		for (int i = 0; i < this.batchSize; i++) {
+			int cell = this.batchCells[i];
+			double travelTime = this.batchTravelTimes[i];
+			all.add(cell, travelTime);
+			int column = this.batchColumns[i];
+			if (column != UNKNOWN_MODE) {
+				this.columns.get(column).add(cell, travelTime);
+			}
+		}
+		this.batchSize = 0;
+	}
+
+	private int getTimeBin(final double time) {
+		if (time > this.maxTime) {
+			return this.numberOfTimeBins - 1;
+		}
+		return (int) time / this.timeBinSize;
+	}
+
+	private int getOrCreateColumn(final String mode) {
+		Integer column = this.columnIndices.get(mode);
+		if (column == null) {
+			column = this.columns.size();
+			this.columnIndices.put(mode, column);
+			this.modes.add(mode);
+			this.columns.add(new Column(this.numberOfLinks * this.numberOfTimeBins));
+		}
+		return column;
+	}
+
+	private int ensureVehicle(final int vehicleIndex) {
+		if (vehicleIndex >= this.vehicleColumns.length) {
+			int oldLength = this.vehicleColumns.length;
+			int newLength = Math.max(vehicleIndex + 1, oldLength * 2);
+			this.vehicleColumns = Arrays.copyOf(this.vehicleColumns, newLength);
+			this.vehicleEnterTimes = Arrays.copyOf(this.vehicleEnterTimes, newLength);
+			Arrays.fill(this.vehicleColumns, oldLength, newLength, UNKNOWN_MODE);
+			Arrays.fill(this.vehicleEnterTimes, oldLength, newLength, Double.NaN);
+		}
+		return vehicleIndex;
+	}
+
+	private void growLinks(final int numberOfLinks) {
+		this.numberOfLinks = numberOfLinks;
+		for (Column column : this.columns) {
+			column.grow(numberOfLinks * this.numberOfTimeBins);
+		}
+	}
+
+	/**
+	 * @return the column of the mode, or <code>null</code> if the mode was not observed.  <code>null</code> as mode
+	 * 		returns the column of all vehicles.
+	 */
+	private Column getColumn(final String mode) {
+		addBatch();
+		if (mode == null) {
+			return this.columns.get(ALL_MODES);
+		}
+		Integer column = this.columnIndices.get(mode);
+		return column == null ? null : this.columns.get(column);
+	}
+
+	private int getFirstCell(final Id<Link> linkId) {
+		int linkIndex = linkId.index();
+		return linkIndex < this.numberOfLinks ? linkIndex * this.numberOfTimeBins : -1;
+	}
+
+	public int getTimeBinSize() {
+		return this.timeBinSize;
+	}
+
+	public int getMaxTime() {
+		return this.maxTime;
+	}
+
+	/**
+	 * @return the number of time bins, including the last one for everything after the max time
+	 */
+	public int getNumberOfTimeBins() {
+		return this.numberOfTimeBins;
+	}
+
+	/**
+	 * @return the observed modes, sorted by name
+	 */
+	public Set<String> getModes() {
+		return new TreeSet<>(this.modes);
+	}
+
+	/**
+	 * @param mode the mode, or <code>null</code> for all vehicles
+	 * @return the number of vehicles leaving the link in the time bin
+	 */
+	public int getVolume(final Id<Link> linkId, final String mode, final int timeBin) {
+		Column column = getColumn(mode);
+		int cell = getFirstCell(linkId);
+		return column == null || cell < 0 ? 0 : column.volumes[cell + timeBin];
+	}
+
+	/**
+	 * @param mode the mode, or <code>null</code> for all vehicles
+	 * @return the average travel time of the vehicles that traversed the link and left it in the time bin, or
+	 * 		{@link Double#NaN} if there are none
+	 */
+	public double getAverageTravelTime(final Id<Link> linkId, final String mode, final int timeBin) {
+		Column column = getColumn(mode);
+		int cell = getFirstCell(linkId);
+		if (column == null || cell < 0 || column.travelTimeCounts[cell + timeBin] == 0) {
+			return Double.NaN;
+		}
+		return column.travelTimeSums[cell + timeBin] / column.travelTimeCounts[cell + timeBin];
+	}
+
+	/**
+	 * @param mode the mode, or <code>null</code> for all vehicles
+	 * @return a copy of the volumes of the link in all time bins, or <code>null</code> if no vehicle of the mode left
+	 * 		the link
+	 */
+	public int[] getVolumes(final Id<Link> linkId, final String mode) {
+		Column column = getColumn(mode);
+		int cell = getFirstCell(linkId);
+		if (column == null || cell < 0) {
+			return null;
+		}
+		int[] volumes = Arrays.copyOfRange(column.volumes, cell, cell + this.numberOfTimeBins);
+		for (int volume : volumes) {
+			if (volume > 0) {
+				return volumes;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the hourly volumes of the link for hours 0 to 23 to the given array, summed over the given modes.  This
+	 * works only if the time bin size divides an hour.
+	 *
+	 * @param modes the modes, or <code>null</code> for all vehicles
+	 */
+	public void addVolumesPerHour(final Id<Link> linkId, final Iterable<String> modes, final double[] volumesPerHour) {
+		if (modes == null) {
+			addVolumesPerHour(linkId, getColumn(null), volumesPerHour);
+		} else {
+			for (String mode : modes) {
+				addVolumesPerHour(linkId, getColumn(mode), volumesPerHour);
+			}
+		}
+	}
+
+	private void addVolumesPerHour(final Id<Link> linkId, final Column column, final double[] volumesPerHour) {
+		int cell = getFirstCell(linkId);
+		if (column == null || cell < 0) {
+			return;
+		}
+		int binsPerHour = 3600 / this.timeBinSize;
+		for (int hour = 0; hour < 24; hour++) {
+			for (int i = 0; i < binsPerHour; i++) {
+				volumesPerHour[hour] += column.volumes[cell + getTimeBin(hour * 3600.0 + i * this.timeBinSize)];
+			}
+		}
+	}
+
+	/**
+	 * @return the ids of all links that were left by at least one vehicle, in the order of their index
+	 */
+	public Set<Id<Link>> getLinkIds() {
+		Column all = getColumn(null);
+		Set<Id<Link>> linkIds = new LinkedHashSet<>();
+		for (int linkIndex = 0; linkIndex < this.numberOfLinks; linkIndex++) {
+			int cell = linkIndex * this.numberOfTimeBins;
+			for (int bin = 0; bin < this.numberOfTimeBins; bin++) {
+				if (all.volumes[cell + bin] > 0) {
+					linkIds.add(Id.get(linkIndex, Link.class));
+					break;
+				}
+			}
+		}
+		return linkIds;
+	}
+
+	private static final class Column {
+		private int[] volumes;
+		private double[] travelTimeSums;
+		private int[] travelTimeCounts;
+
+		Column(int cells) {
+			this.volumes = new int[cells];
+			this.travelTimeSums = new double[cells];
+			this.travelTimeCounts = new int[cells];
+		}
+
+		void add(int cell, double travelTime) {
+			this.volumes[cell]++;
+			if (!Double.isNaN(travelTime)) {
+				this.travelTimeSums[cell] += travelTime;
+				this.travelTimeCounts[cell]++;
+			}
+		}
+
+		void grow(int cells) {
+			this.volumes = Arrays.copyOf(this.volumes, cells);
+			this.travelTimeSums = Arrays.copyOf(this.travelTimeSums, cells);
+			this.travelTimeCounts = Arrays.copyOf(this.travelTimeCounts, cells);
+		}
+
+		void clear() {
+			Arrays.fill(this.volumes, 0);
+			Arrays.fill(this.travelTimeSums, 0.0);
+			Arrays.fill(this.travelTimeCounts, 0);
+		}
+	}
+
+}
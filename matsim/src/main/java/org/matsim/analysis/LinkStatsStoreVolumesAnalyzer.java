@@ -0,0 +1,100 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The {@link VolumesAnalyzer} of the controler, which reads the volumes from the {@link LinkStatsStore} instead of
+ * collecting them a second time.  It is not registered as event handler itself.
+ */
+final class LinkStatsStoreVolumesAnalyzer extends VolumesAnalyzer {
+
+	private final LinkStatsStore store;
+
+	@Inject
+	LinkStatsStoreVolumesAnalyzer(LinkStatsStore store, Network network) {
+		super(store.getTimeBinSize(), store.getMaxTime(), network, false);
+		this.store = store;
+	}
+
+	@Override
+	public void handleEvent(VehicleEntersTrafficEvent event) {
+		// the data is collected by the store
+	}
+
+	@Override
+	public void handleEvent(LinkLeaveEvent event) {
+		// the data is collected by the store
+	}
+
+	@Override
+	public int[] getVolumesForLink(Id<Link> linkId) {
+		return this.store.getVolumes(linkId, null);
+	}
+
+	@Override
+	public int[] getVolumesForLink(Id<Link> linkId, String mode) {
+		return this.store.getVolumes(linkId, mode);
+	}
+
+	@Override
+	public int getVolumesArraySize() {
+		return this.store.getNumberOfTimeBins();
+	}
+
+	@Override
+	public double[] getVolumesPerHourForLink(Id<Link> linkId) {
+		double[] volumes = new double[24];
+		this.store.addVolumesPerHour(linkId, null, volumes);
+		return volumes;
+	}
+
+	@Override
+	public double[] getVolumesPerHourForLink(Id<Link> linkId, String mode) {
+		double[] volumes = new double[24];
+		this.store.addVolumesPerHour(linkId, Collections.singleton(mode), volumes);
+		return volumes;
+	}
+
+	@Override
+	public Set<String> getModes() {
+		return this.store.getModes();
+	}
+
+	@Override
+	public Set<Id<Link>> getLinkIds() {
+		return this.store.getLinkIds();
+	}
+
+	@Override
+	public void reset(int iteration) {
+		// the data is collected by the store
+	}
+}
@@ -21,6 +21,8 @@
 package org.matsim.analysis;
 
 import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +39,7 @@ import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.checkpoint.Checkpointable;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.events.StartupEvent;
@@ -63,7 +66,7 @@ import org.matsim.core.utils.io.UncheckedIOException;
  *
  * @author mrieser
  */
-public class ScoreStatsControlerListener implements StartupListener, IterationEndsListener, ShutdownListener, ScoreStats {
+public class ScoreStatsControlerListener implements StartupListener, IterationEndsListener, ShutdownListener, ScoreStats, Checkpointable {
 
 	public static final String FILENAME_SCORESTATS = "scorestats";
 
@@ -229,4 +232,41 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 		return Collections.unmodifiableMap( this.scoreHistory ) ;
 	}
 
+	@Override
+	public String getCheckpointName() {
+		return "scoreStats";
+	}
+
+	@Override
+	public void writeCheckpoint(int iteration, DataOutput out) throws IOException {
+		for (ScoreItem item : ScoreItem.values()) {
+			Map<Integer, Double> history = this.scoreHistory.get(item);
+			out.writeInt(history.size());
+			for (Map.Entry<Integer, Double> entry : history.entrySet()) {
+				out.writeInt(entry.getKey());
+				out.writeDouble(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Restores the history of the previous iterations, and repeats it in the score statistics file of the restarted run.
+	 */
+	@Override
+	public void readCheckpoint(int iteration, DataInput in) throws IOException {
+		for (ScoreItem item : ScoreItem.values()) {
+			Map<Integer, Double> history = this.scoreHistory.get(item);
+			history.clear();
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				history.put(in.readInt(), in.readDouble());
+			}
+		}
+		for (Integer it : this.scoreHistory.get(ScoreItem.executed).keySet()) {
+			this.out.write(it + "\t" + this.scoreHistory.get(ScoreItem.executed).get(it) + "\t" + this.scoreHistory.get(ScoreItem.worst).get(it) + "\t"
+					+ this.scoreHistory.get(ScoreItem.average).get(it) + "\t" + this.scoreHistory.get(ScoreItem.best).get(it) + "\n");
+		}
+		this.out.flush();
+	}
+
 }
@@ -30,6 +30,7 @@ public class ScoreStatsModule extends AbstractModule {
     public void install() {
         bind(ScoreStatsControlerListener.class).in(Singleton.class);
         addControlerListenerBinding().to(ScoreStatsControlerListener.class);
+        addCheckpointableBinding().to(ScoreStatsControlerListener.class);
         bind(ScoreStats.class).to(ScoreStatsControlerListener.class);
     }
 }
@@ -22,13 +22,15 @@
 
 package org.matsim.analysis;
 
+import com.google.inject.Singleton;
 import org.matsim.core.controler.AbstractModule;
 
 
 public class VolumesAnalyzerModule extends AbstractModule {
     @Override
     public void install() {
-        bind(VolumesAnalyzer.class).asEagerSingleton();
+        bind(LinkStatsStore.class).asEagerSingleton();
+        bind(VolumesAnalyzer.class).to(LinkStatsStoreVolumesAnalyzer.class).in(Singleton.class);
     }
 
 }
@@ -0,0 +1,166 @@
+package org.matsim.api.core.v01;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A map from {@link Id}s to primitive <code>long</code> values. Similar to {@link IdMap}, the values are stored
+ * in an array indexed by {@link Id#index()}, but without boxing them. Which entries are actually set is tracked
+ * in a {@link BitSet}, so a value of <code>0</code> can be distinguished from a missing entry.
+ *
+ * Typical use case are per-link or per-person accumulators in event handlers, where a <code>Map&lt;Id, Long&gt;</code>
+ * would create a new <code>Long</code> object for every update.
+ */
+public class IdLongMap<T> {
+
+	private static final int INCREMENT = 100;
+	private static final float INCREMENT_FACTOR = 1.5f;
+	private final Class<T> idClass;
+	private int size = 0;
+	private long[] data;
+	private final BitSet keys;
+
+	public IdLongMap(Class<T> idClass) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), INCREMENT));
+	}
+
+	public IdLongMap(Class<T> idClass, int size) {
+		this.idClass = idClass;
+		this.data = new long[size];
+		this.keys = new BitSet(size);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public boolean containsKey(Id<T> key) {
+		return this.keys.get(key.index());
+	}
+
+	/**
+	 * @return the value stored for the given key, or <code>0</code> if there is no entry for the key.
+	 */
+	public long get(Id<T> key) {
+		return getOrDefault(key, 0L);
+	}
+
+	public long getOrDefault(Id<T> key, long defaultValue) {
+		int idx = key.index();
+		if (this.keys.get(idx)) {
+			return this.data[idx];
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * @return the previous value stored for the given key, or <code>0</code> if there was no entry for the key.
+	 */
+	public long put(Id<T> key, long value) {
+		int idx = key.index();
+		ensureCapacity(idx);
+		long oldValue = 0L;
+		if (this.keys.get(idx)) {
+			oldValue = this.data[idx];
+		} else {
+			this.keys.set(idx);
+			this.size++;
+		}
+		this.data[idx] = value;
+		return oldValue;
+	}
+
+	/**
+	 * Adds <code>value</code> to the value stored for the given key. If there is no entry for the key yet,
+	 * a new entry is created with <code>value</code> as its value.
+	 *
+	 * @return the new value stored for the given key.
+	 */
+	public long add(Id<T> key, long value) {
+		int idx = key.index();
+		ensureCapacity(idx);
+		if (this.keys.get(idx)) {
+			this.data[idx] += value;
+		} else {
+			this.keys.set(idx);
+			this.size++;
+			this.data[idx] = value;
+		}
+		return this.data[idx];
+	}
+
+	/**
+	 * @return <code>true</code> if there was an entry for the given key.
+	 */
+	public boolean remove(Id<T> key) {
+		int idx = key.index();
+		if (this.keys.get(idx)) {
+			this.keys.clear(idx);
+			this.data[idx] = 0L;
+			this.size--;
+			return true;
+		}
+		return false;
+	}
+
+	public void clear() {
+		this.size = 0;
+		this.keys.clear();
+		Arrays.fill(this.data, 0L);
+	}
+
+	/**
+	 * @return a copy of the keys currently contained in this map.
+	 */
+	public IdSet<T> keySet() {
+		IdSet<T> set = new IdSet<>(this.idClass, this.data.length);
+		for (int idx = this.keys.nextSetBit(0); idx >= 0; idx = this.keys.nextSetBit(idx + 1)) {
+			set.add(Id.get(idx, this.idClass));
+		}
+		return set;
+	}
+
+	public void forEach(ObjLongConsumer<Id<T>> action) {
+		for (int idx = this.keys.nextSetBit(0); idx >= 0; idx = this.keys.nextSetBit(idx + 1)) {
+			action.accept(Id.get(idx, this.idClass), this.data[idx]);
+		}
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= this.data.length) {
+			int newSize = Math.max(index + INCREMENT, (int)(this.data.length * INCREMENT_FACTOR));
+			this.data = Arrays.copyOf(this.data, newSize);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof IdLongMap))
+			return false;
+		IdLongMap<?> m = (IdLongMap<?>) o;
+		if (!this.idClass.equals(m.idClass) || this.size != m.size || !this.keys.equals(m.keys))
+			return false;
+		for (int idx = this.keys.nextSetBit(0); idx >= 0; idx = this.keys.nextSetBit(idx + 1)) {
+			if (this.data[idx] != m.data[idx])
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int idx = this.keys.nextSetBit(0); idx >= 0; idx = this.keys.nextSetBit(idx + 1)) {
+			h += idx ^ Long.hashCode(this.data[idx]);
+		}
+		return h;
+	}
+
+}
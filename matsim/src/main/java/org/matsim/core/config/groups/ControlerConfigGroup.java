@@ -67,6 +67,11 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final String CREATE_GRAPHS = "createGraphs";
 	private static final String DUMP_DATA_AT_END = "dumpDataAtEnd";
 	private static final String COMPRESSION_TYPE = "compressionType";
+	private static final String NUMBER_OF_OUTPUT_WRITER_THREADS = "numberOfOutputWriterThreads";
+	private static final String OUTPUT_WRITER_MEMORY_BUDGET_MB = "outputWriterMemoryBudgetMB";
+	private static final String PROFILING = "profiling";
+	private static final String WRITE_CHECKPOINTS_INTERVAL = "writeCheckpointsInterval";
+	private static final String RESTART_FROM_CHECKPOINT = "restartFromCheckpoint";
 
 	/*package*/ static final String MOBSIM = "mobsim";
 	public enum MobsimType {qsim, JDEQSim, hermes}
@@ -92,6 +97,11 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private int writeSnapshotsInterval = 1;
 	private boolean createGraphs = true;
 	private boolean dumpDataAtEnd = true;
+	private int numberOfOutputWriterThreads = 0;
+	private int outputWriterMemoryBudgetMB = 512;
+	private boolean profiling = false;
+	private int writeCheckpointsInterval = 0;
+	private String restartFromCheckpoint = null;
 	private CompressionType compressionType = CompressionType.gzip;
 	private OverwriteFileSetting overwriteFileSetting = OverwriteFileSetting.failIfDirectoryExists;
 
@@ -135,6 +145,17 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 		map.put(WRITE_SNAPSHOTS_INTERVAL, "iterationNumber % " + WRITE_SNAPSHOTS_INTERVAL + " == 0 defines in which iterations snapshots are written " +
 				"to a file. `0' disables snapshots writing completely");
 		map.put(DUMP_DATA_AT_END, "true if at the end of a run, plans, network, config etc should be dumped to a file");
+		map.put(NUMBER_OF_OUTPUT_WRITER_THREADS, "Default=0. Number of background threads writing plans, link stats, counts comparisons and the "
+				+ "output at the end of the run, so the next iteration can continue in the meantime. `0' writes everything on the controler thread.");
+		map.put(OUTPUT_WRITER_MEMORY_BUDGET_MB, "Default=512. Maximum memory in MB used for snapshots of output waiting to be written "
+				+ "in the background. Output not fitting into it is written directly.");
+		map.put(PROFILING, "Default=false. If true, timings of strategy modules, QSim engines, event handlers and routing requests, as well as "
+				+ "the garbage collection and allocation per iteration phase are written to profiling.csv and the iteration directories, "
+				+ "and emitted as JDK Flight Recorder events.");
+		map.put(WRITE_CHECKPOINTS_INTERVAL, "Default=0. iterationNumber % writeCheckpointsInterval == 0 defines in which iterations a checkpoint "
+				+ "is written to the iteration directory, as well as in the last iteration. `0' disables checkpoints.");
+		map.put(RESTART_FROM_CHECKPOINT, "Default=null. If set, the run is resumed after the iteration of this checkpoint file instead of "
+				+ "starting at the first iteration. The config must be the same as the one of the original run.");
 		return map;
 	}
 
@@ -381,6 +402,59 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	public void setDumpDataAtEnd(boolean dumpDataAtEnd) {
 		this.dumpDataAtEnd = dumpDataAtEnd;
 	}
+
+	@StringGetter(NUMBER_OF_OUTPUT_WRITER_THREADS)
+	public int getNumberOfOutputWriterThreads() {
+		return numberOfOutputWriterThreads;
+	}
+
+	@StringSetter(NUMBER_OF_OUTPUT_WRITER_THREADS)
+	public void setNumberOfOutputWriterThreads(int numberOfOutputWriterThreads) {
+		if (numberOfOutputWriterThreads < 0) {
+			throw new IllegalArgumentException("numberOfOutputWriterThreads must not be negative, but is " + numberOfOutputWriterThreads);
+		}
+		this.numberOfOutputWriterThreads = numberOfOutputWriterThreads;
+	}
+
+	@StringGetter(OUTPUT_WRITER_MEMORY_BUDGET_MB)
+	public int getOutputWriterMemoryBudgetMB() {
+		return outputWriterMemoryBudgetMB;
+	}
+
+	@StringSetter(OUTPUT_WRITER_MEMORY_BUDGET_MB)
+	public void setOutputWriterMemoryBudgetMB(int outputWriterMemoryBudgetMB) {
+		this.outputWriterMemoryBudgetMB = outputWriterMemoryBudgetMB;
+	}
+
+	@StringGetter(PROFILING)
+	public boolean isProfiling() {
+		return profiling;
+	}
+
+	@StringSetter(PROFILING)
+	public void setProfiling(boolean profiling) {
+		this.profiling = profiling;
+	}
+
+	@StringGetter(WRITE_CHECKPOINTS_INTERVAL)
+	public int getWriteCheckpointsInterval() {
+		return writeCheckpointsInterval;
+	}
+
+	@StringSetter(WRITE_CHECKPOINTS_INTERVAL)
+	public void setWriteCheckpointsInterval(int writeCheckpointsInterval) {
+		this.writeCheckpointsInterval = writeCheckpointsInterval;
+	}
+
+	@StringGetter(RESTART_FROM_CHECKPOINT)
+	public String getRestartFromCheckpoint() {
+		return restartFromCheckpoint;
+	}
+
+	@StringSetter(RESTART_FROM_CHECKPOINT)
+	public void setRestartFromCheckpoint(String restartFromCheckpoint) {
+		this.restartFromCheckpoint = restartFromCheckpoint;
+	}
 	// ---
 	int writePlansUntilIteration = 1 ;
 	public int getWritePlansUntilIteration() {
@@ -72,6 +72,9 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 	private static final String WAITING_PT = "waitingPt";
 
 	private static final String WRITE_EXPERIENCED_PLANS = "writeExperiencedPlans";
+	private static final String NUMBER_OF_SCORING_PARTITIONS = "numberOfScoringPartitions";
+
+	private static final String INCREMENTAL_SCORING = "incrementalScoring";
 
 	private static final String MARGINAL_UTL_OF_MONEY = "marginalUtilityOfMoney";
 
@@ -416,6 +419,15 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 				"[utils/unit_of_money] conversion of money (e.g. toll, distance cost) into utils. Normall positive (i.e. toll/cost/fare are processed as negative amounts of money).");
 		map.put(WRITE_EXPERIENCED_PLANS,
 				"write a plans file in each iteration directory which contains what each agent actually did, and the score it received.");
+		map.put(NUMBER_OF_SCORING_PARTITIONS,
+				"number of event handlers the persons are distributed over for scoring.  With a parallel events manager, the partitions "
+						+ "are handled on different threads; handlers of experienced legs and activities then need to be thread-safe.  Default: 1.");
+		map.put(INCREMENTAL_SCORING,
+				"if true, the activities, legs and trips are only passed to the scoring function of a person if the experienced trajectory "
+						+ "differs from the one of the previous iteration or another plan was selected; otherwise the previous score is re-used.  "
+						+ "Events are passed on right away, i.e. before the activities and legs.  Only valid if the scoring functions are "
+						+ "deterministic, only depend on the experienced trajectory and do not depend on the order of events and activities/legs.  "
+						+ "Default: false.");
 
 		return map;
 	}
@@ -782,6 +794,22 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 		delegate.setWriteExperiencedPlans(writeExperiencedPlans);
 	}
 
+	public int getNumberOfScoringPartitions() {
+		return delegate.getNumberOfScoringPartitions();
+	}
+
+	public void setNumberOfScoringPartitions(int numberOfScoringPartitions) {
+		delegate.setNumberOfScoringPartitions(numberOfScoringPartitions);
+	}
+
+	public boolean isIncrementalScoring() {
+		return delegate.isIncrementalScoring();
+	}
+
+	public void setIncrementalScoring(boolean incrementalScoring) {
+		delegate.setIncrementalScoring(incrementalScoring);
+	}
+
 	public double getMarginalUtlOfWaiting_utils_hr() {
 		if (getScoringParameters(null) != null)
 			return getScoringParameters(null).getMarginalUtlOfWaiting_utils_hr();
@@ -1580,6 +1608,10 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 
 		private boolean writeExperiencedPlans = false;
 
+		private int numberOfScoringPartitions = 1;
+
+		private boolean incrementalScoring = false;
+
 		private Double fractionOfIterationsToStartScoreMSA = null;
 
 		private boolean usingOldScoringBelowZeroUtilityDuration = false;
@@ -1653,5 +1685,30 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 			this.writeExperiencedPlans = writeExperiencedPlans;
 		}
 
+		@StringGetter(NUMBER_OF_SCORING_PARTITIONS)
+		public int getNumberOfScoringPartitions() {
+			return numberOfScoringPartitions;
+		}
+
+		@StringSetter(NUMBER_OF_SCORING_PARTITIONS)
+		public void setNumberOfScoringPartitions(int numberOfScoringPartitions) {
+			testForLocked();
+			if (numberOfScoringPartitions < 1) {
+				throw new IllegalArgumentException("numberOfScoringPartitions must be at least 1, but is " + numberOfScoringPartitions);
+			}
+			this.numberOfScoringPartitions = numberOfScoringPartitions;
+		}
+
+		@StringGetter(INCREMENTAL_SCORING)
+		public boolean isIncrementalScoring() {
+			return incrementalScoring;
+		}
+
+		@StringSetter(INCREMENTAL_SCORING)
+		public void setIncrementalScoring(boolean incrementalScoring) {
+			testForLocked();
+			this.incrementalScoring = incrementalScoring;
+		}
+
 	}
 }
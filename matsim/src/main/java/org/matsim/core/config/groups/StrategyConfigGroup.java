@@ -292,6 +292,12 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TMP_FILE_ROOT_DIR, "root directory for temporary files generated by the external executable. Provided as a service; "
 				+ "I don't think this is used by MATSim.") ;
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TIME_OUT, "time out value (in seconds) after which matsim will consider the external strategy as failed") ;
+		map.put(ReflectiveDelegate.CONCURRENT_STRATEGY_EXECUTION, "if true, the strategies of an iteration finish their work concurrently on a shared thread pool, "
+				+ "so the modules of different strategies can use each other's idle threads.  Only set this if the modules of different strategies "
+				+ "do not share state which is not thread-safe.  The results do not depend on this setting.") ;
+		map.put(ReflectiveDelegate.NUMBER_OF_THREADS_FOR_PLAN_SELECTION, "number of threads used to remove excess plans, choose the strategy and select the plan of each person.  "
+				+ "0 (default) handles all persons serially with the global random number generator.  Any positive number gives each person "
+				+ "its own random stream, so the results do not depend on the number of threads (but differ from 0).  Requires thread-safe plan selectors.") ;
 		return map ;
 	}
 
@@ -404,6 +410,22 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		delegate.setFractionOfIterationsToDisableInnovation(fraction);
 	}
 
+	public boolean isConcurrentStrategyExecution() {
+		return delegate.isConcurrentStrategyExecution();
+	}
+
+	public void setConcurrentStrategyExecution(boolean concurrentStrategyExecution) {
+		delegate.setConcurrentStrategyExecution(concurrentStrategyExecution);
+	}
+
+	public int getNumberOfThreadsForPlanSelection() {
+		return delegate.getNumberOfThreadsForPlanSelection();
+	}
+
+	public void setNumberOfThreadsForPlanSelection(int numberOfThreadsForPlanSelection) {
+		delegate.setNumberOfThreadsForPlanSelection(numberOfThreadsForPlanSelection);
+	}
+
 	@Override
 	public final Map<String, String> getParams() {
 		return delegate.getParams();
@@ -416,6 +438,8 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		 static final String EXTERNAL_EXE_TIME_OUT = "ExternalExeTimeOut";
 		 static final String ITERATION_FRACTION_TO_DISABLE_INNOVATION = "fractionOfIterationsToDisableInnovation" ;
 		 static final String PLAN_SELECTOR_FOR_REMOVAL = "planSelectorForRemoval" ;
+		 static final String CONCURRENT_STRATEGY_EXECUTION = "concurrentStrategyExecution" ;
+		 static final String NUMBER_OF_THREADS_FOR_PLAN_SELECTION = "numberOfThreadsForPlanSelection" ;
 
 		private int maxAgentPlanMemorySize = 5;
 		private String externalExeConfigTemplate = null;
@@ -423,6 +447,10 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		private long externalExeTimeOut = 3600;
 
 		private String planSelectorForRemoval = "WorstPlanSelector";
+
+		private boolean concurrentStrategyExecution = false;
+
+		private int numberOfThreadsForPlanSelection = 0;
 		
 		//---
 		private double fraction = Double.POSITIVE_INFINITY ;
@@ -492,6 +520,29 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		public void setFractionOfIterationsToDisableInnovation(double fraction) {
 			this.fraction = fraction;
 		}
+
+		@StringGetter( CONCURRENT_STRATEGY_EXECUTION )
+		public boolean isConcurrentStrategyExecution() {
+			return concurrentStrategyExecution;
+		}
+
+		@StringSetter( CONCURRENT_STRATEGY_EXECUTION )
+		public void setConcurrentStrategyExecution(boolean concurrentStrategyExecution) {
+			this.concurrentStrategyExecution = concurrentStrategyExecution;
+		}
+
+		@StringGetter( NUMBER_OF_THREADS_FOR_PLAN_SELECTION )
+		public int getNumberOfThreadsForPlanSelection() {
+			return numberOfThreadsForPlanSelection;
+		}
+
+		@StringSetter( NUMBER_OF_THREADS_FOR_PLAN_SELECTION )
+		public void setNumberOfThreadsForPlanSelection(int numberOfThreadsForPlanSelection) {
+			if (numberOfThreadsForPlanSelection < 0) {
+				throw new IllegalArgumentException("numberOfThreadsForPlanSelection must not be negative, but is " + numberOfThreadsForPlanSelection);
+			}
+			this.numberOfThreadsForPlanSelection = numberOfThreadsForPlanSelection;
+		}
 	}
 }
 
@@ -56,6 +56,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String ANALYZEDMODES = "analyzedModes";
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
+	private static final String NUMBER_OF_SHARDS = "numberOfShards";
 
 	private TravelTimeCalculatorType travelTimeCalculator = TravelTimeCalculatorType.TravelTimeCalculatorArray;
 	private String travelTimeAggregator = "optimistic";
@@ -69,6 +70,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private Set<String> analyzedModes = new LinkedHashSet<>(  ) ;
 	private boolean filterModes = false;
 	private boolean separateModes = true;
+	private int numberOfShards = 1;
 
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
@@ -90,6 +92,8 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 							 "respected by the travel time collector. 'car' is default which includes also buses from the pt simulation module.");
 		map.put(FILTERMODES, "(only for backwards compatiblity; only used if " + SEPARATEMODES + "==false)  Only modes included in analyzedModes are included." ) ;
 		map.put(SEPARATEMODES, "(only for backwards compatibility) If false, link travel times are measured and aggregated over all vehicles using the link." ) ;
+		map.put(NUMBER_OF_SHARDS, "Number of handlers over which the links are distributed for collecting the travel times. With more than one, " +
+				"the handlers can run on different threads of the parallel events manager. Not possible together with " + CALCULATE_LINKTOLINK_TRAVELTIMES + ". Default: 1.");
 		map.put( TRAVEL_TIME_CALCULATOR, "possible values: " + Arrays.stream( TravelTimeCalculatorType.values() ).map( type -> type.toString() + ' ' ).collect( Collectors.joining() ) );
 		return map;
 	}
@@ -213,5 +217,18 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	public void setSeparateModes(boolean separateModes) {
 		this.separateModes = separateModes;
 	}
+	// ---
+	@StringGetter(NUMBER_OF_SHARDS)
+	public int getNumberOfShards() {
+		return this.numberOfShards;
+	}
+
+	@StringSetter(NUMBER_OF_SHARDS)
+	public void setNumberOfShards(int numberOfShards) {
+		if (numberOfShards < 1) {
+			throw new IllegalArgumentException("numberOfShards must be at least 1, but is " + numberOfShards);
+		}
+		this.numberOfShards = numberOfShards;
+	}
 
 }
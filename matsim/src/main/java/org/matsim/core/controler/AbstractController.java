@@ -27,6 +27,8 @@ import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.utils.io.UncheckedIOException;
 import org.matsim.utils.MemoryObserver;
 
+import java.util.OptionalInt;
+
 /*package*/ abstract class AbstractController {
     // we already had one case where a method of this was removed, causing downstream failures; better just not
 	// offer it at all; framework with injector should now be flexible enough.  kai, mar'18
@@ -77,8 +79,9 @@ import org.matsim.utils.MemoryObserver;
                 loadCoreListeners();
                 controlerListenerManagerImpl.fireControlerStartupEvent();
                 ControlerUtils.checkConfigConsistencyAndWriteToLog(config, "config dump before iterations start");
+                OptionalInt restoredIteration = restoreCheckpoint();
                 prepareForSim();
-                doIterations(config);
+                doIterations(config, restoredIteration);
             }
 
             @Override
@@ -110,8 +113,23 @@ import org.matsim.utils.MemoryObserver;
 	protected abstract boolean mayTerminateAfterIteration(int iteration);
 	protected abstract boolean shouldTerminate(int iteration);
 
-    private void doIterations(Config config) throws MatsimRuntimeModifications.UnexpectedShutdownException {
-    	int iteration = config.controler().getFirstIteration();
+    /**
+     * Restores the state of a previous run before the iterations start.  Does nothing by default.
+     *
+     * @return the iteration of the restored state, the iterations continue with the next one
+     */
+    protected OptionalInt restoreCheckpoint() {
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Called after the iteration ends listeners of every iteration.  Does nothing by default.
+     */
+    protected void writeCheckpoint(int iteration, boolean isLastIteration) {
+    }
+
+    private void doIterations(Config config, OptionalInt restoredIteration) throws MatsimRuntimeModifications.UnexpectedShutdownException {
+    	int iteration = restoredIteration.isPresent() ? restoredIteration.getAsInt() + 1 : config.controler().getFirstIteration();
     	
     	// Special case if lastIteration == -1 -> Do not run any Mobsim
     	boolean doTerminate = config.controler().getLastIteration() < iteration;
@@ -169,6 +187,8 @@ import org.matsim.utils.MemoryObserver;
             }
         });
 
+        writeCheckpoint(iteration, isLastIteration);
+
         this.getStopwatch().endIteration();
         try {
             this.getStopwatch().writeTextFile(this.getControlerIO().getOutputFilename("stopwatch"));
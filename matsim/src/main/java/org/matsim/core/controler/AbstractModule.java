@@ -33,6 +33,7 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
+import org.matsim.core.controler.checkpoint.Checkpointable;
 import org.matsim.core.controler.listener.ControlerListener;
 import org.matsim.core.events.handler.EventHandler;
 import org.matsim.core.mobsim.framework.Mobsim;
@@ -93,6 +94,7 @@ public abstract class AbstractModule implements Module {
 	private Multibinder<SnapshotWriter> snapshotWriterMultibinder;
 	private MapBinder<Class<?>, AttributeConverter<?>> attributeConverterMapBinder;
 	private Multibinder<AbstractQSimModule> qsimModulesMultibinder;
+	private Multibinder<Checkpointable> checkpointableMultibinder;
 
 	@Inject
 	com.google.inject.Injector bootstrapInjector;
@@ -125,6 +127,7 @@ public abstract class AbstractModule implements Module {
 						new TypeLiteral<Class<?>>(){},
 						new TypeLiteral<AttributeConverter<?>>() {} );
 		this.qsimModulesMultibinder = Multibinder.newSetBinder(this.binder, AbstractQSimModule.class);
+		this.checkpointableMultibinder = Multibinder.newSetBinder(this.binder, Checkpointable.class);
 		this.install();
 	}
 
@@ -154,6 +157,13 @@ public abstract class AbstractModule implements Module {
 		return controlerListenerMultibinder.addBinding();
 	}
 
+	/**
+	 * @see Checkpointable
+	 */
+	protected final LinkedBindingBuilder<Checkpointable> addCheckpointableBinding() {
+		return checkpointableMultibinder.addBinding();
+	}
+
 	/**
 	 * @see StrategyManagerModule
 	 */
@@ -22,6 +22,8 @@
 
 package org.matsim.core.controler;
 
+import com.google.inject.Singleton;
+import org.matsim.analysis.IterationProfilingModule;
 import org.matsim.analysis.IterationTravelStatsModule;
 import org.matsim.analysis.LegHistogramModule;
 import org.matsim.analysis.LegTimesModule;
@@ -56,7 +58,9 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new StrategyManagerModule());
         install(new TimeInterpretationModule());
         if (getConfig().replanningAnnealer().isActivateAnnealingModule()) {
+            bind(ReplanningAnnealer.class).in(Singleton.class);
             addControlerListenerBinding().to(ReplanningAnnealer.class);
+            addCheckpointableBinding().to(ReplanningAnnealer.class);
         }
 
         // I think that the ones coming here are all for analysis only, and thus not central to the iterations. kai, apr'18
@@ -72,6 +76,7 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new VspPlansCleanerModule());
         install(new SnapshotWritersModule());
         install(new DependencyGraphModule());
+        install(new IterationProfilingModule());
 
     	/* Comment by kai (mz thinks it is not helpful): The framework eventually calls the above method, which calls the include 
         * methods , which (fairly quickly) call their own install methods, etc.  Eventually, everything is resolved down to the
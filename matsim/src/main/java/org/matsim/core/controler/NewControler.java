@@ -24,11 +24,14 @@ import org.matsim.analysis.IterationStopWatch;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.consistency.ConfigConsistencyCheckerImpl;
 import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.checkpoint.CheckpointManager;
 import org.matsim.core.controler.corelisteners.*;
 import org.matsim.core.controler.listener.ControlerListener;
+import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.mobsim.framework.Mobsim;
 
 import javax.inject.Inject;
+import java.util.OptionalInt;
 import java.util.Set;
 
 class NewControler extends AbstractController implements ControlerI {
@@ -49,6 +52,8 @@ class NewControler extends AbstractController implements ControlerI {
 	private final Set<ControlerListener> controlerListenersDeclaredByModules;
 	private final ControlerConfigGroup controlerConfigGroup;
 	private final OutputDirectoryHierarchy outputDirectoryHierarchy;
+	private final OutputDumpService outputDumpService;
+	private final CheckpointManager checkpointManager;
 	
 	@Inject
 	NewControler(Config config, ControlerListenerManagerImpl controlerListenerManager, MatsimServices matsimServices,
@@ -57,7 +62,7 @@ class NewControler extends AbstractController implements ControlerI {
 			 PlansScoring plansScoring, TerminationCriterion terminationCriterion, DumpDataAtEnd dumpDataAtEnd,
 			 Set<ControlerListener> controlerListenersDeclaredByModules, ControlerConfigGroup controlerConfigGroup,
 			 OutputDirectoryHierarchy outputDirectoryHierarchy
-			, PrepareForMobsim prepareForMobsim
+			, PrepareForMobsim prepareForMobsim, OutputDumpService outputDumpService, CheckpointManager checkpointManager
  ) {
 		super(controlerListenerManager, stopWatch, matsimServices);
 		this.config = config;
@@ -74,12 +79,18 @@ class NewControler extends AbstractController implements ControlerI {
 		this.controlerListenersDeclaredByModules = controlerListenersDeclaredByModules;
 		this.controlerConfigGroup = controlerConfigGroup;
 		this.outputDirectoryHierarchy = outputDirectoryHierarchy;
+		this.outputDumpService = outputDumpService;
+		this.checkpointManager = checkpointManager;
 	}
 
 	@Override
 	public final void run() {
 		super.setupOutputDirectory(outputDirectoryHierarchy);
-		super.run(this.config);
+		try {
+			super.run(this.config);
+		} finally {
+			this.outputDumpService.shutdown();
+		}
 		OutputDirectoryLogging.closeOutputDirLogging();
 	}
 
@@ -93,6 +104,9 @@ class NewControler extends AbstractController implements ControlerI {
 		 * IMPORTANT: The execution order is reverse to the order the listeners
 		 * are added to the list.
 		 */
+		// final barrier for output still being written in the background
+		this.addCoreControlerListener((ShutdownListener) event -> this.outputDumpService.awaitCompletion());
+
 		if (controlerConfigGroup.getDumpDataAtEnd()) {
 			this.addCoreControlerListener(this.dumpDataAtEnd);
 		}
@@ -133,4 +147,18 @@ class NewControler extends AbstractController implements ControlerI {
 	protected final boolean shouldTerminate(int iteration) {
 		return terminationCriterion.doTerminate(iteration);
 	}
+
+	@Override
+	protected final OptionalInt restoreCheckpoint() {
+		return this.checkpointManager.restoreCheckpoint();
+	}
+
+	@Override
+	protected final void writeCheckpoint(int iteration, boolean isLastIteration) {
+		if (this.checkpointManager.isCheckpointIteration(iteration, isLastIteration)) {
+			this.getStopwatch().beginOperation("checkpoint");
+			this.checkpointManager.writeCheckpoint(iteration);
+			this.getStopwatch().endOperation("checkpoint");
+		}
+	}
 }
@@ -22,6 +22,7 @@
  package org.matsim.core.controler;
 
 import org.matsim.analysis.IterationStopWatch;
+import org.matsim.core.controler.checkpoint.CheckpointManager;
 
 public final class NewControlerModule extends AbstractModule {
 	@Override
@@ -32,6 +33,8 @@ public final class NewControlerModule extends AbstractModule {
 		
 		bind(IterationStopWatch.class).asEagerSingleton();
 		bind(OutputDirectoryHierarchy.class).asEagerSingleton();
+		bind(OutputDumpService.class).asEagerSingleton();
+		bind(CheckpointManager.class);
 		bind(TerminationCriterion.class).to(TerminateAtFixedIterationNumber.class);
 		bind(MatsimServices.class).to(MatsimServicesImpl.class);
 
@@ -0,0 +1,295 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.utils.io.IOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Writes output files on background threads, so the next iteration can already continue while the output of the
+ * previous one is still being compressed and written to disk.
+ * <p>
+ * Only immutable snapshots may be handed over to the background threads:  Either the data is serialized into memory
+ * buffers on the calling thread ({@link #write(String, Consumer)}), or the caller guarantees that the data used by a
+ * task is not modified anymore ({@link #submit(String, Runnable)}).  The memory used by the buffers of pending writes
+ * is bounded; if a snapshot does not fit into the remaining budget, it is written directly on the calling thread.
+ * <p>
+ * {@link #awaitCompletion()} waits until all pending output is written and re-throws the first exception of a
+ * background task, if any.  The controler calls it at shutdown.  With zero threads (the default), everything is
+ * written on the calling thread as before.
+ *
+ * @see ControlerConfigGroup#getNumberOfOutputWriterThreads()
+ */
+@Singleton
+public final class OutputDumpService {
+
+	private static final Logger log = Logger.getLogger(OutputDumpService.class);
+
+	private static final int BLOCK_SIZE = 1024 * 1024;
+
+	private final ExecutorService executor;
+	private final long memoryBudget;
+	private final List<Future<?>> pendingTasks = new ArrayList<>();
+	private long reservedBytes = 0;
+
+	@Inject
+	OutputDumpService(ControlerConfigGroup config) {
+		this(config.getNumberOfOutputWriterThreads(), config.getOutputWriterMemoryBudgetMB() * 1024L * 1024L);
+	}
+
+	/**
+	 * @param numberOfThreads number of background threads, <code>0</code> writes everything on the calling thread
+	 * @param memoryBudget maximum number of bytes held by the buffers of pending writes
+	 */
+	public OutputDumpService(int numberOfThreads, long memoryBudget) {
+		if (numberOfThreads < 0) {
+			throw new IllegalArgumentException("numberOfThreads must not be negative, but is " + numberOfThreads);
+		}
+		this.memoryBudget = memoryBudget;
+		if (numberOfThreads == 0) {
+			this.executor = null;
+		} else {
+			AtomicInteger count = new AtomicInteger(0);
+			this.executor = Executors.newFixedThreadPool(numberOfThreads, r -> {
+				Thread thread = new Thread(r, "OutputDumpService-" + count.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	public boolean isAsync() {
+		return this.executor != null;
+	}
+
+	/**
+	 * Runs the task on a background thread.  The task must only use data that is not modified anymore by the
+	 * calling thread, at least until {@link #awaitCompletion()} returns.
+	 */
+	public void submit(String description, Runnable task) {
+		if (this.executor == null) {
+			task.run();
+			return;
+		}
+		Future<?> future = this.executor.submit(() -> {
+			long start = System.currentTimeMillis();
+			task.run();
+			log.info("finished writing " + description + " in the background after " + (System.currentTimeMillis() - start) + " ms.");
+		});
+		synchronized (this) {
+			this.pendingTasks.add(future);
+		}
+	}
+
+	/**
+	 * Lets the serializer write the data into memory buffers on the calling thread, and then compresses and writes
+	 * the buffers to the file on a background thread.  The serializer may close the output stream it is given.
+	 */
+	public void write(String filename, Consumer<OutputStream> serializer) {
+		if (this.executor == null) {
+			try (OutputStream out = IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false)) {
+				serializer.accept(out);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return;
+		}
+		SnapshotStream snapshot = new SnapshotStream(filename);
+		try {
+			serializer.accept(snapshot);
+		} catch (RuntimeException e) {
+			snapshot.discard();
+			throw e;
+		}
+		try {
+			snapshot.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (snapshot.fileStream == null) {
+			submit(filename, () -> snapshot.writeBlocks());
+		}
+	}
+
+	/**
+	 * Waits until all output submitted so far is written.
+	 *
+	 * @throws RuntimeException if a background task failed
+	 */
+	public void awaitCompletion() {
+		List<Future<?>> tasks;
+		synchronized (this) {
+			tasks = new ArrayList<>(this.pendingTasks);
+			this.pendingTasks.clear();
+		}
+		RuntimeException failure = null;
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+				} else {
+					failure.addSuppressed(e.getCause());
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Waits until all pending output is written and stops the background threads.
+	 */
+	public void shutdown() {
+		try {
+			awaitCompletion();
+		} finally {
+			if (this.executor != null) {
+				this.executor.shutdown();
+			}
+		}
+	}
+
+	private synchronized boolean tryReserve(long bytes) {
+		if (this.reservedBytes + bytes > this.memoryBudget) {
+			return false;
+		}
+		this.reservedBytes += bytes;
+		return true;
+	}
+
+	private synchronized void release(long bytes) {
+		this.reservedBytes -= bytes;
+	}
+
+	/**
+	 * Collects the data in blocks as long as the memory budget allows it, and falls back to writing to the file
+	 * directly otherwise.
+	 */
+	private final class SnapshotStream extends OutputStream {
+
+		private final String filename;
+		private final List<byte[]> blocks = new ArrayList<>();
+		private byte[] block = null;
+		private int blockPos = 0;
+		private OutputStream fileStream = null;
+		private boolean closed = false;
+
+		SnapshotStream(String filename) {
+			this.filename = filename;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0 && this.fileStream == null) {
+				if (this.block == null || this.blockPos == BLOCK_SIZE) {
+					if (!tryReserve(BLOCK_SIZE)) {
+						spill();
+						break;
+					}
+					this.block = new byte[BLOCK_SIZE];
+					this.blockPos = 0;
+					this.blocks.add(this.block);
+				}
+				int count = Math.min(len, BLOCK_SIZE - this.blockPos);
+				System.arraycopy(b, off, this.block, this.blockPos, count);
+				this.blockPos += count;
+				off += count;
+				len -= count;
+			}
+			if (len > 0) {
+				this.fileStream.write(b, off, len);
+			}
+		}
+
+		private void spill() throws IOException {
+			log.info("memory budget for background output writing exhausted, writing " + this.filename + " directly.");
+			this.fileStream = IOUtils.getOutputStream(IOUtils.getFileUrl(this.filename), false);
+			writeBlocksTo(this.fileStream);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed && this.fileStream != null) {
+				this.fileStream.close();
+			}
+			this.closed = true;
+		}
+
+		void discard() {
+			release((long) this.blocks.size() * BLOCK_SIZE);
+			this.blocks.clear();
+			if (this.fileStream != null) {
+				try {
+					this.fileStream.close();
+				} catch (IOException e) {
+					log.warn("Could not close " + this.filename, e);
+				}
+			}
+		}
+
+		void writeBlocks() {
+			try (OutputStream out = IOUtils.getOutputStream(IOUtils.getFileUrl(this.filename), false)) {
+				writeBlocksTo(out);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void writeBlocksTo(OutputStream out) throws IOException {
+			try {
+				for (int i = 0; i < this.blocks.size(); i++) {
+					int length = i == this.blocks.size() - 1 ? this.blockPos : BLOCK_SIZE;
+					out.write(this.blocks.get(i), 0, length);
+				}
+			} finally {
+				release((long) this.blocks.size() * BLOCK_SIZE);
+				this.blocks.clear();
+				this.block = null;
+			}
+		}
+	}
+
+}
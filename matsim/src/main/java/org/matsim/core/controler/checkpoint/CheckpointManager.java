@@ -0,0 +1,199 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.checkpoint;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.matsim.utils.objectattributes.ObjectAttributesConverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Writes the state of a run at the end of an iteration into a binary checkpoint file, and restores it when a run is
+ * restarted from such a file.  A checkpoint contains all plans of the population (with scores and routes) and the
+ * state of all registered {@link Checkpointable}s.  The random number generator needs not be part of it, as it is
+ * reset based on the random seed and the iteration number at the beginning of every iteration anyway.
+ * <p>
+ * Restarting from a checkpoint of iteration <i>n</i> with an unchanged config continues with iteration <i>n+1</i>
+ * and produces the same results as the original run, as long as all components that carry state between iterations
+ * are checkpointable.
+ *
+ * @see org.matsim.core.config.groups.ControlerConfigGroup#getWriteCheckpointsInterval()
+ * @see org.matsim.core.config.groups.ControlerConfigGroup#getRestartFromCheckpoint()
+ */
+@Singleton
+public final class CheckpointManager {
+
+	private static final Logger log = Logger.getLogger(CheckpointManager.class);
+
+	public static final String FILENAME = "checkpoint.bin.lz4";
+
+	private static final int MAGIC = 0x4d434b50;
+	private static final int VERSION = 1;
+
+	private final Config config;
+	private final Population population;
+	private final OutputDirectoryHierarchy controlerIO;
+	private final Provider<Set<Checkpointable>> checkpointables;
+	private final ObjectAttributesConverter attributesConverter;
+
+	@Inject
+	CheckpointManager(Config config, Population population, OutputDirectoryHierarchy controlerIO,
+			Provider<Set<Checkpointable>> checkpointables, Map<Class<?>, AttributeConverter<?>> attributeConverters) {
+		this.config = config;
+		this.population = population;
+		this.controlerIO = controlerIO;
+		this.checkpointables = checkpointables;
+		this.attributesConverter = new ObjectAttributesConverter(attributeConverters);
+	}
+
+	public boolean isCheckpointIteration(int iteration, boolean isLastIteration) {
+		int interval = this.config.controler().getWriteCheckpointsInterval();
+		return interval > 0 && (iteration % interval == 0 || isLastIteration);
+	}
+
+	/**
+	 * Writes the checkpoint of the iteration into the iteration directory.
+	 */
+	public void writeCheckpoint(int iteration) {
+		String filename = this.controlerIO.getIterationFilename(iteration, FILENAME);
+		log.info("writing checkpoint of iteration " + iteration + " to " + filename);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(iteration);
+			out.writeLong(this.config.global().getRandomSeed());
+
+			new PopulationCheckpointIO.Writer(out, this.attributesConverter).writePopulation(this.population);
+
+			List<Checkpointable> sorted = new ArrayList<>(this.checkpointables.get());
+			sorted.sort(Comparator.comparing(Checkpointable::getCheckpointName));
+			out.writeInt(sorted.size());
+			String previousName = null;
+			for (Checkpointable checkpointable : sorted) {
+				String name = checkpointable.getCheckpointName();
+				if (name.equals(previousName)) {
+					throw new IllegalStateException("There is more than one checkpointable with the name " + name);
+				}
+				previousName = name;
+				// every section is prefixed with its length, so a restarted run can skip sections it does not know
+				ByteArrayOutputStream section = new ByteArrayOutputStream();
+				DataOutputStream sectionOut = new DataOutputStream(section);
+				checkpointable.writeCheckpoint(iteration, sectionOut);
+				sectionOut.flush();
+				out.writeUTF(name);
+				out.writeInt(section.size());
+				section.writeTo(out);
+			}
+			out.writeInt(MAGIC);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Restores the state from the checkpoint configured in the controler config group, if any.
+	 *
+	 * @return the iteration of the checkpoint, or an empty value if the run is not restarted
+	 */
+	public OptionalInt restoreCheckpoint() {
+		String checkpoint = this.config.controler().getRestartFromCheckpoint();
+		if (checkpoint == null) {
+			return OptionalInt.empty();
+		}
+		URL url = ConfigGroup.getInputFileURL(this.config.getContext(), checkpoint);
+		log.info("restoring checkpoint from " + url);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(IOUtils.getInputStream(url)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IllegalStateException(checkpoint + " is not a checkpoint file.");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IllegalStateException("Unsupported checkpoint version " + version + " in " + checkpoint);
+			}
+			int iteration = in.readInt();
+			long randomSeed = in.readLong();
+			if (randomSeed != this.config.global().getRandomSeed()) {
+				log.warn("The checkpoint was written with random seed " + randomSeed + ", but the random seed is "
+						+ this.config.global().getRandomSeed() + ". The restarted run will not reproduce the original run.");
+			}
+
+			new PopulationCheckpointIO.Reader(in, this.attributesConverter).readPopulation(this.population);
+
+			Map<String, Checkpointable> byName = new HashMap<>();
+			for (Checkpointable checkpointable : this.checkpointables.get()) {
+				byName.put(checkpointable.getCheckpointName(), checkpointable);
+			}
+			int sections = in.readInt();
+			for (int i = 0; i < sections; i++) {
+				String name = in.readUTF();
+				byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+				Checkpointable checkpointable = byName.remove(name);
+				if (checkpointable == null) {
+					log.warn("There is no checkpointable for the state " + name + " in the checkpoint, it is ignored.");
+					continue;
+				}
+				InputStream section = new ByteArrayInputStream(data);
+				checkpointable.readCheckpoint(iteration, new DataInputStream(section));
+				if (section.available() != 0) {
+					throw new IllegalStateException("The checkpointable " + name + " did not read its complete state.");
+				}
+			}
+			for (String name : byName.keySet()) {
+				log.warn("The checkpoint does not contain any state for " + name + ", it starts with its initial state.");
+			}
+			if (in.readInt() != MAGIC) {
+				throw new IllegalStateException(checkpoint + " is truncated or corrupt.");
+			}
+			log.info("restored checkpoint of iteration " + iteration);
+			return OptionalInt.of(iteration);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.checkpoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * State that has to survive a restart from a checkpoint, in addition to the population.  Components that carry
+ * state from one iteration to the next (e.g. the travel times observed in the last mobsim, or the current weights
+ * of the strategies) implement this interface and register themselves with
+ * {@link org.matsim.core.controler.AbstractModule#addCheckpointableBinding()}.
+ * <p>
+ * The state is written at the end of an iteration, after all iteration ends listeners, and read after the startup
+ * listeners of the restarted run, before the first restarted iteration begins.  The same instance should thus be
+ * used as listener and as checkpointable, i.e. it should be bound as singleton.
+ *
+ * @see CheckpointManager
+ */
+public interface Checkpointable {
+
+	/**
+	 * @return a name identifying the state in the checkpoint, must be unique among all registered checkpointables
+	 */
+	String getCheckpointName();
+
+	/**
+	 * @param iteration the iteration that just ended
+	 */
+	void writeCheckpoint(int iteration, DataOutput out) throws IOException;
+
+	/**
+	 * Restores the state written by {@link #writeCheckpoint(int, DataOutput)}.  The data must be read completely.
+	 *
+	 * @param iteration the iteration of the checkpoint, the restarted run continues with the next one
+	 */
+	void readCheckpoint(int iteration, DataInput in) throws IOException;
+
+}
@@ -0,0 +1,426 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.checkpoint;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.ObjectAttributesConverter;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary serialization of all plans of a population, including scores, routes and attributes.
+ * <p>
+ * Ids, activity types, modes and other short strings are written only once and referenced by their index later on.
+ * Ids are never written by their {@link Id#index()}, as the indices depend on the order in which the ids are created
+ * and will be different in the restarted run.
+ */
+final class PopulationCheckpointIO {
+
+	private static final Logger log = Logger.getLogger(PopulationCheckpointIO.class);
+
+	private static final byte ACTIVITY = 1;
+	private static final byte LEG = 2;
+
+	private static final byte NO_ROUTE = 0;
+	private static final byte NETWORK_ROUTE = 1;
+	private static final byte GENERIC_ROUTE = 2;
+
+	private static final int NULL_STRING = -1;
+	private static final int NEW_STRING = -2;
+
+	private PopulationCheckpointIO() {
+	}
+
+	static final class Writer {
+
+		private final DataOutput out;
+		private final ObjectAttributesConverter attributesConverter;
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		Writer(DataOutput out, ObjectAttributesConverter attributesConverter) {
+			this.out = out;
+			this.attributesConverter = attributesConverter;
+		}
+
+		void writePopulation(Population population) throws IOException {
+			this.out.writeInt(population.getPersons().size());
+			for (Person person : population.getPersons().values()) {
+				writeString(person.getId().toString());
+				List<? extends Plan> plans = person.getPlans();
+				int selectedIndex = -1;
+				for (int i = 0; i < plans.size(); i++) {
+					if (plans.get(i) == person.getSelectedPlan()) {
+						selectedIndex = i;
+					}
+				}
+				this.out.writeInt(plans.size());
+				this.out.writeInt(selectedIndex);
+				for (Plan plan : plans) {
+					writePlan(plan);
+				}
+			}
+		}
+
+		private void writePlan(Plan plan) throws IOException {
+			writeString(plan.getType());
+			Double score = plan.getScore();
+			this.out.writeBoolean(score != null);
+			if (score != null) {
+				this.out.writeDouble(score);
+			}
+			writeAttributes(plan.getAttributes());
+			List<PlanElement> elements = plan.getPlanElements();
+			this.out.writeInt(elements.size());
+			for (PlanElement element : elements) {
+				if (element instanceof Activity) {
+					writeActivity((Activity) element);
+				} else {
+					writeLeg((Leg) element);
+				}
+			}
+		}
+
+		private void writeActivity(Activity activity) throws IOException {
+			this.out.writeByte(ACTIVITY);
+			writeString(activity.getType());
+			writeCoord(activity.getCoord());
+			writeId(activity.getLinkId());
+			writeId(activity.getFacilityId());
+			writeTime(activity.getStartTime());
+			writeTime(activity.getEndTime());
+			writeTime(activity.getMaximumDuration());
+			writeAttributes(activity.getAttributes());
+		}
+
+		private void writeLeg(Leg leg) throws IOException {
+			this.out.writeByte(LEG);
+			writeString(leg.getMode());
+			writeTime(leg.getDepartureTime());
+			writeTime(leg.getTravelTime());
+			writeRoute(leg.getRoute());
+			writeAttributes(leg.getAttributes());
+		}
+
+		private void writeRoute(Route route) throws IOException {
+			if (route == null) {
+				this.out.writeByte(NO_ROUTE);
+				return;
+			}
+			if (route instanceof NetworkRoute) {
+				NetworkRoute networkRoute = (NetworkRoute) route;
+				this.out.writeByte(NETWORK_ROUTE);
+				writeString(route.getRouteType());
+				writeId(route.getStartLinkId());
+				writeId(route.getEndLinkId());
+				List<Id<Link>> linkIds = networkRoute.getLinkIds();
+				this.out.writeInt(linkIds.size());
+				for (Id<Link> linkId : linkIds) {
+					writeId(linkId);
+				}
+				writeId(networkRoute.getVehicleId());
+			} else {
+				this.out.writeByte(GENERIC_ROUTE);
+				writeString(route.getRouteType());
+				writeId(route.getStartLinkId());
+				writeId(route.getEndLinkId());
+				writeLongString(route.getRouteDescription());
+			}
+			this.out.writeDouble(route.getDistance());
+			writeTime(route.getTravelTime());
+		}
+
+		private void writeAttributes(Attributes attributes) throws IOException {
+			List<String> keys = new ArrayList<>(attributes.size());
+			List<Object> values = new ArrayList<>(attributes.size());
+			List<String> converted = new ArrayList<>(attributes.size());
+			for (Map.Entry<String, Object> entry : attributes.getAsMap().entrySet()) {
+				String value = this.attributesConverter.convertToString(entry.getValue());
+				if (value == null) {
+					log.warn("attribute " + entry.getKey() + " of type " + entry.getValue().getClass().getName()
+							+ " cannot be converted to a string and is not part of the checkpoint.");
+					continue;
+				}
+				keys.add(entry.getKey());
+				values.add(entry.getValue());
+				converted.add(value);
+			}
+			this.out.writeInt(keys.size());
+			for (int i = 0; i < keys.size(); i++) {
+				writeString(keys.get(i));
+				writeString(values.get(i).getClass().getName());
+				writeLongString(converted.get(i));
+			}
+		}
+
+		private void writeCoord(Coord coord) throws IOException {
+			if (coord == null) {
+				this.out.writeByte(0);
+			} else if (coord.hasZ()) {
+				this.out.writeByte(3);
+				this.out.writeDouble(coord.getX());
+				this.out.writeDouble(coord.getY());
+				this.out.writeDouble(coord.getZ());
+			} else {
+				this.out.writeByte(2);
+				this.out.writeDouble(coord.getX());
+				this.out.writeDouble(coord.getY());
+			}
+		}
+
+		private void writeTime(OptionalTime time) throws IOException {
+			this.out.writeDouble(time.isDefined() ? time.seconds() : Double.NaN);
+		}
+
+		private void writeId(Id<?> id) throws IOException {
+			writeString(id == null ? null : id.toString());
+		}
+
+		private void writeString(String string) throws IOException {
+			if (string == null) {
+				this.out.writeInt(NULL_STRING);
+				return;
+			}
+			Integer index = this.strings.get(string);
+			if (index != null) {
+				this.out.writeInt(index);
+			} else {
+				this.strings.put(string, this.strings.size());
+				this.out.writeInt(NEW_STRING);
+				this.out.writeUTF(string);
+			}
+		}
+
+		private void writeLongString(String string) throws IOException {
+			if (string == null) {
+				this.out.writeInt(-1);
+				return;
+			}
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			this.out.writeInt(bytes.length);
+			this.out.write(bytes);
+		}
+	}
+
+	static final class Reader {
+
+		private final DataInput in;
+		private final ObjectAttributesConverter attributesConverter;
+		private final List<String> strings = new ArrayList<>();
+
+		Reader(DataInput in, ObjectAttributesConverter attributesConverter) {
+			this.in = in;
+			this.attributesConverter = attributesConverter;
+		}
+
+		/**
+		 * Replaces the plans of all persons with the ones from the checkpoint.  The persons themselves (and thus their
+		 * attributes) are kept, so the population must contain exactly the persons of the checkpoint.
+		 */
+		void readPopulation(Population population) throws IOException {
+			int numberOfPersons = this.in.readInt();
+			if (numberOfPersons != population.getPersons().size()) {
+				throw new IllegalStateException("The checkpoint contains " + numberOfPersons + " persons, but the population "
+						+ population.getPersons().size() + ". The population of the original run has to be used.");
+			}
+			PopulationFactory factory = population.getFactory();
+			for (int p = 0; p < numberOfPersons; p++) {
+				Id<Person> personId = Id.createPersonId(readString());
+				Person person = population.getPersons().get(personId);
+				if (person == null) {
+					throw new IllegalStateException("Person " + personId + " of the checkpoint is not part of the population.");
+				}
+				for (Plan plan : new ArrayList<>(person.getPlans())) {
+					person.removePlan(plan);
+				}
+				int numberOfPlans = this.in.readInt();
+				int selectedIndex = this.in.readInt();
+				for (int i = 0; i < numberOfPlans; i++) {
+					Plan plan = readPlan(factory);
+					person.addPlan(plan);
+					if (i == selectedIndex) {
+						person.setSelectedPlan(plan);
+					}
+				}
+			}
+		}
+
+		private Plan readPlan(PopulationFactory factory) throws IOException {
+			Plan plan = factory.createPlan();
+			plan.setType(readString());
+			if (this.in.readBoolean()) {
+				plan.setScore(this.in.readDouble());
+			}
+			readAttributes(plan.getAttributes());
+			int numberOfElements = this.in.readInt();
+			for (int i = 0; i < numberOfElements; i++) {
+				byte type = this.in.readByte();
+				if (type == ACTIVITY) {
+					plan.addActivity(readActivity(factory));
+				} else if (type == LEG) {
+					plan.addLeg(readLeg(factory));
+				} else {
+					throw new IllegalStateException("Unexpected plan element type " + type + ", the checkpoint seems to be corrupt.");
+				}
+			}
+			return plan;
+		}
+
+		private Activity readActivity(PopulationFactory factory) throws IOException {
+			Activity activity = factory.createActivityFromLinkId(readString(), null);
+			activity.setCoord(readCoord());
+			activity.setLinkId(readId(Link.class));
+			activity.setFacilityId(readId(ActivityFacility.class));
+			double startTime = this.in.readDouble();
+			if (!Double.isNaN(startTime)) {
+				activity.setStartTime(startTime);
+			}
+			double endTime = this.in.readDouble();
+			if (!Double.isNaN(endTime)) {
+				activity.setEndTime(endTime);
+			}
+			double maximumDuration = this.in.readDouble();
+			if (!Double.isNaN(maximumDuration)) {
+				activity.setMaximumDuration(maximumDuration);
+			}
+			readAttributes(activity.getAttributes());
+			return activity;
+		}
+
+		private Leg readLeg(PopulationFactory factory) throws IOException {
+			Leg leg = factory.createLeg(readString());
+			double departureTime = this.in.readDouble();
+			if (!Double.isNaN(departureTime)) {
+				leg.setDepartureTime(departureTime);
+			}
+			double travelTime = this.in.readDouble();
+			if (!Double.isNaN(travelTime)) {
+				leg.setTravelTime(travelTime);
+			}
+			leg.setRoute(readRoute(factory.getRouteFactories()));
+			readAttributes(leg.getAttributes());
+			return leg;
+		}
+
+		private Route readRoute(RouteFactories routeFactories) throws IOException {
+			byte kind = this.in.readByte();
+			if (kind == NO_ROUTE) {
+				return null;
+			}
+			String routeType = readString();
+			Id<Link> startLinkId = readId(Link.class);
+			Id<Link> endLinkId = readId(Link.class);
+			Route route = routeFactories.createRoute(routeFactories.getRouteClassForType(routeType), startLinkId, endLinkId);
+			if (kind == NETWORK_ROUTE) {
+				int numberOfLinks = this.in.readInt();
+				List<Id<Link>> linkIds = new ArrayList<>(numberOfLinks);
+				for (int i = 0; i < numberOfLinks; i++) {
+					linkIds.add(readId(Link.class));
+				}
+				NetworkRoute networkRoute = (NetworkRoute) route;
+				networkRoute.setLinkIds(startLinkId, linkIds, endLinkId);
+				networkRoute.setVehicleId(readId(Vehicle.class));
+			} else {
+				route.setRouteDescription(readLongString());
+			}
+			route.setDistance(this.in.readDouble());
+			double travelTime = this.in.readDouble();
+			if (!Double.isNaN(travelTime)) {
+				route.setTravelTime(travelTime);
+			}
+			return route;
+		}
+
+		private void readAttributes(Attributes attributes) throws IOException {
+			int size = this.in.readInt();
+			for (int i = 0; i < size; i++) {
+				String key = readString();
+				String className = readString();
+				Object value = this.attributesConverter.convert(className, readLongString());
+				if (value != null) {
+					attributes.putAttribute(key, value);
+				}
+			}
+		}
+
+		private Coord readCoord() throws IOException {
+			byte dimensions = this.in.readByte();
+			if (dimensions == 0) {
+				return null;
+			}
+			double x = this.in.readDouble();
+			double y = this.in.readDouble();
+			return dimensions == 3 ? new Coord(x, y, this.in.readDouble()) : new Coord(x, y);
+		}
+
+		private <T> Id<T> readId(Class<T> type) throws IOException {
+			String id = readString();
+			return id == null ? null : Id.create(id, type);
+		}
+
+		private String readString() throws IOException {
+			int index = this.in.readInt();
+			if (index == NULL_STRING) {
+				return null;
+			}
+			if (index == NEW_STRING) {
+				String string = this.in.readUTF();
+				this.strings.add(string);
+				return string;
+			}
+			return this.strings.get(index);
+		}
+
+		private String readLongString() throws IOException {
+			int length = this.in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			byte[] bytes = new byte[length];
+			this.in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+}
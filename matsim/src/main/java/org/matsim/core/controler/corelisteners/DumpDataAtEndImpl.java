@@ -33,6 +33,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.VspExperimentalConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.network.NetworkUtils;
@@ -111,6 +112,9 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 	@Inject
 	private OutputDirectoryHierarchy controlerIO;
 
+	@Inject(optional = true)
+	private OutputDumpService outputDumpService = new OutputDumpService(0, 0);
+
 	@Inject
 	private Map<Class<?>,AttributeConverter<?>> attributeConverters = Collections.emptyMap();
 
@@ -119,18 +123,19 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 		if ( event.isUnexpected() ) {
 			return ;
 		}
-		dumpPlans();
-		dumpNetwork();
-		dumpConfig();
-		dumpFacilities();
-		dumpNetworkChangeEvents();
-
-		dumpTransitSchedule();
-		dumpTransitVehicles();
-		dumpVehicles();
-		dumpHouseholds();
-		dumpLanes();
-		dumpCounts();
+		// the data does not change anymore, so the files can be written in parallel on the threads of the dump service
+		this.outputDumpService.submit("output plans", this::dumpPlans);
+		this.outputDumpService.submit("output network", this::dumpNetwork);
+		this.outputDumpService.submit("output config", this::dumpConfig);
+		this.outputDumpService.submit("output facilities", this::dumpFacilities);
+		this.outputDumpService.submit("output network change events", this::dumpNetworkChangeEvents);
+
+		this.outputDumpService.submit("output transit schedule", this::dumpTransitSchedule);
+		this.outputDumpService.submit("output transit vehicles", this::dumpTransitVehicles);
+		this.outputDumpService.submit("output vehicles", this::dumpVehicles);
+		this.outputDumpService.submit("output households", this::dumpHouseholds);
+		this.outputDumpService.submit("output lanes", this::dumpLanes);
+		this.outputDumpService.submit("output counts", this::dumpCounts);
 
 		if (!event.isUnexpected() && this.vspConfig.isWritingOutputEvents() && (this.controlerConfigGroup.getWriteEventsInterval()!=0)) {
 			dumpOutputEvents(event.getIteration());
@@ -139,6 +144,7 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
         dumpOutputLegs(event.getIteration());
 		dumpExperiencedPlans(event.getIteration()) ;
 
+		this.outputDumpService.awaitCompletion();
 	}
 
 	private void dumpOutputEvents(int iteration) {
@@ -334,6 +340,7 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 
 		final PopulationWriter writer = new PopulationWriter(this.population, this.network);
 		writer.putAttributeConverters(this.attributeConverters);
+		writer.setNumberOfThreads(this.config.global().getNumberOfThreads());
 		writer.write(this.controlerIO.getOutputFilename(Controler.DefaultFiles.population));
 	}
 
@@ -29,6 +29,7 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
 import org.matsim.core.controler.listener.BeforeMobsimListener;
 
@@ -56,6 +57,7 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 	@Inject private Population population;
 	@Inject private IterationStopWatch stopwatch;
 	@Inject private OutputDirectoryHierarchy controlerIO;
+	@Inject(optional = true) private OutputDumpService outputDumpService = new OutputDumpService(0, 0);
 	private int writePlansInterval ;
 
 	private int writeMoreUntilIteration;
@@ -77,8 +79,9 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 			final String inputCRS = config.plans().getInputCRS();
 			final String internalCRS = config.global().getCoordinateSystem();
 
+			final PopulationWriter writer;
 			if ( inputCRS == null ) {
-				new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+				writer = new PopulationWriter(population, network);
 			}
 			else {
 				log.info( "re-projecting population from "+internalCRS+" back to "+inputCRS+" for export" );
@@ -88,7 +91,15 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 								internalCRS,
 								inputCRS );
 
-				new PopulationWriter(transformation, population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+				writer = new PopulationWriter(transformation, population, network);
+			}
+			writer.setNumberOfThreads(config.global().getNumberOfThreads());
+			final String filename = controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population);
+			if (outputDumpService.isAsync()) {
+				// only the serialization happens here, compressing and writing the file overlaps with the mobsim
+				outputDumpService.write(filename, writer::write);
+			} else {
+				writer.write(filename);
 			}
 			log.info("finished plans dump.");
 			stopwatch.endOperation("dump all plans");
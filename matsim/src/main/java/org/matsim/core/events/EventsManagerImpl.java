@@ -64,6 +64,7 @@ import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityE
 import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.utils.timing.Profiler;
 
 /**
  * EventHandling
@@ -104,12 +105,14 @@ public final class EventsManagerImpl implements EventsManager {
 		protected final Class<? extends Event> eventClass;
 		protected final EventHandler eventHandler;
 		protected final Method method;
+		protected final Profiler.Metric timer;
 
 		protected HandlerInfo(final Class<? extends Event> eventClass, final EventHandler eventHandler,
 				final Method method) {
 			this.eventClass = eventClass;
 			this.eventHandler = eventHandler;
 			this.method = method;
+			this.timer = Profiler.timer("events.handler", eventHandler.getClass().getName());
 		}
 	}
 
@@ -137,18 +140,19 @@ public final class EventsManagerImpl implements EventsManager {
 			log.info(" event # " + this.counter);
 		}
 		for (HandlerInfo info : getHandlersForClass( event.getClass() )) {
+			long profilingStart = info.timer.start();
 			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
-					continue;
-				}
-				try {
-					info.method.invoke(info.eventHandler, event );
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+				if (!callHandlerFast(info.eventClass, event, info.eventHandler )) {
+					try {
+						info.method.invoke(info.eventHandler, event );
+					} catch (IllegalArgumentException | IllegalAccessException e) {
+						throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
+					} catch (InvocationTargetException e) {
+						throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+					}
 				}
 			}
+			info.timer.stop(profilingStart);
 		}
 	}
 
@@ -33,6 +33,7 @@ import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.utils.timing.Profiler;
 
 /**
  * @author cdobler
@@ -55,6 +56,7 @@ public final class ParallelEventsManager implements EventsManager {
 	private final int eventsQueueSize;
 	//private final int eventsQueueSize = 1048576 * 32;
 	private final int eventsArraySize;
+	private final Profiler.Metric queueDepth = Profiler.gauge("events.queue", ParallelEventsManager.class.getSimpleName());
 
 	@Inject
 	ParallelEventsManager(Config config) {
@@ -231,6 +233,9 @@ public final class ParallelEventsManager implements EventsManager {
 
 	@Override
 	public void afterSimStep(double time) {
+		if (Profiler.isEnabled()) {
+			this.queueDepth.record(this.eventQueue.size());
+		}
 		if (this.syncOnTimeSteps) {
 			flush();
 		}
@@ -58,6 +58,9 @@ public abstract class MatsimRandom {
 	private static final Random random = new Random(DEFAULT_RANDOM_SEED);
 //	private static final Random random = new InstrumentedRandom(DEFAULT_RANDOM_SEED);
 
+	/** generators replacing the global one on single threads, see {@link #setRandomForCurrentThread(Random)} */
+	private static final ThreadLocal<Random> threadRandom = new ThreadLocal<>();
+
 	/** Resets the random number generator with a default random seed. */
 	public static void reset() {
 		reset(DEFAULT_RANDOM_SEED);
@@ -73,8 +76,58 @@ public abstract class MatsimRandom {
 		getRandom().setSeed(seed);
 //		prepareRNG(random);
 	}
+	/**
+	 * @return the global random number generator, or the generator set for the current thread with
+	 * {@link #setRandomForCurrentThread(Random)}.
+	 */
 	public static Random getRandom() {
-		return random;
+		Random threadRng = threadRandom.get();
+		return threadRng == null ? random : threadRng;
+	}
+
+	/**
+	 * Makes {@link #getRandom()} return the given generator when called on the current thread, e.g. to
+	 * give each person its own random stream while persons are handled in parallel. Pass <code>null</code>
+	 * to use the global generator again.
+	 *
+	 * @param rng the generator to use on the current thread, or <code>null</code>
+	 */
+	public static void setRandomForCurrentThread(final Random rng) {
+		if (rng == null) {
+			threadRandom.remove();
+		} else {
+			threadRandom.set(rng);
+		}
+	}
+
+	/**
+	 * Derives a seed for a random stream identified by the given keys from the seed last set with
+	 * {@link #reset(long)}. In contrast to {@link #getLocalInstance()}, the result does not depend on
+	 * how many streams were requested before, so it can be used from several threads in any order.
+	 * The keys are mixed well enough that the seed can be used directly, without drawing some
+	 * numbers first.
+	 */
+	public static long deriveSeed(final long key1, final long key2) {
+		return mix(mix(mix(lastUsedSeed) + key1) + key2);
+	}
+
+	/**
+	 * @return a 64 bit hash of the given string, e.g. to use an id as key in {@link #deriveSeed(long, long)}
+	 */
+	public static long hash(final CharSequence str) {
+		long h = 1125899906842597L;
+		for (int i = 0, n = str.length(); i < n; i++) {
+			h = 31 * h + str.charAt(i);
+		}
+		return h;
+	}
+
+	/** finalizer of the SplitMix64 generator */
+	private static long mix(long z) {
+		z += 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
 	}
 
 	/** Returns an instance of a random number generator, which can be used
@@ -51,6 +51,7 @@ import org.matsim.core.network.NetworkChangeEvent;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.router.TripStructureUtils;
 import org.matsim.core.utils.misc.Time;
+import org.matsim.core.utils.timing.Profiler;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 import org.matsim.vehicles.VehicleUtils;
@@ -111,6 +112,8 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 	private NetsimEngine netEngine;
 
 	private final Collection<MobsimEngine> mobsimEngines = new ArrayList<>();
+	private final List<Profiler.Metric> mobsimEngineTimers = new ArrayList<>(); // in the same order as mobsimEngines
+	private Profiler.Metric withindayEngineTimer = null;
 
 	private final MobsimTimer simTimer;
 
@@ -384,18 +387,24 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		 */
 		if (this.withindayEngine != null) {
 			if (analyzeRunTimes) startClockTime = System.nanoTime();
+			long profilingStart = this.withindayEngineTimer.start();
 			this.withindayEngine.doSimStep(now);
+			this.withindayEngineTimer.stop(profilingStart);
 			if (analyzeRunTimes) this.mobsimEngineRunTimes.get(this.withindayEngine).addAndGet(System.nanoTime() - this.startClockTime);
 		}
 
 		// "added" engines
+		int engineIndex = 0;
 		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
 			if (analyzeRunTimes) this.startClockTime = System.nanoTime();
+			Profiler.Metric engineTimer = this.mobsimEngineTimers.get(engineIndex++);
 
 			// withindayEngine.doSimStep(time) has already been called
 			if (mobsimEngine == this.withindayEngine) continue;
 
+			long profilingStart = engineTimer.start();
 			mobsimEngine.doSimStep(now);
+			engineTimer.stop(profilingStart);
 
 			if (analyzeRunTimes)
 				this.mobsimEngineRunTimes.get(mobsimEngine).addAndGet(System.nanoTime() - this.startClockTime);
@@ -617,11 +626,14 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		if (mobsimEngine instanceof TeleportationEngine) {
 			this.teleportationEngine = (TeleportationEngine) mobsimEngine;
 		}
+		Profiler.Metric engineTimer = Profiler.timer("qsim.engine", mobsimEngine.getClass().getSimpleName());
 		if (mobsimEngine instanceof WithinDayEngine) {
 			this.withindayEngine = (WithinDayEngine) mobsimEngine;
+			this.withindayEngineTimer = engineTimer;
 		}
 		mobsimEngine.setInternalInterface(this.internalInterface);
 		this.mobsimEngines.add(mobsimEngine);
+		this.mobsimEngineTimers.add(engineTimer);
 		
 		if (analyzeRunTimes) this.mobsimEngineRunTimes.put(mobsimEngine, new AtomicLong());
 	}
@@ -27,6 +27,7 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.NetworkFactory;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.scenario.Lockable;
+import org.matsim.core.utils.collections.PackedRTree;
 import org.matsim.core.utils.collections.QuadTree;
 import org.matsim.utils.objectattributes.attributable.Attributes;
 
@@ -57,6 +58,13 @@ import java.util.*;
 
 	private LinkQuadTree linkQuadTree = null;
 
+	/* Static index for getNearestLinkExactly(), built on the first query. If links are added or removed
+	 * afterwards, the incrementally updated linkQuadTree is used instead, so networks that are modified
+	 * between queries do not have to rebuild the index again and again. */
+	private PackedRTree<Link> linkIndex = null;
+
+	private boolean linkIndexInvalidated = false;
+
 	private static final double DEFAULT_EFFECTIVE_CELL_SIZE = 7.5;
 
 	private double effectiveCellSize = DEFAULT_EFFECTIVE_CELL_SIZE;
@@ -126,6 +134,7 @@ import java.util.*;
 
         links.put(link.getId(), link);
 
+        invalidateLinkIndex();
         if (this.linkQuadTree != null) {
             double linkMinX = Math.min(link.getFromNode().getCoord().getX(), link.getToNode().getCoord().getX());
             double linkMaxX = Math.max(link.getFromNode().getCoord().getX(), link.getToNode().getCoord().getX());
@@ -234,6 +243,7 @@ import java.util.*;
 		l.getFromNode().removeOutLink(l.getId()) ;
 		l.getToNode().removeInLink(l.getId()) ;
 
+		invalidateLinkIndex();
 		if (this.linkQuadTree != null) {
 			this.linkQuadTree.remove(l);
 		}
@@ -341,12 +351,26 @@ import java.util.*;
 	}
 
 	@Override public Link getNearestLinkExactly(final Coord coord) {
+		PackedRTree<Link> index = this.linkIndex;
+		if (index != null) {
+			return index.getClosest(coord.getX(), coord.getY());
+		}
 		if (this.linkQuadTree == null) {
+			if (!this.linkIndexInvalidated) {
+				return buildLinkIndex().getClosest(coord.getX(), coord.getY());
+			}
 			buildLinkQuadTree();
 		}
 		return this.linkQuadTree.getNearest(coord.getX(), coord.getY());
 	}
 
+	private void invalidateLinkIndex() {
+		if (this.linkIndex != null) {
+			this.linkIndex = null;
+			this.linkIndexInvalidated = true;
+		}
+	}
+
 	/**
 	 * finds the node nearest to <code>coord</code>
 	 *
@@ -431,6 +455,50 @@ import java.util.*;
 		log.info("Building QuadTree took " + ((System.currentTimeMillis() - startTime) / 1000.0) + " seconds.");
 	}
 
+	synchronized private PackedRTree<Link> buildLinkIndex() {
+		if (this.linkIndex != null) {
+			return this.linkIndex;
+		}
+		double startTime = System.currentTimeMillis();
+		PackedRTree.Builder<Link> builder = new PackedRTree.Builder<>(this.links.size(), PackedRTree.DEFAULT_NODE_SIZE);
+		for (Link l : this.links.values()) {
+			Coord from = l.getFromNode().getCoord();
+			Coord to = l.getToNode().getCoord();
+			builder.put(from.getX(), from.getY(), to.getX(), to.getY(), l);
+		}
+		builder.setDistanceFunction(NetworkImpl::calcLineSegmentDistance);
+		this.linkIndex = builder.build();
+		log.info("Building link index took " + ((System.currentTimeMillis() - startTime) / 1000.0) + " seconds.");
+		return this.linkIndex;
+	}
+
+	private static double calcLineSegmentDistance(final Link link, final double x, final double y) {
+		double fx = link.getFromNode().getCoord().getX();
+		double fy = link.getFromNode().getCoord().getY();
+		double lineDX = link.getToNode().getCoord().getX() - fx;
+		double lineDY = link.getToNode().getCoord().getY() - fy;
+
+		if ((lineDX == 0.0) && (lineDY == 0.0)) {
+			// the line segment is a point without dimension
+			return Math.sqrt((fx - x) * (fx - x) + (fy - y) * (fy - y));
+		}
+
+		double u = ((x - fx) * lineDX + (y - fy) * lineDY) / (lineDX * lineDX + lineDY * lineDY);
+		if (u <= 0) {
+			// (x | y) is not on the line segment, but before lineFrom
+			return Math.sqrt((fx - x) * (fx - x) + (fy - y) * (fy - y));
+		}
+		if (u >= 1) {
+			// (x | y) is not on the line segment, but after lineTo
+			double tx = fx + lineDX;
+			double ty = fy + lineDY;
+			return Math.sqrt((tx - x) * (tx - x) + (ty - y) * (ty - y));
+		}
+		double px = fx + u * lineDX;
+		double py = fy + u * lineDY;
+		return Math.sqrt((px - x) * (px - x) + (py - y) * (py - y));
+	}
+
 	synchronized private void buildLinkQuadTree() {
 		if (this.linkQuadTree != null) {
 			return;
@@ -20,10 +20,20 @@
 
 package org.matsim.core.population.io;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.network.Network;
@@ -41,7 +51,11 @@ import org.matsim.utils.objectattributes.AttributeConverter;
 
 public final class PopulationWriter extends AbstractMatsimWriter implements MatsimWriter {
 
+	/** number of persons formatted as one chunk by a single thread when writing with multiple threads */
+	private static final int PERSONS_PER_CHUNK = 1000;
+
 	private final double write_person_fraction;
+	private int numberOfThreads = 1;
 
 	private final CoordinateTransformation coordinateTransformation;
 	private PopulationWriterHandler handler = null;
@@ -128,6 +142,18 @@ public final class PopulationWriter extends AbstractMatsimWriter implements Mats
 		this.converters.put( key, converter );
 	}
 
+	/**
+	 * Sets the number of threads used to write the population. With more than one thread,
+	 * persons are formatted in chunks on several threads, and compressed output files
+	 * (<code>.gz</code>, <code>.zst</code>) are compressed in parallel as well. The content of
+	 * the written file does not depend on the number of threads. Note that the
+	 * {@link PopulationWriterHandler#writePerson(Person, BufferedWriter)} method of the
+	 * writer handler must be thread-safe for this, as it is for the default handlers.
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
 	/**
 	 * Writes all plans to the file.
 	 */
@@ -135,7 +161,7 @@ public final class PopulationWriter extends AbstractMatsimWriter implements Mats
 	public final void write(final String filename) {
 		try {
 			this.handler.putAttributeConverters(converters);
-			this.openFile(filename);
+			this.openFile(filename, this.numberOfThreads);
 			this.handler.writeHeaderAndStartElement(this.writer);
 			this.handler.startPlans(this.population, this.writer);
 			this.handler.writeSeparator(this.writer);
@@ -174,12 +200,82 @@ public final class PopulationWriter extends AbstractMatsimWriter implements Mats
 	}
 
 
-	private  final void writePersons() {
+	private  final void writePersons() throws IOException {
+		if (this.numberOfThreads > 1) {
+			writePersonsParallel();
+			return;
+		}
 		for (Person p : PopulationUtils.getSortedPersons(this.population).values()) {
 			writePerson(p);
 		}
 	}
 
+	/**
+	 * Formats chunks of persons on several threads and writes the formatted chunks in order. The
+	 * sampling of persons stays on the calling thread, so the random numbers are drawn in the same
+	 * order as with a single thread.
+	 */
+	private void writePersonsParallel() throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+			Thread thread = new Thread(r, "PopulationWriter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		int maxPendingChunks = 2 * this.numberOfThreads;
+		Deque<Future<String>> pendingChunks = new ArrayDeque<>();
+		try {
+			List<Person> chunk = new ArrayList<>(PERSONS_PER_CHUNK);
+			for (Person p : PopulationUtils.getSortedPersons(this.population).values()) {
+				if ((this.write_person_fraction < 1.0) && (MatsimRandom.getRandom().nextDouble() >= this.write_person_fraction)) {
+					continue;
+				}
+				chunk.add(p);
+				counter.incCounter();
+				if (chunk.size() == PERSONS_PER_CHUNK) {
+					final List<Person> persons = chunk;
+					pendingChunks.addLast(executor.submit(() -> formatPersons(persons)));
+					chunk = new ArrayList<>(PERSONS_PER_CHUNK);
+					while (pendingChunks.size() >= maxPendingChunks) {
+						writeFirstPendingChunk(pendingChunks);
+					}
+				}
+			}
+			if (!chunk.isEmpty()) {
+				final List<Person> persons = chunk;
+				pendingChunks.addLast(executor.submit(() -> formatPersons(persons)));
+			}
+			while (!pendingChunks.isEmpty()) {
+				writeFirstPendingChunk(pendingChunks);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private String formatPersons(List<Person> persons) throws IOException {
+		StringWriter stringWriter = new StringWriter();
+		BufferedWriter out = new BufferedWriter(stringWriter);
+		for (Person person : persons) {
+			this.handler.writePerson(person, out);
+		}
+		out.flush();
+		return stringWriter.toString();
+	}
+
+	private void writeFirstPendingChunk(Deque<Future<String>> pendingChunks) throws IOException {
+		try {
+			this.writer.write(pendingChunks.removeFirst().get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
 	private final void writePerson(final Person person) {
 		try {
 			if ((this.write_person_fraction < 1.0) && (MatsimRandom.getRandom().nextDouble() >= this.write_person_fraction)) {
@@ -42,6 +42,7 @@ public final class StreamingPopulationWriter implements PersonAlgorithm {
 	private final static Logger log = Logger.getLogger(StreamingPopulationWriter.class);
 
 	private final double write_person_fraction;
+	private int numberOfThreads = 1;
 
 	private PopulationWriterHandler handler = null;
 	private Counter counter = new Counter("[" + this.getClass().getSimpleName() + "] dumped person # ");
@@ -50,8 +51,8 @@ public final class StreamingPopulationWriter implements PersonAlgorithm {
 		BufferedWriter getWriter() {
 			return writer;
 		}
-		void openHere(String filename ) {
-			super.openFile(filename);
+		void openHere(String filename, int numberOfThreads ) {
+			super.openFile(filename, numberOfThreads);
 		}
 		void closeHere() {
 			super.close() ;
@@ -150,7 +151,7 @@ public final class StreamingPopulationWriter implements PersonAlgorithm {
 
 		} ;
 		try {
-			matsimWriter.openHere(filename);
+			matsimWriter.openHere(filename, this.numberOfThreads);
 			this.handler.writeHeaderAndStartElement(matsimWriter.getWriter());
 			this.handler.startPlans(fakepop, matsimWriter.getWriter());
 			this.handler.writeSeparator(matsimWriter.getWriter());
@@ -192,6 +193,15 @@ public final class StreamingPopulationWriter implements PersonAlgorithm {
 		matsimWriter.closeHere();
 	}
 
+	/**
+	 * Sets the number of threads used to compress the output file (<code>.gz</code>, <code>.zst</code>). Persons are still
+	 * formatted one after the other on the calling thread, as they may be modified after they have been streamed.
+	 * Must be set before {@link #writeStartPlans(String)} is called.
+	 */
+	public final void setNumberOfThreads(final int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
 	public final void setWriterHandler(final PopulationWriterHandler handler) {
 		this.handler = handler;
 	}
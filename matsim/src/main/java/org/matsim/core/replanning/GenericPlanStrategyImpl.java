@@ -24,6 +24,7 @@ import org.matsim.api.core.v01.population.HasPlansAndId;
 import org.matsim.core.replanning.modules.GenericPlanStrategyModule;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomUnscoredPlanSelector;
+import org.matsim.core.utils.timing.Profiler;
 
 import java.util.ArrayList;
 
@@ -36,6 +37,8 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	private PlanSelector<T, I> planSelector = null;
 	private GenericPlanStrategyModule<T> firstModule = null;
 	private final ArrayList<GenericPlanStrategyModule<T>> modules = new ArrayList<>();
+	private Profiler.Metric firstModuleTimer = null;
+	private final ArrayList<Profiler.Metric> moduleTimers = new ArrayList<>();
 	private final ArrayList<T> plans = new ArrayList<>();
 	private long counter = 0;
 	private ReplanningContext replanningContext;
@@ -50,10 +53,13 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	}
 
 	public void addStrategyModule(final GenericPlanStrategyModule<T> module) {
+		Profiler.Metric timer = Profiler.timer("replanning.module", module.getClass().getSimpleName());
 		if (this.firstModule == null) {
 			this.firstModule = module;
+			this.firstModuleTimer = timer;
 		} else {
 			this.modules.add(module);
+			this.moduleTimers.add(timer);
 		}
 	}
 	
@@ -66,8 +72,17 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	
 	@Override
 	public void run(final HasPlansAndId<T, I> person) {
-		this.counter++;
-		
+		handleSelectedPlan(selectPlan(person));
+	}
+
+	/**
+	 * Selects a plan of the person and, if there is an innovative module, makes a copy of it the
+	 * selected plan.  Only modifies the given person, so it can be called for several persons in
+	 * parallel as long as the plan selector is thread-safe.
+	 *
+	 * @return the plan to be handled by the modules, or <code>null</code> if there are no modules
+	 */
+	/* package */ T selectPlan(final HasPlansAndId<T, I> person) {
 		// if there is at least one unscored plan, find that one:
 		T plan = new RandomUnscoredPlanSelector<T, I>().selectPlan(person) ;
 		
@@ -86,17 +101,26 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 
 		// if there is a "module" (i.e. "innovation"):
 		if (this.firstModule != null) {
-			
 			// set the working plan to a copy of the selected plan:
-			plan = person.createCopyOfSelectedPlanAndMakeSelected();
-			
+			return person.createCopyOfSelectedPlanAndMakeSelected();
+		}
+		return null;
+	}
+
+	/**
+	 * Hands the plan returned by {@link #selectPlan(HasPlansAndId)} to the modules.  Must be called
+	 * once per person, in a deterministic order.
+	 */
+	/* package */ void handleSelectedPlan(final T plan) {
+		this.counter++;
+
+		if (plan != null) {
 			// add new plan to container that contains the plans that are handled by this PlanStrategy:
 			this.plans.add(plan);
 
 			// start working on this new plan:
 			this.firstModule.handlePlan(plan);
 		}
-
 	}
 
 	@Override
@@ -111,14 +135,20 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	public void finish() {
 		if (this.firstModule != null) {
 			// finish the first module
-				this.firstModule.finishReplanning();
+			long profilingStart = this.firstModuleTimer.start();
+			this.firstModule.finishReplanning();
+			this.firstModuleTimer.stop(profilingStart);
 			// now work through the others
-			for (GenericPlanStrategyModule<T> module : this.modules) {
+			for (int i = 0; i < this.modules.size(); i++) {
+				GenericPlanStrategyModule<T> module = this.modules.get(i);
+				Profiler.Metric timer = this.moduleTimers.get(i);
+				profilingStart = timer.start();
 				module.prepareReplanning(replanningContext);
 				for (T plan : this.plans) {
 					module.handlePlan(plan);
 				}
 				module.finishReplanning();
+				timer.stop(profilingStart);
 			}
 		}
 		this.plans.clear();
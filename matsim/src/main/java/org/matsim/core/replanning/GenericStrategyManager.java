@@ -25,7 +25,11 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.BasicPlan;
@@ -72,6 +76,10 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 
 	private PlanSelector<PL, AG> removalPlanSelector = new GenericWorstPlanForRemovalSelector<>();
 
+	private boolean concurrentStrategyExecution = false;
+
+	private int numberOfThreadsForPlanSelection = 0;
+
 //	private String subpopulationAttributeName = null;
 	
 	public GenericStrategyManager() {
@@ -194,7 +202,26 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 			strategy.init(replanningContext);
 		}
 
-		// then go through the population and ...
+		if (this.numberOfThreadsForPlanSelection > 0) {
+			int iteration = replanningContext == null ? 0 : replanningContext.getIteration();
+			runWithPersonRandomStreams(persons, iteration);
+		} else {
+			runSerially(persons);
+		}
+
+		// finally make sure all strategies have finished there work
+		if (this.concurrentStrategyExecution) {
+			finishConcurrently(distinctStrategies());
+		} else {
+			for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
+				strategy.finish();
+			}
+		}
+
+	}
+
+	private void runSerially(final Iterable<? extends HasPlansAndId<PL, AG>> persons) {
+		// go through the population and ...
 		for (HasPlansAndId<PL, AG> person : persons ) {
 
 			// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
@@ -217,12 +244,110 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 			// ... and run the strategy:
 			strategy.run(person);
 		}
+	}
 
-		// finally make sure all strategies have finished there work
-		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
-			strategy.finish();
+	/**
+	 * Same as {@link #runSerially(Iterable)}, but each person draws its random numbers from its own stream,
+	 * derived from the global seed, the iteration and its id.  This allows to remove plans, choose the
+	 * strategy and select the plan for many persons in parallel, while the results do not depend on the
+	 * number of threads.  Only handing the selected plans to the modules is done serially, in the
+	 * order of the persons.
+	 */
+	private void runWithPersonRandomStreams(final Iterable<? extends HasPlansAndId<PL, AG>> persons, final int iteration) {
+		final List<HasPlansAndId<PL, AG>> personList = new ArrayList<>();
+		for (HasPlansAndId<PL, AG> person : persons) {
+			personList.add(person);
+		}
+		final int size = personList.size();
+		@SuppressWarnings("unchecked")
+		final GenericPlanStrategy<PL, AG>[] chosenStrategies = new GenericPlanStrategy[size];
+		final Object[] selectedPlans = new Object[size];
+
+		// first, reduce the number of plans, choose the strategy and select the plan in parallel ...
+		int numberOfChunks = Math.min(size, 8 * this.numberOfThreadsForPlanSelection);
+		ForkJoinPool pool = ReplanningThreadPool.getPool(this.numberOfThreadsForPlanSelection);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(numberOfChunks);
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			final int from = (int) ((long) size * chunk / numberOfChunks);
+			final int to = (int) ((long) size * (chunk + 1) / numberOfChunks);
+			tasks.add(pool.submit(() -> {
+				Random rng = new Random();
+				MatsimRandom.setRandomForCurrentThread(rng);
+				try {
+					for (int i = from; i < to; i++) {
+						HasPlansAndId<PL, AG> person = personList.get(i);
+						rng.setSeed(MatsimRandom.deriveSeed(iteration, MatsimRandom.hash(person.getId().toString())));
+						if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
+							removePlans(person, this.maxPlansPerAgent);
+						}
+						String subpopName = PopulationUtils.getSubpopulation(person);
+						GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName);
+						if (strategy == null) {
+							throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation? Current subpopulation = " + subpopName);
+						}
+						chosenStrategies[i] = strategy;
+						if (isSelectionThreadSafe(strategy)) {
+							selectedPlans[i] = ((GenericPlanStrategyImpl<PL, AG>) strategy).selectPlan(person);
+						}
+					}
+				} finally {
+					MatsimRandom.setRandomForCurrentThread(null);
+				}
+			}));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+
+		// ... then hand the plans to the strategies in the order of the persons
+		Random rng = new Random();
+		MatsimRandom.setRandomForCurrentThread(rng);
+		try {
+			for (int i = 0; i < size; i++) {
+				GenericPlanStrategy<PL, AG> strategy = chosenStrategies[i];
+				HasPlansAndId<PL, AG> person = personList.get(i);
+				// the modules (or strategies run completely here) draw from a second stream of the person
+				rng.setSeed(MatsimRandom.deriveSeed(iteration, ~MatsimRandom.hash(person.getId().toString())));
+				if (isSelectionThreadSafe(strategy)) {
+					@SuppressWarnings("unchecked")
+					PL plan = (PL) selectedPlans[i];
+					((GenericPlanStrategyImpl<PL, AG>) strategy).handleSelectedPlan(plan);
+				} else {
+					strategy.run(person);
+				}
+			}
+		} finally {
+			MatsimRandom.setRandomForCurrentThread(null);
 		}
+	}
 
+	private static boolean isSelectionThreadSafe(GenericPlanStrategy<?, ?> strategy) {
+		// subclasses of GenericPlanStrategyImpl might override run(...)
+		return strategy.getClass() == GenericPlanStrategyImpl.class || strategy instanceof PlanStrategyImpl;
+	}
+
+	private static void finishConcurrently(Collection<? extends GenericPlanStrategy<?, ?>> strategies) {
+		// the modules have already sized the shared pool in init(), so any parallelism will do here
+		ForkJoinPool pool = ReplanningThreadPool.getPool(1);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(strategies.size());
+		for (GenericPlanStrategy<?, ?> strategy : strategies) {
+			tasks.add(pool.submit(strategy::finish));
+		}
+		RuntimeException exception = null;
+		for (ForkJoinTask<?> task : tasks) {
+			try {
+				task.join();
+			} catch (RuntimeException e) {
+				if (exception == null) {
+					exception = e;
+				} else {
+					exception.addSuppressed(e);
+				}
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
 	}
 
 	private Collection<GenericPlanStrategy<PL, AG>> distinctStrategies() {
@@ -274,7 +399,11 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 	private class MyStrategyChooser implements StrategyChooser<PL, AG> {
 		@Override
 		public GenericPlanStrategy<PL, AG> chooseStrategy(HasPlansAndId<PL, AG> person, String subpopulation) {
-			StrategyWeights<PL, AG> weights = GenericStrategyManager.this.getStrategyWeights(subpopulation);
+			// do not create missing weights here, this might be called from several threads
+			StrategyWeights<PL, AG> weights = GenericStrategyManager.this.weightsPerSubpopulation.get(subpopulation);
+			if (weights == null) {
+				return null;
+			}
 			
 			double rnd = MatsimRandom.getRandom().nextDouble() * weights.totalWeights;
 			
@@ -366,6 +495,28 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 		this.removalPlanSelector = planSelector;
 	}
 
+	/**
+	 * If set to <code>true</code>, the strategies finish their work concurrently on the shared
+	 * {@link ReplanningThreadPool}, so the modules of different strategies can use each other's idle
+	 * threads.  This requires that the modules of different strategies do not share state that is
+	 * not thread-safe.  As each module still assigns the plans deterministically to its plan
+	 * algorithm instances, the results do not depend on this setting.
+	 */
+	public final void setConcurrentStrategyExecution(final boolean concurrentStrategyExecution) {
+		this.concurrentStrategyExecution = concurrentStrategyExecution;
+	}
+
+	/**
+	 * If set to a positive number, removing excess plans, choosing the strategy and selecting the plan
+	 * is done on that many threads, and each person uses its own random stream (see
+	 * {@link MatsimRandom#deriveSeed(long, long)}).  The results do not depend on the number of
+	 * threads, but differ from the default (<code>0</code>), where all persons are handled serially
+	 * using the global random number generator.  The plan selectors must be thread-safe.
+	 */
+	public final void setNumberOfThreadsForPlanSelection(final int numberOfThreadsForPlanSelection) {
+		this.numberOfThreadsForPlanSelection = numberOfThreadsForPlanSelection;
+	}
+
 	final int getMaxPlansPerAgent() {
 		return this.maxPlansPerAgent ;
 	}
@@ -378,4 +529,8 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 		return getStrategyWeights( subpopulation ).unmodifiableWeights;
 	}
 
+	final Set<String> getSubpopulations() {
+		return Collections.unmodifiableSet( weightsPerSubpopulation.keySet() );
+	}
+
 }
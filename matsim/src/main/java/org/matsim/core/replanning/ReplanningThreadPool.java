@@ -0,0 +1,78 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Provides the work-stealing thread pool shared by all replanning modules.
+ *
+ * Instead of starting and joining new threads for every module in every iteration,
+ * the modules submit their work as tasks to this pool. Idle threads steal tasks from
+ * busy ones, so the tasks of several modules that run at the same time (see
+ * {@link org.matsim.core.config.groups.StrategyConfigGroup#isConcurrentStrategyExecution()})
+ * are balanced over all threads.
+ *
+ * The pool is created lazily. If a module requests a higher parallelism than the
+ * current pool offers, a larger pool replaces it. The old pool stays usable for
+ * modules still holding it; its idle threads terminate on their own. The threads are
+ * daemon threads, so no pool has to be shut down explicitly.
+ */
+public final class ReplanningThreadPool {
+
+	private static final Logger log = Logger.getLogger(ReplanningThreadPool.class);
+
+	private static ForkJoinPool pool = null;
+
+	private ReplanningThreadPool() {
+	}
+
+	/**
+	 * @param parallelism the minimal number of threads the pool should use
+	 * @return the shared pool with at least the given parallelism
+	 */
+	public static synchronized ForkJoinPool getPool(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1, but is " + parallelism);
+		}
+		if (pool == null || pool.getParallelism() < parallelism) {
+			log.info("creating replanning thread pool with " + parallelism + " threads.");
+			pool = new ForkJoinPool(parallelism, new NamedThreadFactory(), null, false);
+		}
+		return pool;
+	}
+
+	private static class NamedThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+		private static final AtomicInteger count = new AtomicInteger(0);
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("Replanning-" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
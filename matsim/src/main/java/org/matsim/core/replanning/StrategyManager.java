@@ -28,11 +28,17 @@ import org.matsim.core.api.internal.MatsimManager;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.PlansConfigGroup;
 import org.matsim.core.config.groups.StrategyConfigGroup;
+import org.matsim.core.controler.checkpoint.Checkpointable;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.WorstPlanForRemovalSelector;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -43,7 +49,7 @@ import java.util.Map;
  * @author kai
  */
 @Singleton
-public class StrategyManager implements MatsimManager {
+public class StrategyManager implements MatsimManager, Checkpointable {
 
 	private static final Logger log = Logger.getLogger(StrategyManager.class);
 
@@ -56,6 +62,8 @@ public class StrategyManager implements MatsimManager {
 
 		this();
 		setMaxPlansPerAgent(strategyConfigGroup.getMaxAgentPlanMemorySize());
+		setConcurrentStrategyExecution(strategyConfigGroup.isConcurrentStrategyExecution());
+		setNumberOfThreadsForPlanSelection(strategyConfigGroup.getNumberOfThreadsForPlanSelection());
 
 		int globalInnovationDisableAfter = (int) ((controlerConfigGroup.getLastIteration() - controlerConfigGroup.getFirstIteration())
 				* strategyConfigGroup.getFractionOfIterationsToDisableInnovation() + controlerConfigGroup.getFirstIteration());
@@ -226,6 +234,20 @@ public class StrategyManager implements MatsimManager {
 		return delegate.getMaxPlansPerAgent();
 	}
 
+	/**
+	 * @see GenericStrategyManager#setConcurrentStrategyExecution(boolean)
+	 */
+	public final void setConcurrentStrategyExecution(final boolean concurrentStrategyExecution) {
+		delegate.setConcurrentStrategyExecution(concurrentStrategyExecution);
+	}
+
+	/**
+	 * @see GenericStrategyManager#setNumberOfThreadsForPlanSelection(int)
+	 */
+	public final void setNumberOfThreadsForPlanSelection(final int numberOfThreadsForPlanSelection) {
+		delegate.setNumberOfThreadsForPlanSelection(numberOfThreadsForPlanSelection);
+	}
+
 	@Deprecated
 	public final void addChangeRequestForDefaultSubpopulation(
 			final int iteration,
@@ -301,4 +323,49 @@ public class StrategyManager implements MatsimManager {
 	public final List<Double> getWeights(final String subpopulation) {
 		return delegate.getWeights(subpopulation);
 	}
+
+	@Override
+	public String getCheckpointName() {
+		return "strategyManager";
+	}
+
+	/**
+	 * Writes the current weights of all strategies, which may have been changed by change requests or annealing.
+	 */
+	@Override
+	public void writeCheckpoint(int iteration, DataOutput out) throws IOException {
+		List<String> subpopulations = new ArrayList<>(delegate.getSubpopulations());
+		subpopulations.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+		out.writeInt(subpopulations.size());
+		for (String subpopulation : subpopulations) {
+			out.writeBoolean(subpopulation != null);
+			if (subpopulation != null) {
+				out.writeUTF(subpopulation);
+			}
+			List<Double> weights = getWeights(subpopulation);
+			out.writeInt(weights.size());
+			for (double weight : weights) {
+				out.writeDouble(weight);
+			}
+		}
+	}
+
+	@Override
+	public void readCheckpoint(int iteration, DataInput in) throws IOException {
+		// the change requests up to the checkpoint are already reflected in the weights
+		delegate.handleChangeRequests(iteration);
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String subpopulation = in.readBoolean() ? in.readUTF() : null;
+			List<GenericPlanStrategy<Plan, Person>> strategies = getStrategies(subpopulation);
+			int numberOfWeights = in.readInt();
+			if (numberOfWeights != strategies.size()) {
+				throw new IllegalStateException("The checkpoint contains " + numberOfWeights + " strategies for subpopulation " + subpopulation
+						+ ", but there are " + strategies.size() + ". The strategies must not change when restarting from a checkpoint.");
+			}
+			for (int s = 0; s < numberOfWeights; s++) {
+				delegate.changeWeightOfStrategy(strategies.get(s), subpopulation, in.readDouble());
+			}
+		}
+	}
 }
@@ -20,6 +20,8 @@
 package org.matsim.core.replanning.annealing;
 
 import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,6 +40,7 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.config.groups.StrategyConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.checkpoint.Checkpointable;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.events.StartupEvent;
 import org.matsim.core.controler.listener.IterationStartsListener;
@@ -54,7 +57,7 @@ import org.matsim.core.utils.io.IOUtils;
  * @author fouriep, davig, jbischoff
  */
 
-public class ReplanningAnnealer implements IterationStartsListener, StartupListener {
+public class ReplanningAnnealer implements IterationStartsListener, StartupListener, Checkpointable {
 
 	private static final Logger log = Logger.getLogger(ReplanningAnnealer.class);
 	private static final String ANNEAL_FILENAME = "annealingRates.txt";
@@ -170,6 +173,29 @@ public class ReplanningAnnealer implements IterationStartsListener, StartupListe
 		writeIterationstats(currentIter, annealStats);
 	}
 
+	@Override
+	public String getCheckpointName() {
+		return "replanningAnnealer";
+	}
+
+	@Override
+	public void writeCheckpoint(int iteration, DataOutput out) throws IOException {
+		out.writeInt(this.currentValues.size());
+		for (Map.Entry<AnnealParameterOption, Double> entry : this.currentValues.entrySet()) {
+			out.writeUTF(entry.getKey().name());
+			out.writeDouble(entry.getValue());
+		}
+	}
+
+	@Override
+	public void readCheckpoint(int iteration, DataInput in) throws IOException {
+		// some anneal types depend on the value of the previous iteration
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			this.currentValues.put(AnnealParameterOption.valueOf(in.readUTF()), in.readDouble());
+		}
+	}
+
 	private void writeIterationstats(int currentIter, Map<String, String> annealStats) {
 		try (BufferedWriter bw = IOUtils.getAppendingBufferedWriter(outputDirectoryHierarchy.getOutputFilename(ANNEAL_FILENAME))) {
 			bw.write(Integer.toString(currentIter));
@@ -26,11 +26,13 @@ import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.replanning.ReplanningThreadPool;
 import org.matsim.core.utils.misc.Counter;
 
-import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -40,15 +42,18 @@ import java.util.concurrent.atomic.AtomicReference;
  * Just overwrite getPlanAlgoInstance() to return an instance of your plan
  * algorithm.
  * <p></p>
- * <code>initThreads()</code> creates the threads, but does not yet start them.
+ * <code>initThreads()</code> creates one plan algorithm instance per thread, but does not yet run them.
  * <p></p>
- * <code>handlePlan(Plan)</code> distributes the plans equally to all threads.
+ * <code>handlePlan(Plan)</code> distributes the plans equally to all plan algorithm instances.
  * <p></p>
- * <code>finishReplanning()</code> finally starts the threads and waits for all threads to be finished.
+ * <code>finishReplanning()</code> finally submits one task per plan algorithm instance to the
+ * work-stealing pool shared by all modules ({@link ReplanningThreadPool}) and waits for all tasks to be finished.
  * <p></p>
- * While this approach does not lead to optimal performance gains ("slow threads" vs.
- * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
- * started after all to-be-handled plans are added, we can use unsynchronized data structures.
+ * As each plan is always handled by the same plan algorithm instance, independent of the thread
+ * that runs it, this helps building reproducible runs.  Load is not balanced within a module
+ * ("slow tasks" vs. "fast tasks"), but idle threads of the shared pool pick up the tasks of other
+ * modules running at the same time.  Additionally, as the tasks are only submitted after all
+ * to-be-handled plans are added, we can use unsynchronized data structures.
  * <p></p>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
@@ -61,14 +66,13 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	private final int numOfThreads;
 
 	private PlanAlgoThread[] algothreads = null;
-	private Thread[] threads = null;
+	private ForkJoinPool pool = null;
 	private PlanAlgorithm directAlgo = null;
 	private String name = null;
 
 	private int count = 0;
 
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
-	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
 
 	private ReplanningContext replanningContext;
 
@@ -137,23 +141,20 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		this.beforeFinishReplanningHook();
 		
 		if (this.directAlgo == null) {
-			// only try to start threads if we did not directly work on all the plans
-			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
+			// only try to run tasks if we did not directly work on all the plans
+			log.info("[" + this.name + "] submitting " + this.algothreads.length + " tasks, handling " + this.count + " plans");
 
-			// start threads
-			for (Thread thread : this.threads) {
-				thread.start();
+			// submit tasks, when called from within the pool they are pushed to the local queue of the calling thread
+			List<ForkJoinTask<?>> tasks = new ArrayList<>(this.algothreads.length);
+			for (PlanAlgoThread algothread : this.algothreads) {
+				tasks.add(this.pool.submit(algothread));
 			}
 
-			// wait until each thread is finished
-			try {
-				for (Thread thread : this.threads) {
-					thread.join();
-				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
+			// wait until each task is finished; a pool thread helps with other tasks in the meantime
+			for (ForkJoinTask<?> task : tasks) {
+				task.join();
 			}
-			log.info("[" + this.name + "] all " + this.threads.length + " threads finished.");
+			log.info("[" + this.name + "] all " + this.algothreads.length + " tasks finished.");
 			Throwable throwable = this.hadException.get();
 			if (throwable != null) {
 				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
@@ -161,7 +162,7 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		}
 		// reset
 		this.algothreads = null;
-		this.threads = null;
+		this.pool = null;
 		this.replanningContext = null;
 		this.count = 0;
 		
@@ -169,12 +170,13 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	}
 
 	private void initThreads() {
-		if (this.threads != null) {
+		if (this.algothreads != null) {
 			throw new RuntimeException("threads are already initialized");
 		}
 
 		this.hadException.set(null);
-		this.threads = new Thread[this.numOfThreads];
+		// get the pool already here, so it has its final size before any strategy starts to finish
+		this.pool = ReplanningThreadPool.getPool(this.numOfThreads);
 		this.algothreads = new PlanAlgoThread[this.numOfThreads];
 
 		Counter counter = null;
@@ -185,11 +187,7 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 				this.name = algo.getClass().getSimpleName();
 				counter = new Counter("[" + this.name + "] handled plan # ");
 			}
-			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter);
-			Thread thread = new Thread(algothread, this.name + "." + i);
-			thread.setUncaughtExceptionHandler(this.exceptionHandler);
-			this.threads[i] = thread;
-			this.algothreads[i] = algothread;
+			this.algothreads[i] = new PlanAlgoThread(algo, counter, this.name + "." + i, this.hadException);
 		}
 	}
 
@@ -197,31 +195,20 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		return numOfThreads;
 	}
 
-	private final static class ExceptionHandler implements UncaughtExceptionHandler {
-
-		private final AtomicReference<Throwable> hadException;
-
-		public ExceptionHandler(final AtomicReference<Throwable> hadException) {
-			this.hadException = hadException;
-		}
-
-		@Override
-		public void uncaughtException(Thread t, Throwable e) {
-			log.error("Thread " + t.getName() + " died with exception. Will stop after all threads finished.", e);
-			this.hadException.set(e);
-		}
-
-	}
-
 	private final static class PlanAlgoThread implements Runnable {
 
 		private final PlanAlgorithm planAlgo;
-		private final List<Plan> plans = new LinkedList<>();
+		private final List<Plan> plans = new ArrayList<>();
 		private final Counter counter;
+		private final String name;
+		private final AtomicReference<Throwable> hadException;
 
-		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
+		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter, final String name,
+				final AtomicReference<Throwable> hadException) {
 			this.planAlgo = algo;
 			this.counter = counter;
+			this.name = name;
+			this.hadException = hadException;
 		}
 
 		public void addPlanToThread(final Plan plan) {
@@ -230,9 +217,14 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 
 		@Override
 		public void run() {
-			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
-				this.counter.incCounter();
+			try {
+				for (Plan plan : this.plans) {
+					this.planAlgo.run(plan);
+					this.counter.incCounter();
+				}
+			} catch (Throwable e) {
+				log.error("Task " + this.name + " died with exception. Will stop after all tasks finished.", e);
+				this.hadException.set(e);
 			}
 		}
 	}
@@ -40,6 +40,7 @@ import org.matsim.core.api.internal.MatsimExtensionPoint;
 import org.matsim.core.config.Config;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.utils.timing.Profiler;
 import org.matsim.facilities.Facility;
 import org.matsim.utils.objectattributes.attributable.Attributes;
 
@@ -63,6 +64,7 @@ public final class TripRouter implements MatsimExtensionPoint {
 	private static final Logger log = Logger.getLogger(TripRouter.class );
 
 	private final Map<String, RoutingModule> routingModules = new HashMap<>();
+	private final Map<String, Profiler.Metric> routingTimers = new HashMap<>();
 	private final FallbackRoutingModule fallbackRoutingModule;
 
 	private Config config;
@@ -128,6 +130,7 @@ public final class TripRouter implements MatsimExtensionPoint {
 			final String mainMode,
 			final RoutingModule module) {
 		RoutingModule old = routingModules.put( mainMode , module );
+		routingTimers.put( mainMode, Profiler.timer( "routing", mainMode ) );
 
 		return old;
 	}
@@ -178,8 +181,11 @@ public final class TripRouter implements MatsimExtensionPoint {
 					departureTime,
 					person,
 					routingAttributes);
-					
+
+			Profiler.Metric timer = routingTimers.get(mainMode);
+			long profilingStart = timer.start();
 			List<? extends PlanElement> trip = module.calcRoute(request);
+			timer.stop(profilingStart);
 
 			if ( trip == null ) {
 				trip = fallbackRoutingModule.calcRoute(request) ;
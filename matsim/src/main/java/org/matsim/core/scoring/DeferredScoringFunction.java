@@ -0,0 +1,258 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.scoring;
+
+import gnu.trove.TDoubleCollection;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.HasFacilityId;
+import org.matsim.api.core.v01.events.HasLinkId;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.api.internal.HasPersonId;
+import org.matsim.core.api.internal.HasVehicleId;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.utils.misc.OptionalTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a fingerprint of everything a scoring function of a person is given during an iteration, so that
+ * {@link ScoringFunctionsForPopulation} can skip the scoring of persons whose trajectory did not change compared to
+ * the previous iteration.
+ * <p>
+ * The fingerprint is a 64-bit hash, updated from the typed fields of each call as it arrives. Events (including
+ * stuck, money and score events) are neither stored nor deferred: they are passed on to the actual scoring function
+ * right away.  Only the activities, legs and trips are deferred until {@link #replay(TDoubleCollection)} is called;
+ * these objects are referenced by the experienced plans anyway.
+ *
+ * @see org.matsim.core.config.groups.PlanCalcScoreConfigGroup#isIncrementalScoring()
+ */
+final class DeferredScoringFunction implements ScoringFunction {
+
+	private static final long ACTIVITY = 1;
+	private static final long LEG = 2;
+	private static final long TRIP = 3;
+	private static final long STUCK = 4;
+	private static final long MONEY = 5;
+	private static final long SCORE = 6;
+	private static final long EVENT = 7;
+
+	private final Person person;
+	private final ScoringFunction delegate;
+	private final List<Object> deferredCalls = new ArrayList<>();
+	private long fingerprint = 0x9e3779b97f4a7c15L;
+
+	DeferredScoringFunction(Person person, ScoringFunctionFactory scoringFunctionFactory) {
+		this.person = person;
+		this.delegate = scoringFunctionFactory.createNewScoringFunction(person);
+	}
+
+	@Override
+	public void handleActivity(Activity activity) {
+		this.deferredCalls.add(activity);
+		add(ACTIVITY);
+		add(activity.getType());
+		add(activity.getStartTime());
+		add(activity.getEndTime());
+		add(activity.getLinkId());
+		add(activity.getFacilityId());
+	}
+
+	@Override
+	public void handleLeg(Leg leg) {
+		this.deferredCalls.add(leg);
+		add(LEG);
+		add(leg.getMode());
+		add(TripStructureUtils.getRoutingMode(leg));
+		add(leg.getDepartureTime());
+		add(leg.getTravelTime());
+		Route route = leg.getRoute();
+		if (route != null) {
+			add(route.getStartLinkId());
+			add(route.getEndLinkId());
+			add(route.getDistance());
+			add(route.getTravelTime());
+			if (route instanceof NetworkRoute) {
+				for (Id<?> linkId : ((NetworkRoute) route).getLinkIds()) {
+					add(linkId);
+				}
+			} else {
+				add(route.getRouteDescription());
+			}
+		}
+		for (Map.Entry<String, Object> attribute : leg.getAttributes().getAsMap().entrySet()) {
+			add(attribute.getKey());
+			Object value = attribute.getValue();
+			if (value instanceof Number) {
+				add(((Number) value).doubleValue());
+			} else {
+				add(value == null ? null : value.toString());
+			}
+		}
+	}
+
+	@Override
+	public void handleTrip(TripStructureUtils.Trip trip) {
+		// a trip only consists of the activities and legs already contained in the fingerprint
+		this.deferredCalls.add(trip);
+		add(TRIP);
+	}
+
+	@Override
+	public void agentStuck(double time) {
+		this.delegate.agentStuck(time);
+		add(STUCK);
+		add(time);
+	}
+
+	@Override
+	public void addMoney(double amount) {
+		this.delegate.addMoney(amount);
+		add(MONEY);
+		add(amount);
+	}
+
+	@Override
+	public void addScore(double amount) {
+		this.delegate.addScore(amount);
+		add(SCORE);
+		add(amount);
+	}
+
+	@Override
+	public void handleEvent(Event event) {
+		this.delegate.handleEvent(event);
+		add(EVENT);
+		add(event.getEventType());
+		add(event.getTime());
+		if (event instanceof HasPersonId) {
+			add(((HasPersonId) event).getPersonId());
+		}
+		if (event instanceof HasLinkId) {
+			add(((HasLinkId) event).getLinkId());
+		}
+		if (event instanceof HasFacilityId) {
+			add(((HasFacilityId) event).getFacilityId());
+		}
+		if (event instanceof HasVehicleId) {
+			add(((HasVehicleId) event).getVehicleId());
+		}
+		if (event instanceof ActivityStartEvent) {
+			add(((ActivityStartEvent) event).getActType());
+		} else if (event instanceof ActivityEndEvent) {
+			add(((ActivityEndEvent) event).getActType());
+		} else if (event instanceof PersonDepartureEvent) {
+			add(((PersonDepartureEvent) event).getLegMode());
+			add(((PersonDepartureEvent) event).getRoutingMode());
+		} else if (event instanceof PersonMoneyEvent) {
+			PersonMoneyEvent moneyEvent = (PersonMoneyEvent) event;
+			add(moneyEvent.getAmount());
+			add(moneyEvent.getPurpose());
+			add(moneyEvent.getTransactionPartner());
+		}
+	}
+
+	@Override
+	public void finish() {
+		// the actual scoring function is only finished in replay()
+	}
+
+	@Override
+	public double getScore() {
+		throw new IllegalStateException("The score of person " + this.person.getId() + " is only known after the scoring functions were finished.");
+	}
+
+	long getFingerprint() {
+		return this.fingerprint;
+	}
+
+	int getNumberOfDeferredCalls() {
+		return this.deferredCalls.size();
+	}
+
+	/**
+	 * Passes all deferred activities, legs and trips in their original order to the actual scoring function and
+	 * finishes it.
+	 *
+	 * @param partialScores collection to which the score after each activity and leg is added
+	 * @return the finished scoring function
+	 */
+	ScoringFunction replay(TDoubleCollection partialScores) {
+		for (Object call : this.deferredCalls) {
+			if (call instanceof Activity) {
+				this.delegate.handleActivity((Activity) call);
+				partialScores.add(this.delegate.getScore());
+			} else if (call instanceof Leg) {
+				this.delegate.handleLeg((Leg) call);
+				partialScores.add(this.delegate.getScore());
+			} else {
+				this.delegate.handleTrip((TripStructureUtils.Trip) call);
+			}
+		}
+		this.deferredCalls.clear();
+		this.delegate.finish();
+		return this.delegate;
+	}
+
+	private void add(long value) {
+		// splitmix64 finalizer applied to the combined value
+		long h = this.fingerprint ^ value;
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		this.fingerprint = (h ^ (h >>> 31)) + 0x9e3779b97f4a7c15L;
+	}
+
+	private void add(double value) {
+		add(Double.doubleToLongBits(value));
+	}
+
+	private void add(OptionalTime time) {
+		add(time.isDefined() ? time.seconds() : Double.NaN);
+	}
+
+	private void add(Id<?> id) {
+		// indices are unique per id type and stable within a run
+		add(id == null ? -1L : id.index());
+	}
+
+	private void add(String value) {
+		if (value == null) {
+			add(-1L);
+			return;
+		}
+		// 64-bit FNV-1a
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+		}
+		add(hash);
+	}
+
+}
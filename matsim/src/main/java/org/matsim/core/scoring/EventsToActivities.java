@@ -55,14 +55,20 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
 	}
 
     private final IdMap<Person, Activity> activities = new IdMap<>(Person.class);
-    private final List<ActivityHandler> activityHandlers = new ArrayList<>();
+    private final List<ActivityHandler> activityHandlers;
+    private final List<EventsToActivities> partitions = new ArrayList<>();
 
     public EventsToActivities() {
+        this.activityHandlers = new ArrayList<>();
+    }
 
+    private EventsToActivities(List<ActivityHandler> activityHandlers) {
+        this.activityHandlers = activityHandlers;
     }
 
     @Inject
     EventsToActivities(ControlerListenerManager controlerListenerManager) {
+        this();
         controlerListenerManager.addControlerListener(new AfterMobsimListener() {
             @Override
             public void notifyAfterMobsim(AfterMobsimEvent event) {
@@ -111,6 +117,20 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
                 activityHandler.handleActivity(new PersonExperiencedActivity(id, activity));
             }
         });
+        for (EventsToActivities partition : this.partitions) {
+            partition.finish();
+        }
+    }
+
+    /**
+     * Creates an instance with its own state, which passes its activities to the handlers of this instance
+     * and is finished together with this instance.  Allows to handle the events of disjoint sets of persons
+     * on different threads, so the handlers must be thread-safe then.
+     */
+    EventsToActivities createPartition() {
+        EventsToActivities partition = new EventsToActivities(this.activityHandlers);
+        this.partitions.add(partition);
+        return partition;
     }
 
 }
@@ -364,4 +364,17 @@ public final class EventsToLegs
 	public void addLegHandler(LegHandler legHandler) {
 		this.legHandlers.add(legHandler);
 	}
+
+	/**
+	 * Creates an instance with its own state, which passes its legs to the handlers of this instance.  Allows to
+	 * handle the events of disjoint sets of persons on different threads, so the handlers must be thread-safe then.
+	 * All partitions need to see all vehicle related events, as passengers might belong to other partitions than
+	 * the driver.
+	 */
+	EventsToLegs createPartition() {
+		EventsToLegs partition = new EventsToLegs(this.network);
+		partition.transitSchedule = this.transitSchedule;
+		partition.legHandlers = this.legHandlers;
+		return partition;
+	}
 }
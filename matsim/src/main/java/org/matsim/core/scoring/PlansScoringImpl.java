@@ -33,6 +33,11 @@ import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ScoringEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.ScoringListener;
+import org.matsim.core.utils.io.IOUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 
 /**
@@ -46,6 +51,8 @@ import org.matsim.core.controler.listener.ScoringListener;
 @Singleton
 final class PlansScoringImpl implements PlansScoring, ScoringListener, IterationEndsListener {
 
+	static final String INCREMENTAL_SCORING_FILENAME = "incrementalScoring.txt";
+
 	@Inject private PlanCalcScoreConfigGroup planCalcScoreConfigGroup;
 	@Inject private ControlerConfigGroup controlerConfigGroup;
 	@Inject private Population population;
@@ -58,6 +65,24 @@ final class PlansScoringImpl implements PlansScoring, ScoringListener, Iteration
 		scoringFunctionsForPopulation.finishScoringFunctions();
 		NewScoreAssignerImpl newScoreAssigner = new NewScoreAssignerImpl(this.planCalcScoreConfigGroup, this.controlerConfigGroup);
 		newScoreAssigner.assignNewScores(event.getIteration(), this.scoringFunctionsForPopulation, this.population);
+		if (planCalcScoreConfigGroup.isIncrementalScoring()) {
+			writeIncrementalScoringStats(event.getIteration());
+		}
+	}
+
+	private void writeIncrementalScoringStats(int iteration) {
+		try (BufferedWriter out = IOUtils.getAppendingBufferedWriter(controlerIO.getOutputFilename(INCREMENTAL_SCORING_FILENAME))) {
+			if (iteration == controlerConfigGroup.getFirstIteration()) {
+				out.write("iteration\tscoredPersons\tskippedPersons\tskippedCalls");
+				out.newLine();
+			}
+			out.write(iteration + "\t" + this.scoringFunctionsForPopulation.getNumberOfScoredPersons()
+					+ "\t" + this.scoringFunctionsForPopulation.getNumberOfSkippedPersons()
+					+ "\t" + this.scoringFunctionsForPopulation.getNumberOfSkippedCalls());
+			out.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	@Override
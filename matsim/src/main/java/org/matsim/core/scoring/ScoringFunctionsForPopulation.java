@@ -24,6 +24,7 @@ import com.google.inject.Inject;
 import gnu.trove.TDoubleCollection;
 import gnu.trove.iterator.TDoubleIterator;
 import gnu.trove.list.array.TDoubleArrayList;
+import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.events.ActivityEndEvent;
@@ -48,6 +49,7 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.internal.HasPersonId;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.listener.IterationStartsListener;
 import org.matsim.core.events.EventsUtils;
@@ -76,37 +78,74 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
  *
  */
  final class ScoringFunctionsForPopulation implements BasicEventHandler {
+
+	private static final Logger log = Logger.getLogger(ScoringFunctionsForPopulation.class);
 	
 	private final Population population;
 	private final ScoringFunctionFactory scoringFunctionFactory;
 
-	private final EventsToLegs legsDelegate;
-	private final EventsToActivities actsDelegate;
+	private final Partition[] partitions;
 
 	private final IdMap<Person, ScoringFunction> agentScorers = new IdMap<>(Person.class);
 	private final IdMap<Person, TDoubleCollection> partialScores = new IdMap<>(Person.class);
 	private final AtomicReference<Throwable> exception = new AtomicReference<>();
 	private final IdMap<Person, Plan> tripRecords = new IdMap<>(Person.class);
-	
-	private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
+
+	private final boolean incrementalScoring;
+	private final IdMap<Person, ScoredTrajectory> previousTrajectories = new IdMap<>(Person.class);
+	private int scoredPersons = 0;
+	private int skippedPersons = 0;
+	private long skippedCalls = 0;
 
 	@Inject
+	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+						 Population population, ScoringFunctionFactory scoringFunctionFactory, PlanCalcScoreConfigGroup scoreConfig) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, scoreConfig.getNumberOfScoringPartitions(),
+				scoreConfig.isIncrementalScoring());
+	}
+
 	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
 						 Population population, ScoringFunctionFactory scoringFunctionFactory) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, 1, false);
+	}
+
+	/**
+	 * With more than one partition, the persons are distributed over that many event handlers, each with its own
+	 * state, so a parallel events manager can run them on different threads.  The given {@link EventsToLegs} and
+	 * {@link EventsToActivities} then do not see any events themselves, but their handlers receive the legs and
+	 * activities of all partitions, possibly from different threads.
+	 * <p>
+	 * With incremental scoring, the activities, legs and trips a scoring function would be given are only recorded
+	 * during the iteration. In {@link #finishScoringFunctions()}, they are only passed to the scoring function of a
+	 * person if the person selected another plan or experienced another trajectory than in the previous iteration;
+	 * otherwise the previous scoring function (and thus its score) is re-used.
+	 */
+	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+						 Population population, ScoringFunctionFactory scoringFunctionFactory, int numberOfPartitions, boolean incrementalScoring) {
 		controlerListenerManager.addControlerListener((IterationStartsListener) event -> init());
 		this.population = population;
-		this.legsDelegate = eventsToLegs;
-		this.actsDelegate = eventsToActivities;
 		this.scoringFunctionFactory = scoringFunctionFactory;
+		this.incrementalScoring = incrementalScoring;
 
-		eventsManager.addHandler(this);
 		eventsToActivities.addActivityHandler(this::handleActivity);
 		eventsToLegs.addLegHandler(this::handleLeg);
+
+		if (numberOfPartitions <= 1) {
+			this.partitions = new Partition[] { new Partition(0, eventsToLegs, eventsToActivities) };
+			eventsManager.addHandler(this);
+		} else {
+			this.partitions = new Partition[numberOfPartitions];
+			for (int i = 0; i < numberOfPartitions; i++) {
+				this.partitions[i] = new Partition(i, eventsToLegs.createPartition(), eventsToActivities.createPartition());
+				eventsManager.addHandler(this.partitions[i]);
+			}
+		}
 	}
 
 	private void init() {
 		for (Person person : this.population.getPersons().values()) {
-			ScoringFunction data = this.scoringFunctionFactory.createNewScoringFunction(person);
+			ScoringFunction data = this.incrementalScoring ? new DeferredScoringFunction(person, this.scoringFunctionFactory)
+					: this.scoringFunctionFactory.createNewScoringFunction(person);
 			this.agentScorers.put(person.getId(), data);
 			this.partialScores.put(person.getId(), new TDoubleArrayList());
 			this.tripRecords.put(person.getId(), PopulationUtils.createPlan());
@@ -115,78 +154,8 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	@Override
 	public void handleEvent(Event o) {
-		// this is for the stuff that is directly based on events.
-		// note that this passes on _all_ person events, even those which are aggregated into legs and activities.
-		// for the time being, not all PersonEvents may "implement HasPersonId".
-		// link enter/leave events are NOT passed on, for performance reasons.
-		// kai/dominik, dec'12
-		if (o instanceof HasPersonId) {
-			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
-			if (scoringFunction != null) {
-				if (o instanceof PersonStuckEvent) {
-					scoringFunction.agentStuck(o.getTime());
-				} else if (o instanceof PersonMoneyEvent) {
-					scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
-					// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
-					// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
-				} else if (o instanceof PersonScoreEvent) {
-					scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
-				}
-				scoringFunction.handleEvent(o);
-				// passing this on in any case, see comment above.  kai, mar'17
-			}
-		}
-
-		// Establish and end connection between driver and vehicle
-		if (o instanceof VehicleEntersTrafficEvent) {
-			this.vehicles2Drivers.handleEvent((VehicleEntersTrafficEvent) o);
-		}
-		if (o instanceof VehicleLeavesTrafficEvent) {
-			this.vehicles2Drivers.handleEvent((VehicleLeavesTrafficEvent) o);
-		}
-		// Pass LinkEnterEvent to person scoring, required e.g. for bicycle where link attributes are observed in scoring
-		/*
-		 * (This shouldn't really be more expensive than passing the link events to the router: here, we have a map lookup
-		 * for agentId, there we have a map lookup for linkId. Should be somewhat similar in terms of average
-		 * computational complexity. In BetaTravelTest, 194sec w/ "false", 193sec w/ "true". However, the experienced
-		 * plans service in fact does the same thing, so we should be able to get away without having to do this twice.
-		 * kai, mar'17)
-		 */
-		if (o instanceof LinkEnterEvent) {
-			Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId();
-			Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
-			ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
-			// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
-			if (scoringFunction != null) {
-				scoringFunction.handleEvent(o);
-			}
-		}
-
-		/* Now also handle events for eventsToLegs and eventsToActivities.
-		 * This class deliberately only implements BasicEventHandler and not the individual event handlers required
-		 * by EventsToLegs and EventsToActivities to better control the order in which events are passed to scoring
-		 * functions. By handling the delegation here *after* having the events passed to scoringFunction.handleEvent()
-		 * makes sure that the corresponding event was already seen by a scoring function when the call to handleActivity(),
-		 * handleLeg() or handleTrip() is done.
-		 */
-		if (o instanceof ActivityStartEvent) this.handleActivityStart((ActivityStartEvent) o);
-		if (o instanceof ActivityEndEvent) this.actsDelegate.handleEvent((ActivityEndEvent) o);
-
-		if (o instanceof PersonDepartureEvent) this.legsDelegate.handleEvent((PersonDepartureEvent) o);
-		if (o instanceof PersonArrivalEvent) this.legsDelegate.handleEvent((PersonArrivalEvent) o);
-		if (o instanceof LinkEnterEvent) this.legsDelegate.handleEvent((LinkEnterEvent) o);
-		if (o instanceof TeleportationArrivalEvent) this.legsDelegate.handleEvent((TeleportationArrivalEvent) o);
-		if (o instanceof TransitDriverStartsEvent) this.legsDelegate.handleEvent((TransitDriverStartsEvent) o);
-		if (o instanceof PersonEntersVehicleEvent) this.legsDelegate.handleEvent((PersonEntersVehicleEvent) o);
-		if (o instanceof VehicleArrivesAtFacilityEvent) this.legsDelegate.handleEvent((VehicleArrivesAtFacilityEvent) o);
-		if (o instanceof VehicleEntersTrafficEvent) this.legsDelegate.handleEvent((VehicleEntersTrafficEvent) o);
-		if (o instanceof VehicleLeavesTrafficEvent) this.legsDelegate.handleEvent((VehicleLeavesTrafficEvent) o);
-	}
-
-	private void handleActivityStart(ActivityStartEvent event) {
-		this.actsDelegate.handleEvent(event);
-		if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
-			this.callTripScoring(event);
+		for (Partition partition : this.partitions) {
+			partition.handleEvent(o);
 		}
 	}
 
@@ -224,8 +193,10 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
 		if (scoringFunction != null) {
 			scoringFunction.handleLeg(leg);
-			TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
-			partialScoresForAgent.add(scoringFunction.getScore());
+			if (!this.incrementalScoring) {
+				TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
+				partialScoresForAgent.add(scoringFunction.getScore());
+			}
 		}
 		Plan plan = this.tripRecords.get( agentId ) ; // as container for trip
 		if ( plan!=null ) {
@@ -239,8 +210,10 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
 		if (scoringFunction != null) {
 			scoringFunction.handleActivity(activity);
-			TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
-			partialScoresForAgent.add(scoringFunction.getScore());
+			if (!this.incrementalScoring) {
+				TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
+				partialScoresForAgent.add(scoringFunction.getScore());
+			}
 		}
 		
 		Plan plan = this.tripRecords.get( agentId ); // as container for trip
@@ -273,12 +246,69 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				throw new RuntimeException(throwable);
 			}
 		}
+		if (this.incrementalScoring) {
+			finishScoringFunctionsIncrementally();
+			return;
+		}
 		for (ScoringFunction sf : this.agentScorers.values()) {
 			sf.finish();
 		}
-		for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
-			entry.getValue().add(this.getScoringFunctionForAgent(entry.getKey()).getScore());
+		this.partialScores.forEach((personId, partialScoresForAgent) -> partialScoresForAgent.add(this.getScoringFunctionForAgent(personId).getScore()));
+	}
+
+	private void finishScoringFunctionsIncrementally() {
+		this.scoredPersons = 0;
+		this.skippedPersons = 0;
+		this.skippedCalls = 0;
+		for (Entry<Id<Person>, ScoringFunction> entry : this.agentScorers.entrySet()) {
+			Id<Person> personId = entry.getKey();
+			if (!(entry.getValue() instanceof DeferredScoringFunction)) {
+				continue; // already finished
+			}
+			DeferredScoringFunction deferred = (DeferredScoringFunction) entry.getValue();
+			Person person = this.population.getPersons().get(personId);
+			Plan selectedPlan = person == null ? null : person.getSelectedPlan();
+			ScoredTrajectory previous = this.previousTrajectories.get(personId);
+			if (previous != null && selectedPlan != null && previous.plan == selectedPlan && previous.fingerprint == deferred.getFingerprint()) {
+				this.skippedPersons++;
+				this.skippedCalls += deferred.getNumberOfDeferredCalls();
+				entry.setValue(previous.scoringFunction);
+				this.partialScores.put(personId, previous.partialScores);
+			} else {
+				this.scoredPersons++;
+				TDoubleCollection partialScoresForAgent = this.partialScores.get(personId);
+				ScoringFunction scoringFunction = deferred.replay(partialScoresForAgent);
+				partialScoresForAgent.add(scoringFunction.getScore());
+				entry.setValue(scoringFunction);
+				this.previousTrajectories.put(personId, new ScoredTrajectory(deferred.getFingerprint(), selectedPlan, scoringFunction, partialScoresForAgent));
+			}
 		}
+		log.info("incremental scoring: scored " + this.scoredPersons + " persons, re-used the score of " + this.skippedPersons
+				+ " persons with unchanged trajectories (" + this.skippedCalls + " skipped scoring function calls).");
+	}
+
+	/**
+	 * @return the number of persons whose scoring function was run in the last call to {@link #finishScoringFunctions()}
+	 * with incremental scoring
+	 */
+	int getNumberOfScoredPersons() {
+		return this.scoredPersons;
+	}
+
+	/**
+	 * @return the number of persons whose previous score was re-used in the last call to {@link #finishScoringFunctions()}
+	 * with incremental scoring
+	 */
+	int getNumberOfSkippedPersons() {
+		return this.skippedPersons;
+	}
+
+	/**
+	 * @return the number of scoring function calls saved by re-using previous scores in the last call to
+	 * {@link #finishScoringFunctions()} with incremental scoring
+	 */
+	long getNumberOfSkippedCalls() {
+		return this.skippedCalls;
 	}
 
 	public void writePartialScores(String iterationFilename) {
@@ -299,8 +329,135 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	@Override
 	public void reset(int iteration) {
-		this.legsDelegate.reset(iteration);
-		this.actsDelegate.reset(iteration);
+		for (Partition partition : this.partitions) {
+			partition.reset(iteration);
+		}
+	}
+
+	private static final class ScoredTrajectory {
+		private final long fingerprint;
+		private final Plan plan;
+		private final ScoringFunction scoringFunction;
+		private final TDoubleCollection partialScores;
+
+		ScoredTrajectory(long fingerprint, Plan plan, ScoringFunction scoringFunction, TDoubleCollection partialScores) {
+			this.fingerprint = fingerprint;
+			this.plan = plan;
+			this.scoringFunction = scoringFunction;
+			this.partialScores = partialScores;
+		}
+	}
+
+	/**
+	 * Handles the events of the persons with <code>personId.index() % numberOfPartitions == partitionIndex</code>.
+	 * Each partition has its own state to convert events into legs and activities, so the partitions can be
+	 * registered as separate handlers and run on different threads of a parallel events manager.
+	 */
+	private final class Partition implements BasicEventHandler {
+
+		private final int partitionIndex;
+		private final EventsToLegs legsDelegate;
+		private final EventsToActivities actsDelegate;
+		private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
+
+		Partition(int partitionIndex, EventsToLegs legsDelegate, EventsToActivities actsDelegate) {
+			this.partitionIndex = partitionIndex;
+			this.legsDelegate = legsDelegate;
+			this.actsDelegate = actsDelegate;
+		}
+
+		private boolean owns(Id<Person> personId) {
+			return partitions.length == 1 || (personId != null && personId.index() % partitions.length == this.partitionIndex);
+		}
+
+		@Override
+		public void handleEvent(Event o) {
+			// this is for the stuff that is directly based on events.
+			// note that this passes on _all_ person events, even those which are aggregated into legs and activities.
+			// for the time being, not all PersonEvents may "implement HasPersonId".
+			// link enter/leave events are NOT passed on, for performance reasons.
+			// kai/dominik, dec'12
+			boolean isOwnPersonEvent = o instanceof HasPersonId && owns(((HasPersonId) o).getPersonId());
+			if (isOwnPersonEvent) {
+				ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
+				if (scoringFunction != null) {
+					if (o instanceof PersonStuckEvent) {
+						scoringFunction.agentStuck(o.getTime());
+					} else if (o instanceof PersonMoneyEvent) {
+						scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
+						// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
+						// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
+					} else if (o instanceof PersonScoreEvent) {
+						scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
+					}
+					scoringFunction.handleEvent(o);
+					// passing this on in any case, see comment above.  kai, mar'17
+				}
+			}
+
+			// Establish and end connection between driver and vehicle (only for own drivers, so link events of other drivers are skipped below)
+			if (o instanceof VehicleEntersTrafficEvent && isOwnPersonEvent) {
+				this.vehicles2Drivers.handleEvent((VehicleEntersTrafficEvent) o);
+			}
+			if (o instanceof VehicleLeavesTrafficEvent && isOwnPersonEvent) {
+				this.vehicles2Drivers.handleEvent((VehicleLeavesTrafficEvent) o);
+			}
+			// Pass LinkEnterEvent to person scoring, required e.g. for bicycle where link attributes are observed in scoring
+			/*
+			 * (This shouldn't really be more expensive than passing the link events to the router: here, we have a map lookup
+			 * for agentId, there we have a map lookup for linkId. Should be somewhat similar in terms of average
+			 * computational complexity. In BetaTravelTest, 194sec w/ "false", 193sec w/ "true". However, the experienced
+			 * plans service in fact does the same thing, so we should be able to get away without having to do this twice.
+			 * kai, mar'17)
+			 */
+			if (o instanceof LinkEnterEvent) {
+				Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId();
+				Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
+				// (no driver if the driver belongs to another partition)
+				ScoringFunction scoringFunction = driverId == null ? null : ScoringFunctionsForPopulation.this.getScoringFunctionForAgent( driverId );
+				// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
+				if (scoringFunction != null) {
+					scoringFunction.handleEvent(o);
+				}
+			}
+
+			/* Now also handle events for eventsToLegs and eventsToActivities.
+			 * This class deliberately only implements BasicEventHandler and not the individual event handlers required
+			 * by EventsToLegs and EventsToActivities to better control the order in which events are passed to scoring
+			 * functions. By handling the delegation here *after* having the events passed to scoringFunction.handleEvent()
+			 * makes sure that the corresponding event was already seen by a scoring function when the call to handleActivity(),
+			 * handleLeg() or handleTrip() is done.
+			 * Person related events are only passed on for own persons, vehicle related events are passed on in any case,
+			 * as the passengers of a vehicle might be own persons even if the driver is not.
+			 */
+			if (isOwnPersonEvent) {
+				if (o instanceof ActivityStartEvent) this.handleActivityStart((ActivityStartEvent) o);
+				if (o instanceof ActivityEndEvent) this.actsDelegate.handleEvent((ActivityEndEvent) o);
+
+				if (o instanceof PersonDepartureEvent) this.legsDelegate.handleEvent((PersonDepartureEvent) o);
+				if (o instanceof PersonArrivalEvent) this.legsDelegate.handleEvent((PersonArrivalEvent) o);
+				if (o instanceof TeleportationArrivalEvent) this.legsDelegate.handleEvent((TeleportationArrivalEvent) o);
+				if (o instanceof PersonEntersVehicleEvent) this.legsDelegate.handleEvent((PersonEntersVehicleEvent) o);
+			}
+			if (o instanceof LinkEnterEvent) this.legsDelegate.handleEvent((LinkEnterEvent) o);
+			if (o instanceof TransitDriverStartsEvent) this.legsDelegate.handleEvent((TransitDriverStartsEvent) o);
+			if (o instanceof VehicleArrivesAtFacilityEvent) this.legsDelegate.handleEvent((VehicleArrivesAtFacilityEvent) o);
+			if (o instanceof VehicleEntersTrafficEvent) this.legsDelegate.handleEvent((VehicleEntersTrafficEvent) o);
+			if (o instanceof VehicleLeavesTrafficEvent) this.legsDelegate.handleEvent((VehicleLeavesTrafficEvent) o);
+		}
+
+		private void handleActivityStart(ActivityStartEvent event) {
+			this.actsDelegate.handleEvent(event);
+			if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
+				ScoringFunctionsForPopulation.this.callTripScoring(event);
+			}
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.legsDelegate.reset(iteration);
+			this.actsDelegate.reset(iteration);
+		}
 	}
 
 }
@@ -22,7 +22,10 @@ package org.matsim.core.trafficmonitoring;
 import com.google.inject.Inject;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdDoubleMap;
+import org.matsim.api.core.v01.IdIntMap;
 import org.matsim.api.core.v01.IdMap;
+import org.matsim.api.core.v01.IdSet;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleAbortsEvent;
@@ -49,7 +52,12 @@ import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 
-import java.util.HashSet;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -65,6 +73,13 @@ import java.util.concurrent.ConcurrentHashMap;
  * use {@link TravelTimeDataHashMap},}
  * as that one does not use any memory to time bins where no traffic occurred. By default,
  * {@link TravelTimeDataArray} is used.
+ * <br>
+ * With more than one shard, the events are not handled by the calculator itself, but by one handler per shard (see
+ * {@link #addEventHandlers(EventsManager)}).  Each shard owns the links whose index modulo the number of shards
+ * equals the shard's number, and only handles link events for those links.  As the shards write into disjoint
+ * {@link TravelTimeData} objects, they can be fed by different threads of a parallel events manager without any
+ * locking; the travel times are read from the same data objects as without sharding.  Link-to-link travel times
+ * cannot be collected with shards, as consecutive links of a vehicle usually belong to different shards.
  *
  * @author dgrether
  * @author mrieser
@@ -88,9 +103,11 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	private final DataContainerProvider dataContainerProvider;
 
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
+	// time and link (by index) of the last link enter event per vehicle; kept in primitive maps to avoid boxing/retaining event objects
+	private final IdDoubleMap<Vehicle> linkEnterTimes;
+	private final IdIntMap<Vehicle> linkEnterLinks;
 
-	private final Set<Id<Vehicle>> vehiclesToIgnore;
+	private final IdSet<Vehicle> vehiclesToIgnore;
 	private final Set<String> analyzedModes;
 
 	private final boolean filterAnalyzedModes;
@@ -101,6 +118,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	private TravelTimeDataFactory ttDataFactory = null;
 
+	private final List<Shard> shards = new ArrayList<>();
+
 	@Inject private QSimConfigGroup qsimConfig ;
 	TravelTimeGetter travelTimeGetter ;
 
@@ -146,8 +165,9 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	TravelTimeCalculator(TravelTimeCalculatorConfigGroup ttconfigGroup, EventsManager eventsManager, Network network) {
 		// this injected constructor is not used when getSeparateModes is true
 		this(network, ttconfigGroup.getTraveltimeBinSize(), ttconfigGroup.getMaxTime(), ttconfigGroup.isCalculateLinkTravelTimes(),
-			  ttconfigGroup.isCalculateLinkToLinkTravelTimes(), ttconfigGroup.isFilterModes(), CollectionUtils.stringToSet(ttconfigGroup.getAnalyzedModesAsString() ) );
-		eventsManager.addHandler(this);
+			  ttconfigGroup.isCalculateLinkToLinkTravelTimes(), ttconfigGroup.isFilterModes(), CollectionUtils.stringToSet(ttconfigGroup.getAnalyzedModesAsString() ),
+			  ttconfigGroup.getNumberOfShards() );
+		addEventHandlers(eventsManager);
 		configure(this, ttconfigGroup, network);
 	}
 
@@ -161,7 +181,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	@Deprecated // user builder instead.  kai, feb'19
 	public TravelTimeCalculator(final Network network, final int timeslice, final int maxTime, TravelTimeCalculatorConfigGroup ttconfigGroup) {
 		this(network, timeslice, maxTime, ttconfigGroup.isCalculateLinkTravelTimes(), ttconfigGroup.isCalculateLinkToLinkTravelTimes(), ttconfigGroup.isFilterModes(),
-			  CollectionUtils.stringToSet(ttconfigGroup.getAnalyzedModesAsString() ) );
+			  CollectionUtils.stringToSet(ttconfigGroup.getAnalyzedModesAsString() ), 1 );
 	}
 
 	public final static class Builder {
@@ -174,6 +194,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		private boolean calculateLinkToLinkTravelTimes = false ;
 		private boolean filterModes = false ;
 		private Set<String> analyzedModes = null ;
+		private int numberOfShards = 1 ;
 		private TravelTimeCalculatorConfigGroup ttcConfig;
 		private boolean toBeConfigured = false ;
 
@@ -205,6 +226,13 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			this.analyzedModes = analyzedModes;
 		}
 
+		/**
+		 * @see TravelTimeCalculatorConfigGroup#getNumberOfShards()
+		 */
+		public void setNumberOfShards( int numberOfShards ){
+			this.numberOfShards = numberOfShards;
+		}
+
 		public void configure ( TravelTimeCalculatorConfigGroup ttcConfig ) {
 			// yyyyyy this is a fix to get the outward API sorted out somewhat better.  kai, feb'19
 			// yyyyyy presumably would like to replace this with setters for {@link TravelTimeDataFactory} and {@link TravelTimeGetter}.  But it ain't that easy because
@@ -216,7 +244,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 		public TravelTimeCalculator build() {
 			TravelTimeCalculator abc = new TravelTimeCalculator( network, timeslice, maxTime, calculateLinkTravelTimes, calculateLinkToLinkTravelTimes, filterModes,
-				  analyzedModes );
+				  analyzedModes, numberOfShards );
 			if( toBeConfigured ){
 				TravelTimeCalculator.configure( abc, this.ttcConfig, this.network );
 			}
@@ -226,7 +254,14 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	}
 
 	private TravelTimeCalculator(final Network network, final int timeslice, final int maxTime,
-				   boolean calculateLinkTravelTimes, boolean calculateLinkToLinkTravelTimes, boolean filterModes, Set<String> analyzedModes) {
+				   boolean calculateLinkTravelTimes, boolean calculateLinkToLinkTravelTimes, boolean filterModes, Set<String> analyzedModes,
+				   int numberOfShards) {
+		if (numberOfShards < 1) {
+			throw new IllegalArgumentException("numberOfShards must be at least 1, but is " + numberOfShards);
+		}
+		if (numberOfShards > 1 && calculateLinkToLinkTravelTimes) {
+			throw new IllegalArgumentException("link to link travel times cannot be calculated with more than one shard.");
+		}
 		this.calculateLinkTravelTimes = calculateLinkTravelTimes;
 		this.calculateLinkToLinkTravelTimes = calculateLinkToLinkTravelTimes;
 		this.filterAnalyzedModes = filterModes;
@@ -256,26 +291,50 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			// assume that every link has 2 outgoing links as default
 			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
+		this.linkEnterTimes = new IdDoubleMap<>(Vehicle.class);
+		this.linkEnterLinks = new IdIntMap<>(Vehicle.class);
 
 		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
 		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
+		this.vehiclesToIgnore = new IdSet<>(Vehicle.class);
+
+		if (numberOfShards > 1) {
+			for (int i = 0; i < numberOfShards; i++) {
+				this.shards.add(new Shard(i, numberOfShards));
+			}
+		}
 
 		this.reset(0);
 	}
 
+	/**
+	 * Adds the handlers collecting the travel times to the events manager:  the calculator itself, or one handler
+	 * per shard if more than one shard is configured.  In the latter case, the calculator itself must not be added
+	 * as a handler as well.
+	 */
+	public void addEventHandlers(EventsManager eventsManager) {
+		if (this.shards.isEmpty()) {
+			eventsManager.addHandler(this);
+		} else {
+			for (Shard shard : this.shards) {
+				eventsManager.addHandler(shard);
+			}
+		}
+	}
+
 	@Override
 	public void handleEvent(final LinkEnterEvent e) {
 		/* if only some modes are analyzed, we check whether the vehicles
 		 * performs a trip with one of those modes. if not, we skip the event. */
 		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
 
-		LinkEnterEvent oldEvent = this.linkEnterEvents.put(e.getVehicleId(), e);
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
+		Id<Vehicle> vehicleId = e.getVehicleId();
+		boolean hasOldEvent = this.linkEnterTimes.containsKey(vehicleId);
+		double enterTime = this.linkEnterTimes.put(vehicleId, e.getTime());
+		int oldLinkIndex = this.linkEnterLinks.put(vehicleId, e.getLinkId().index());
+		if (hasOldEvent && this.calculateLinkToLinkTravelTimes) {
+			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(Id.get(oldLinkIndex, Link.class), e.getLinkId());
 			TravelTimeData data = getLinkToLinkTravelTimeData(fromToLink );
-			double enterTime = oldEvent.getTime();
 
 			final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 			data.addTravelTime(timeSlot, e.getTime() - enterTime );
@@ -286,10 +345,10 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	@Override
 	public void handleEvent(final LinkLeaveEvent e) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
+			Id<Vehicle> vehicleId = e.getVehicleId();
+			if (this.linkEnterTimes.containsKey(vehicleId)) {
 				TravelTimeData data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
-				double enterTime = oldEvent.getTime();
+				double enterTime = this.linkEnterTimes.get(vehicleId);
 
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 				data.addTravelTime(timeSlot, e.getTime() - enterTime );
@@ -313,7 +372,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId());
+		this.linkEnterLinks.remove(event.getVehicleId());
 
 		// try to remove vehicles from set with filtered vehicles
 		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
@@ -324,14 +384,17 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a bus stops on a link.
 		 * otherwise, the stop time would counted as travel time, when the
 		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId());
+		this.linkEnterLinks.remove(event.getVehicleId());
 	}
 
 	@Override
 	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			TravelTimeData data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
+		Id<Vehicle> vehicleId = event.getVehicleId();
+		if (this.linkEnterTimes.remove(vehicleId)) {
+			Id<Link> linkId = Id.get(this.linkEnterLinks.get(vehicleId), Link.class);
+			this.linkEnterLinks.remove(vehicleId);
+			TravelTimeData data = this.dataContainerProvider.getTravelTimeData(linkId, true);
 			data.setNeedsConsolidation( true );
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
@@ -432,8 +495,58 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 				data.setNeedsConsolidation( false );
 			}
 		}
-		this.linkEnterEvents.clear();
+		this.linkEnterTimes.clear();
+		this.linkEnterLinks.clear();
 		this.vehiclesToIgnore.clear();
+		for (Shard shard : this.shards) {
+			shard.resetVehicles();
+		}
+	}
+
+	/**
+	 * Writes the travel times collected in the last iteration for a checkpoint.  The state of vehicles currently on
+	 * a link is not part of it, as checkpoints are only written between iterations.
+	 */
+	void writeCheckpoint(DataOutput out) throws IOException {
+		if (this.calculateLinkTravelTimes) {
+			out.writeInt(this.linkData.size());
+			for (Map.Entry<Id<Link>, TravelTimeData> entry : this.linkData.entrySet()) {
+				out.writeUTF(entry.getKey().toString());
+				out.writeBoolean(entry.getValue().isNeedingConsolidation());
+				entry.getValue().writeData(out);
+			}
+		}
+		if (this.calculateLinkToLinkTravelTimes) {
+			out.writeInt(this.linkToLinkData.size());
+			for (Map.Entry<Tuple<Id<Link>, Id<Link>>, TravelTimeData> entry : this.linkToLinkData.entrySet()) {
+				out.writeUTF(entry.getKey().getFirst().toString());
+				out.writeUTF(entry.getKey().getSecond().toString());
+				out.writeBoolean(entry.getValue().isNeedingConsolidation());
+				entry.getValue().writeData(out);
+			}
+		}
+	}
+
+	void readCheckpoint(DataInput in) throws IOException {
+		this.reset(0);
+		if (this.calculateLinkTravelTimes) {
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				TravelTimeData data = this.dataContainerProvider.getTravelTimeData(Id.createLinkId(in.readUTF()), true);
+				data.setNeedsConsolidation(in.readBoolean());
+				data.readData(in);
+			}
+		}
+		if (this.calculateLinkToLinkTravelTimes) {
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				Id<Link> fromLinkId = Id.createLinkId(in.readUTF());
+				Id<Link> toLinkId = Id.createLinkId(in.readUTF());
+				TravelTimeData data = getLinkToLinkTravelTimeData(new Tuple<>(fromLinkId, toLinkId));
+				data.setNeedsConsolidation(in.readBoolean());
+				data.readData(in);
+			}
+		}
 	}
 
 	/**
@@ -547,6 +660,147 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		};
 	}
 
+	/**
+	 * Collects the link travel times of the links owned by this shard.  The state per vehicle is kept in arrays
+	 * indexed by the vehicle's id index, and the data object of every owned link is cached in an array indexed by the
+	 * link's id index divided by the number of shards.  Only the creation of a missing data object synchronizes with
+	 * the other shards, which happens at most once per link over all iterations, as the data objects are reused.
+	 */
+	private final class Shard implements LinkEnterEventHandler, LinkLeaveEventHandler, VehicleEntersTrafficEventHandler,
+			VehicleLeavesTrafficEventHandler, VehicleArrivesAtFacilityEventHandler, VehicleAbortsEventHandler {
+
+		private final int shard;
+		private final int numberOfShards;
+
+		// NaN if the vehicle is not on one of this shard's links
+		private double[] enterTimes = new double[0];
+		private int[] enterLinks = new int[0];
+		private boolean[] ignored = new boolean[0];
+		private TravelTimeData[] data = new TravelTimeData[0];
+
+		Shard(int shard, int numberOfShards) {
+			this.shard = shard;
+			this.numberOfShards = numberOfShards;
+		}
+
+		private boolean isOwned(Id<Link> linkId) {
+			return linkId.index() % this.numberOfShards == this.shard;
+		}
+
+		private void ensureVehicleCapacity(int index) {
+			if (index >= this.enterTimes.length) {
+				int size = Math.max(Math.max(index + 1, 2 * this.enterTimes.length), Id.getNumberOfIds(Vehicle.class));
+				int oldSize = this.enterTimes.length;
+				this.enterTimes = Arrays.copyOf(this.enterTimes, size);
+				Arrays.fill(this.enterTimes, oldSize, size, Double.NaN);
+				this.enterLinks = Arrays.copyOf(this.enterLinks, size);
+				this.ignored = Arrays.copyOf(this.ignored, size);
+			}
+		}
+
+		private TravelTimeData getData(Id<Link> linkId) {
+			int slot = linkId.index() / this.numberOfShards;
+			if (slot >= this.data.length) {
+				int size = Math.max(slot + 1, Id.getNumberOfIds(Link.class) / this.numberOfShards + 1);
+				this.data = Arrays.copyOf(this.data, size);
+			}
+			TravelTimeData linkData = this.data[slot];
+			if (linkData == null) {
+				synchronized (TravelTimeCalculator.this.linkData) {
+					linkData = TravelTimeCalculator.this.dataContainerProvider.getTravelTimeData(linkId, true);
+				}
+				this.data[slot] = linkData;
+			}
+			return linkData;
+		}
+
+		private void clearVehicle(int index) {
+			if (index < this.enterTimes.length) {
+				this.enterTimes[index] = Double.NaN;
+			}
+		}
+
+		@Override
+		public void handleEvent(LinkEnterEvent e) {
+			if (!isOwned(e.getLinkId())) return;
+			int index = e.getVehicleId().index();
+			ensureVehicleCapacity(index);
+			if (filterAnalyzedModes && this.ignored[index]) return;
+			this.enterTimes[index] = e.getTime();
+			this.enterLinks[index] = e.getLinkId().index();
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent e) {
+			if (!calculateLinkTravelTimes || !isOwned(e.getLinkId())) return;
+			int index = e.getVehicleId().index();
+			if (index >= this.enterTimes.length) return;
+			double enterTime = this.enterTimes[index];
+			if (!Double.isNaN(enterTime)) {
+				TravelTimeData linkData = getData(e.getLinkId());
+				final int timeSlot = aggregator.getTimeSlotIndex(enterTime);
+				linkData.addTravelTime(timeSlot, e.getTime() - enterTime);
+				linkData.setNeedsConsolidation(true);
+			}
+		}
+
+		@Override
+		public void handleEvent(VehicleEntersTrafficEvent event) {
+			if (filterAnalyzedModes && !analyzedModes.contains(event.getNetworkMode())) {
+				int index = event.getVehicleId().index();
+				ensureVehicleCapacity(index);
+				this.ignored[index] = true;
+			}
+		}
+
+		@Override
+		public void handleEvent(VehicleLeavesTrafficEvent event) {
+			int index = event.getVehicleId().index();
+			clearVehicle(index);
+			if (filterAnalyzedModes && index < this.ignored.length) {
+				this.ignored[index] = false;
+			}
+		}
+
+		@Override
+		public void handleEvent(VehicleArrivesAtFacilityEvent event) {
+			clearVehicle(event.getVehicleId().index());
+		}
+
+		@Override
+		public void handleEvent(VehicleAbortsEvent event) {
+			int index = event.getVehicleId().index();
+			if (index < this.enterTimes.length && !Double.isNaN(this.enterTimes[index])) {
+				this.enterTimes[index] = Double.NaN;
+				if (calculateLinkTravelTimes) {
+					getData(Id.get(this.enterLinks[index], Link.class)).setNeedsConsolidation(true);
+				}
+			}
+			if (filterAnalyzedModes && index < this.ignored.length) {
+				this.ignored[index] = false;
+			}
+		}
+
+		@Override
+		public void reset(int iteration) {
+			// every shard resets the data of its own links, so the shards can be reset concurrently
+			if (calculateLinkTravelTimes) {
+				for (Map.Entry<Id<Link>, TravelTimeData> entry : TravelTimeCalculator.this.linkData.entrySet()) {
+					if (isOwned(entry.getKey())) {
+						entry.getValue().resetTravelTimes();
+						entry.getValue().setNeedsConsolidation(false);
+					}
+				}
+			}
+			resetVehicles();
+		}
+
+		void resetVehicles() {
+			Arrays.fill(this.enterTimes, Double.NaN);
+			Arrays.fill(this.ignored, false);
+		}
+	}
+
 	@Deprecated // use builder.configure(config) instead.  kai, feb'19
 	public void setTtDataFactory( TravelTimeDataFactory ttDataFactory ){
 		// yyyyyy this is currently here for a test, but should be removed.  kai, feb'19
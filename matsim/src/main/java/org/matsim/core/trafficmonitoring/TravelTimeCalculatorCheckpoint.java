@@ -0,0 +1,62 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.trafficmonitoring;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import org.matsim.core.controler.checkpoint.Checkpointable;
+
+import javax.inject.Inject;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Makes the travel times of the last iteration part of the checkpoints, so the replanning of the first iteration
+ * after a restart routes with the same travel times as the original run.
+ */
+final class TravelTimeCalculatorCheckpoint implements Checkpointable {
+
+	@Inject Injector injector;
+
+	private final String name;
+	private final Key<TravelTimeCalculator> key;
+
+	TravelTimeCalculatorCheckpoint(String name, Key<TravelTimeCalculator> key) {
+		this.name = name;
+		this.key = key;
+	}
+
+	@Override
+	public String getCheckpointName() {
+		return this.name;
+	}
+
+	@Override
+	public void writeCheckpoint(int iteration, DataOutput out) throws IOException {
+		this.injector.getInstance(this.key).writeCheckpoint(out);
+	}
+
+	@Override
+	public void readCheckpoint(int iteration, DataInput in) throws IOException {
+		this.injector.getInstance(this.key).readCheckpoint(in);
+	}
+}
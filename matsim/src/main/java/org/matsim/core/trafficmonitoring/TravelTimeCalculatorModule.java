@@ -64,6 +64,8 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 
 				// generate and bind the observer:
 				bind(TravelTimeCalculator.class).annotatedWith(Names.named(mode)).toProvider(new SingleModeTravelTimeCalculatorProvider(mode)).in(Singleton.class);
+				addCheckpointableBinding().toInstance(new TravelTimeCalculatorCheckpoint("travelTimeCalculator." + mode,
+						Key.get(TravelTimeCalculator.class, Names.named(mode))));
 
 				// bind the observer to travel time provider (for router):
 				addTravelTimeBinding(mode).toProvider(new Provider<TravelTime>() {
@@ -85,6 +87,7 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			
 			// bind the TravelTimeCalculator, which is the observer and aggregator:
 			bind(TravelTimeCalculator.class).in(Singleton.class);
+			addCheckpointableBinding().toInstance(new TravelTimeCalculatorCheckpoint("travelTimeCalculator", Key.get(TravelTimeCalculator.class)));
 			
 			// bind the TravelTime objects.  In this case, this just passes on the same information from TravelTimeCalculator to each individual mode:
 			if (getConfig().travelTimeCalculator().isCalculateLinkTravelTimes()) {
@@ -125,9 +128,10 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			builder.setCalculateLinkToLinkTravelTimes( config.isCalculateLinkToLinkTravelTimes() );
 			builder.setFilterModes( true ); // no point asking the config since we are in "separateModes" anyways.
 			builder.setAnalyzedModes( CollectionUtils.stringToSet( mode ) );
+			builder.setNumberOfShards( config.getNumberOfShards() );
 			builder.configure( config );
 			TravelTimeCalculator calculator = builder.build();
-			eventsManager.addHandler( calculator );
+			calculator.addEventHandlers( eventsManager );
 			return calculator ;
 		}
 	}
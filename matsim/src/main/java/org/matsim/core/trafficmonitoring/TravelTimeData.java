@@ -20,6 +20,10 @@
 
 package org.matsim.core.trafficmonitoring;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 abstract class TravelTimeData {
 	// yyyy My (relative strong) intuition would be that the methods of this should accept time in seconds, and do the conversion to bins internally.  Otherwise, we bind the
 	// information of TravelTimeData to uniform time slices forever.  kai, feb'19
@@ -59,6 +63,16 @@ abstract class TravelTimeData {
 	 */
 	abstract double getTravelTime(final int timeSlot, final double now);
 
+	/**
+	 * Writes the collected data, including values that are computed lazily, for a checkpoint.
+	 */
+	abstract void writeData(DataOutput out) throws IOException;
+
+	/**
+	 * Replaces the collected data with the data written by {@link #writeData(DataOutput)}.
+	 */
+	abstract void readData(DataInput in) throws IOException;
+
 	void setNeedsConsolidation( boolean flag ) {
 		this.needsConsolidation = flag ;
 	}
@@ -22,6 +22,9 @@ package org.matsim.core.trafficmonitoring;
 
 import org.matsim.api.core.v01.network.Link;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -117,6 +120,26 @@ class TravelTimeDataArray extends TravelTimeData {
 		return freespeed;
 	}
 
+	@Override
+	void writeData(DataOutput out) throws IOException {
+		out.writeInt(this.data.length);
+		for (long val : this.data) {
+			out.writeLong(val);
+		}
+	}
+
+	@Override
+	void readData(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length != this.data.length) {
+			throw new IllegalStateException("expected " + this.data.length + " time slots, but got " + length
+					+ ". The travel time bin size and max time must not change when restarting from a checkpoint.");
+		}
+		for (int i = 0; i < length; i++) {
+			this.data[i] = in.readLong();
+		}
+	}
+
 	/* package-private for debugging */ String cntToString(){
 		StringBuilder strb = new StringBuilder().append( "cnt=[ " );
 		for( int ii = 0 ; ii < this.data.length ; ii++ ){
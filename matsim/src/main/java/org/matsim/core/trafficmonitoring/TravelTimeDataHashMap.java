@@ -20,6 +20,9 @@
 
 package org.matsim.core.trafficmonitoring;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -85,6 +88,28 @@ class TravelTimeDataHashMap extends TravelTimeData {
 		return ts.timeSum / ts.cnt;
 	}
 
+	@Override
+	void writeData(DataOutput out) throws IOException {
+		out.writeInt(this.travelTimes.size());
+		for (Map.Entry<Integer, TimeStruct> entry : this.travelTimes.entrySet()) {
+			out.writeInt(entry.getKey());
+			out.writeDouble(entry.getValue().timeSum);
+			out.writeInt(entry.getValue().cnt);
+		}
+	}
+
+	@Override
+	void readData(DataInput in) throws IOException {
+		this.travelTimes.clear();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			int timeSlice = in.readInt();
+			double timeSum = in.readDouble();
+			int cnt = in.readInt();
+			this.travelTimes.put(IntegerCache.getInteger(timeSlice), new TimeStruct(timeSum, cnt));
+		}
+	}
+
 	private static class TimeStruct {
 		public double timeSum;
 		public int cnt;
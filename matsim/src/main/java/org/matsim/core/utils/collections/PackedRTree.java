@@ -0,0 +1,458 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A static spatial index for read-only lookups, as an alternative to {@link QuadTree}.
+ *
+ * The index is a packed Hilbert R-tree: all items are given at once to a {@link Builder}, sorted along a
+ * Hilbert curve and packed bottom-up into nodes of a fixed size. All bounding boxes are stored in a single
+ * <code>double[]</code> and the tree structure in an <code>int[]</code>, so the index needs much less memory
+ * than a pointer-based tree, is built in <i>O(n log n)</i> and is cache-friendly to query. Items cannot be
+ * added or removed after the index is built; create a new index instead.
+ *
+ * Items can be points or rectangles. For rectangles (e.g. the bounding boxes of links), a {@link DistanceFunction}
+ * can be given to calculate the exact distance to the item; otherwise the distance to the rectangle is used.
+ *
+ * The index is immutable and can be queried by several threads concurrently. {@link #getClosest(double, double)}
+ * does not allocate any objects; the other queries only allocate the collection for the result, which can be
+ * provided by the caller as well.
+ *
+ * @param <T> The type of data to be stored in the index.
+ */
+public final class PackedRTree<T> {
+
+	/**
+	 * Calculates the euclidean distance between an item and a point. The distance must not be smaller than the
+	 * distance between the point and the bounding box of the item.
+	 */
+	@FunctionalInterface
+	public interface DistanceFunction<T> {
+		double calcDistance(T item, double x, double y);
+	}
+
+	public static final int DEFAULT_NODE_SIZE = 16;
+
+	private final int nodeSize;
+	private final int numItems;
+	private final Object[] items;
+	/** minX, minY, maxX, maxY of all items (sorted along the Hilbert curve) followed by those of all nodes, level by level */
+	private final double[] boxes;
+	/** for items: their index in the order they were added; for nodes: the position of their first child */
+	private final int[] indices;
+	/** the end position of each level; level 0 are the items, the last level contains only the root */
+	private final int[] levelBounds;
+	private final DistanceFunction<T> distanceFunction;
+
+	private PackedRTree(int nodeSize, int numItems, Object[] items, double[] boxes, int[] indices, int[] levelBounds, DistanceFunction<T> distanceFunction) {
+		this.nodeSize = nodeSize;
+		this.numItems = numItems;
+		this.items = items;
+		this.boxes = boxes;
+		this.indices = indices;
+		this.levelBounds = levelBounds;
+		this.distanceFunction = distanceFunction;
+	}
+
+	/**
+	 * @return the number of items in the index.
+	 */
+	public int size() {
+		return this.numItems;
+	}
+
+	/**
+	 * @return all items of the index, in the order they were added to the builder.
+	 */
+	public List<T> values() {
+		@SuppressWarnings("unchecked")
+		List<T> values = (List<T>) Collections.unmodifiableList(Arrays.asList(this.items));
+		return values;
+	}
+
+	/** @return the minimum x coordinate (left-right, longitude, easting) of all items. */
+	public double getMinEasting() {
+		return this.numItems == 0 ? Double.NaN : this.boxes[this.boxes.length - 4];
+	}
+
+	/** @return the minimum y coordinate (up-down, latitude, northing) of all items. */
+	public double getMinNorthing() {
+		return this.numItems == 0 ? Double.NaN : this.boxes[this.boxes.length - 3];
+	}
+
+	/** @return the maximum x coordinate (left-right, longitude, easting) of all items. */
+	public double getMaxEasting() {
+		return this.numItems == 0 ? Double.NaN : this.boxes[this.boxes.length - 2];
+	}
+
+	/** @return the maximum y coordinate (up-down, latitude, northing) of all items. */
+	public double getMaxNorthing() {
+		return this.numItems == 0 ? Double.NaN : this.boxes[this.boxes.length - 1];
+	}
+
+	/**
+	 * Gets the item closest to x/y. If several items have the same distance, the one added first to the builder is returned.
+	 *
+	 * @param x easting, left-right location, longitude
+	 * @param y northing, up-down location, latitude
+	 * @return the item closest to x/y, or <code>null</code> if the index is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public T getClosest(final double x, final double y) {
+		if (this.numItems == 0) {
+			return null;
+		}
+		int best = closest(this.boxes.length / 4 - 1, this.levelBounds.length - 1, x, y, -1, Double.POSITIVE_INFINITY);
+		return (T) this.items[this.indices[best]];
+	}
+
+	/**
+	 * Gets all items within a certain distance around x/y, including the border.
+	 *
+	 * @param x left-right location, longitude
+	 * @param y up-down location, latitude
+	 * @param distance the maximal distance returned items can be away from x/y
+	 * @return the items found within distance to x/y
+	 */
+	public Collection<T> getDisk(final double x, final double y, final double distance) {
+		return getRing(x, y, Double.NEGATIVE_INFINITY, distance, new ArrayList<>());
+	}
+
+	/**
+	 * Same as {@link #getDisk(double, double, double)}, but adds the items to the given collection.
+	 *
+	 * @return <code>values</code>
+	 */
+	public Collection<T> getDisk(final double x, final double y, final double distance, final Collection<T> values) {
+		return getRing(x, y, Double.NEGATIVE_INFINITY, distance, values);
+	}
+
+	/**
+	 * Gets all items within a linear ring (including borders).
+	 *
+	 * @param x left-right location, longitude
+	 * @param y up-down location, latitude
+	 * @param r_min inner ring radius
+	 * @param r_max outer ring radius
+	 * @return the items within the ring
+	 */
+	public Collection<T> getRing(final double x, final double y, final double r_min, final double r_max) {
+		return getRing(x, y, r_min, r_max, new ArrayList<>());
+	}
+
+	/**
+	 * Same as {@link #getRing(double, double, double, double)}, but adds the items to the given collection.
+	 *
+	 * @return <code>values</code>
+	 */
+	public Collection<T> getRing(final double x, final double y, final double r_min, final double r_max, final Collection<T> values) {
+		if (this.numItems > 0) {
+			ring(this.boxes.length / 4 - 1, this.levelBounds.length - 1, x, y, r_min, r_max, values);
+		}
+		return values;
+	}
+
+	/**
+	 * Depth-first search for the closest item, visiting the children closest to x/y first.
+	 *
+	 * @return the position of the closest item found so far
+	 */
+	private int closest(int node, int level, double x, double y, int best, double bestDistance) {
+		int start = this.indices[node];
+		int end = Math.min(start + this.nodeSize, this.levelBounds[level - 1]);
+		if (level == 1) {
+			// children are items
+			for (int pos = start; pos < end; pos++) {
+				double distance = calcItemDistance(pos, x, y);
+				if (best < 0 || distance < bestDistance || (distance == bestDistance && this.indices[pos] < this.indices[best])) {
+					best = pos;
+					bestDistance = distance;
+				}
+			}
+			return best;
+		}
+		// visit the closest child first, it is likely to contain the closest item
+		int first = -1;
+		double firstDistance = Double.POSITIVE_INFINITY;
+		for (int pos = start; pos < end; pos++) {
+			double distance = calcBoxDistance(pos, x, y);
+			if (distance < firstDistance) {
+				first = pos;
+				firstDistance = distance;
+			}
+		}
+		best = closest(first, level - 1, x, y, best, bestDistance);
+		bestDistance = calcItemDistance(best, x, y);
+		for (int pos = start; pos < end; pos++) {
+			if (pos != first && calcBoxDistance(pos, x, y) <= bestDistance) {
+				best = closest(pos, level - 1, x, y, best, bestDistance);
+				bestDistance = calcItemDistance(best, x, y);
+			}
+		}
+		return best;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void ring(int node, int level, double x, double y, double rMin, double rMax, Collection<T> values) {
+		int start = this.indices[node];
+		int end = Math.min(start + this.nodeSize, this.levelBounds[level - 1]);
+		for (int pos = start; pos < end; pos++) {
+			if (calcBoxDistance(pos, x, y) > rMax) {
+				continue;
+			}
+			if (level == 1) {
+				double distance = calcItemDistance(pos, x, y);
+				if (distance <= rMax && distance >= rMin) {
+					values.add((T) this.items[this.indices[pos]]);
+				}
+			} else if (calcMaxBoxDistance(pos, x, y) >= rMin) {
+				ring(pos, level - 1, x, y, rMin, rMax, values);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private double calcItemDistance(int pos, double x, double y) {
+		if (this.distanceFunction != null) {
+			return this.distanceFunction.calcDistance((T) this.items[this.indices[pos]], x, y);
+		}
+		return calcBoxDistance(pos, x, y);
+	}
+
+	private double calcBoxDistance(int pos, double x, double y) {
+		int offset = 4 * pos;
+		double dx = Math.max(0, Math.max(this.boxes[offset] - x, x - this.boxes[offset + 2]));
+		double dy = Math.max(0, Math.max(this.boxes[offset + 1] - y, y - this.boxes[offset + 3]));
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	private double calcMaxBoxDistance(int pos, double x, double y) {
+		int offset = 4 * pos;
+		double dx = Math.max(Math.abs(this.boxes[offset] - x), Math.abs(this.boxes[offset + 2] - x));
+		double dy = Math.max(Math.abs(this.boxes[offset + 1] - y), Math.abs(this.boxes[offset + 3] - y));
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Collects the items for a {@link PackedRTree}. A builder can only be used once.
+	 */
+	public static final class Builder<T> {
+
+		private final int nodeSize;
+		private Object[] items;
+		private double[] itemBoxes;
+		private int numItems = 0;
+		private DistanceFunction<T> distanceFunction = null;
+
+		public Builder() {
+			this(16, DEFAULT_NODE_SIZE);
+		}
+
+		/**
+		 * @param expectedSize the expected number of items, to avoid resizing the internal arrays
+		 * @param nodeSize the maximum number of children of a node
+		 */
+		public Builder(int expectedSize, int nodeSize) {
+			if (nodeSize < 2) {
+				throw new IllegalArgumentException("nodeSize must be at least 2, but is " + nodeSize);
+			}
+			this.nodeSize = nodeSize;
+			this.items = new Object[Math.max(expectedSize, 1)];
+			this.itemBoxes = new double[4 * this.items.length];
+		}
+
+		/**
+		 * Adds an item at the given point.
+		 */
+		public Builder<T> put(double x, double y, T value) {
+			return put(x, y, x, y, value);
+		}
+
+		/**
+		 * Adds an item with the given bounding box.
+		 */
+		public Builder<T> put(double minX, double minY, double maxX, double maxY, T value) {
+			if (this.items == null) {
+				throw new IllegalStateException("The index was already built.");
+			}
+			if (this.numItems == this.items.length) {
+				this.items = Arrays.copyOf(this.items, this.numItems * 2);
+				this.itemBoxes = Arrays.copyOf(this.itemBoxes, this.numItems * 8);
+			}
+			int offset = 4 * this.numItems;
+			this.itemBoxes[offset] = Math.min(minX, maxX);
+			this.itemBoxes[offset + 1] = Math.min(minY, maxY);
+			this.itemBoxes[offset + 2] = Math.max(minX, maxX);
+			this.itemBoxes[offset + 3] = Math.max(minY, maxY);
+			this.items[this.numItems] = value;
+			this.numItems++;
+			return this;
+		}
+
+		/**
+		 * Sets the function to calculate the exact distance between an item and a point. If not set, the distance
+		 * to the bounding box of the item is used, which is the exact distance for items added as points.
+		 */
+		public Builder<T> setDistanceFunction(DistanceFunction<T> distanceFunction) {
+			this.distanceFunction = distanceFunction;
+			return this;
+		}
+
+		public PackedRTree<T> build() {
+			if (this.items == null) {
+				throw new IllegalStateException("The index was already built.");
+			}
+			int n = this.numItems;
+			Object[] values = Arrays.copyOf(this.items, n);
+			double[] itemBoxes = this.itemBoxes;
+			this.items = null;
+			this.itemBoxes = null;
+
+			// calculate the number of nodes per level
+			List<Integer> levelBoundsList = new ArrayList<>();
+			int count = n;
+			int numNodes = n;
+			levelBoundsList.add(numNodes);
+			do {
+				count = (count + this.nodeSize - 1) / this.nodeSize;
+				numNodes += count;
+				levelBoundsList.add(numNodes);
+			} while (count > 1);
+			int[] levelBounds = levelBoundsList.stream().mapToInt(Integer::intValue).toArray();
+
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				minX = Math.min(minX, itemBoxes[4 * i]);
+				minY = Math.min(minY, itemBoxes[4 * i + 1]);
+				maxX = Math.max(maxX, itemBoxes[4 * i + 2]);
+				maxY = Math.max(maxY, itemBoxes[4 * i + 3]);
+			}
+
+			// sort the items along the hilbert curve, ties are kept in the order they were added
+			double width = maxX - minX;
+			double height = maxY - minY;
+			long[] keys = new long[n];
+			for (int i = 0; i < n; i++) {
+				double centerX = (itemBoxes[4 * i] + itemBoxes[4 * i + 2]) / 2;
+				double centerY = (itemBoxes[4 * i + 1] + itemBoxes[4 * i + 3]) / 2;
+				int hx = width > 0 ? (int) (HILBERT_MAX * (centerX - minX) / width) : 0;
+				int hy = height > 0 ? (int) (HILBERT_MAX * (centerY - minY) / height) : 0;
+				keys[i] = (Integer.toUnsignedLong(hilbert(hx, hy)) << 31) | i;
+			}
+			Arrays.sort(keys);
+
+			double[] boxes = new double[4 * numNodes];
+			int[] indices = new int[numNodes];
+			for (int pos = 0; pos < n; pos++) {
+				int i = (int) (keys[pos] & Integer.MAX_VALUE);
+				System.arraycopy(itemBoxes, 4 * i, boxes, 4 * pos, 4);
+				indices[pos] = i;
+			}
+
+			// pack the nodes bottom-up
+			int pos = 0;
+			int nodePos = n;
+			for (int level = 1; level < levelBounds.length; level++) {
+				int end = levelBounds[level - 1];
+				while (pos < end) {
+					double nodeMinX = Double.POSITIVE_INFINITY;
+					double nodeMinY = Double.POSITIVE_INFINITY;
+					double nodeMaxX = Double.NEGATIVE_INFINITY;
+					double nodeMaxY = Double.NEGATIVE_INFINITY;
+					indices[nodePos] = pos;
+					for (int i = 0; i < this.nodeSize && pos < end; i++, pos++) {
+						nodeMinX = Math.min(nodeMinX, boxes[4 * pos]);
+						nodeMinY = Math.min(nodeMinY, boxes[4 * pos + 1]);
+						nodeMaxX = Math.max(nodeMaxX, boxes[4 * pos + 2]);
+						nodeMaxY = Math.max(nodeMaxY, boxes[4 * pos + 3]);
+					}
+					boxes[4 * nodePos] = nodeMinX;
+					boxes[4 * nodePos + 1] = nodeMinY;
+					boxes[4 * nodePos + 2] = nodeMaxX;
+					boxes[4 * nodePos + 3] = nodeMaxY;
+					nodePos++;
+				}
+			}
+			return new PackedRTree<>(this.nodeSize, n, values, boxes, indices, levelBounds, this.distanceFunction);
+		}
+	}
+
+	private static final int HILBERT_MAX = (1 << 16) - 1;
+
+	/**
+	 * Calculates the position of x/y along a hilbert curve filling a 2^16 x 2^16 grid, based on
+	 * "Fast Hilbert curve generation, sorting, and range queries" by rawrunprotected.
+	 */
+	private static int hilbert(int x, int y) {
+		int a = x ^ y;
+		int b = 0xFFFF ^ a;
+		int c = 0xFFFF ^ (x | y);
+		int d = x & (y ^ 0xFFFF);
+
+		int A = a | (b >> 1);
+		int B = (a >> 1) ^ a;
+		int C = ((c >> 1) ^ (b & (d >> 1))) ^ c;
+		int D = ((a & (c >> 1)) ^ (d >> 1)) ^ d;
+
+		a = A; b = B; c = C; d = D;
+		A = ((a & (a >> 2)) ^ (b & (b >> 2)));
+		B = ((a & (b >> 2)) ^ (b & ((a ^ b) >> 2)));
+		C ^= ((a & (c >> 2)) ^ (b & (d >> 2)));
+		D ^= ((b & (c >> 2)) ^ ((a ^ b) & (d >> 2)));
+
+		a = A; b = B; c = C; d = D;
+		A = ((a & (a >> 4)) ^ (b & (b >> 4)));
+		B = ((a & (b >> 4)) ^ (b & ((a ^ b) >> 4)));
+		C ^= ((a & (c >> 4)) ^ (b & (d >> 4)));
+		D ^= ((b & (c >> 4)) ^ ((a ^ b) & (d >> 4)));
+
+		a = A; b = B; c = C; d = D;
+		C ^= ((a & (c >> 8)) ^ (b & (d >> 8)));
+		D ^= ((b & (c >> 8)) ^ ((a ^ b) & (d >> 8)));
+
+		a = C ^ (C >> 1);
+		b = D ^ (D >> 1);
+
+		int i0 = x ^ y;
+		int i1 = b | (0xFFFF ^ (i0 | a));
+
+		i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+		i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+		i0 = (i0 | (i0 << 2)) & 0x33333333;
+		i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+		i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+		i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+		i1 = (i1 | (i1 << 2)) & 0x33333333;
+		i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+		return (i1 << 1) | i0;
+	}
+
+}
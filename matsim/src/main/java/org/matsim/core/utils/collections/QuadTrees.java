@@ -68,4 +68,21 @@ public class QuadTrees {
 		}
 		return quadTree;
 	}
+
+	/**
+	 * Creates a {@link PackedRTree} of the given elements. In contrast to a {@link QuadTree}, the index cannot be
+	 * modified afterwards, but is faster to build and to query and can be shared by several threads.
+	 */
+	public static <E extends BasicLocation> PackedRTree<E> createPackedRTree(Collection<E> elements) {
+		return createPackedRTree(elements, BasicLocation::getCoord);
+	}
+
+	public static <E> PackedRTree<E> createPackedRTree(Collection<E> elements, Function<E, Coord> coordFunction) {
+		PackedRTree.Builder<E> builder = new PackedRTree.Builder<>(elements.size(), PackedRTree.DEFAULT_NODE_SIZE);
+		for (E e : elements) {
+			Coord c = coordFunction.apply(e);
+			builder.put(c.getX(), c.getY(), e);
+		}
+		return builder.build();
+	}
 }
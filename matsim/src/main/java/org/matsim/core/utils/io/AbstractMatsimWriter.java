@@ -65,12 +65,21 @@ public abstract class AbstractMatsimWriter {
 	 * @throws UncheckedIOException
 	 */
 	protected final void openFile(final String filename) throws UncheckedIOException {
+		openFile(filename, 1);
+	}
+
+	/**
+	 * Opens the specified file for writing. If the file is compressed, the compression
+	 * runs on <code>numberOfThreads</code> threads, see {@link IOUtils#getOutputStream(java.net.URL, boolean, int)}.
+	 *
+	 * @param filename
+	 * @param numberOfThreads
+	 * @throws UncheckedIOException
+	 */
+	protected final void openFile(final String filename, final int numberOfThreads) throws UncheckedIOException {
 		assertNotAlreadyOpen();
-		if (this.useCompression == null) {
-			this.writer = IOUtils.getBufferedWriter(filename);
-		} else {
-			this.writer = IOUtils.getBufferedWriter(filename + ".gz");
-		}
+		String name = this.useCompression == null ? filename : filename + ".gz";
+		this.writer = IOUtils.getBufferedWriter(IOUtils.getFileUrl(name), IOUtils.CHARSET_UTF8, false, numberOfThreads);
 	}
 
 	/**
@@ -0,0 +1,902 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * A small, non-validating XML parser for some of MATSim's own, well-known file formats.
+ *
+ * The parser works directly on the UTF-8 encoded bytes and reports the same callbacks to
+ * {@link MatsimXmlParser} as the SAX parser does, so readers extending {@link MatsimXmlParser}
+ * do not need to know which parser is used. Compared to the SAX parser, it avoids most of the
+ * per-element overhead: element and attribute names are interned and cached by their bytes,
+ * the {@link Attributes} object is reused, and ASCII attribute values are converted to strings
+ * without an intermediate character buffer.
+ *
+ * The parser does not validate the document against its DTD. It only reads the default values
+ * of attributes and which elements have element-only content from the DTD (which must be available
+ * in the classpath under <code>/dtd/</code>), such that readers get the same attributes and the
+ * same content as with the SAX parser. Documents with an internal DTD subset, with other
+ * encodings than UTF-8, or with other doctypes are not supported, see
+ * {@link #canParse(BufferedInputStream, boolean, boolean)}.
+ */
+final class FastXmlParser {
+
+	private static final Logger log = Logger.getLogger(FastXmlParser.class);
+
+	/** doctypes of the formats that may be read with this parser */
+	private static final Set<String> SUPPORTED_DOCTYPES = Set.of("network_v2.dtd", "population_v6.dtd");
+	/** events files have no doctype, but are recognized by their root element */
+	private static final String EVENTS_ROOT_ELEMENT = "events";
+
+	private static final int PROLOG_SIZE = 8192;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Pattern COMMENT = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+	private static final Pattern ELEMENT = Pattern.compile("<!ELEMENT\\s+(\\S+)\\s+([^>]*)>");
+	private static final Pattern ATTLIST = Pattern.compile("<!ATTLIST\\s+(\\S+)((?:\"[^\"]*\"|'[^']*'|[^>\"'])*)>");
+	private static final Pattern ATTRIBUTE_DEFINITION = Pattern.compile(
+			"([^\\s()]+)\\s+(NOTATION\\s*\\([^)]*\\)|\\([^)]*\\)|\\S+)\\s+(#REQUIRED|#IMPLIED|(?:#FIXED\\s+)?(?:\"([^\"]*)\"|'([^']*)'))");
+	private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']*)[\"']");
+
+	private static final Map<String, Map<String, ElementDeclaration>> DTD_DECLARATIONS = new ConcurrentHashMap<>();
+
+	private final MatsimXmlParser handler;
+	private final String source;
+	private final NameCache names = new NameCache();
+	private final ReusableAttributes attributes = new ReusableAttributes();
+	private final Deque<String> openElements = new ArrayDeque<>();
+	private final Chars text = new Chars(256);
+	private final Chars value = new Chars(64);
+	private byte[] nameBytes = new byte[64];
+	private int nameLength = 0;
+
+	private InputStream in;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int pos = 0;
+	private int limit = 0;
+	private int line = 1;
+
+	private Map<String, ElementDeclaration> declarations = Collections.emptyMap();
+	private boolean textHasContent = false;
+	private boolean rootSeen = false;
+
+	FastXmlParser(MatsimXmlParser handler, String source) {
+		this.handler = handler;
+		this.source = source;
+	}
+
+	/**
+	 * Checks the prolog of the document (xml declaration, doctype and the name of the root element)
+	 * to find out if the document can be read with this parser. The stream is reset afterwards.
+	 *
+	 * @param isValidating whether the document would be validated by the SAX parser. This parser does not
+	 * validate, so only documents that would not be validated anyway are supported.
+	 * @param isUtf8 whether the stream must be decoded as UTF-8, independent of the declared encoding.
+	 */
+	static boolean canParse(BufferedInputStream in, boolean isValidating, boolean isUtf8) throws IOException {
+		if (isValidating) {
+			return false;
+		}
+		in.mark(PROLOG_SIZE);
+		byte[] bytes = new byte[PROLOG_SIZE];
+		int length = 0;
+		int count;
+		while (length < PROLOG_SIZE && (count = in.read(bytes, length, PROLOG_SIZE - length)) > 0) {
+			length += count;
+		}
+		in.reset();
+
+		Prolog prolog = Prolog.scan(bytes, length);
+		if (prolog == null) {
+			return false;
+		}
+		if (!isUtf8 && prolog.encoding != null
+				&& !prolog.encoding.equalsIgnoreCase("UTF-8") && !prolog.encoding.equalsIgnoreCase("US-ASCII")) {
+			return false;
+		}
+		if (prolog.hasDoctype) {
+			return prolog.systemId != null && SUPPORTED_DOCTYPES.contains(getShortSystemId(prolog.systemId));
+		}
+		return EVENTS_ROOT_ELEMENT.equals(prolog.rootElement);
+	}
+
+	void parse(InputStream in) throws IOException, SAXException {
+		this.in = in;
+		this.handler.startDocument();
+		int c;
+		while ((c = readText()) >= 0) {
+			c = read();
+			if (c == '!') {
+				c = read();
+				if (c == '-') {
+					expect('-');
+					skipUntil("-->");
+				} else if (c == '[') {
+					expect("CDATA[");
+					readCData();
+				} else if (c == 'D') {
+					expect("OCTYPE");
+					readDoctype();
+				} else {
+					throw error("unexpected markup declaration");
+				}
+			} else if (c == '?') {
+				skipUntil("?>");
+			} else if (c == '/') {
+				flushText();
+				readEndTag();
+			} else {
+				flushText();
+				readStartTag(c);
+			}
+		}
+		if (!this.openElements.isEmpty()) {
+			throw error("unexpected end of document, element <" + this.openElements.peek() + "> is not closed");
+		}
+		if (!this.rootSeen) {
+			throw error("document has no root element");
+		}
+		this.handler.endDocument();
+	}
+
+	private boolean hasElementContent(String element) {
+		ElementDeclaration declaration = this.declarations.get(element);
+		return declaration != null && declaration.hasElementContent;
+	}
+
+	private void readStartTag(int first) throws IOException, SAXException {
+		String name = readName(first);
+		this.attributes.clear();
+		while (true) {
+			int c = skipWhitespace();
+			if (c == '>') {
+				startElement(name);
+				this.openElements.push(name);
+				return;
+			}
+			if (c == '/') {
+				expect('>');
+				startElement(name);
+				this.handler.endElement("", name, name);
+				return;
+			}
+			String attributeName = readName(c);
+			if (skipWhitespace() != '=') {
+				throw error("expected '=' after attribute " + attributeName + " of element <" + name + ">");
+			}
+			int quote = skipWhitespace();
+			if (quote != '"' && quote != '\'') {
+				throw error("expected quoted value for attribute " + attributeName + " of element <" + name + ">");
+			}
+			this.attributes.add(attributeName, readAttributeValue(quote));
+		}
+	}
+
+	private void startElement(String name) throws SAXException {
+		if (this.openElements.isEmpty()) {
+			if (this.rootSeen) {
+				throw error("document has more than one root element");
+			}
+			this.rootSeen = true;
+		}
+		ElementDeclaration declaration = this.declarations.get(name);
+		if (declaration != null) {
+			declaration.apply(this.attributes);
+		}
+		this.handler.startElement("", name, name, this.attributes);
+	}
+
+	private void readEndTag() throws IOException, SAXException {
+		String name = readName(read());
+		if (skipWhitespace() != '>') {
+			throw error("expected '>' after end tag </" + name);
+		}
+		String expected = this.openElements.poll();
+		if (!name.equals(expected)) {
+			throw error("end tag </" + name + "> does not match start tag <" + expected + ">");
+		}
+		this.handler.endElement("", name, name);
+	}
+
+	private void readDoctype() throws IOException, SAXException {
+		StringBuilder declaration = new StringBuilder();
+		int c;
+		while ((c = read()) != '>') {
+			if (c < 0) {
+				throw error("unexpected end of document in doctype declaration");
+			}
+			declaration.append((char) c);
+		}
+		String systemId = Prolog.getSystemId(declaration);
+		if (systemId == null) {
+			return;
+		}
+		String shortSystemId = getShortSystemId(systemId);
+		if (this.handler.getDoctype() == null) {
+			// same as MatsimXmlParser.resolveEntity() when the DTD is resolved
+			this.handler.setDoctype(shortSystemId);
+		}
+		this.declarations = DTD_DECLARATIONS.computeIfAbsent(shortSystemId, FastXmlParser::readDtd);
+	}
+
+	/**
+	 * Reports the collected character data to the handler, unless it is whitespace in an element that
+	 * may only contain other elements according to the DTD (ignorable whitespace).
+	 */
+	private void flushText() throws SAXException {
+		if (this.text.length > 0) {
+			if (this.openElements.isEmpty()) {
+				if (this.textHasContent) {
+					throw error("content is not allowed outside of the root element");
+				}
+			} else if (this.textHasContent || !hasElementContent(this.openElements.peek())) {
+				this.handler.characters(this.text.data, 0, this.text.length);
+			}
+		}
+		this.text.length = 0;
+		this.textHasContent = false;
+	}
+
+	/**
+	 * Collects character data until the next markup.
+	 *
+	 * @return <code>'&lt;'</code> or <code>-1</code> at the end of the document.
+	 */
+	private int readText() throws IOException, SAXException {
+		while (true) {
+			int b = read();
+			if (b < 0 || b == '<') {
+				return b;
+			}
+			if (b == '&') {
+				readReference(this.text);
+				this.textHasContent = true;
+				continue;
+			}
+			if (b == '\r') {
+				if (peek() == '\n') {
+					read();
+				}
+				b = '\n';
+			}
+			if (b > ' ') {
+				this.textHasContent = true;
+			}
+			appendChar(this.text, b);
+		}
+	}
+
+	private void readCData() throws IOException, SAXException {
+		while (true) {
+			int b = read();
+			if (b < 0) {
+				throw error("unexpected end of document in CDATA section");
+			}
+			if (b == ']' && peek() == ']') {
+				read();
+				while (peek() == ']') {
+					read();
+					this.text.append(']');
+				}
+				if (peek() == '>') {
+					read();
+					this.textHasContent = true;
+					return;
+				}
+				this.text.append(']');
+				this.text.append(']');
+				continue;
+			}
+			if (b == '\r') {
+				if (peek() == '\n') {
+					read();
+				}
+				b = '\n';
+			}
+			appendChar(this.text, b);
+		}
+	}
+
+	private String readAttributeValue(int quote) throws IOException, SAXException {
+		// fast path: a plain ASCII value completely contained in the buffer
+		int start = this.pos;
+		for (int i = start; i < this.limit; i++) {
+			byte b = this.buffer[i];
+			if (b == quote) {
+				this.pos = i + 1;
+				return new String(this.buffer, start, i - start, StandardCharsets.ISO_8859_1);
+			}
+			if (b < 0x20 || b == '&' || b == '<') {
+				// non-ASCII bytes are negative
+				break;
+			}
+		}
+
+		this.value.length = 0;
+		while (true) {
+			int b = read();
+			if (b == quote) {
+				return this.value.toString();
+			}
+			if (b < 0) {
+				throw error("unexpected end of document in attribute value");
+			}
+			if (b == '<') {
+				throw error("the character '<' is not allowed in attribute values");
+			}
+			if (b == '&') {
+				readReference(this.value);
+			} else if (b == '\r') {
+				if (peek() == '\n') {
+					read();
+				}
+				this.value.append(' ');
+			} else if (b == '\n' || b == '\t') {
+				this.value.append(' ');
+			} else {
+				appendChar(this.value, b);
+			}
+		}
+	}
+
+	private void readReference(Chars chars) throws IOException, SAXException {
+		StringBuilder reference = new StringBuilder();
+		int c;
+		while ((c = read()) != ';') {
+			if (c < 0 || reference.length() > 10) {
+				throw error("unterminated entity reference &" + reference);
+			}
+			reference.append((char) c);
+		}
+		String name = reference.toString();
+		switch (name) {
+			case "lt": chars.append('<'); return;
+			case "gt": chars.append('>'); return;
+			case "amp": chars.append('&'); return;
+			case "quot": chars.append('"'); return;
+			case "apos": chars.append('\''); return;
+			default:
+		}
+		if (name.startsWith("#")) {
+			try {
+				int codePoint = name.startsWith("#x") ? Integer.parseInt(name.substring(2), 16) : Integer.parseInt(name.substring(1));
+				chars.appendCodePoint(codePoint);
+				return;
+			} catch (IllegalArgumentException e) {
+				throw error("invalid character reference &" + name + ";");
+			}
+		}
+		throw error("the entity \"" + name + "\" is not declared");
+	}
+
+	private void appendChar(Chars chars, int b) throws IOException, SAXException {
+		if (b < 0x80) {
+			chars.append((char) b);
+		} else if ((b & 0xE0) == 0xC0) {
+			chars.append((char) (((b & 0x1F) << 6) | readContinuationByte()));
+		} else if ((b & 0xF0) == 0xE0) {
+			chars.append((char) (((b & 0x0F) << 12) | (readContinuationByte() << 6) | readContinuationByte()));
+		} else if ((b & 0xF8) == 0xF0) {
+			chars.appendCodePoint(((b & 0x07) << 18) | (readContinuationByte() << 12) | (readContinuationByte() << 6) | readContinuationByte());
+		} else {
+			throw error("invalid UTF-8 byte 0x" + Integer.toHexString(b));
+		}
+	}
+
+	private int readContinuationByte() throws IOException, SAXException {
+		int b = read();
+		if ((b & 0xC0) != 0x80) {
+			throw error("invalid UTF-8 sequence");
+		}
+		return b & 0x3F;
+	}
+
+	private String readName(int first) throws IOException, SAXException {
+		if (first < 0 || isNameDelimiter(first)) {
+			throw error("expected a name");
+		}
+		this.nameLength = 0;
+		addNameByte(first);
+		while (true) {
+			int b = peek();
+			if (b < 0 || isNameDelimiter(b)) {
+				break;
+			}
+			this.pos++;
+			addNameByte(b);
+		}
+		return this.names.get(this.nameBytes, this.nameLength);
+	}
+
+	private void addNameByte(int b) {
+		if (this.nameLength == this.nameBytes.length) {
+			this.nameBytes = Arrays.copyOf(this.nameBytes, this.nameLength * 2);
+		}
+		this.nameBytes[this.nameLength++] = (byte) b;
+	}
+
+	private static boolean isNameDelimiter(int b) {
+		return b <= ' ' || b == '=' || b == '>' || b == '/' || b == '"' || b == '\'' || b == '<';
+	}
+
+	/**
+	 * @return the first non-whitespace character, which is consumed.
+	 */
+	private int skipWhitespace() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (c == ' ' || c == '\n' || c == '\t' || c == '\r');
+		return c;
+	}
+
+	private void skipUntil(String end) throws IOException, SAXException {
+		int matched = 0;
+		while (matched < end.length()) {
+			int c = read();
+			if (c < 0) {
+				throw error("unexpected end of document, expected " + end);
+			}
+			if (c == end.charAt(matched)) {
+				matched++;
+			} else {
+				matched = (c == end.charAt(0)) ? 1 : 0;
+			}
+		}
+	}
+
+	private void expect(char expected) throws IOException, SAXException {
+		if (read() != expected) {
+			throw error("expected '" + expected + "'");
+		}
+	}
+
+	private void expect(String expected) throws IOException, SAXException {
+		for (int i = 0; i < expected.length(); i++) {
+			expect(expected.charAt(i));
+		}
+	}
+
+	private int read() throws IOException {
+		if (this.pos == this.limit && !fill()) {
+			return -1;
+		}
+		int b = this.buffer[this.pos++] & 0xff;
+		if (b == '\n') {
+			this.line++;
+		}
+		return b;
+	}
+
+	private int peek() throws IOException {
+		if (this.pos == this.limit && !fill()) {
+			return -1;
+		}
+		return this.buffer[this.pos] & 0xff;
+	}
+
+	private boolean fill() throws IOException {
+		int count = this.in.read(this.buffer, 0, this.buffer.length);
+		this.pos = 0;
+		this.limit = Math.max(count, 0);
+		return count > 0;
+	}
+
+	private SAXParseException error(String message) {
+		return new SAXParseException(message, null, this.source, this.line, -1);
+	}
+
+	static String getShortSystemId(String systemId) {
+		int index = systemId.replace('\\', '/').lastIndexOf('/');
+		return systemId.substring(index + 1);
+	}
+
+	private static Map<String, ElementDeclaration> readDtd(String shortSystemId) {
+		try (InputStream stream = FastXmlParser.class.getResourceAsStream("/dtd/" + shortSystemId)) {
+			if (stream == null) {
+				log.warn("Could not find " + shortSystemId + " in the classpath, default values of attributes will be missing.");
+				return Collections.emptyMap();
+			}
+			String dtd = COMMENT.matcher(new String(stream.readAllBytes(), StandardCharsets.UTF_8)).replaceAll("");
+			Set<String> elementContent = new HashSet<>();
+			Map<String, List<String[]>> defaults = new HashMap<>();
+			Map<String, Set<String>> tokenized = new HashMap<>();
+			Matcher elementDeclaration = ELEMENT.matcher(dtd);
+			while (elementDeclaration.find()) {
+				String contentSpec = elementDeclaration.group(2).trim();
+				if (contentSpec.equals("EMPTY") || (contentSpec.startsWith("(") && !contentSpec.contains("#PCDATA"))) {
+					elementContent.add(elementDeclaration.group(1));
+				}
+			}
+			Matcher attlist = ATTLIST.matcher(dtd);
+			while (attlist.find()) {
+				String element = attlist.group(1);
+				Matcher definition = ATTRIBUTE_DEFINITION.matcher(attlist.group(2));
+				while (definition.find()) {
+					String attribute = definition.group(1);
+					if (!definition.group(2).equals("CDATA")) {
+						tokenized.computeIfAbsent(element, k -> new HashSet<>()).add(attribute);
+					}
+					String defaultValue = definition.group(4) != null ? definition.group(4) : definition.group(5);
+					if (defaultValue != null) {
+						defaults.computeIfAbsent(element, k -> new ArrayList<>()).add(new String[] {attribute, defaultValue});
+					}
+				}
+			}
+			Map<String, ElementDeclaration> declarations = new HashMap<>();
+			Set<String> elements = new HashSet<>(elementContent);
+			elements.addAll(defaults.keySet());
+			elements.addAll(tokenized.keySet());
+			for (String name : elements) {
+				declarations.put(name, new ElementDeclaration(elementContent.contains(name),
+						defaults.getOrDefault(name, Collections.emptyList()).toArray(new String[0][]),
+						tokenized.getOrDefault(name, Collections.emptySet())));
+			}
+			return declarations;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The attribute declarations of an element in the DTD that are relevant for a non-validating parser.
+	 */
+	private static final class ElementDeclaration {
+		/** whether the element may only contain other elements, but no character data */
+		private final boolean hasElementContent;
+		private final String[][] defaults;
+		private final Set<String> tokenizedAttributes;
+
+		ElementDeclaration(boolean hasElementContent, String[][] defaults, Set<String> tokenizedAttributes) {
+			this.hasElementContent = hasElementContent;
+			this.defaults = defaults;
+			this.tokenizedAttributes = tokenizedAttributes;
+		}
+
+		void apply(ReusableAttributes attributes) {
+			if (!this.tokenizedAttributes.isEmpty()) {
+				for (int i = 0; i < attributes.length; i++) {
+					String value = attributes.values[i];
+					if (value.indexOf(' ') >= 0 && this.tokenizedAttributes.contains(attributes.names[i])) {
+						attributes.values[i] = value.trim().replaceAll(" +", " ");
+					}
+				}
+			}
+			for (String[] attribute : this.defaults) {
+				if (attributes.getIndex(attribute[0]) < 0) {
+					attributes.add(attribute[0], attribute[1]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The parts of the document before the root element.
+	 */
+	private static final class Prolog {
+		private String encoding = null;
+		private boolean hasDoctype = false;
+		private String systemId = null;
+		private String rootElement = null;
+
+		/**
+		 * @return the prolog, or <code>null</code> if it is not supported or longer than the given bytes.
+		 */
+		static Prolog scan(byte[] bytes, int length) {
+			Prolog prolog = new Prolog();
+			int i = 0;
+			while (true) {
+				while (i < length && (bytes[i] == ' ' || bytes[i] == '\n' || bytes[i] == '\r' || bytes[i] == '\t')) {
+					i++;
+				}
+				if (i >= length || bytes[i] != '<') {
+					return null;
+				}
+				if (startsWith(bytes, i, length, "<?")) {
+					int end = indexOf(bytes, i, length, "?>");
+					if (end < 0) {
+						return null;
+					}
+					if (startsWith(bytes, i, length, "<?xml ")) {
+						Matcher matcher = ENCODING.matcher(new String(bytes, i, end - i, StandardCharsets.ISO_8859_1));
+						if (matcher.find()) {
+							prolog.encoding = matcher.group(1);
+						}
+					}
+					i = end + 2;
+				} else if (startsWith(bytes, i, length, "<!--")) {
+					int end = indexOf(bytes, i, length, "-->");
+					if (end < 0) {
+						return null;
+					}
+					i = end + 3;
+				} else if (startsWith(bytes, i, length, "<!DOCTYPE")) {
+					int end = indexOf(bytes, i, length, ">");
+					if (end < 0) {
+						return null;
+					}
+					String declaration = new String(bytes, i, end - i, StandardCharsets.ISO_8859_1);
+					if (declaration.indexOf('[') >= 0) {
+						// internal subset
+						return null;
+					}
+					prolog.hasDoctype = true;
+					prolog.systemId = getSystemId(declaration);
+					i = end + 1;
+				} else {
+					int end = i + 1;
+					while (end < length && !isNameDelimiter(bytes[end] & 0xff)) {
+						end++;
+					}
+					if (end >= length) {
+						return null;
+					}
+					prolog.rootElement = new String(bytes, i + 1, end - i - 1, StandardCharsets.UTF_8);
+					return prolog;
+				}
+			}
+		}
+
+		/**
+		 * @return the last quoted literal of the doctype declaration, i.e. the system id.
+		 */
+		static String getSystemId(CharSequence declaration) {
+			String systemId = null;
+			int i = 0;
+			while (i < declaration.length()) {
+				char c = declaration.charAt(i);
+				if (c == '"' || c == '\'') {
+					int end = i + 1;
+					while (end < declaration.length() && declaration.charAt(end) != c) {
+						end++;
+					}
+					systemId = declaration.subSequence(i + 1, Math.min(end, declaration.length())).toString();
+					i = end + 1;
+				} else {
+					i++;
+				}
+			}
+			return systemId;
+		}
+
+		private static boolean startsWith(byte[] bytes, int offset, int length, String prefix) {
+			if (offset + prefix.length() > length) {
+				return false;
+			}
+			for (int i = 0; i < prefix.length(); i++) {
+				if (bytes[offset + i] != prefix.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int indexOf(byte[] bytes, int offset, int length, String s) {
+			for (int i = offset; i <= length - s.length(); i++) {
+				if (startsWith(bytes, i, length, s)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * A growable character buffer, avoiding the synchronization and bounds checks of StringBuffer for single characters.
+	 */
+	private static final class Chars {
+		private char[] data;
+		private int length = 0;
+
+		Chars(int capacity) {
+			this.data = new char[capacity];
+		}
+
+		void append(char c) {
+			if (this.length == this.data.length) {
+				this.data = Arrays.copyOf(this.data, this.length * 2);
+			}
+			this.data[this.length++] = c;
+		}
+
+		void appendCodePoint(int codePoint) {
+			if (Character.isBmpCodePoint(codePoint)) {
+				append((char) codePoint);
+			} else {
+				append(Character.highSurrogate(codePoint));
+				append(Character.lowSurrogate(codePoint));
+			}
+		}
+
+		@Override
+		public String toString() {
+			return new String(this.data, 0, this.length);
+		}
+	}
+
+	/**
+	 * Maps the bytes of element and attribute names to interned strings, such that names
+	 * only have to be decoded the first time they occur.
+	 */
+	private static final class NameCache {
+		private byte[][] keys = new byte[256][];
+		private String[] names = new String[256];
+		private int size = 0;
+
+		String get(byte[] bytes, int length) {
+			int mask = this.keys.length - 1;
+			int index = hash(bytes, length) & mask;
+			byte[] key;
+			while ((key = this.keys[index]) != null) {
+				if (key.length == length && Arrays.equals(key, 0, length, bytes, 0, length)) {
+					return this.names[index];
+				}
+				index = (index + 1) & mask;
+			}
+			String name = new String(bytes, 0, length, StandardCharsets.UTF_8).intern();
+			this.keys[index] = Arrays.copyOf(bytes, length);
+			this.names[index] = name;
+			this.size++;
+			if (this.size * 2 > this.keys.length) {
+				rehash();
+			}
+			return name;
+		}
+
+		private void rehash() {
+			byte[][] oldKeys = this.keys;
+			String[] oldNames = this.names;
+			this.keys = new byte[oldKeys.length * 2][];
+			this.names = new String[oldKeys.length * 2];
+			int mask = this.keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != null) {
+					int index = hash(oldKeys[i], oldKeys[i].length) & mask;
+					while (this.keys[index] != null) {
+						index = (index + 1) & mask;
+					}
+					this.keys[index] = oldKeys[i];
+					this.names[index] = oldNames[i];
+				}
+			}
+		}
+
+		private static int hash(byte[] bytes, int length) {
+			int h = 1;
+			for (int i = 0; i < length; i++) {
+				h = 31 * h + bytes[i];
+			}
+			return h ^ (h >>> 16);
+		}
+	}
+
+	/**
+	 * Attributes of the current element. The same instance is used for all elements, like in most SAX parsers,
+	 * so the attributes must not be stored by the handlers.
+	 */
+	private static final class ReusableAttributes implements Attributes {
+		private String[] names = new String[16];
+		private String[] values = new String[16];
+		private int length = 0;
+
+		void clear() {
+			this.length = 0;
+		}
+
+		void add(String name, String value) {
+			if (this.length == this.names.length) {
+				this.names = Arrays.copyOf(this.names, this.length * 2);
+				this.values = Arrays.copyOf(this.values, this.length * 2);
+			}
+			this.names[this.length] = name;
+			this.values[this.length] = value;
+			this.length++;
+		}
+
+		@Override
+		public int getLength() {
+			return this.length;
+		}
+
+		@Override
+		public String getURI(int index) {
+			return (index >= 0 && index < this.length) ? "" : null;
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			return getQName(index);
+		}
+
+		@Override
+		public String getQName(int index) {
+			return (index >= 0 && index < this.length) ? this.names[index] : null;
+		}
+
+		@Override
+		public String getType(int index) {
+			return (index >= 0 && index < this.length) ? "CDATA" : null;
+		}
+
+		@Override
+		public String getValue(int index) {
+			return (index >= 0 && index < this.length) ? this.values[index] : null;
+		}
+
+		@Override
+		public int getIndex(String uri, String localName) {
+			return uri.isEmpty() ? getIndex(localName) : -1;
+		}
+
+		@Override
+		public int getIndex(String qName) {
+			for (int i = 0; i < this.length; i++) {
+				if (this.names[i].equals(qName)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public String getType(String uri, String localName) {
+			return getType(getIndex(uri, localName));
+		}
+
+		@Override
+		public String getType(String qName) {
+			return getType(getIndex(qName));
+		}
+
+		@Override
+		public String getValue(String uri, String localName) {
+			return getValue(getIndex(uri, localName));
+		}
+
+		@Override
+		public String getValue(String qName) {
+			return getValue(getIndex(qName));
+		}
+	}
+
+}
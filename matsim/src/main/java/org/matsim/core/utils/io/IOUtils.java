@@ -270,6 +270,24 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 	 * @throws UncheckedIOException
 	 */
 	public static InputStream getInputStream(URL url) throws UncheckedIOException {
+		return getInputStream(url, 1);
+	}
+
+	/**
+	 * Opens an input stream for a given URL, like {@link #getInputStream(URL)}.
+	 * If <code>numberOfThreads</code> is larger than 1, gzip and ZStandard
+	 * compressed data is decompressed on background threads with read-ahead,
+	 * see {@link ParallelDecompressingInputStream}. Files consisting of several
+	 * independent blocks (as written by {@link ParallelGZIPOutputStream} or
+	 * multi-frame ZStandard files) are decompressed on up to
+	 * <code>numberOfThreads</code> threads in parallel.
+	 * <p>
+	 * The background threads only end when the stream is read to its end or
+	 * closed, so callers must always close the returned stream.
+	 *
+	 * @throws UncheckedIOException
+	 */
+	public static InputStream getInputStream(URL url, int numberOfThreads) throws UncheckedIOException {
 		try {
 			InputStream inputStream = url.openStream();
 
@@ -280,7 +298,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 			if (compression != null) {
 				switch (compression) {
 					case GZIP:
-						inputStream = new GZIPInputStream(inputStream);
+						if (numberOfThreads > 1) {
+							inputStream = new ParallelDecompressingInputStream(inputStream, ParallelDecompressingInputStream.Format.GZIP, numberOfThreads);
+						} else {
+							inputStream = new GZIPInputStream(inputStream);
+						}
 						break;
 					case LZ4:
 						inputStream = new LZ4FrameInputStream(inputStream);
@@ -289,7 +311,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 						inputStream = new CompressorStreamFactory().createCompressorInputStream(CompressorStreamFactory.BZIP2, inputStream);
 						break;
 					case ZSTD:
-						inputStream = new ZstdInputStream(inputStream);
+						if (numberOfThreads > 1) {
+							inputStream = new ParallelDecompressingInputStream(inputStream, ParallelDecompressingInputStream.Format.ZSTD, numberOfThreads);
+						} else {
+							inputStream = new ZstdInputStream(inputStream);
+						}
 						break;
 				}
 			}
@@ -330,8 +356,23 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 	 * 
 	 * @throws UncheckedIOException
 	 */
-	@SuppressWarnings("resource")
 	public static OutputStream getOutputStream(URL url, boolean append) throws UncheckedIOException {
+		return getOutputStream(url, append, 1);
+	}
+
+	/**
+	 * Same as {@link #getOutputStream(URL, boolean)}, but compresses the data on
+	 * <code>numberOfThreads</code> threads if the URL has the <code>.gz</code> or
+	 * <code>.zst</code> extension. GZIP files are written as a sequence of
+	 * independently compressed gzip members (see {@link ParallelGZIPOutputStream}),
+	 * ZStandard files use the multithreaded mode of the zstd library. In both cases
+	 * the resulting files can be read with {@link #getInputStream(URL)} and all
+	 * common tools. Other compression types ignore <code>numberOfThreads</code>.
+	 *
+	 * @throws UncheckedIOException
+	 */
+	@SuppressWarnings("resource")
+	public static OutputStream getOutputStream(URL url, boolean append, int numberOfThreads) throws UncheckedIOException {
 		try {
 			if (!url.getProtocol().equals("file")) {
 				throw new UncheckedIOException("Can only write to file:// protocol URLs");
@@ -349,7 +390,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 			if (compression != null) {
 				switch (compression) {
 					case GZIP:
-						outputStream = new GZIPOutputStream(outputStream);
+						if (numberOfThreads > 1) {
+							outputStream = new ParallelGZIPOutputStream(outputStream, numberOfThreads);
+						} else {
+							outputStream = new GZIPOutputStream(outputStream);
+						}
 						break;
 					case LZ4:
 						outputStream = new LZ4FrameOutputStream(outputStream);
@@ -358,7 +403,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 						outputStream = new CompressorStreamFactory().createCompressorOutputStream(CompressorStreamFactory.BZIP2, outputStream);
 						break;
 					case ZSTD:
-						outputStream = new ZstdOutputStream(outputStream, 6);
+						ZstdOutputStream zstdOutputStream = new ZstdOutputStream(outputStream, 6);
+						if (numberOfThreads > 1) {
+							zstdOutputStream.setWorkers(numberOfThreads);
+						}
+						outputStream = zstdOutputStream;
 						break;
 				}
 			}
@@ -379,7 +428,18 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 	 */
 	public static BufferedWriter getBufferedWriter(URL url, Charset charset, boolean append)
 			throws UncheckedIOException {
-		OutputStream outputStream = getOutputStream(url, append);
+		return getBufferedWriter(url, charset, append, 1);
+	}
+
+	/**
+	 * Same as {@link #getBufferedWriter(URL, Charset, boolean)}, but compresses
+	 * the data on several threads, see {@link #getOutputStream(URL, boolean, int)}.
+	 *
+	 * @throws UncheckedIOException
+	 */
+	public static BufferedWriter getBufferedWriter(URL url, Charset charset, boolean append, int numberOfThreads)
+			throws UncheckedIOException {
+		OutputStream outputStream = getOutputStream(url, append, numberOfThreads);
 		return new BufferedWriter(new OutputStreamWriter(outputStream, charset));
 	}
 
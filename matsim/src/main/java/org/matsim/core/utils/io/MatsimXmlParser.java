@@ -29,13 +29,15 @@ import org.xml.sax.helpers.DefaultHandler;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.Stack;
-import java.util.zip.GZIPInputStream;
 
 /**
  * An abstract XML-Parser which can be easily extended for reading custom XML-formats. This class handles all the low level
@@ -43,6 +45,10 @@ import java.util.zip.GZIPInputStream;
  * to implement a custom parser.<br>
  * The parser implements a custom <code>EntityResolver</code> to look for DTDs in the MATSim world.
  * <p></p>
+ * Some well-known MATSim file formats (events, network v2, population v6) are read with a faster, non-validating
+ * parser instead of the SAX parser, see {@link #setFastParsing(boolean)}. Extending classes receive the same callbacks
+ * in both cases.
+ * <p></p>
  * Notes:<ul>
  * <li> If implementing classes want to override the final methods, the will have to resort to delegation.   
  * </ul>
@@ -65,6 +71,10 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 	
 	private boolean preferLocalDtds = false;
 
+	private boolean isFastParsingEnabled = true;
+
+	private int numberOfDecompressionThreads = 1;
+
 	private String doctype = null;
 	/**
 	 * As the mechanism implemented in InputSource is not really working for error handling
@@ -80,6 +90,14 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 		if (localDtd != null) {
 			this.preferLocalDtds = Boolean.parseBoolean(localDtd);
 		}
+		String fastParsing = System.getProperty("matsim.fastXmlParsing");
+		if (fastParsing != null) {
+			this.isFastParsingEnabled = Boolean.parseBoolean(fastParsing);
+		}
+		String decompressionThreads = System.getProperty("matsim.decompressionThreads");
+		if (decompressionThreads != null) {
+			this.numberOfDecompressionThreads = Integer.parseInt(decompressionThreads);
+		}
 	}
 
 	/**
@@ -112,6 +130,31 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 		this.isValidating = validateXml;
 	}
 
+	/**
+	 * Sets, if documents in some well-known MATSim file formats (events, network v2, population v6) may be read with a
+	 * faster, non-validating parser. The faster parser does not check the document against its DTD, but still applies the
+	 * default values of attributes declared in the DTD. Documents in other formats are always read with the SAX parser.
+	 * Enabled by default; it can also be disabled globally with the system property <code>matsim.fastXmlParsing=false</code>,
+	 * e.g. to validate hand-written input files.
+	 *
+	 * @param fastParsing Whether the faster parser may be used or not.
+	 */
+	public final void setFastParsing(final boolean fastParsing) {
+		this.isFastParsingEnabled = fastParsing;
+	}
+
+	/**
+	 * Sets the number of threads used to decompress gzip and ZStandard compressed files, see
+	 * {@link IOUtils#getInputStream(URL, int)}. The parser always closes the stream, so the background threads end
+	 * with the parsing. Default is 1 (sequential decompression); it can also be set globally with the system property
+	 * <code>matsim.decompressionThreads</code>.
+	 *
+	 * @param numberOfThreads The number of decompression threads.
+	 */
+	public final void setNumberOfDecompressionThreads(final int numberOfThreads) {
+		this.numberOfDecompressionThreads = numberOfThreads;
+	}
+
 	/**
 	 * Specifies that the parser produced by this code will provide support for XML namespaces.
 	 * By default the value of this is set to <code>false</code>.
@@ -146,7 +189,8 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 	public final void readFile(final String filename) throws UncheckedIOException {
 		log.info("starting to parse xml from file " + filename + " ...");
 		this.theSource = filename;
-		parse(new InputSource(IOUtils.getBufferedReader(filename)));
+		// files are always read as UTF-8, independent of the encoding declared in the file
+		parse(IOUtils.getInputStream(IOUtils.resolveFileOrResource(filename), this.numberOfDecompressionThreads), null, true);
 	}
 
 	@Override
@@ -160,19 +204,40 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 		log.info("starting to parse xml from url " + this.theSource + " ...");
 		System.out.flush();
 		if (url.getFile().endsWith(".gz")) {
+			parse(IOUtils.getInputStream(url, this.numberOfDecompressionThreads), null, false);
+		} else {
 			try {
-				parse(new InputSource(new GZIPInputStream(url.openStream())));
+				parse(url.openStream(), url.toExternalForm(), false);
 			} catch (IOException e) {
-				throw new RuntimeException(e);
+				throw new UncheckedIOException(e);
 			}
-		} else {
-			parse(new InputSource(url.toExternalForm()));
 		}
 	}
 
 	public final void parse(final InputStream stream) throws UncheckedIOException {
 		this.theSource = "stream";
-		parse(new InputSource(stream));
+		parse(stream, null, false);
+	}
+
+	private void parse(final InputStream stream, final String systemId, final boolean isUtf8) throws UncheckedIOException {
+		BufferedInputStream input = new BufferedInputStream(stream);
+		try {
+			if (this.isFastParsingEnabled && FastXmlParser.canParse(input, this.isValidating, isUtf8)) {
+				try (InputStream is = input) {
+					new FastXmlParser(this, systemId == null ? this.theSource : systemId).parse(is);
+				}
+				return;
+			}
+		} catch (SAXException | IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		InputSource source = isUtf8 ? new InputSource(new InputStreamReader(input, StandardCharsets.UTF_8)) : new InputSource(input);
+		source.setSystemId(systemId);
+		try (InputStream is = input) {
+			parse(source);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	public final void parse(final InputSource input) throws UncheckedIOException {
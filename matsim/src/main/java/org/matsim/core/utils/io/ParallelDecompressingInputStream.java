@@ -0,0 +1,402 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses gzip or ZStandard compressed data with read-ahead on background threads.
+ *
+ * A reader thread splits the compressed input into independent blocks and hands them to a
+ * shared thread pool for decompression. The decompressed blocks are returned in their original
+ * order, so consumers see one contiguous stream. Splitting works for:
+ * <ul>
+ *   <li>gzip files whose members contain their size in the header, as written by {@link ParallelGZIPOutputStream}.</li>
+ *   <li>ZStandard files consisting of several frames, e.g. concatenated files or files written by <code>pzstd</code>.
+ *   The frame boundaries are found by parsing the frame and block headers, without decompressing the data.</li>
+ * </ul>
+ * All other data (gzip members without size information, very large zstd frames) is decompressed
+ * sequentially by the reader thread. The consumer still profits from the read-ahead in this case, as
+ * decompression and parsing run concurrently.
+ *
+ * The number of blocks held in memory is limited to <code>numberOfThreads + 1</code>. The reader thread blocks as long
+ * as these blocks are not consumed, so the stream must always be closed, even if it is not read to its end.
+ * The threads of the shared decompression pool end after some seconds without work.
+ */
+public final class ParallelDecompressingInputStream extends InputStream {
+
+	public enum Format { GZIP, ZSTD }
+
+	/** compressed blocks larger than this are not buffered in memory, but decompressed sequentially */
+	private static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+	private static final int SEQUENTIAL_CHUNK_SIZE = 1024 * 1024;
+
+	private static final int ZSTD_MAGIC = 0xFD2FB528;
+	private static final int ZSTD_SKIPPABLE_MAGIC = 0x184D2A50;
+	private static final int ZSTD_SKIPPABLE_MASK = 0xFFFFFFF0;
+
+	private static final long POOL_KEEP_ALIVE_SECONDS = 10;
+
+	private static final byte[] EOF = new byte[0];
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+	private static ExecutorService decompressionPool = null;
+
+	private final InputStream source;
+	private final Format format;
+	private final BlockingQueue<Future<byte[]>> blocks;
+	private final Thread readerThread;
+	private byte[] currentBlock = new byte[0];
+	private int currentPos = 0;
+	private boolean eof = false;
+	private volatile boolean closed = false;
+
+	public ParallelDecompressingInputStream(InputStream source, Format format, int numberOfThreads) {
+		this.source = new BufferedInputStream(source, 64 * 1024);
+		this.format = format;
+		this.blocks = new ArrayBlockingQueue<>(Math.max(1, numberOfThreads));
+		this.readerThread = new Thread(this::readBlocks, "ParallelDecompressingInputStream-" + threadCount.getAndIncrement());
+		this.readerThread.setDaemon(true);
+		this.readerThread.start();
+	}
+
+	private static synchronized ExecutorService getDecompressionPool() {
+		if (decompressionPool == null) {
+			int poolSize = Runtime.getRuntime().availableProcessors();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, POOL_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, "DecompressionPool-" + threadCount.getAndIncrement());
+						thread.setDaemon(true);
+						return thread;
+					});
+			// the pool threads end when no stream has been decompressed for a while
+			pool.allowCoreThreadTimeOut(true);
+			decompressionPool = pool;
+		}
+		return decompressionPool;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!ensureData()) {
+			return -1;
+		}
+		return this.currentBlock[this.currentPos++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!ensureData()) {
+			return -1;
+		}
+		int count = Math.min(len, this.currentBlock.length - this.currentPos);
+		System.arraycopy(this.currentBlock, this.currentPos, b, off, count);
+		this.currentPos += count;
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return this.currentBlock.length - this.currentPos;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.readerThread.interrupt();
+		this.blocks.clear();
+		this.source.close();
+	}
+
+	private boolean ensureData() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+		while (this.currentPos == this.currentBlock.length) {
+			if (this.eof) {
+				return false;
+			}
+			try {
+				byte[] block = this.blocks.take().get();
+				if (block == EOF) {
+					this.eof = true;
+					return false;
+				}
+				this.currentBlock = block;
+				this.currentPos = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException(e.getCause());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Runs on the reader thread.
+	 */
+	private void readBlocks() {
+		try {
+			try {
+				boolean firstBlock = true;
+				while (true) {
+					byte[] block = this.format == Format.GZIP ? readGzipMember(firstBlock) : readZstdFrame();
+					if (block == null) {
+						break;
+					}
+					final Format blockFormat = this.format;
+					this.blocks.put(getDecompressionPool().submit(() -> decompress(block, blockFormat)));
+					firstBlock = false;
+				}
+			} catch (NotSplittableException e) {
+				decompressSequentially(new SequenceInputStream(new ByteArrayInputStream(e.bytesRead), this.source));
+			}
+			this.blocks.put(CompletableFuture.completedFuture(EOF));
+		} catch (InterruptedException | InterruptedIOException e) {
+			// the stream was closed, just stop reading
+		} catch (Throwable t) {
+			if (!this.closed) {
+				CompletableFuture<byte[]> failure = new CompletableFuture<>();
+				failure.completeExceptionally(t);
+				try {
+					this.blocks.put(failure);
+				} catch (InterruptedException e) {
+					// the stream was closed in the meantime, nobody is interested in the failure anymore
+				}
+			}
+		}
+	}
+
+	private void decompressSequentially(InputStream compressed) throws IOException, InterruptedException {
+		InputStream in = this.format == Format.GZIP ? new GZIPInputStream(compressed, 64 * 1024) : new ZstdInputStream(compressed);
+		while (true) {
+			byte[] chunk = in.readNBytes(SEQUENTIAL_CHUNK_SIZE);
+			if (chunk.length == 0) {
+				break;
+			}
+			this.blocks.put(CompletableFuture.completedFuture(chunk));
+		}
+	}
+
+	private static byte[] decompress(byte[] block, Format format) throws IOException {
+		InputStream compressed = new ByteArrayInputStream(block);
+		try (InputStream in = format == Format.GZIP ? new GZIPInputStream(compressed, 64 * 1024) : new ZstdInputStream(compressed)) {
+			return in.readAllBytes();
+		}
+	}
+
+	/**
+	 * @return the complete gzip member, or <code>null</code> if the end of the data is reached.
+	 */
+	private byte[] readGzipMember(boolean firstMember) throws IOException {
+		byte[] header = this.source.readNBytes(ParallelGZIPOutputStream.HEADER_SIZE);
+		if (header.length == 0) {
+			return null;
+		}
+		if (header.length < 2 || header[0] != 0x1f || header[1] != (byte) 0x8b) {
+			if (firstMember) {
+				// let GZIPInputStream report the problem
+				throw new NotSplittableException(header);
+			}
+			// like GZIPInputStream, ignore trailing garbage after the last member
+			return null;
+		}
+		if (header.length < ParallelGZIPOutputStream.HEADER_SIZE
+				|| (header[3] & 0x04) == 0 // FEXTRA flag
+				|| header[10] != 8 || header[11] != 0 // XLEN
+				|| header[12] != ParallelGZIPOutputStream.SUBFIELD_ID1 || header[13] != ParallelGZIPOutputStream.SUBFIELD_ID2
+				|| header[14] != 4 || header[15] != 0) {
+			throw new NotSplittableException(header);
+		}
+		int memberSize = readIntLE(header, 16);
+		if (memberSize < ParallelGZIPOutputStream.HEADER_SIZE || memberSize > MAX_BLOCK_SIZE) {
+			throw new NotSplittableException(header);
+		}
+		byte[] member = new byte[memberSize];
+		System.arraycopy(header, 0, member, 0, header.length);
+		readFully(member, header.length, memberSize - header.length);
+		return member;
+	}
+
+	/**
+	 * @return the complete zstd frame, or <code>null</code> if the end of the data is reached.
+	 */
+	private byte[] readZstdFrame() throws IOException {
+		byte[] magicBytes = this.source.readNBytes(4);
+		if (magicBytes.length == 0) {
+			return null;
+		}
+		if (magicBytes.length < 4) {
+			throw new NotSplittableException(magicBytes);
+		}
+		int magic = readIntLE(magicBytes, 0);
+		while ((magic & ZSTD_SKIPPABLE_MASK) == ZSTD_SKIPPABLE_MAGIC) {
+			// skippable frames contain no data, e.g. the frame size information written by pzstd
+			byte[] sizeBytes = this.source.readNBytes(4);
+			if (sizeBytes.length < 4) {
+				throw new EOFException("Unexpected end of ZStandard data");
+			}
+			long size = readIntLE(sizeBytes, 0) & 0xffffffffL;
+			this.source.skipNBytes(size);
+			magicBytes = this.source.readNBytes(4);
+			if (magicBytes.length == 0) {
+				return null;
+			}
+			if (magicBytes.length < 4) {
+				throw new NotSplittableException(magicBytes);
+			}
+			magic = readIntLE(magicBytes, 0);
+		}
+		if (magic != ZSTD_MAGIC) {
+			throw new NotSplittableException(magicBytes);
+		}
+
+		GrowableBuffer frame = new GrowableBuffer();
+		frame.write(magicBytes, 0, 4);
+		int descriptor = readByte(frame);
+		int fcsFlag = (descriptor >>> 6) & 0x03;
+		boolean singleSegment = (descriptor & 0x20) != 0;
+		boolean hasChecksum = (descriptor & 0x04) != 0;
+		int dictIdFlag = descriptor & 0x03;
+
+		int headerBytes = singleSegment ? 0 : 1; // window descriptor
+		headerBytes += dictIdFlag == 3 ? 4 : dictIdFlag;
+		headerBytes += fcsFlag == 0 ? (singleSegment ? 1 : 0) : (1 << fcsFlag);
+		readInto(frame, headerBytes);
+
+		boolean lastBlock = false;
+		while (!lastBlock) {
+			int b0 = readByte(frame);
+			int b1 = readByte(frame);
+			int b2 = readByte(frame);
+			int blockHeader = b0 | (b1 << 8) | (b2 << 16);
+			lastBlock = (blockHeader & 0x01) != 0;
+			int blockType = (blockHeader >>> 1) & 0x03;
+			int blockSize = blockHeader >>> 3;
+			if (blockType == 3) {
+				throw new IOException("Invalid ZStandard block type");
+			}
+			readInto(frame, blockType == 1 ? 1 : blockSize); // RLE blocks consist of a single byte
+			if (frame.size() > MAX_BLOCK_SIZE) {
+				throw new NotSplittableException(frame.toByteArray());
+			}
+		}
+		if (hasChecksum) {
+			readInto(frame, 4);
+		}
+		return frame.toByteArray();
+	}
+
+	private int readByte(GrowableBuffer frame) throws IOException {
+		int b = this.source.read();
+		if (b < 0) {
+			throw new EOFException("Unexpected end of ZStandard data");
+		}
+		frame.write(b);
+		return b;
+	}
+
+	private void readInto(GrowableBuffer frame, int length) throws IOException {
+		frame.ensureCapacity(frame.size() + length);
+		frame.readFrom(this.source, length);
+	}
+
+	private void readFully(byte[] buffer, int offset, int length) throws IOException {
+		int count = this.source.readNBytes(buffer, offset, length);
+		if (count < length) {
+			throw new EOFException("Unexpected end of compressed data");
+		}
+	}
+
+	private static int readIntLE(byte[] data, int offset) {
+		return (data[offset] & 0xff)
+				| ((data[offset + 1] & 0xff) << 8)
+				| ((data[offset + 2] & 0xff) << 16)
+				| ((data[offset + 3] & 0xff) << 24);
+	}
+
+	/**
+	 * A ByteArrayOutputStream that can directly read from an input stream into its buffer.
+	 */
+	private static class GrowableBuffer extends ByteArrayOutputStream {
+		GrowableBuffer() {
+			super(64 * 1024);
+		}
+
+		void ensureCapacity(int capacity) {
+			if (capacity > this.buf.length) {
+				this.buf = Arrays.copyOf(this.buf, Math.max(capacity, 2 * this.buf.length));
+			}
+		}
+
+		void readFrom(InputStream in, int length) throws IOException {
+			int count = in.readNBytes(this.buf, this.count, length);
+			this.count += count;
+			if (count < length) {
+				throw new EOFException("Unexpected end of ZStandard data");
+			}
+		}
+	}
+
+	/**
+	 * Signals that the remaining data cannot be split into independent blocks.
+	 */
+	private static class NotSplittableException extends IOException {
+		private static final long serialVersionUID = 1L;
+		final byte[] bytesRead;
+
+		NotSplittableException(byte[] bytesRead) {
+			super("compressed data cannot be split into independent blocks");
+			this.bytesRead = bytesRead;
+		}
+	}
+
+}
@@ -0,0 +1,231 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * An output stream that compresses its data with gzip on several threads.
+ *
+ * The data is split into blocks of a fixed size. Each block is compressed
+ * independently as a complete gzip member, and the members are written to the
+ * underlying stream in the original order. A file consisting of several
+ * concatenated gzip members is a valid gzip file (RFC 1952) and can be read by
+ * {@link java.util.zip.GZIPInputStream} and all the usual command line tools.
+ *
+ * Similar to the BGZF format, the header of each member contains an extra
+ * field (subfield id <code>MS</code>) with the total size of the member in bytes.
+ * This allows {@link ParallelDecompressingInputStream} to split such files into
+ * their members without decompressing them first, and to decompress the
+ * members on several threads as well.
+ *
+ * The number of blocks waiting to be written is bounded, so the memory usage
+ * stays at roughly <code>2 * numberOfThreads * blockSize</code> (uncompressed
+ * plus compressed data).
+ */
+public final class ParallelGZIPOutputStream extends OutputStream {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+	/** subfield identifier of the extra header field containing the member size */
+	static final byte SUBFIELD_ID1 = 'M';
+	static final byte SUBFIELD_ID2 = 'S';
+	/** size of the gzip header including the extra field with the member size */
+	static final int HEADER_SIZE = 20;
+
+	private final OutputStream out;
+	private final int blockSize;
+	private final int maxPendingBlocks;
+	private final ExecutorService executor;
+	private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+	private byte[] buffer;
+	private int bufferPos = 0;
+	private boolean closed = false;
+
+	public ParallelGZIPOutputStream(OutputStream out, int numberOfThreads) {
+		this(out, numberOfThreads, DEFAULT_BLOCK_SIZE);
+	}
+
+	public ParallelGZIPOutputStream(OutputStream out, int numberOfThreads, int blockSize) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("numberOfThreads must be at least 1, but is " + numberOfThreads);
+		}
+		this.out = out;
+		this.blockSize = blockSize;
+		this.maxPendingBlocks = 2 * numberOfThreads;
+		this.executor = Executors.newFixedThreadPool(numberOfThreads, new NamedThreadFactory());
+		this.buffer = new byte[blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		this.buffer[this.bufferPos++] = (byte) b;
+		if (this.bufferPos == this.blockSize) {
+			submitBuffer();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			int count = Math.min(len, this.blockSize - this.bufferPos);
+			System.arraycopy(b, off, this.buffer, this.bufferPos, count);
+			this.bufferPos += count;
+			off += count;
+			len -= count;
+			if (this.bufferPos == this.blockSize) {
+				submitBuffer();
+			}
+		}
+	}
+
+	/**
+	 * Writes all blocks that are already completely compressed to the underlying stream. In contrast to
+	 * {@link java.util.zip.GZIPOutputStream#flush()}, the currently collected data is not compressed and written,
+	 * as this would result in many small gzip members for frequently flushing writers.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		while (!this.pendingBlocks.isEmpty() && this.pendingBlocks.peekFirst().isDone()) {
+			writeFirstPendingBlock();
+		}
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		try {
+			if (this.bufferPos > 0) {
+				submitBuffer();
+			}
+			while (!this.pendingBlocks.isEmpty()) {
+				writeFirstPendingBlock();
+			}
+			this.out.flush();
+		} finally {
+			this.closed = true;
+			this.executor.shutdownNow();
+			this.out.close();
+		}
+	}
+
+	private void submitBuffer() throws IOException {
+		final byte[] data = this.buffer;
+		final int length = this.bufferPos;
+		this.pendingBlocks.addLast(this.executor.submit(() -> compress(data, length)));
+		this.buffer = new byte[this.blockSize];
+		this.bufferPos = 0;
+		while (this.pendingBlocks.size() >= this.maxPendingBlocks) {
+			writeFirstPendingBlock();
+		}
+	}
+
+	private void writeFirstPendingBlock() throws IOException {
+		Future<byte[]> future = this.pendingBlocks.removeFirst();
+		try {
+			this.out.write(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private static byte[] compress(byte[] data, int length) throws IOException {
+		// compressed text data is usually much smaller, start with a quarter of the input size
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length / 4, 64));
+		compressed.write(new byte[] {
+				0x1f, (byte) 0x8b, // magic number
+				Deflater.DEFLATED, // compression method
+				0x04, // flags: FEXTRA
+				0, 0, 0, 0, // modification time
+				0, // extra flags
+				(byte) 255, // operating system: unknown
+				8, 0, // XLEN: length of the extra field
+				SUBFIELD_ID1, SUBFIELD_ID2, 4, 0, // subfield id and its length
+				0, 0, 0, 0 // member size, filled in below
+		});
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			DeflaterOutputStream deflaterStream = new DeflaterOutputStream(compressed, deflater, 64 * 1024);
+			deflaterStream.write(data, 0, length);
+			deflaterStream.finish();
+		} finally {
+			deflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		writeIntLE(compressed, (int) crc.getValue());
+		writeIntLE(compressed, length);
+
+		byte[] member = compressed.toByteArray();
+		int memberSize = member.length;
+		member[HEADER_SIZE - 4] = (byte) memberSize;
+		member[HEADER_SIZE - 3] = (byte) (memberSize >>> 8);
+		member[HEADER_SIZE - 2] = (byte) (memberSize >>> 16);
+		member[HEADER_SIZE - 1] = (byte) (memberSize >>> 24);
+		return member;
+	}
+
+	private static void writeIntLE(ByteArrayOutputStream out, int value) {
+		out.write(value);
+		out.write(value >>> 8);
+		out.write(value >>> 16);
+		out.write(value >>> 24);
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+		private static final AtomicInteger count = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "ParallelGZIPOutputStream-" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
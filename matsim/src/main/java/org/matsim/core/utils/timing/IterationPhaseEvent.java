@@ -0,0 +1,60 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for a phase of an iteration (replanning, mobsim, scoring and analysis), including the
+ * garbage collection and allocation during the phase.
+ */
+@Name("org.matsim.IterationPhase")
+@Label("MATSim Iteration Phase")
+@Category("MATSim")
+@Description("A phase of a MATSim iteration")
+@StackTrace(false)
+public final class IterationPhaseEvent extends Event {
+
+	@Label("Iteration")
+	public int iteration;
+
+	@Label("Phase")
+	public String phase;
+
+	@Label("GC Count")
+	public long gcCount;
+
+	@Label("GC Time")
+	@Timespan(Timespan.MILLISECONDS)
+	public long gcTime;
+
+	@Label("Allocated")
+	@DataAmount(DataAmount.BYTES)
+	public long allocated;
+
+}
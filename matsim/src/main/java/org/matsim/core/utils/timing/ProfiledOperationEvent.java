@@ -0,0 +1,56 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for a single operation timed by a {@link Profiler.Metric}.  As there may be millions of
+ * them per iteration, the event is disabled by default and needs to be enabled explicitly in the recording settings,
+ * e.g. with <code>-XX:StartFlightRecording:settings=matsim.jfc</code> containing
+ * <code>&lt;event name="org.matsim.ProfiledOperation"&gt;&lt;setting name="enabled"&gt;true&lt;/setting&gt;&lt;/event&gt;</code>.
+ */
+@Name("org.matsim.ProfiledOperation")
+@Label("MATSim Profiled Operation")
+@Category("MATSim")
+@Description("An operation timed by the MATSim profiler, e.g. a sim step of a QSim engine or a routing request")
+@Enabled(false)
+@StackTrace(false)
+final class ProfiledOperationEvent extends Event {
+
+	@Label("Category")
+	String category;
+
+	@Label("Name")
+	String name;
+
+	@Label("Elapsed Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long elapsed;
+
+}
@@ -0,0 +1,195 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.timing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects fine-grained timings and gauges of hot code paths, e.g. per QSim engine, event handler or routing mode.
+ * <p>
+ * Profiling is disabled by default.  Then, {@link Metric#start()} returns <code>0</code> and {@link Metric#stop(long)}
+ * does nothing, so instrumented code only pays a volatile read.  When enabled (see
+ * {@link org.matsim.core.config.groups.ControlerConfigGroup#isProfiling()}), the values are collected per iteration
+ * and fetched with {@link #snapshotAndReset()}.  Additionally, each timed operation is emitted as a
+ * {@link ProfiledOperationEvent} to JDK Flight Recorder, if that event type is enabled in the recording.
+ * <p>
+ * Metric objects are never removed, so they may be looked up once and kept in a field.  All methods are thread-safe.
+ */
+public final class Profiler {
+
+	public enum Kind { timer, gauge }
+
+	private static volatile boolean enabled = false;
+
+	private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+	private Profiler() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		Profiler.enabled = enabled;
+	}
+
+	/**
+	 * @return the timer with the given category and name, which is created if it does not exist yet
+	 */
+	public static Metric timer(String category, String name) {
+		return metrics.computeIfAbsent(Kind.timer + "|" + category + "|" + name, k -> new Metric(Kind.timer, category, name));
+	}
+
+	/**
+	 * @return the gauge with the given category and name, which is created if it does not exist yet
+	 */
+	public static Metric gauge(String category, String name) {
+		return metrics.computeIfAbsent(Kind.gauge + "|" + category + "|" + name, k -> new Metric(Kind.gauge, category, name));
+	}
+
+	/**
+	 * Returns the values of all metrics which were recorded at least once since the last call, sorted by category and
+	 * name, and resets them.
+	 */
+	public static List<MetricValues> snapshotAndReset() {
+		List<MetricValues> values = new ArrayList<>();
+		for (Metric metric : metrics.values()) {
+			MetricValues snapshot = metric.snapshotAndReset();
+			if (snapshot.getCount() > 0) {
+				values.add(snapshot);
+			}
+		}
+		values.sort(Comparator.comparing(MetricValues::getCategory).thenComparing(MetricValues::getName).thenComparing(MetricValues::getKind));
+		return values;
+	}
+
+	public static final class Metric {
+		private final Kind kind;
+		private final String category;
+		private final String name;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+		private Metric(Kind kind, String category, String name) {
+			this.kind = kind;
+			this.category = category;
+			this.name = name;
+		}
+
+		/**
+		 * @return the start time to be passed to {@link #stop(long)}, or <code>0</code> if profiling is disabled
+		 */
+		public long start() {
+			return enabled ? System.nanoTime() : 0;
+		}
+
+		/**
+		 * Records the time elapsed since <code>start</code>, unless <code>start</code> is <code>0</code>.
+		 */
+		public void stop(long start) {
+			if (start == 0) {
+				return;
+			}
+			long elapsed = System.nanoTime() - start;
+			record(elapsed);
+			ProfiledOperationEvent event = new ProfiledOperationEvent();
+			if (event.isEnabled()) {
+				event.category = this.category;
+				event.name = this.name;
+				event.elapsed = elapsed;
+				event.commit();
+			}
+		}
+
+		/**
+		 * Records a value, in nanoseconds for timers.  Values are recorded regardless of whether profiling is
+		 * enabled, callers should check {@link Profiler#isEnabled()} if computing the value is expensive.
+		 */
+		public void record(long value) {
+			this.count.increment();
+			this.sum.add(value);
+			this.max.accumulateAndGet(value, Math::max);
+		}
+
+		private MetricValues snapshotAndReset() {
+			// not atomic as a whole, values recorded concurrently may end up in either iteration
+			return new MetricValues(this.kind, this.category, this.name, this.count.sumThenReset(), this.sum.sumThenReset(),
+					this.max.getAndSet(Long.MIN_VALUE));
+		}
+	}
+
+	public static final class MetricValues {
+		private final Kind kind;
+		private final String category;
+		private final String name;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		MetricValues(Kind kind, String category, String name, long count, long sum, long max) {
+			this.kind = kind;
+			this.category = category;
+			this.name = name;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public Kind getKind() {
+			return this.kind;
+		}
+
+		public String getCategory() {
+			return this.category;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * @return the sum of all values, in nanoseconds for timers
+		 */
+		public long getSum() {
+			return this.sum;
+		}
+
+		/**
+		 * @return the maximum value, in nanoseconds for timers
+		 */
+		public long getMax() {
+			return this.max;
+		}
+	}
+
+}
@@ -21,7 +21,7 @@
 package org.matsim.counts;
 
 import org.matsim.analysis.IterationStopWatch;
-import org.matsim.analysis.VolumesAnalyzer;
+import org.matsim.analysis.LinkStatsStore;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
@@ -30,6 +30,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.CountsConfigGroup;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputDumpService;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.StartupEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
@@ -65,23 +66,26 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
     private ControlerConfigGroup controlerConfigGroup;
     private final CountsConfigGroup config;
     private final Set<String> analyzedModes;
-    private final VolumesAnalyzer volumesAnalyzer;
+    private final LinkStatsStore linkStatsStore;
     private final IterationStopWatch iterationStopwatch;
     private final OutputDirectoryHierarchy controlerIO;
 
     @com.google.inject.Inject(optional=true)
     private Counts<Link> counts = null;
 
+    @com.google.inject.Inject(optional=true)
+    private OutputDumpService outputDumpService = new OutputDumpService(0, 0);
+
     private final IdMap<Link, double[]> linkStats = new IdMap<>(Link.class);
     private int iterationsUsed = 0;
 
     @Inject
-    CountsControlerListener(GlobalConfigGroup globalConfigGroup, Network network, ControlerConfigGroup controlerConfigGroup, CountsConfigGroup countsConfigGroup, VolumesAnalyzer volumesAnalyzer, IterationStopWatch iterationStopwatch, OutputDirectoryHierarchy controlerIO) {
+    CountsControlerListener(GlobalConfigGroup globalConfigGroup, Network network, ControlerConfigGroup controlerConfigGroup, CountsConfigGroup countsConfigGroup, LinkStatsStore linkStatsStore, IterationStopWatch iterationStopwatch, OutputDirectoryHierarchy controlerIO) {
         this.globalConfigGroup = globalConfigGroup;
         this.network = network;
         this.controlerConfigGroup = controlerConfigGroup;
         this.config = countsConfigGroup;
-        this.volumesAnalyzer = volumesAnalyzer;
+        this.linkStatsStore = linkStatsStore;
         this.analyzedModes = CollectionUtils.stringToSet(this.config.getAnalyzedModes());
         this.iterationStopwatch = iterationStopwatch;
         this.controlerIO = controlerIO;
@@ -100,7 +104,7 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
 	public void notifyIterationEnds(final IterationEndsEvent event) {
 		if (counts != null && this.config.getWriteCountsInterval() > 0) {
             if (useVolumesOfIteration(event.getIteration(), controlerConfigGroup.getFirstIteration())) {
-                addVolumes(volumesAnalyzer);
+                addVolumes(linkStatsStore);
             }
 
             if (createCountsInIteration(event.getIteration())) {
@@ -127,47 +131,53 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
                 cca.setCountsScaleFactor(this.config.getCountsScaleFactor());
                 cca.run();
 
-                if (this.config.getOutputFormat().contains("html") ||
-                        this.config.getOutputFormat().contains("all")) {
-                    CountsHtmlAndGraphsWriter cgw = new CountsHtmlAndGraphsWriter(controlerIO.getIterationPath(event.getIteration()), cca.getComparison(), event.getIteration());
-                    cgw.addGraphsCreator(new CountsSimRealPerHourGraphCreator("sim and real volumes"));
-                    cgw.addGraphsCreator(new CountsErrorGraphCreator("errors"));
-                    cgw.addGraphsCreator(new CountsLoadCurveGraphCreator("link volumes"));
-                    cgw.addGraphsCreator(new CountsSimReal24GraphCreator("average working day sim and count volumes"));
-                    cgw.createHtmlAndGraphs();
-                }
-                if (this.config.getOutputFormat().contains("kml") ||
-                        this.config.getOutputFormat().contains("all")) {
-                    String filename = controlerIO.getIterationFilename(event.getIteration(), "countscompare.kmz");
-                    CountSimComparisonKMLWriter kmlWriter = new CountSimComparisonKMLWriter(
-                            cca.getComparison(), network, TransformationFactory.getCoordinateTransformation(globalConfigGroup.getCoordinateSystem(), TransformationFactory.WGS84));
-                    kmlWriter.setIterationNumber(event.getIteration());
-                    kmlWriter.writeFile(filename);
-                }
-                if (this.config.getOutputFormat().contains("txt") ||
-                        this.config.getOutputFormat().contains("all")) {
-                    String filename = controlerIO.getIterationFilename(event.getIteration(), "countscompare.txt");
-                    CountSimComparisonTableWriter ctw = new CountSimComparisonTableWriter(cca.getComparison(), Locale.ENGLISH);
-                    ctw.writeFile(filename);
-                }
-                if (this.config.getOutputFormat().contains("xml") ||
-                        this.config.getOutputFormat().contains("all")) {
-                    String filename = controlerIO.getIterationFilename(event.getIteration(), "simulatedCounts.xml.gz");
-                    Counts<Link> simCounts = new Counts<>();
-                    simCounts.setDescription("sim values from iteration " + event.getIteration()); simCounts.setName("sim values from iteration " + event.getIteration()); simCounts.setYear(event.getIteration());
-                    for (CountSimComparison countSimComparison : cca.getComparison()) {
+                // the comparison does not change anymore, so the (partly expensive) output can be created in the background
+                final int iteration = event.getIteration();
+                this.outputDumpService.submit("counts comparison", () -> writeComparison(iteration, cca));
+                reset();
+                iterationStopwatch.endOperation(OPERATION_COMPARECOUNTS);
+            }
+        }
+	}
+
+	private void writeComparison(final int iteration, final CountsComparisonAlgorithm cca) {
+        if (this.config.getOutputFormat().contains("html") ||
+                this.config.getOutputFormat().contains("all")) {
+            CountsHtmlAndGraphsWriter cgw = new CountsHtmlAndGraphsWriter(controlerIO.getIterationPath(iteration), cca.getComparison(), iteration);
+            cgw.addGraphsCreator(new CountsSimRealPerHourGraphCreator("sim and real volumes"));
+            cgw.addGraphsCreator(new CountsErrorGraphCreator("errors"));
+            cgw.addGraphsCreator(new CountsLoadCurveGraphCreator("link volumes"));
+            cgw.addGraphsCreator(new CountsSimReal24GraphCreator("average working day sim and count volumes"));
+            cgw.createHtmlAndGraphs();
+        }
+        if (this.config.getOutputFormat().contains("kml") ||
+                this.config.getOutputFormat().contains("all")) {
+            String filename = controlerIO.getIterationFilename(iteration, "countscompare.kmz");
+            CountSimComparisonKMLWriter kmlWriter = new CountSimComparisonKMLWriter(
+                    cca.getComparison(), network, TransformationFactory.getCoordinateTransformation(globalConfigGroup.getCoordinateSystem(), TransformationFactory.WGS84));
+            kmlWriter.setIterationNumber(iteration);
+            kmlWriter.writeFile(filename);
+        }
+        if (this.config.getOutputFormat().contains("txt") ||
+                this.config.getOutputFormat().contains("all")) {
+            String filename = controlerIO.getIterationFilename(iteration, "countscompare.txt");
+            CountSimComparisonTableWriter ctw = new CountSimComparisonTableWriter(cca.getComparison(), Locale.ENGLISH);
+            ctw.writeFile(filename);
+        }
+        if (this.config.getOutputFormat().contains("xml") ||
+                this.config.getOutputFormat().contains("all")) {
+            String filename = controlerIO.getIterationFilename(iteration, "simulatedCounts.xml.gz");
+            Counts<Link> simCounts = new Counts<>();
+            simCounts.setDescription("sim values from iteration " + iteration); simCounts.setName("sim values from iteration " + iteration); simCounts.setYear(iteration);
+            for (CountSimComparison countSimComparison : cca.getComparison()) {
 						if (simCounts.getCount(countSimComparison.getId()) == null) {
 							simCounts.createAndAddCount(countSimComparison.getId(), counts.getCount(countSimComparison.getId()).getCsLabel());
 							simCounts.getCount(countSimComparison.getId()).setCoord(counts.getCount(countSimComparison.getId()).getCoord());
 						}
 						simCounts.getCount(countSimComparison.getId()).createVolume(countSimComparison.getHour(), countSimComparison.getSimulationValue());
 					}
-                    CountsWriter countsWriter = new CountsWriter(TransformationFactory.getCoordinateTransformation(globalConfigGroup.getCoordinateSystem(), TransformationFactory.WGS84), simCounts);
-                    countsWriter.write(filename);
-                }
-                reset();
-                iterationStopwatch.endOperation(OPERATION_COMPARECOUNTS);
-            }
+            CountsWriter countsWriter = new CountsWriter(TransformationFactory.getCoordinateTransformation(globalConfigGroup.getCoordinateSystem(), TransformationFactory.WGS84), simCounts);
+            countsWriter.write(filename);
         }
 	}
 
@@ -187,31 +197,11 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
 		return ((iteration % this.config.getWriteCountsInterval() == 0) && (this.iterationsUsed >= this.config.getAverageCountsOverIterations()));		
 	}
 
-	private void addVolumes(final VolumesAnalyzer volumes) {
+	private void addVolumes(final LinkStatsStore store) {
 		this.iterationsUsed++;
+		Set<String> modes = this.config.isFilterModes() ? this.analyzedModes : null;
 		for (Map.Entry<Id<Link>, double[]> e : this.linkStats.entrySet()) {
-			Id<Link> linkId = e.getKey();
-			double[] volumesPerHour = e.getValue(); 
-			double[] newVolume = getVolumesPerHourForLink(volumes, linkId); 
-			for (int i = 0; i < 24; i++) {
-				volumesPerHour[i] += newVolume[i];
-			}
-		}
-	}
-	
-	private double[] getVolumesPerHourForLink(final VolumesAnalyzer volumes, final Id<Link> linkId) {
-		if (this.config.isFilterModes()) {
-			double[] newVolume = new double[24];
-			for (String mode : this.analyzedModes) {
-				double[] volumesForMode = volumes.getVolumesPerHourForLink(linkId, mode);
-				if (volumesForMode == null) continue;
-				for (int i = 0; i < 24; i++) {
-					newVolume[i] += volumesForMode[i];
-				}
-			}
-			return newVolume;
-		} else {
-			return volumes.getVolumesPerHourForLink(linkId);
+			store.addVolumesPerHour(e.getKey(), modes, e.getValue());
 		}
 	}
 	
@@ -27,6 +27,7 @@ import org.matsim.utils.objectattributes.attributeconverters.*;
 import org.matsim.api.core.v01.Coord;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Object that converts arbitrary objects to and from strings based on the logic defined by {@AttributeConverter}s
@@ -35,9 +36,10 @@ import java.util.*;
  */
 public class ObjectAttributesConverter {
 	private static final Logger log = Logger.getLogger(ObjectAttributesConverter.class);
-	private final Map<String, AttributeConverter<?>> converters = new HashMap<>();
+	// concurrent collections, as the converter may be used by several threads at once when writing (e.g. the PopulationWriter)
+	private final Map<String, AttributeConverter<?>> converters = new ConcurrentHashMap<>();
 
-	private final Set<String> missingConverters = new HashSet<>();
+	private final Set<String> missingConverters = ConcurrentHashMap.newKeySet();
 
 	@Inject
 	public ObjectAttributesConverter(final Map<Class<?>, AttributeConverter<?>> converters) {
@@ -0,0 +1,146 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class LinkStatsStoreTest {
+
+	private final Id<Link> link1 = Id.createLinkId("store1");
+	private final Id<Link> link2 = Id.createLinkId("store2");
+
+	@Test
+	public void testVolumesAndTravelTimes() {
+		Network network = createNetwork();
+		LinkStatsStore store = new LinkStatsStore(3600, 24 * 3600 - 1, network);
+		Id<Vehicle> car = Id.createVehicleId("car");
+		Id<Vehicle> bike = Id.createVehicleId("bike");
+
+		store.handleEvent(new VehicleEntersTrafficEvent(7000.0, Id.createPersonId("1"), link1, car, TransportMode.car, 1.0));
+		store.handleEvent(new VehicleEntersTrafficEvent(7100.0, Id.createPersonId("2"), link1, bike, TransportMode.bike, 1.0));
+		// vehicles starting on a link count for the volume, but not for the travel time
+		store.handleEvent(new LinkLeaveEvent(7150.0, car, link1));
+		store.handleEvent(new LinkEnterEvent(7150.0, car, link2));
+		store.handleEvent(new LinkLeaveEvent(7300.0, bike, link1));
+		store.handleEvent(new LinkEnterEvent(7300.0, bike, link2));
+		store.handleEvent(new LinkLeaveEvent(7250.0, car, link2));
+		store.handleEvent(new LinkLeaveEvent(7500.0, bike, link2));
+		store.handleEvent(new VehicleLeavesTrafficEvent(90000.0, Id.createPersonId("1"), link1, car, TransportMode.car, 1.0));
+		store.handleEvent(new LinkLeaveEvent(90000.0, car, link1));
+
+		Assert.assertEquals(25, store.getNumberOfTimeBins());
+		Assert.assertEquals(Arrays.asList(TransportMode.bike, TransportMode.car), new ArrayList<>(store.getModes()));
+		Assert.assertEquals(1, store.getVolume(link1, TransportMode.car, 1));
+		Assert.assertEquals(1, store.getVolume(link1, TransportMode.bike, 2));
+		Assert.assertEquals(1, store.getVolume(link1, TransportMode.car, 24));
+		Assert.assertEquals(2, store.getVolume(link2, null, 2));
+		Assert.assertEquals(0, store.getVolume(link2, TransportMode.walk, 2));
+		Assert.assertTrue(Double.isNaN(store.getAverageTravelTime(link1, null, 1)));
+		Assert.assertEquals(100.0, store.getAverageTravelTime(link2, TransportMode.car, 2), 1e-9);
+		Assert.assertEquals(200.0, store.getAverageTravelTime(link2, TransportMode.bike, 2), 1e-9);
+		Assert.assertEquals(150.0, store.getAverageTravelTime(link2, null, 2), 1e-9);
+		Assert.assertNull(store.getVolumes(link2, TransportMode.walk));
+
+		store.reset(1);
+		Assert.assertEquals(0, store.getVolume(link2, null, 2));
+		Assert.assertNull(store.getVolumes(link2, null));
+		Assert.assertTrue(store.getLinkIds().isEmpty());
+	}
+
+	@Test
+	public void testSameVolumesAsVolumesAnalyzer() {
+		Network network = createNetwork();
+		LinkStatsStore store = new LinkStatsStore(900, 24 * 3600 - 1, network);
+		VolumesAnalyzer analyzer = new VolumesAnalyzer(900, 24 * 3600 - 1, network);
+
+		// more events than fit into one batch
+		Random random = new Random(42);
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			Id<Vehicle> vehicleId = Id.createVehicleId("v" + (i % 100));
+			Id<Person> personId = Id.createPersonId("p" + (i % 100));
+			Id<Link> linkId = random.nextBoolean() ? link1 : link2;
+			String mode = random.nextBoolean() ? TransportMode.car : TransportMode.truck;
+			double time = random.nextInt(30 * 3600);
+			events.add(new VehicleEntersTrafficEvent(time, personId, linkId, vehicleId, mode, 1.0));
+			events.add(new LinkLeaveEvent(time + 10.0, vehicleId, linkId));
+		}
+		for (Event event : events) {
+			if (event instanceof VehicleEntersTrafficEvent) {
+				store.handleEvent((VehicleEntersTrafficEvent) event);
+				analyzer.handleEvent((VehicleEntersTrafficEvent) event);
+			} else {
+				store.handleEvent((LinkLeaveEvent) event);
+				analyzer.handleEvent((LinkLeaveEvent) event);
+			}
+		}
+
+		Assert.assertEquals(analyzer.getModes(), store.getModes());
+		Assert.assertEquals(analyzer.getLinkIds(), store.getLinkIds());
+		for (Id<Link> linkId : Arrays.asList(link1, link2)) {
+			Assert.assertArrayEquals(analyzer.getVolumesForLink(linkId), store.getVolumes(linkId, null));
+			double[] hourly = new double[24];
+			store.addVolumesPerHour(linkId, null, hourly);
+			Assert.assertArrayEquals(analyzer.getVolumesPerHourForLink(linkId), hourly, 0.0);
+			for (String mode : analyzer.getModes()) {
+				Assert.assertArrayEquals(analyzer.getVolumesForLink(linkId, mode), store.getVolumes(linkId, mode));
+				double[] hourlyForMode = new double[24];
+				store.addVolumesPerHour(linkId, Collections.singleton(mode), hourlyForMode);
+				Assert.assertArrayEquals(analyzer.getVolumesPerHourForLink(linkId, mode), hourlyForMode, 0.0);
+			}
+		}
+	}
+
+	private Network createNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = network.getFactory().createNode(Id.createNodeId("store1"), new Coord(0.0, 0.0));
+		Node node2 = network.getFactory().createNode(Id.createNodeId("store2"), new Coord(1000.0, 0.0));
+		Node node3 = network.getFactory().createNode(Id.createNodeId("store3"), new Coord(2000.0, 0.0));
+		network.addNode(node1);
+		network.addNode(node2);
+		network.addNode(node3);
+		network.addLink(network.getFactory().createLink(link1, node1, node2));
+		network.addLink(network.getFactory().createLink(link2, node2, node3));
+		return network;
+	}
+
+}
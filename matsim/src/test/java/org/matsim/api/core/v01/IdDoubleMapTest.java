@@ -0,0 +1,114 @@
+package org.matsim.api.core.v01;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.population.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IdDoubleMapTest {
+
+	@Test
+	public void testPutGetRemoveSize() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class, 10);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+		Id<Person> id3 = Id.create("3", Person.class);
+
+		Assert.assertEquals(0, map.size());
+		Assert.assertTrue(map.isEmpty());
+
+		Assert.assertEquals(0.0, map.put(id1, 1.5), 0.0);
+		Assert.assertEquals(1, map.size());
+		Assert.assertFalse(map.isEmpty());
+
+		Assert.assertEquals(0.0, map.put(id2, 0.0), 0.0);
+		Assert.assertEquals(2, map.size());
+		Assert.assertTrue(map.containsKey(id2));
+		Assert.assertFalse(map.containsKey(id3));
+
+		Assert.assertEquals(1.5, map.put(id1, 2.5), 0.0);
+		Assert.assertEquals(2, map.size());
+
+		Assert.assertEquals(2.5, map.get(id1), 0.0);
+		Assert.assertEquals(0.0, map.get(id2), 0.0);
+		Assert.assertEquals(0.0, map.get(id3), 0.0);
+		Assert.assertEquals(-1.0, map.getOrDefault(id3, -1.0), 0.0);
+		Assert.assertEquals(0.0, map.getOrDefault(id2, -1.0), 0.0);
+
+		Assert.assertTrue(map.remove(id1));
+		Assert.assertFalse(map.remove(id1));
+		Assert.assertEquals(1, map.size());
+		Assert.assertFalse(map.containsKey(id1));
+		Assert.assertEquals(0.0, map.get(id1), 0.0);
+
+		map.clear();
+		Assert.assertEquals(0, map.size());
+		Assert.assertFalse(map.containsKey(id2));
+	}
+
+	@Test
+	public void testAdd() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class, 1);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+
+		Assert.assertEquals(3.0, map.add(id1, 3.0), 0.0);
+		Assert.assertEquals(4.5, map.add(id1, 1.5), 0.0);
+		Assert.assertEquals(-1.0, map.add(id2, -1.0), 0.0);
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(4.5, map.get(id1), 0.0);
+	}
+
+	@Test
+	public void testForEachAndKeySet() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class, 10);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+		Id<Person> id3 = Id.create("3", Person.class);
+
+		map.put(id3, 3.0);
+		map.put(id1, 1.0);
+
+		List<Id<Person>> ids = new ArrayList<>();
+		List<Double> values = new ArrayList<>();
+		map.forEach((id, value) -> {
+			ids.add(id);
+			values.add(value);
+		});
+		Assert.assertEquals(List.of(id1, id3), ids);
+		Assert.assertEquals(List.of(1.0, 3.0), values);
+
+		IdSet<Person> keys = map.keySet();
+		Assert.assertEquals(2, keys.size());
+		Assert.assertTrue(keys.contains(id1));
+		Assert.assertFalse(keys.contains(id2));
+		Assert.assertTrue(keys.contains(id3));
+	}
+
+	@Test
+	public void testEqualsAndHashCode() {
+		IdDoubleMap<Person> map1 = new IdDoubleMap<>(Person.class, 1);
+		IdDoubleMap<Person> map2 = new IdDoubleMap<>(Person.class, 100);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+
+		map1.put(id1, 1.0);
+		map1.put(id2, 2.0);
+		map2.put(id2, 2.0);
+		Assert.assertNotEquals(map1, map2);
+
+		map2.put(id1, 1.0);
+		Assert.assertEquals(map1, map2);
+		Assert.assertEquals(map1.hashCode(), map2.hashCode());
+
+		map2.put(id1, 1.5);
+		Assert.assertNotEquals(map1, map2);
+	}
+
+}
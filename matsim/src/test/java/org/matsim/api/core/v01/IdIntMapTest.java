@@ -0,0 +1,32 @@
+package org.matsim.api.core.v01;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.network.Link;
+
+public class IdIntMapTest {
+
+	@Test
+	public void testPutGetAddRemove() {
+		IdIntMap<Link> map = new IdIntMap<>(Link.class, 1);
+
+		Id<Link> id1 = Id.create("1", Link.class);
+		Id<Link> id2 = Id.create("2", Link.class);
+
+		Assert.assertEquals(0, map.put(id1, 5));
+		Assert.assertEquals(5, map.put(id1, 6));
+		Assert.assertEquals(1, map.add(id2, 1));
+		Assert.assertEquals(2, map.add(id2, 1));
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(6, map.get(id1));
+		Assert.assertEquals(2, map.get(id2));
+
+		Assert.assertEquals(0, map.add(id2, -2));
+		Assert.assertTrue(map.containsKey(id2));
+		Assert.assertTrue(map.remove(id2));
+		Assert.assertFalse(map.containsKey(id2));
+		Assert.assertEquals(-1, map.getOrDefault(id2, -1));
+		Assert.assertEquals(1, map.size());
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.matsim.api.core.v01;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.network.Link;
+
+public class IdLongMapTest {
+
+	@Test
+	public void testPutGetAddRemove() {
+		IdLongMap<Link> map = new IdLongMap<>(Link.class, 1);
+
+		Id<Link> id1 = Id.create("1", Link.class);
+		Id<Link> id2 = Id.create("2", Link.class);
+
+		Assert.assertEquals(0L, map.put(id1, 5_000_000_000L));
+		Assert.assertEquals(5_000_000_000L, map.add(id1, 0L));
+		Assert.assertEquals(1L, map.add(id2, 1L));
+		Assert.assertEquals(2, map.size());
+
+		Assert.assertTrue(map.remove(id1));
+		Assert.assertEquals(1, map.size());
+		Assert.assertEquals(0L, map.get(id1));
+		Assert.assertEquals(1L, map.get(id2));
+	}
+
+}
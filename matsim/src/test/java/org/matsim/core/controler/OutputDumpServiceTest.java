@@ -0,0 +1,118 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+public class OutputDumpServiceTest {
+
+	@Rule
+	public final MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testSynchronousWriting() throws IOException {
+		OutputDumpService service = new OutputDumpService(0, 0);
+		String filename = this.utils.getOutputDirectory() + "sync.txt.gz";
+		service.write(filename, lines(1000));
+		// written on the calling thread, no barrier required
+		assertLines(filename, 1000);
+		service.shutdown();
+	}
+
+	@Test
+	public void testBackgroundWriting() throws IOException, InterruptedException {
+		OutputDumpService service = new OutputDumpService(2, 64L * 1024 * 1024);
+		CountDownLatch blocker = new CountDownLatch(1);
+		service.submit("blocker", () -> {
+			try {
+				blocker.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		String filename = this.utils.getOutputDirectory() + "async.txt.gz";
+		service.write(filename, lines(100000));
+		blocker.countDown();
+		service.awaitCompletion();
+		assertLines(filename, 100000);
+		service.shutdown();
+	}
+
+	@Test
+	public void testMemoryBudgetExhausted() throws IOException {
+		// the budget is smaller than one block, so the data has to be written directly
+		OutputDumpService service = new OutputDumpService(1, 1024);
+		String filename = this.utils.getOutputDirectory() + "direct.txt";
+		service.write(filename, lines(100000));
+		assertLines(filename, 100000);
+		service.shutdown();
+	}
+
+	@Test
+	public void testFailureIsRethrownAtBarrier() {
+		OutputDumpService service = new OutputDumpService(1, 1024);
+		service.submit("failing task", () -> {
+			throw new UncheckedIOException(new IOException("disk full"));
+		});
+		try {
+			service.awaitCompletion();
+			Assert.fail("expected exception");
+		} catch (UncheckedIOException e) {
+			Assert.assertEquals("disk full", e.getCause().getMessage());
+		}
+		// the failure is only reported once
+		service.shutdown();
+	}
+
+	private static Consumer<OutputStream> lines(int count) {
+		return out -> {
+			try {
+				for (int i = 0; i < count; i++) {
+					out.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+				}
+				out.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	private static void assertLines(String filename, int count) throws IOException {
+		try (BufferedReader reader = IOUtils.getBufferedReader(filename)) {
+			for (int i = 0; i < count; i++) {
+				Assert.assertEquals("line " + i, reader.readLine());
+			}
+			Assert.assertNull(reader.readLine());
+		}
+	}
+
+}
@@ -0,0 +1,259 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.checkpoint;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
+import org.matsim.core.config.groups.StrategyConfigGroup.StrategySettings;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.GenericRouteImpl;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.replanning.strategies.DefaultPlanStrategiesModule.DefaultSelector;
+import org.matsim.core.replanning.strategies.DefaultPlanStrategiesModule.DefaultStrategy;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.utils.objectattributes.ObjectAttributesConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CheckpointManagerTest {
+
+	@Rule
+	public final MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testRestartReproducesRun() {
+		String outputDirectory = this.utils.getOutputDirectory();
+
+		Scenario original = createScenario(outputDirectory + "original/");
+		original.getConfig().controler().setWriteCheckpointsInterval(2);
+		new Controler(original).run();
+
+		Scenario restarted = createScenario(outputDirectory + "restarted/");
+		restarted.getConfig().controler().setRestartFromCheckpoint(outputDirectory + "original/ITERS/it.2/2." + CheckpointManager.FILENAME);
+		new Controler(restarted).run();
+
+		Assert.assertTrue(new File(outputDirectory + "original/ITERS/it.4/4." + CheckpointManager.FILENAME).exists());
+		Assert.assertFalse("iterations up to the checkpoint must not be repeated", new File(outputDirectory + "restarted/ITERS/it.2").exists());
+		Assert.assertTrue(new File(outputDirectory + "restarted/ITERS/it.3").exists());
+		Assert.assertTrue("the restarted run must end with the same plans and scores",
+				PopulationUtils.equalPopulation(original.getPopulation(), restarted.getPopulation()));
+	}
+
+	@Test
+	public void testPopulationRoundTrip() throws IOException {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Population population = scenario.getPopulation();
+		PopulationFactory factory = population.getFactory();
+
+		Person person = factory.createPerson(Id.createPersonId("1"));
+		Plan plan = factory.createPlan();
+		plan.setScore(12.5);
+		plan.getAttributes().putAttribute("origin", "innovation");
+		Activity home = factory.createActivityFromCoord("home", new Coord(10.0, 20.0, 30.0));
+		home.setLinkId(Id.createLinkId("a"));
+		home.setEndTime(7 * 3600.0);
+		plan.addActivity(home);
+		Leg car = factory.createLeg(TransportMode.car);
+		car.setDepartureTime(7 * 3600.0);
+		car.setTravelTime(600.0);
+		NetworkRoute networkRoute = RouteUtils.createLinkNetworkRouteImpl(Id.createLinkId("a"),
+				Arrays.asList(Id.createLinkId("b"), Id.createLinkId("c")), Id.createLinkId("d"));
+		networkRoute.setVehicleId(Id.createVehicleId("1"));
+		networkRoute.setDistance(1234.0);
+		networkRoute.setTravelTime(600.0);
+		car.setRoute(networkRoute);
+		car.getAttributes().putAttribute("tollPaid", 2.5);
+		plan.addLeg(car);
+		Activity work = factory.createActivityFromLinkId("work", Id.createLinkId("d"));
+		work.setMaximumDuration(8 * 3600.0);
+		work.setFacilityId(Id.create("w", org.matsim.facilities.ActivityFacility.class));
+		plan.addActivity(work);
+		Leg walk = factory.createLeg(TransportMode.walk);
+		GenericRouteImpl genericRoute = new GenericRouteImpl(Id.createLinkId("d"), Id.createLinkId("a"));
+		genericRoute.setRouteDescription("some description");
+		genericRoute.setDistance(900.0);
+		walk.setRoute(genericRoute);
+		plan.addLeg(walk);
+		plan.addActivity(factory.createActivityFromLinkId("home", Id.createLinkId("a")));
+		person.addPlan(plan);
+		Plan unscored = PopulationUtils.createPlan();
+		unscored.addActivity(factory.createActivityFromLinkId("home", Id.createLinkId("a")));
+		person.addPlan(unscored);
+		person.setSelectedPlan(unscored);
+		population.addPerson(person);
+
+		ObjectAttributesConverter converter = new ObjectAttributesConverter();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			new PopulationCheckpointIO.Writer(out, converter).writePopulation(population);
+		}
+
+		Population restored = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		Person restoredPerson = restored.getFactory().createPerson(Id.createPersonId("1"));
+		restoredPerson.addPlan(restored.getFactory().createPlan());
+		restored.addPerson(restoredPerson);
+		ByteArrayInputStream in = new ByteArrayInputStream(bytes.toByteArray());
+		new PopulationCheckpointIO.Reader(new DataInputStream(in), converter).readPopulation(restored);
+
+		Assert.assertEquals(0, in.available());
+		Assert.assertTrue(PopulationUtils.equalPopulation(population, restored));
+		List<? extends Plan> plans = restoredPerson.getPlans();
+		Assert.assertEquals(2, plans.size());
+		Assert.assertSame(plans.get(1), restoredPerson.getSelectedPlan());
+		Assert.assertEquals(12.5, plans.get(0).getScore(), 0.0);
+		Assert.assertNull(plans.get(1).getScore());
+		Assert.assertEquals("innovation", plans.get(0).getAttributes().getAttribute("origin"));
+		Assert.assertEquals(2.5, ((Leg) plans.get(0).getPlanElements().get(1)).getAttributes().getAttribute("tollPaid"));
+		Assert.assertEquals(30.0, ((Activity) plans.get(0).getPlanElements().get(0)).getCoord().getZ(), 0.0);
+		NetworkRoute restoredRoute = (NetworkRoute) ((Leg) plans.get(0).getPlanElements().get(1)).getRoute();
+		Assert.assertEquals(networkRoute.getLinkIds(), restoredRoute.getLinkIds());
+		Assert.assertEquals(Id.createVehicleId("1"), restoredRoute.getVehicleId());
+		Assert.assertEquals("some description", ((Leg) plans.get(0).getPlanElements().get(3)).getRoute().getRouteDescription());
+	}
+
+	private static Scenario createScenario(String outputDirectory) {
+		Config config = ConfigUtils.createConfig();
+		config.controler().setOutputDirectory(outputDirectory);
+		config.controler().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controler().setLastIteration(4);
+		config.controler().setCreateGraphs(false);
+		config.controler().setWriteEventsInterval(0);
+		config.controler().setWritePlansInterval(0);
+		config.controler().setDumpDataAtEnd(false);
+		config.global().setNumberOfThreads(1);
+		config.qsim().setNumberOfThreads(1);
+		config.qsim().setEndTime(30 * 3600.0);
+
+		ActivityParams home = new ActivityParams("home");
+		home.setTypicalDuration(14 * 3600.0);
+		config.planCalcScore().addActivityParams(home);
+		ActivityParams work = new ActivityParams("work");
+		work.setTypicalDuration(8 * 3600.0);
+		config.planCalcScore().addActivityParams(work);
+
+		addStrategy(config, DefaultSelector.ChangeExpBeta, 0.7);
+		addStrategy(config, DefaultStrategy.ReRoute, 0.2);
+		addStrategy(config, DefaultStrategy.TimeAllocationMutator, 0.1);
+
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createGrid(scenario.getNetwork(), 4);
+		createPopulation(scenario, 100);
+		return scenario;
+	}
+
+	private static void addStrategy(Config config, String name, double weight) {
+		StrategySettings settings = new StrategySettings();
+		settings.setStrategyName(name);
+		settings.setWeight(weight);
+		config.strategy().addStrategySettings(settings);
+	}
+
+	private static void createGrid(Network network, int size) {
+		NetworkFactory factory = network.getFactory();
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				network.addNode(factory.createNode(Id.createNodeId(x + "_" + y), new Coord(x * 500.0, y * 500.0)));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLinks(network, x + "_" + y, (x + 1) + "_" + y);
+				}
+				if (y + 1 < size) {
+					addLinks(network, x + "_" + y, x + "_" + (y + 1));
+				}
+			}
+		}
+	}
+
+	private static void addLinks(Network network, String from, String to) {
+		for (String[] direction : new String[][] { { from, to }, { to, from } }) {
+			Node fromNode = network.getNodes().get(Id.createNodeId(direction[0]));
+			Node toNode = network.getNodes().get(Id.createNodeId(direction[1]));
+			Link link = network.getFactory().createLink(Id.createLinkId(direction[0] + "-" + direction[1]), fromNode, toNode);
+			link.setLength(500.0);
+			link.setFreespeed(10.0);
+			link.setCapacity(300.0);
+			link.setNumberOfLanes(1.0);
+			network.addLink(link);
+		}
+	}
+
+	private static void createPopulation(Scenario scenario, int size) {
+		Random random = new Random(4711);
+		Population population = scenario.getPopulation();
+		PopulationFactory factory = population.getFactory();
+		Link[] links = scenario.getNetwork().getLinks().values().toArray(new Link[0]);
+		for (int i = 0; i < size; i++) {
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Link homeLink = links[random.nextInt(links.length)];
+			Link workLink = links[random.nextInt(links.length)];
+			Activity home = factory.createActivityFromLinkId("home", homeLink.getId());
+			home.setCoord(homeLink.getCoord());
+			home.setEndTime(7 * 3600.0 + random.nextInt(3600));
+			plan.addActivity(home);
+			plan.addLeg(factory.createLeg(TransportMode.car));
+			Activity work = factory.createActivityFromLinkId("work", workLink.getId());
+			work.setCoord(workLink.getCoord());
+			work.setEndTime(16 * 3600.0 + random.nextInt(3600));
+			plan.addActivity(work);
+			plan.addLeg(factory.createLeg(TransportMode.car));
+			Activity homeAgain = factory.createActivityFromLinkId("home", homeLink.getId());
+			homeAgain.setCoord(homeLink.getCoord());
+			plan.addActivity(homeAgain);
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+	}
+
+}
@@ -321,4 +321,40 @@ public class PopulationV6IOTest {
 
 		Assert.assertEquals(route.getRouteDescription(), ((Leg) scenario.getPopulation().getPersons().get(person1.getId()).getSelectedPlan().getPlanElements().get(1)).getRoute().getRouteDescription());
 	}
+
+	@Test
+	public void testMultithreadedWriting() {
+		final Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig() );
+		final PopulationFactory factory = population.getFactory();
+		for (int i = 0; i < 2500; i++) {
+			Person person = factory.createPerson(Id.createPersonId(i));
+			person.getAttributes().putAttribute("age", i % 100);
+			Plan plan = factory.createPlan();
+			plan.addActivity(factory.createActivityFromCoord("home", new Coord(i, -i)));
+			plan.addLeg(factory.createLeg("walk"));
+			plan.addActivity(factory.createActivityFromLinkId("work", Id.createLinkId(i)));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		ByteArrayOutputStream singleThreaded = new ByteArrayOutputStream();
+		new PopulationWriter(population).write(singleThreaded);
+
+		ByteArrayOutputStream multiThreaded = new ByteArrayOutputStream();
+		PopulationWriter writer = new PopulationWriter(population);
+		writer.setNumberOfThreads(4);
+		writer.write(multiThreaded);
+
+		Assert.assertArrayEquals(singleThreaded.toByteArray(), multiThreaded.toByteArray());
+
+		final String file = utils.getOutputDirectory() + "/population.xml.gz";
+		writer = new PopulationWriter(population);
+		writer.setNumberOfThreads(4);
+		writer.write(file);
+
+		final Scenario readScenario = ScenarioUtils.createScenario( ConfigUtils.createConfig() );
+		new PopulationReader( readScenario ).readFile( file );
+		Assert.assertEquals(2500, readScenario.getPopulation().getPersons().size());
+		Assert.assertEquals(42, readScenario.getPopulation().getPersons().get(Id.createPersonId(142)).getAttributes().getAttribute("age"));
+	}
 }
@@ -34,10 +34,12 @@ import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.PersonUtils;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.replanning.selectors.BestPlanSelector;
+import org.matsim.core.replanning.selectors.ExpBetaPlanSelector;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
 import org.matsim.core.scenario.ScenarioUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -373,6 +375,67 @@ public class StrategyManagerTest {
 		Assert.assertEquals(1.0, weights.get(2), 1e-8);
 	}
 	
+	@Test
+	public void testPlanSelectionIndependentOfNumberOfThreads() {
+		List<String> reference = runPlanSelection(1);
+		Assert.assertEquals(reference, runPlanSelection(1));
+		Assert.assertEquals(reference, runPlanSelection(3));
+		Assert.assertNotEquals(reference, runPlanSelection(0));
+	}
+
+	@Test
+	public void testModuleRandomnessIndependentOfNumberOfThreads() {
+		List<String> reference = runPlanSelection(2, true);
+		Assert.assertEquals(reference, runPlanSelection(2, true));
+		Assert.assertEquals(reference, runPlanSelection(3, true));
+	}
+
+	private static List<String> runPlanSelection(int numberOfThreads) {
+		return runPlanSelection(numberOfThreads, false);
+	}
+
+	private static List<String> runPlanSelection(int numberOfThreads, boolean moduleDrawsRandomNumbers) {
+		MatsimRandom.reset(4711);
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 500; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			for (int j = 0; j < 6; j++) {
+				Plan plan = PopulationUtils.createPlan(person);
+				plan.setScore((double) ((i + j) % 7));
+				person.addPlan(plan);
+			}
+			person.setSelectedPlan(person.getPlans().get(0));
+			population.addPerson(person);
+		}
+
+		final List<String> result = new ArrayList<>();
+		StrategyManager manager = new StrategyManager();
+		manager.setMaxPlansPerAgent(4);
+		manager.setNumberOfThreadsForPlanSelection(numberOfThreads);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new ExpBetaPlanSelector<>(1.0)).build(), null, 0.7);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new RandomPlanSelector<>()).addStrategyModule(new PlanStrategyModule() {
+			@Override
+			public void prepareReplanning(ReplanningContext replanningContext) {
+			}
+			@Override
+			public void handlePlan(Plan plan) {
+				if (moduleDrawsRandomNumbers) {
+					plan.setScore(MatsimRandom.getRandom().nextDouble());
+				}
+				result.add("innovated " + plan.getPerson().getId() + " " + plan.getScore());
+			}
+			@Override
+			public void finishReplanning() {
+			}
+		}).build(), null, 0.3);
+		manager.run(population, 1, null);
+
+		for (Person person : population.getPersons().values()) {
+			result.add(person.getId() + " " + person.getPlans().size() + " " + person.getSelectedPlan().getScore());
+		}
+		return result;
+	}
+
 	/**
 	 * A simple extension to the PlanStrategy which counts how often it was
 	 * called.
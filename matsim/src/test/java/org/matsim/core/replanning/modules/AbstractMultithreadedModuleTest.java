@@ -26,8 +26,14 @@ import org.junit.Test;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @author mrieser
  */
@@ -60,6 +66,26 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	public void testPlansAreAssignedToInstancesDeterministically() {
+		for (int round = 0; round < 2; round++) {
+			RecordingModule testee = new RecordingModule(3);
+			testee.prepareReplanning(null);
+			List<Plan> plans = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				Plan plan = PopulationUtils.createPlan();
+				plans.add(plan);
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+
+			Assert.assertEquals(10, testee.handledBy.size());
+			for (int i = 0; i < 10; i++) {
+				Assert.assertEquals(i % 3, testee.handledBy.get(plans.get(i)).intValue());
+			}
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
@@ -86,4 +112,18 @@ public class AbstractMultithreadedModuleTest {
 			throw new IllegalArgumentException("just some exception to crash this thread.");
 		}
 	}
+
+	private static class RecordingModule extends AbstractMultithreadedModule {
+		private final Map<Plan, Integer> handledBy = new ConcurrentHashMap<>();
+		private int instanceCount = 0;
+
+		public RecordingModule(final int nOfThreads) {
+			super(nOfThreads);
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			final int instance = this.instanceCount++;
+			return plan -> this.handledBy.put(plan, instance);
+		}
+	}
 }
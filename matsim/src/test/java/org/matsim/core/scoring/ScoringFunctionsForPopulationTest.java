@@ -27,22 +27,38 @@ import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
 import org.matsim.api.core.v01.events.PersonMoneyEvent;
 import org.matsim.api.core.v01.events.PersonScoreEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.controler.ControlerListenerManagerImpl;
 import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.router.TripStructureUtils;
 import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author mrieser / Simunto GmbH
@@ -135,6 +151,200 @@ public class ScoringFunctionsForPopulationTest {
 		Assert.assertEquals(1.234+2.345, rsf.separateScoreSum, 1e-7);
 	}
 
+	@Test
+	public void testPartitionedScoring() {
+		Assert.assertEquals(runPartitionedScoring(1), runPartitionedScoring(3));
+	}
+
+	@Test
+	public void testIncrementalScoring() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		for (int i = 0; i < 3; i++) {
+			Person person = pf.createPerson(Id.create(i, Person.class));
+			person.addPlan(pf.createPlan());
+			population.addPerson(person);
+		}
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsToActivities eventsToActivities = new EventsToActivities();
+		EventsToLegs eventsToLegs = new EventsToLegs(scenario);
+		int[] createdScoringFunctions = new int[1];
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs,
+				population, agentId -> {
+					createdScoringFunctions[0]++;
+					return new DescribingScoringFunction();
+				}, 1, true);
+
+		runIncrementalScoringIteration(0, controlerListenerManager, eventsManager, eventsToActivities, sf, 0.0);
+		Assert.assertEquals(3, createdScoringFunctions[0]);
+		Assert.assertEquals(3, sf.getNumberOfScoredPersons());
+		Assert.assertEquals(0, sf.getNumberOfSkippedPersons());
+		String person0 = sf.getScoringFunctionForAgent(Id.create(0, Person.class)).toString();
+		String person1 = sf.getScoringFunctionForAgent(Id.create(1, Person.class)).toString();
+		Assert.assertTrue(person0.endsWith(" finish"));
+
+		// person 1 experiences another trajectory, person 2 selects another plan
+		Person person2 = population.getPersons().get(Id.create(2, Person.class));
+		person2.addPlan(pf.createPlan());
+		person2.setSelectedPlan(person2.getPlans().get(1));
+		runIncrementalScoringIteration(1, controlerListenerManager, eventsManager, eventsToActivities, sf, 60.0);
+		// scoring functions are created up front (to receive the events), but only run for the persons 1 and 2
+		Assert.assertEquals(6, createdScoringFunctions[0]);
+		Assert.assertEquals(2, sf.getNumberOfScoredPersons());
+		Assert.assertEquals(1, sf.getNumberOfSkippedPersons());
+		Assert.assertTrue(sf.getNumberOfSkippedCalls() > 0);
+		Assert.assertEquals(person0, sf.getScoringFunctionForAgent(Id.create(0, Person.class)).toString());
+		Assert.assertNotEquals(person1, sf.getScoringFunctionForAgent(Id.create(1, Person.class)).toString());
+	}
+
+	private static void runIncrementalScoringIteration(int iteration, ControlerListenerManagerImpl controlerListenerManager, EventsManager eventsManager,
+			EventsToActivities eventsToActivities, ScoringFunctionsForPopulation sf, double delayOfPerson1) {
+		controlerListenerManager.fireControlerIterationStartsEvent(iteration, false);
+		eventsManager.resetHandlers(iteration);
+		eventsManager.initProcessing();
+		Id<Link> linkId = Id.create(1, Link.class);
+		for (int i = 0; i < 3; i++) {
+			Id<Person> personId = Id.create(i, Person.class);
+			double arrivalTime = 8 * 3600 + (i == 1 ? delayOfPerson1 : 0.0);
+			eventsManager.processEvent(new ActivityEndEvent(7 * 3600, personId, linkId, null, "home"));
+			eventsManager.processEvent(new PersonDepartureEvent(7 * 3600, personId, linkId, TransportMode.walk, TransportMode.walk));
+			eventsManager.processEvent(new TeleportationArrivalEvent(arrivalTime, personId, 1000.0, TransportMode.walk));
+			eventsManager.processEvent(new PersonArrivalEvent(arrivalTime, personId, linkId, TransportMode.walk));
+			eventsManager.processEvent(new ActivityStartEvent(arrivalTime, personId, linkId, null, "work"));
+			eventsManager.processEvent(new PersonMoneyEvent(arrivalTime, personId, -1.0, "fare", null));
+		}
+		eventsManager.finishProcessing();
+		eventsToActivities.finish();
+		sf.finishScoringFunctions();
+	}
+
+	private static List<String> runPartitionedScoring(int numberOfPartitions) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Network network = scenario.getNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.create(1, Node.class), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.create(2, Node.class), new Coord(1000, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.create(3, Node.class), new Coord(2000, 0));
+		Node n4 = NetworkUtils.createAndAddNode(network, Id.create(4, Node.class), new Coord(3000, 0));
+		Id<Link> l1 = NetworkUtils.createAndAddLink(network, Id.create(1, Link.class), n1, n2, 1000, 10, 1000, 1).getId();
+		Id<Link> l2 = NetworkUtils.createAndAddLink(network, Id.create(2, Link.class), n2, n3, 1000, 10, 1000, 1).getId();
+		Id<Link> l3 = NetworkUtils.createAndAddLink(network, Id.create(3, Link.class), n3, n4, 1000, 10, 1000, 1).getId();
+
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		for (int i = 0; i < 7; i++) {
+			population.addPerson(pf.createPerson(Id.create(i, Person.class)));
+		}
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsToActivities eventsToActivities = new EventsToActivities();
+		EventsToLegs eventsToLegs = new EventsToLegs(scenario);
+		List<String> experiencedLegs = new ArrayList<>();
+		eventsToLegs.addLegHandler(leg -> {
+			synchronized (experiencedLegs) {
+				experiencedLegs.add(leg.getAgentId() + " " + leg.getLeg().getMode() + " " + leg.getLeg().getRoute().getDistance());
+			}
+		});
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs,
+				population, agentId -> new DescribingScoringFunction(), numberOfPartitions, false);
+		controlerListenerManager.fireControlerIterationStartsEvent(0, false);
+
+		eventsManager.initProcessing();
+		for (int i = 0; i < 7; i++) {
+			// odd persons are passengers of the next lower even person
+			Id<Person> personId = Id.create(i, Person.class);
+			Id<Vehicle> vehicleId = Id.create(i - i % 2, Vehicle.class);
+			double time = 7 * 3600 + i;
+			eventsManager.processEvent(new ActivityEndEvent(time, personId, l1, null, "home"));
+			eventsManager.processEvent(new PersonDepartureEvent(time, personId, l1, i % 2 == 0 ? "car" : "ride", "car"));
+			eventsManager.processEvent(new PersonEntersVehicleEvent(time, personId, vehicleId));
+		}
+		for (int i = 0; i < 7; i += 2) {
+			Id<Person> driverId = Id.create(i, Person.class);
+			Id<Vehicle> vehicleId = Id.create(i, Vehicle.class);
+			eventsManager.processEvent(new VehicleEntersTrafficEvent(7 * 3600 + 10, driverId, l1, vehicleId, "car", 0.5));
+			eventsManager.processEvent(new LinkEnterEvent(7 * 3600 + 100, vehicleId, l2));
+			eventsManager.processEvent(new LinkEnterEvent(7 * 3600 + 200, vehicleId, l3));
+			eventsManager.processEvent(new VehicleLeavesTrafficEvent(7 * 3600 + 300, driverId, l3, vehicleId, "car", 0.25));
+		}
+		for (int i = 0; i < 7; i++) {
+			Id<Person> personId = Id.create(i, Person.class);
+			eventsManager.processEvent(new PersonArrivalEvent(7 * 3600 + 300, personId, l3, i % 2 == 0 ? "car" : "ride"));
+			eventsManager.processEvent(new ActivityStartEvent(7 * 3600 + 300, personId, l3, null, "work"));
+			eventsManager.processEvent(new PersonMoneyEvent(7 * 3600 + 300, personId, -i, "toll", null));
+		}
+		eventsManager.finishProcessing();
+		eventsToActivities.finish();
+		sf.finishScoringFunctions();
+
+		List<String> result = new ArrayList<>();
+		for (Person person : population.getPersons().values()) {
+			result.add(person.getId() + ": " + sf.getScoringFunctionForAgent(person.getId()));
+		}
+		experiencedLegs.sort(null);
+		result.addAll(experiencedLegs);
+		return result;
+	}
+
+	private static class DescribingScoringFunction implements ScoringFunction {
+
+		private final StringBuilder description = new StringBuilder();
+
+		@Override
+		public void handleActivity(Activity activity) {
+			this.description.append(" act ").append(activity.getType()).append(' ').append(activity.getStartTime()).append(' ').append(activity.getEndTime());
+		}
+
+		@Override
+		public void handleLeg(Leg leg) {
+			this.description.append(" leg ").append(leg.getMode()).append(' ').append(leg.getTravelTime()).append(' ').append(leg.getRoute().getRouteDescription())
+					.append(' ').append(leg.getRoute().getDistance());
+		}
+
+		@Override
+		public void handleTrip(TripStructureUtils.Trip trip) {
+			this.description.append(" trip ").append(trip.getTripElements().size());
+		}
+
+		@Override
+		public void agentStuck(double time) {
+			this.description.append(" stuck");
+		}
+
+		@Override
+		public void addMoney(double amount) {
+			this.description.append(" money ").append(amount);
+		}
+
+		@Override
+		public void addScore(double amount) {
+			this.description.append(" score ").append(amount);
+		}
+
+		@Override
+		public void finish() {
+			this.description.append(" finish");
+		}
+
+		@Override
+		public double getScore() {
+			return 0;
+		}
+
+		@Override
+		public void handleEvent(Event event) {
+			this.description.append(" event ").append(event.getEventType());
+		}
+
+		@Override
+		public String toString() {
+			return this.description.toString();
+		}
+	}
+
 	private static class RecordingScoringFunction implements ScoringFunction {
 
 		int tripCounter = 0;
@@ -37,6 +37,7 @@ import org.matsim.api.core.v01.events.Event;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
@@ -576,4 +577,68 @@ public class TravelTimeCalculatorTest extends MatsimTestCase {
 		Assert.assertEquals("Filtering analyzed transport modes is enabled, but no modes set. Therefore, use default (=car)", 100.0, 
 				ttc.getLinkTravelTimes().getLinkTravelTime(link2, 200, null, null), 1e-8);
 	}
+
+	/**
+	 * Sharded collection must result in exactly the same travel times as the calculator handling all events itself,
+	 * also over several iterations.
+	 */
+	public void testGetLinkTravelTime_Shards() {
+		Network network = NetworkUtils.createNetwork();
+		Node previousNode = network.getFactory().createNode(Id.create(0, Node.class), new Coord(0, 0));
+		network.addNode(previousNode);
+		for (int i = 1; i <= 7; i++) {
+			Node node = network.getFactory().createNode(Id.create(i, Node.class), new Coord(1000 * i, 0));
+			network.addNode(node);
+			network.addLink(network.getFactory().createLink(Id.create("shard" + i, Link.class), previousNode, node));
+			previousNode = node;
+		}
+
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		config.setFilterModes(true);
+		TravelTimeCalculator.Builder builder = new TravelTimeCalculator.Builder(network);
+		builder.setTimeslice(900);
+		builder.setFilterModes(true);
+		builder.setAnalyzedModes(config.getAnalyzedModes());
+		builder.configure(config);
+		TravelTimeCalculator reference = builder.build();
+		builder.setNumberOfShards(3);
+		TravelTimeCalculator sharded = builder.build();
+
+		EventsManager events = EventsUtils.createParallelEventsManager();
+		reference.addEventHandlers(events);
+		sharded.addEventHandlers(events);
+
+		for (int iteration = 0; iteration < 2; iteration++) {
+			events.resetHandlers(iteration);
+			events.initProcessing();
+			for (int v = 0; v < 40; v++) {
+				Id<Vehicle> vehId = Id.create("shardVeh" + v, Vehicle.class);
+				String mode = v % 5 == 0 ? TransportMode.walk : TransportMode.car;
+				double time = 3600 + 97 * v + 13 * iteration;
+				events.processEvent(new VehicleEntersTrafficEvent(time, Id.create(v, Person.class), Id.create("shard1", Link.class), vehId, mode, 1.0));
+				for (int i = 1; i <= 7; i++) {
+					Id<Link> linkId = Id.create("shard" + i, Link.class);
+					if (i > 1) {
+						events.processEvent(new LinkEnterEvent(time, vehId, linkId));
+					}
+					if (v % 7 == 0 && i == 4) {
+						events.processEvent(new VehicleArrivesAtFacilityEvent(time + 10, vehId, Id.create("stop", TransitStopFacility.class), 0));
+					}
+					time += 60 + (v * 31 + i * 17) % 300;
+					events.processEvent(new LinkLeaveEvent(time, vehId, linkId));
+				}
+				events.processEvent(new VehicleLeavesTrafficEvent(time, Id.create(v, Person.class), Id.create("shard7", Link.class), vehId, mode, 1.0));
+			}
+			events.finishProcessing();
+
+			for (Link link : network.getLinks().values()) {
+				for (double time = 0; time < 30 * 3600; time += 300) {
+					Assert.assertEquals("wrong travel time on link " + link.getId() + " at " + time + " in iteration " + iteration,
+							reference.getLinkTravelTimes().getLinkTravelTime(link, time, null, null),
+							sharded.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), 1e-8);
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,156 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.core.utils.geometry.CoordUtils;
+
+public class PackedRTreeTest {
+
+	@Test
+	public void testEmpty() {
+		PackedRTree<String> tree = new PackedRTree.Builder<String>().build();
+		Assert.assertEquals(0, tree.size());
+		Assert.assertNull(tree.getClosest(0, 0));
+		Assert.assertTrue(tree.getDisk(0, 0, 100).isEmpty());
+	}
+
+	@Test
+	public void testSingleItem() {
+		PackedRTree<String> tree = new PackedRTree.Builder<String>().put(10, 20, "a").build();
+		Assert.assertEquals(1, tree.size());
+		Assert.assertEquals("a", tree.getClosest(-1000, 500));
+		Assert.assertEquals(1, tree.getDisk(10, 25, 5).size());
+		Assert.assertEquals(0, tree.getDisk(10, 25, 4.9).size());
+		Assert.assertEquals(10.0, tree.getMinEasting(), 0.0);
+		Assert.assertEquals(20.0, tree.getMaxNorthing(), 0.0);
+	}
+
+	@Test
+	public void testGetClosest_sameLocation() {
+		PackedRTree<String> tree = new PackedRTree.Builder<String>()
+				.put(0, 0, "a")
+				.put(10, 10, "b")
+				.put(10, 10, "c")
+				.put(20, 20, "d")
+				.build();
+		// with the same distance, the item added first is returned
+		Assert.assertEquals("b", tree.getClosest(11, 11));
+		Assert.assertEquals("b", tree.getClosest(15, 15));
+	}
+
+	@Test
+	public void testQueries_sameAsBruteForce() {
+		Random random = new Random(20210301);
+		List<Coord> coords = new ArrayList<>();
+		PackedRTree.Builder<Coord> builder = new PackedRTree.Builder<>(10, 4);
+		for (int i = 0; i < 5000; i++) {
+			Coord coord = new Coord(random.nextDouble() * 10000, random.nextDouble() * 5000);
+			coords.add(coord);
+			builder.put(coord.getX(), coord.getY(), coord);
+		}
+		PackedRTree<Coord> tree = builder.build();
+		Assert.assertEquals(coords, tree.values());
+
+		for (int i = 0; i < 200; i++) {
+			Coord query = new Coord(random.nextDouble() * 12000 - 1000, random.nextDouble() * 7000 - 1000);
+
+			Coord expectedClosest = null;
+			double bestDistance = Double.POSITIVE_INFINITY;
+			Set<Coord> expectedDisk = new HashSet<>();
+			Set<Coord> expectedRing = new HashSet<>();
+			for (Coord coord : coords) {
+				double distance = CoordUtils.calcEuclideanDistance(coord, query);
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					expectedClosest = coord;
+				}
+				if (distance <= 500) {
+					expectedDisk.add(coord);
+				}
+				if (distance >= 300 && distance <= 700) {
+					expectedRing.add(coord);
+				}
+			}
+			Assert.assertSame(expectedClosest, tree.getClosest(query.getX(), query.getY()));
+			Assert.assertEquals(expectedDisk, new HashSet<>(tree.getDisk(query.getX(), query.getY(), 500)));
+			Assert.assertEquals(expectedRing, new HashSet<>(tree.getRing(query.getX(), query.getY(), 300, 700)));
+		}
+	}
+
+	@Test
+	public void testGetClosest_withDistanceFunction() {
+		// horizontal and vertical line segments, stored with their bounding box
+		Random random = new Random(4711);
+		List<double[]> segments = new ArrayList<>();
+		PackedRTree.Builder<double[]> builder = new PackedRTree.Builder<>();
+		for (int i = 0; i < 2000; i++) {
+			double x = random.nextDouble() * 10000;
+			double y = random.nextDouble() * 10000;
+			double length = random.nextDouble() * 500;
+			double[] segment = random.nextBoolean() ? new double[] {x, y, x + length, y} : new double[] {x, y, x, y + length};
+			segments.add(segment);
+			builder.put(segment[0], segment[1], segment[2], segment[3], segment);
+		}
+		builder.setDistanceFunction(PackedRTreeTest::calcSegmentDistance);
+		PackedRTree<double[]> tree = builder.build();
+
+		for (int i = 0; i < 200; i++) {
+			double x = random.nextDouble() * 10000;
+			double y = random.nextDouble() * 10000;
+			double[] expected = null;
+			double bestDistance = Double.POSITIVE_INFINITY;
+			for (double[] segment : segments) {
+				double distance = calcSegmentDistance(segment, x, y);
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					expected = segment;
+				}
+			}
+			Assert.assertSame(expected, tree.getClosest(x, y));
+			Collection<double[]> disk = tree.getDisk(x, y, bestDistance);
+			Assert.assertTrue(disk.contains(expected));
+		}
+	}
+
+	private static double calcSegmentDistance(double[] segment, double x, double y) {
+		double dx = Math.max(0, Math.max(segment[0] - x, x - segment[2]));
+		double dy = Math.max(0, Math.max(segment[1] - y, y - segment[3]));
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBuilder_onlyOnce() {
+		PackedRTree.Builder<String> builder = new PackedRTree.Builder<>();
+		builder.put(0, 0, "a");
+		builder.build();
+		builder.put(1, 1, "b");
+	}
+
+}
@@ -0,0 +1,188 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.Attributes;
+
+public class FastXmlParserTest {
+
+	private static final String POPULATION = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+			"<!DOCTYPE population SYSTEM \"http://www.matsim.org/files/dtd/population_v6.dtd\">\n\n" +
+			"<population>\n" +
+			"\t<attributes>\n" +
+			"\t\t<attribute name=\"coordinateReferenceSystem\" class=\"java.lang.String\">Atlantis</attribute>\n" +
+			"\t</attributes>\n" +
+			"<!-- ====================================================================== -->\n" +
+			"\t<person id=\"1\">\n" +
+			"\t\t<attributes>\n" +
+			"\t\t\t<attribute name=\"empty\" class=\"java.lang.String\">  </attribute>\n" +
+			"\t\t\t<attribute name=\"name\" class=\"java.lang.String\">José &amp; Müller ☃ 🚗</attribute>\n" +
+			"\t\t</attributes>\n" +
+			"\t\t<plan score=\"123.4\">\n" +
+			"\t\t\t<activity type=\"h\" link=\"1\" x=\"-25000.0\" y=\"0.0\" end_time=\"06:00:00\" >\n" +
+			"\t\t\t</activity>\n" +
+			"\t\t\t<leg mode=\"car\" dep_time=\"06:00:00\">\n" +
+			"\t\t\t\t<route type=\"links\" start_link=\"1\" end_link=\"20\">1 6 15 20</route>\n" +
+			"\t\t\t</leg>\n" +
+			"\t\t\t<activity type='w' link=\"20\" x=\"10000.0\"\r\n y=\"0.0\" />\n" +
+			"\t\t</plan>\n" +
+			"\t\t<plan selected=\"yes\">\n" +
+			"\t\t\t<attributes><attribute name=\"cdata\" class=\"java.lang.String\"><![CDATA[some <tags> & ]]]]></attribute></attributes>\n" +
+			"\t\t</plan>\n" +
+			"\t</person>\n" +
+			"</population>\n";
+
+	private static final String NETWORK = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+			"<!DOCTYPE network SYSTEM \"http://www.matsim.org/files/dtd/network_v2.dtd\">\n" +
+			"<network name=\"test network\">\n" +
+			"\t<nodes>\n" +
+			"\t\t<node id=\"1\" x=\"0.0\" y=\"0.0\" />\n" +
+			"\t\t<node id=\"2\" x=\"1000.0\" y=\"0.0\" />\n" +
+			"\t</nodes>\n" +
+			"\t<links capperiod=\"02:00:00\">\n" +
+			"\t\t<link id=\"1\" from=\"1\" to=\"2\" length=\"1000.0\" freespeed=\"27.78\" capacity=\"3600.0\" permlanes=\"1.0\" />\n" +
+			"\t\t<link id=\"2\" from=\"2\" to=\"1\" length=\"1000.0\" freespeed=\"27.78\" capacity=\"3600.0\" permlanes=\"1.0\" modes=\"car,bike\" />\n" +
+			"\t</links>\n" +
+			"</network>\n";
+
+	private static final String EVENTS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+			"<events version=\"1.0\">\n" +
+			"\t<event time=\"21600.0\" type=\"actend\" person=\"1\" link=\"1\" actType=\"h\"  />\n" +
+			"\t<event time=\"21600.0\" type=\"departure\" person=\"1\" link=\"1\" legMode=\"car&quot;&#x41;&#66;\"  />\n" +
+			"</events>\n";
+
+	@Test
+	public void testPopulation_sameAsSax() {
+		assertSameCallbacks(POPULATION, false);
+	}
+
+	@Test
+	public void testNetwork_sameAsSax() {
+		assertSameCallbacks(NETWORK, false);
+	}
+
+	@Test
+	public void testEvents_sameAsSax() {
+		assertSameCallbacks(EVENTS, false);
+	}
+
+	@Test
+	public void testDefaultAttributes() {
+		RecordingParser parser = new RecordingParser(false);
+		parser.parse(new ByteArrayInputStream(NETWORK.getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals("network_v2.dtd", parser.getDoctype());
+		Assert.assertTrue(parser.callbacks.contains("start link [id=1, from=1, to=2, length=1000.0, freespeed=27.78, capacity=3600.0, permlanes=1.0, oneway=1, modes=car] [network, links]"));
+		Assert.assertTrue(parser.callbacks.contains("start links [capperiod=02:00:00, effectivecellsize=7.5, effectivelanewidth=3.75] [network]"));
+	}
+
+	@Test
+	public void testCanParse() throws IOException {
+		Assert.assertTrue(canParse(POPULATION, false, false));
+		Assert.assertTrue(canParse(NETWORK, false, false));
+		Assert.assertTrue(canParse(EVENTS, false, false));
+		Assert.assertFalse("population would be validated", canParse(POPULATION, true, false));
+		Assert.assertFalse("network would be validated", canParse(NETWORK, true, false));
+		Assert.assertFalse("events would be validated", canParse(EVENTS, true, false));
+		Assert.assertFalse("unknown doctype", canParse(NETWORK.replace("network_v2.dtd", "network_v1.dtd"), false, false));
+		Assert.assertFalse("internal subset", canParse(NETWORK.replace("network_v2.dtd\">", "network_v2.dtd\" [ <!ENTITY x \"y\"> ]>"), false, false));
+		Assert.assertFalse("other encoding", canParse(EVENTS.replace("utf-8", "ISO-8859-1"), false, false));
+		Assert.assertTrue("other encoding, but forced to UTF-8", canParse(EVENTS.replace("utf-8", "ISO-8859-1"), false, true));
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void testMismatchingEndTag() {
+		RecordingParser parser = new RecordingParser(false);
+		parser.parse(new ByteArrayInputStream(EVENTS.replace("</events>", "</event>").getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void testUnclosedElement() {
+		RecordingParser parser = new RecordingParser(false);
+		parser.parse(new ByteArrayInputStream(EVENTS.replace("</events>", "").getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static boolean canParse(String xml, boolean isValidating, boolean isUtf8) throws IOException {
+		BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+		boolean canParse = FastXmlParser.canParse(in, isValidating, isUtf8);
+		Assert.assertEquals("stream must be reset", '<', in.read());
+		return canParse;
+	}
+
+	private static void assertSameCallbacks(String xml, boolean isValidating) {
+		RecordingParser sax = new RecordingParser(isValidating);
+		sax.setFastParsing(false);
+		sax.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+		RecordingParser fast = new RecordingParser(isValidating);
+		fast.setFastParsing(true);
+		fast.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+		Assert.assertEquals(sax.getDoctype(), fast.getDoctype());
+		Assert.assertEquals(sax.callbacks, fast.callbacks);
+		Assert.assertEquals(1, fast.startDocumentCount);
+		Assert.assertEquals(1, fast.endDocumentCount);
+	}
+
+	private static class RecordingParser extends MatsimXmlParser {
+
+		private final List<String> callbacks = new ArrayList<>();
+		private int startDocumentCount = 0;
+		private int endDocumentCount = 0;
+
+		RecordingParser(boolean isValidating) {
+			setValidating(isValidating);
+		}
+
+		@Override
+		public void startDocument() {
+			this.startDocumentCount++;
+		}
+
+		@Override
+		public void endDocument() {
+			this.endDocumentCount++;
+		}
+
+		@Override
+		public void startTag(String name, Attributes atts, Stack<String> context) {
+			List<String> attributes = new ArrayList<>();
+			for (int i = 0; i < atts.getLength(); i++) {
+				attributes.add(atts.getQName(i) + "=" + atts.getValue(i));
+			}
+			this.callbacks.add("start " + name + " " + attributes + " " + context);
+		}
+
+		@Override
+		public void endTag(String name, String content, Stack<String> context) {
+			this.callbacks.add("end " + name + " [" + content + "] " + context);
+		}
+	}
+
+}
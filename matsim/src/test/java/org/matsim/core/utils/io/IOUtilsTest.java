@@ -213,6 +213,37 @@ public class IOUtilsTest {
 		Assert.assertTrue("compressed file should be less than 50 bytes, but is " + file.length(), file.length() < 50);
 	}
 
+	@Test
+	public void testGetBufferedWriter_gzipped_multithreaded() throws IOException {
+		String filename = this.utils.getOutputDirectory() + "test.txt.gz";
+		URL url = IOUtils.getFileUrl(filename);
+		// more than one block, so the file consists of several gzip members
+		int lines = 3 * ParallelGZIPOutputStream.DEFAULT_BLOCK_SIZE / 20;
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(url, IOUtils.CHARSET_UTF8, false, 4)) {
+			for (int i = 0; i < lines; i++) {
+				writer.write("line " + i);
+				writer.write(IOUtils.NATIVE_NEWLINE);
+			}
+		}
+		try (BufferedReader reader = IOUtils.getBufferedReader(url)) {
+			for (int i = 0; i < lines; i++) {
+				Assert.assertEquals("line " + i, reader.readLine());
+			}
+			Assert.assertNull(reader.readLine());
+		}
+	}
+
+	@Test
+	public void testGetBufferedWriter_zst_multithreaded() throws IOException {
+		String filename = this.utils.getOutputDirectory() + "test.txt.zst";
+		URL url = IOUtils.getFileUrl(filename);
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(url, IOUtils.CHARSET_UTF8, false, 2)) {
+			writer.write("12345678901234567890123456789012345678901234567890");
+		}
+		String content = IOUtils.getBufferedReader(url).readLine();
+		Assert.assertEquals("12345678901234567890123456789012345678901234567890", content);
+	}
+
 	@Test(expected = UncheckedIOException.class)
 	public void testGetBufferedWriter_append_lz4() throws IOException {
 		String filename = this.utils.getOutputDirectory() + "test.txt.lz4";
@@ -0,0 +1,164 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+public class ParallelDecompressingInputStreamTest {
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	@Test
+	public void testGzip_parallelMembers() throws IOException {
+		byte[] data = createData(10 * BLOCK_SIZE + 123);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new ParallelGZIPOutputStream(compressed, 4, BLOCK_SIZE)) {
+			out.write(data);
+		}
+		byte[] bytes = compressed.toByteArray();
+
+		Assert.assertArrayEquals(data, readAll(new ParallelDecompressingInputStream(new ByteArrayInputStream(bytes), ParallelDecompressingInputStream.Format.GZIP, 4)));
+		// the members must still be readable by the standard implementation
+		Assert.assertArrayEquals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(bytes))));
+	}
+
+	@Test
+	public void testGzip_standardFile() throws IOException {
+		byte[] data = createData(5 * BLOCK_SIZE);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(data);
+		}
+		Assert.assertArrayEquals(data, readAll(new ParallelDecompressingInputStream(new ByteArrayInputStream(compressed.toByteArray()), ParallelDecompressingInputStream.Format.GZIP, 4)));
+	}
+
+	@Test
+	public void testGzip_emptyFile() throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		new ParallelGZIPOutputStream(compressed, 2, BLOCK_SIZE).close();
+		Assert.assertEquals(0, readAll(new ParallelDecompressingInputStream(new ByteArrayInputStream(compressed.toByteArray()), ParallelDecompressingInputStream.Format.GZIP, 2)).length);
+	}
+
+	@Test
+	public void testZstd_multipleFrames() throws IOException {
+		byte[] data = createData(3 * BLOCK_SIZE + 17);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		int offset = 0;
+		while (offset < data.length) {
+			int length = Math.min(BLOCK_SIZE, data.length - offset);
+			// each stream writes an independent frame
+			ZstdOutputStream out = new ZstdOutputStream(new NonClosingOutputStream(compressed));
+			out.write(data, offset, length);
+			out.close();
+			offset += length;
+		}
+		Assert.assertArrayEquals(data, readAll(new ParallelDecompressingInputStream(new ByteArrayInputStream(compressed.toByteArray()), ParallelDecompressingInputStream.Format.ZSTD, 3)));
+	}
+
+	@Test
+	public void testClose_beforeEnd() throws IOException, InterruptedException {
+		byte[] data = createData(20 * BLOCK_SIZE);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new ParallelGZIPOutputStream(compressed, 2, BLOCK_SIZE)) {
+			out.write(data);
+		}
+		Thread readerThread;
+		try (InputStream in = new ParallelDecompressingInputStream(new ByteArrayInputStream(compressed.toByteArray()), ParallelDecompressingInputStream.Format.GZIP, 2)) {
+			Assert.assertEquals(data[0], (byte) in.read());
+			readerThread = Thread.getAllStackTraces().keySet().stream()
+					.filter(t -> t.getName().startsWith("ParallelDecompressingInputStream-") && t.isAlive())
+					.findFirst().orElse(null);
+		}
+		// the reader thread is blocked by the full queue until the stream is closed
+		if (readerThread != null) {
+			readerThread.join(5000);
+			Assert.assertFalse(readerThread.isAlive());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testGzip_corruptData() throws IOException {
+		byte[] data = createData(2 * BLOCK_SIZE);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new ParallelGZIPOutputStream(compressed, 2, BLOCK_SIZE)) {
+			out.write(data);
+		}
+		byte[] bytes = compressed.toByteArray();
+		bytes[ParallelGZIPOutputStream.HEADER_SIZE + 10] ^= 0x55;
+		readAll(new ParallelDecompressingInputStream(new ByteArrayInputStream(bytes), ParallelDecompressingInputStream.Format.GZIP, 2));
+	}
+
+	private static byte[] createData(int length) {
+		// somewhat compressible data, similar to text
+		Random random = new Random(4711);
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) ('a' + random.nextInt(8));
+		}
+		return data;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		try (InputStream is = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[7919];
+			int count;
+			while ((count = is.read(buffer)) > 0) {
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private static class NonClosingOutputStream extends OutputStream {
+		private final OutputStream delegate;
+
+		NonClosingOutputStream(OutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.delegate.write(b, off, len);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
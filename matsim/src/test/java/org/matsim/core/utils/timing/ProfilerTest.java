@@ -0,0 +1,78 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2021 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.timing;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ProfilerTest {
+
+	@After
+	public void tearDown() {
+		Profiler.setEnabled(false);
+		Profiler.snapshotAndReset();
+	}
+
+	@Test
+	public void testDisabledTimerRecordsNothing() {
+		Profiler.snapshotAndReset();
+		Profiler.Metric timer = Profiler.timer("test", "disabled");
+		long start = timer.start();
+		Assert.assertEquals(0, start);
+		timer.stop(start);
+		Assert.assertTrue(Profiler.snapshotAndReset().isEmpty());
+	}
+
+	@Test
+	public void testSnapshotAndReset() {
+		Profiler.snapshotAndReset();
+		Profiler.setEnabled(true);
+		Profiler.Metric timer = Profiler.timer("test", "timer");
+		Assert.assertSame(timer, Profiler.timer("test", "timer"));
+		for (int i = 0; i < 3; i++) {
+			timer.stop(timer.start());
+		}
+		Profiler.Metric gauge = Profiler.gauge("test", "gauge");
+		gauge.record(5);
+		gauge.record(2);
+
+		List<Profiler.MetricValues> values = Profiler.snapshotAndReset();
+		Assert.assertEquals(2, values.size());
+		Profiler.MetricValues gaugeValues = values.get(0);
+		Assert.assertEquals(Profiler.Kind.gauge, gaugeValues.getKind());
+		Assert.assertEquals(2, gaugeValues.getCount());
+		Assert.assertEquals(7, gaugeValues.getSum());
+		Assert.assertEquals(5, gaugeValues.getMax());
+		Profiler.MetricValues timerValues = values.get(1);
+		Assert.assertEquals("timer", timerValues.getName());
+		Assert.assertEquals(3, timerValues.getCount());
+		Assert.assertTrue(timerValues.getSum() >= timerValues.getMax());
+
+		// the metrics are reset, but can still be used
+		Assert.assertTrue(Profiler.snapshotAndReset().isEmpty());
+		gauge.record(1);
+		Assert.assertEquals(1, Profiler.snapshotAndReset().get(0).getMax());
+	}
+
+}